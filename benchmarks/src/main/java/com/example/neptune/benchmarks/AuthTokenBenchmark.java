@@ -0,0 +1,66 @@
+package com.example.neptune.benchmarks;
+
+import com.example.neptune.NeptuneAuthToken;
+import org.neo4j.driver.AuthToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call SigV4 signing versus the cached signature path of NeptuneAuthToken.
+ * Signing is local, so no endpoint is involved; the contended variants run on 8 threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthTokenBenchmark {
+    private NeptuneAuthToken perCall;
+    private NeptuneAuthToken cached;
+
+    @Setup
+    public void setUp() {
+        AwsCredentialsProvider credentials =
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDEXAMPLE", "secret"));
+        perCall = new NeptuneAuthToken("us-east-1", "https://localhost:8182", credentials, Duration.ZERO);
+        cached = new NeptuneAuthToken("us-east-1", "https://localhost:8182", credentials);
+    }
+
+    @Benchmark
+    public AuthToken perCallSigning() {
+        return perCall.toAuthToken();
+    }
+
+    @Benchmark
+    public AuthToken cachedSignature() {
+        return cached.toAuthToken();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AuthToken perCallSigningContended() {
+        return perCall.toAuthToken();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AuthToken cachedSignatureContended() {
+        return cached.toAuthToken();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.neptune.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 when any benchmark present in
+ * both got slower than the threshold allows, so it can gate a release build.
+ * <p>
+ * Usage: {@code BenchmarkCompare <baseline.json> <current.json> [threshold-percent]}
+ * (default threshold 10%). Throughput modes regress when the score drops; time modes
+ * regress when it rises.
+ */
+public final class BenchmarkCompare {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    record Score(String mode, double score, String unit) {
+    }
+
+    private BenchmarkCompare() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkCompare <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null || before.score() == 0) {
+                System.out.printf("%-80s %14.3f %s (new)%n", entry.getKey(), after.score(), after.unit());
+                continue;
+            }
+            double change = (after.score() - before.score()) / before.score() * 100;
+            double slowdown = "thrpt".equals(after.mode()) ? -change : change;
+            boolean regressed = slowdown > threshold;
+            regressions += regressed ? 1 : 0;
+            System.out.printf("%-80s %14.3f -> %14.3f %s (%+.1f%%)%s%n", entry.getKey(), before.score(),
+                    after.score(), after.unit(), change, regressed ? "  REGRESSION" : "");
+        }
+
+        System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            // JMH writes NaN score errors for single-iteration runs
+            JsonReader json = new JsonReader(reader);
+            json.setStrictness(Strictness.LENIENT);
+            for (JsonElement element : JsonParser.parseReader(json).getAsJsonArray()) {
+                JsonObject result = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+                if (result.has("params")) {
+                    new TreeMap<>(result.getAsJsonObject("params").asMap())
+                            .forEach((name, value) -> key.append(' ').append(name).append('=').append(value.getAsString()));
+                }
+                String mode = result.get("mode").getAsString();
+                JsonObject metric = result.getAsJsonObject("primaryMetric");
+                scores.put(key.append(" [").append(mode).append(']').toString(), new Score(mode,
+                        metric.get("score").getAsDouble(), metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.neptune.benchmarks;
+
+import com.example.neptune.ResultMapper;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bolt record decoding and mapping through the Neo4j driver, the path NeptuneBoltDemo uses,
+ * against an in-process Bolt stub. Compares key lookups with index lookups and with
+ * ResultMapper, and collecting the whole result with streaming it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoltRecordMappingBenchmark {
+    private static final Query QUERY =
+            new Query("MATCH (p:Person) RETURN p.name as name, p.age as age LIMIT $limit", Map.of("limit", 0));
+
+    record Person(String name, int age) {
+    }
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private BoltStubServer server;
+    private Driver driver;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<List<Object>> records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            records.add(List.of("person-" + i, (long) (i % 90)));
+        }
+        BoltStubServer.StubResult result = new BoltStubServer.StubResult(List.of("name", "age"), records);
+        server = new BoltStubServer(query -> result);
+        driver = GraphDatabase.driver(server.getUri(), AuthTokens.none(),
+                Config.builder().withoutEncryption().withFetchSize(1000).build());
+        driver.verifyConnectivity();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        driver.close();
+        server.close();
+    }
+
+    @Benchmark
+    public List<Person> listByKey() {
+        try (Session session = driver.session()) {
+            return session.run(QUERY).list(record ->
+                    new Person(record.get("name").asString(), record.get("age").asInt()));
+        }
+    }
+
+    @Benchmark
+    public List<Person> listByMapper() {
+        ResultMapper<Person> mapper = ResultMapper.of(Person.class);
+        try (Session session = driver.session()) {
+            return session.run(QUERY).list(mapper::fromRecord);
+        }
+    }
+
+    @Benchmark
+    public List<Person> listByIndex() {
+        try (Session session = driver.session()) {
+            return session.run(QUERY).list(record ->
+                    new Person(record.get(0).asString(), record.get(1).asInt()));
+        }
+    }
+
+    @Benchmark
+    public void streamByIndex(Blackhole blackhole) {
+        try (Session session = driver.session()) {
+            session.run(QUERY).forEachRemaining(record -> blackhole.consume(map(record)));
+        }
+    }
+
+    private static Person map(Record record) {
+        Value name = record.get(0);
+        Value age = record.get(1);
+        return new Person(name.isNull() ? "Unknown" : name.asString(), age.isNull() ? 0 : age.asInt());
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.neptune.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-process Bolt 4.4 server that answers every RUN with a canned result, so driver-side
+ * record handling can be measured without a Neptune endpoint. It speaks just enough of the
+ * protocol for plaintext, unauthenticated auto-commit and explicit-transaction queries.
+ */
+public final class BoltStubServer implements Closeable {
+    private static final int MAGIC = 0x6060B017;
+    private static final int BOLT_4_4 = 0x00000404;
+
+    private static final byte HELLO = 0x01;
+    private static final byte GOODBYE = 0x02;
+    private static final byte RESET = 0x0F;
+    private static final byte RUN = 0x10;
+    private static final byte BEGIN = 0x11;
+    private static final byte COMMIT = 0x12;
+    private static final byte ROLLBACK = 0x13;
+    private static final byte DISCARD = 0x2F;
+    private static final byte PULL = 0x3F;
+
+    private static final byte SUCCESS = 0x70;
+    private static final byte RECORD = 0x71;
+    private static final byte FAILURE = 0x7F;
+
+    /**
+     * Canned result returned for a query.
+     */
+    public record StubResult(List<String> fields, List<List<Object>> rows) {
+    }
+
+    private final ServerSocket serverSocket;
+    private final Function<String, StubResult> results;
+    private final Thread acceptor;
+
+    public BoltStubServer(Function<String, StubResult> results) throws IOException {
+        this.results = results;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.acceptor = Thread.ofPlatform().daemon().name("bolt-stub-acceptor").start(this::acceptLoop);
+    }
+
+    public String getUri() {
+        return "bolt://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptor.interrupt();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread.ofVirtual().name("bolt-stub-connection").start(() -> serve(socket));
+            } catch (IOException e) {
+                // Socket closed
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            if (!handshake(in, out)) {
+                return;
+            }
+            Connection connection = new Connection(out);
+            while (true) {
+                byte[] message = readMessage(in);
+                PackStream.Structure request =
+                        (PackStream.Structure) PackStream.unpack(new DataInputStream(new ByteArrayInputStream(message)));
+                if (request.signature() == GOODBYE) {
+                    return;
+                }
+                connection.handle(request);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            throw new IllegalStateException("Bolt stub connection failed", e);
+        }
+    }
+
+    private static boolean handshake(DataInputStream in, OutputStream out) throws IOException {
+        if (in.readInt() != MAGIC) {
+            return false;
+        }
+        boolean supported = false;
+        for (int i = 0; i < 4; i++) {
+            int proposal = in.readInt();
+            int major = proposal & 0xFF;
+            int minor = (proposal >> 8) & 0xFF;
+            int range = (proposal >> 16) & 0xFF;
+            supported |= major == 4 && minor >= 4 && minor - range <= 4;
+        }
+        new DataOutputStream(out).writeInt(supported ? BOLT_4_4 : 0);
+        out.flush();
+        return supported;
+    }
+
+    private static byte[] readMessage(DataInputStream in) throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        while (true) {
+            int size = in.readUnsignedShort();
+            if (size == 0) {
+                if (message.size() > 0) {
+                    return message.toByteArray();
+                }
+                continue; // NOOP keep-alive
+            }
+            message.write(in.readNBytes(size));
+        }
+    }
+
+    private final class Connection {
+        private final OutputStream out;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DataOutputStream packer = new DataOutputStream(buffer);
+        private Iterator<List<Object>> pending;
+
+        Connection(OutputStream out) {
+            this.out = out;
+        }
+
+        void handle(PackStream.Structure request) throws IOException {
+            switch (request.signature()) {
+                case HELLO -> success(Map.of("server", "Neo4j/4.4.0", "connection_id", "bolt-stub"));
+                case RUN -> {
+                    StubResult result = results.apply((String) request.fields().get(0));
+                    pending = result.rows().iterator();
+                    success(Map.of("fields", result.fields(), "t_first", 0L));
+                }
+                case PULL -> pull(request);
+                case DISCARD -> {
+                    pending = null;
+                    success(Map.of("type", "r", "t_last", 0L));
+                }
+                case BEGIN, ROLLBACK, RESET -> {
+                    pending = null;
+                    success(Map.of());
+                }
+                case COMMIT -> success(Map.of("bookmark", "bolt-stub:1"));
+                default -> failure("Neo.ClientError.Request.Invalid",
+                        "Unsupported message 0x" + Integer.toHexString(request.signature()));
+            }
+        }
+
+        private void pull(PackStream.Structure request) throws IOException {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> extra = (Map<String, Object>) request.fields().get(0);
+            long n = extra.get("n") instanceof Long limit ? limit : -1;
+            long sent = 0;
+            while (pending != null && pending.hasNext() && (n < 0 || sent < n)) {
+                PackStream.packStructureHeader(packer, 1, RECORD);
+                PackStream.pack(packer, pending.next());
+                flushMessage();
+                sent++;
+            }
+            if (pending != null && pending.hasNext()) {
+                success(Map.of("has_more", true));
+            } else {
+                pending = null;
+                success(Map.of("type", "r", "t_last", 0L, "db", "neo4j"));
+            }
+        }
+
+        private void success(Map<String, Object> metadata) throws IOException {
+            PackStream.packStructureHeader(packer, 1, SUCCESS);
+            PackStream.pack(packer, metadata);
+            flushMessage();
+        }
+
+        private void failure(String code, String message) throws IOException {
+            PackStream.packStructureHeader(packer, 1, FAILURE);
+            PackStream.pack(packer, Map.of("code", code, "message", message));
+            flushMessage();
+        }
+
+        private void flushMessage() throws IOException {
+            byte[] bytes = buffer.toByteArray();
+            buffer.reset();
+            for (int offset = 0; offset < bytes.length; offset += 0xFFFF) {
+                int length = Math.min(0xFFFF, bytes.length - offset);
+                out.write(length >> 8);
+                out.write(length);
+                out.write(bytes, offset, length);
+            }
+            out.write(0);
+            out.write(0);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.neptune.benchmarks;
+
+import com.example.neptune.NeptuneConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration parsing: building NeptuneConfig from application.properties and the
+ * environment, and the per-setting lookups components do when they are created.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigBenchmark {
+    private NeptuneConfig config;
+
+    @Setup
+    public void setUp() {
+        config = NeptuneConfig.fromProperties();
+    }
+
+    @Benchmark
+    public NeptuneConfig fromProperties() {
+        return NeptuneConfig.fromProperties();
+    }
+
+    @Benchmark
+    public int settingLookup() {
+        return config.getIntSetting("neptune.bulk.batch.size", "NEPTUNE_BULK_BATCH_SIZE", 500);
+    }
+}
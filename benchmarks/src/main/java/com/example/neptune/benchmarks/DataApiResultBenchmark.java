@@ -0,0 +1,117 @@
+package com.example.neptune.benchmarks;
+
+import com.example.neptune.ColumnarResult;
+import com.example.neptune.DataApiHttpTransport;
+import com.example.neptune.NeptuneOpenCypherHttpClient;
+import com.example.neptune.QueryTemplateCache;
+import com.example.neptune.ResultMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data API openCypher result handling: the SDK Document tree used by NeptuneDataApiDemo
+ * versus the streaming OpenCypherResultReader, mapping rows to objects by hand, with
+ * ResultMapper, or into columns.
+ * Responses are served by a local HTTP stub; run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataApiResultBenchmark {
+    private static final String QUERY = "MATCH (p:Person) RETURN p.name as name, p.age as age";
+
+    record Person(String name, int age) {
+    }
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private HttpStubServer server;
+    private NeptunedataClient sdkClient;
+    private NeptuneOpenCypherHttpClient streamingClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new HttpStubServer(HttpStubServer.personResponse(rows));
+        sdkClient = NeptunedataClient.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(server.getEndpoint())
+                .credentialsProvider(AnonymousCredentialsProvider.create())
+                .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(DataApiHttpTransport.Settings.defaults()))
+                .build();
+        streamingClient = new NeptuneOpenCypherHttpClient(
+                server.getEndpoint(), "us-east-1", null, new QueryTemplateCache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        streamingClient.close();
+        sdkClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public void sdkDocument(Blackhole blackhole) {
+        Document results = sdkClient.executeOpenCypherQuery(ExecuteOpenCypherQueryRequest.builder()
+                .openCypherQuery(QUERY).build()).results();
+        // The SDK unwraps the "results" member, so this is already the row list
+        for (Document row : results.asList()) {
+            Map<String, Document> rowMap = row.asMap();
+            String name = rowMap.containsKey("name") ? rowMap.get("name").asString() : "Unknown";
+            int age = rowMap.containsKey("age") ? rowMap.get("age").asNumber().intValue() : 0;
+            blackhole.consume(new Person(name, age));
+        }
+    }
+
+    @Benchmark
+    public long streamingRecords(Blackhole blackhole) {
+        return streamingClient.query(QUERY, Map.of(),
+                row -> new Person(row.getString("name", "Unknown"), row.getInt("age", 0)),
+                blackhole::consume);
+    }
+
+    @Benchmark
+    public void sdkDocumentMapper(Blackhole blackhole) {
+        Document results = sdkClient.executeOpenCypherQuery(ExecuteOpenCypherQueryRequest.builder()
+                .openCypherQuery(QUERY).build()).results();
+        ResultMapper<Person> mapper = ResultMapper.of(Person.class);
+        for (Document row : results.asList()) {
+            blackhole.consume(mapper.fromDocument(row));
+        }
+    }
+
+    @Benchmark
+    public long streamingMapper(Blackhole blackhole) {
+        return streamingClient.query(QUERY, Map.of(), ResultMapper.of(Person.class), blackhole::consume);
+    }
+
+    @Benchmark
+    public ColumnarResult streamingColumns() {
+        return streamingClient.queryColumns(QUERY, Map.of(),
+                ColumnarResult.builder().stringColumn("name").longColumn("age"));
+    }
+}
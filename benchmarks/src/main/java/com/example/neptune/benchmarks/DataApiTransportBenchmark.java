@@ -0,0 +1,127 @@
+package com.example.neptune.benchmarks;
+
+import com.example.neptune.DataApiHttpTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.neptunedata.NeptunedataAsyncClient;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryRequest;
+import software.amazon.awssdk.utils.AttributeMap;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data API throughput over each HTTP transport of DataApiHttpTransport, from 8 threads
+ * against a local HTTPS stub, with and without gzip. Every trial prints how many
+ * connections its requests used; a pooling transport needs about one per thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class DataApiTransportBenchmark {
+    private static final ExecuteOpenCypherQueryRequest QUERY = ExecuteOpenCypherQueryRequest.builder()
+            .openCypherQuery("MATCH (p:Person) RETURN p.name as name, p.age as age")
+            .build();
+
+    // The stub's certificate is self-signed
+    private static final AttributeMap TRUST_STUB = AttributeMap.builder()
+            .put(SdkHttpConfigurationOption.TRUST_ALL_CERTIFICATES, true)
+            .build();
+
+    @Param({"apache", "url-connection", "netty", "crt"})
+    public String transport;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"1000"})
+    public int rows;
+
+    private HttpStubServer server;
+    private SdkHttpClient httpClient;
+    private SdkAsyncHttpClient asyncHttpClient;
+    private NeptunedataClient syncClient;
+    private NeptunedataAsyncClient asyncClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = HttpStubServer.https(HttpStubServer.personResponse(rows));
+        DataApiHttpTransport.Transport selected = DataApiHttpTransport.Transport.of(transport);
+        DataApiHttpTransport.Settings defaults = DataApiHttpTransport.Settings.defaults();
+        DataApiHttpTransport.Settings settings = new DataApiHttpTransport.Settings(
+                selected.isAsync() ? defaults.transport() : selected,
+                selected.isAsync() ? selected : defaults.asyncTransport(),
+                defaults.maxConnections(), defaults.connectionTimeout(), defaults.socketTimeout(),
+                defaults.connectionTtl(), defaults.maxIdleTime(), defaults.tcpKeepAlive(), gzip);
+        ClientOverrideConfiguration overrides = DataApiHttpTransport.applyTo(settings,
+                ClientOverrideConfiguration.builder().build());
+
+        if (selected.isAsync()) {
+            asyncHttpClient = DataApiHttpTransport.asyncHttpClientBuilder(settings, 64, 2)
+                    .buildWithDefaults(TRUST_STUB);
+            asyncClient = NeptunedataAsyncClient.builder()
+                    .region(Region.US_EAST_1)
+                    .endpointOverride(server.getEndpoint())
+                    .credentialsProvider(AnonymousCredentialsProvider.create())
+                    .httpClient(asyncHttpClient)
+                    .overrideConfiguration(overrides)
+                    .build();
+        } else {
+            httpClient = DataApiHttpTransport.httpClientBuilder(settings).buildWithDefaults(TRUST_STUB);
+            syncClient = NeptunedataClient.builder()
+                    .region(Region.US_EAST_1)
+                    .endpointOverride(server.getEndpoint())
+                    .credentialsProvider(AnonymousCredentialsProvider.create())
+                    .httpClient(httpClient)
+                    .overrideConfiguration(overrides)
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s (gzip=%s): %d requests over %d connection(s)%n", transport, gzip,
+                server.getRequestCount(), server.getConnectionCount());
+        if (syncClient != null) {
+            syncClient.close();
+            httpClient.close();
+        }
+        if (asyncClient != null) {
+            asyncClient.close();
+            asyncHttpClient.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public Document query() {
+        if (syncClient != null) {
+            return syncClient.executeOpenCypherQuery(QUERY).results();
+        }
+        return asyncClient.executeOpenCypherQuery(QUERY).orTimeout(30, TimeUnit.SECONDS).join().results();
+    }
+}
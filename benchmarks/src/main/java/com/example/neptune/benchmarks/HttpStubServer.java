@@ -0,0 +1,170 @@
+package com.example.neptune.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local HTTP endpoint that answers every request with the same openCypher JSON body,
+ * standing in for the Neptune Data API in benchmarks. The body is gzip-encoded for
+ * requests that accept it, and the server counts requests and distinct client
+ * connections so benchmarks can report connection reuse.
+ */
+public final class HttpStubServer implements Closeable {
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+
+    private final HttpServer server;
+    private final String scheme;
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requests = new AtomicLong();
+
+    static {
+        // Without TCP_NODELAY small responses wait on delayed ACKs and every request costs ~40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public HttpStubServer(byte[] response) throws IOException {
+        this(HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0), "http", response);
+    }
+
+    private HttpStubServer(HttpServer server, String scheme, byte[] response) throws IOException {
+        this.server = server;
+        this.scheme = scheme;
+        byte[] gzipped = gzip(response);
+        // Blocking TLS reads pin virtual threads to their carrier, which can stall every other exchange
+        server.setExecutor(server instanceof HttpsServer
+                ? Executors.newCachedThreadPool()
+                : Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            requests.incrementAndGet();
+            connections.add(exchange.getRemoteAddress());
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] body = response;
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                body = gzipped;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * An HTTPS stub with a freshly generated self-signed certificate for 127.0.0.1, so
+     * clients must be told to trust all certificates.
+     */
+    public static HttpStubServer https(byte[] response) throws IOException {
+        HttpsServer server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(selfSignedContext()));
+        return new HttpStubServer(server, "https", response);
+    }
+
+    public URI getEndpoint() {
+        return URI.create(scheme + "://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Distinct client connections seen so far
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Builds an openCypher response body of {@code rows} rows with a name and an age column.
+     */
+    public static byte[] personResponse(int rows) {
+        StringBuilder json = new StringBuilder(rows * 32).append("{\"results\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"person-").append(i).append("\",\"age\":").append(i % 90).append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * The JDK has no public API to create certificates, so generate the key pair with keytool
+     */
+    private static SSLContext selfSignedContext() throws IOException {
+        Path dir = Files.createTempDirectory("stub-tls");
+        Path keystore = dir.resolve("stub.p12");
+        try {
+            Process keytool = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                    "-genkeypair", "-alias", "stub", "-keyalg", "RSA", "-keysize", "2048",
+                    "-dname", "CN=localhost", "-ext", "SAN=ip:127.0.0.1,dns:localhost", "-validity", "1",
+                    "-storetype", "PKCS12", "-keystore", keystore.toString(),
+                    "-storepass", new String(KEYSTORE_PASSWORD))
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(keytool.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (keytool.waitFor() != 0) {
+                throw new IOException("keytool failed: " + output);
+            }
+
+            KeyStore keys = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(keystore)) {
+                keys.load(in, KEYSTORE_PASSWORD);
+            }
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keys, KEYSTORE_PASSWORD);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), null, null);
+            return context;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating the stub certificate", e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to load the stub certificate", e);
+        } finally {
+            Files.deleteIfExists(keystore);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
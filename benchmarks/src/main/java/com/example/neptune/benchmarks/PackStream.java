@@ -0,0 +1,163 @@
+package com.example.neptune.benchmarks;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal PackStream codec, covering the value types the Bolt stub exchanges with the driver:
+ * null, booleans, integers, floats, strings, lists, maps and structure headers.
+ */
+final class PackStream {
+    record Structure(byte signature, List<Object> fields) {
+    }
+
+    private PackStream() {
+    }
+
+    static void pack(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(0xC0);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? 0xC3 : 0xC2);
+        } else if (value instanceof Integer || value instanceof Long) {
+            packInteger(out, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(0xC1);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            packHeader(out, bytes.length, 0x80, 0xD0, 0xD1, 0xD2);
+            out.write(bytes);
+        } else if (value instanceof List<?> list) {
+            packHeader(out, list.size(), 0x90, 0xD4, 0xD5, 0xD6);
+            for (Object item : list) {
+                pack(out, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            packHeader(out, map.size(), 0xA0, 0xD8, 0xD9, 0xDA);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                pack(out, entry.getKey().toString());
+                pack(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported PackStream value: " + value.getClass().getName());
+        }
+    }
+
+    static void packStructureHeader(DataOutputStream out, int size, byte signature) throws IOException {
+        out.writeByte(0xB0 | size);
+        out.writeByte(signature);
+    }
+
+    static Object unpack(DataInputStream in) throws IOException {
+        int marker = in.readUnsignedByte();
+        int high = marker & 0xF0;
+        if (marker < 0x80) {
+            return (long) marker;
+        }
+        if (marker >= 0xF0) {
+            return (long) (byte) marker;
+        }
+        if (high == 0x80) {
+            return unpackString(in, marker & 0x0F);
+        }
+        if (high == 0x90) {
+            return unpackList(in, marker & 0x0F);
+        }
+        if (high == 0xA0) {
+            return unpackMap(in, marker & 0x0F);
+        }
+        if (high == 0xB0) {
+            int size = marker & 0x0F;
+            byte signature = in.readByte();
+            List<Object> fields = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                fields.add(unpack(in));
+            }
+            return new Structure(signature, fields);
+        }
+        return switch (marker) {
+            case 0xC0 -> null;
+            case 0xC1 -> in.readDouble();
+            case 0xC2 -> false;
+            case 0xC3 -> true;
+            case 0xC8 -> (long) in.readByte();
+            case 0xC9 -> (long) in.readShort();
+            case 0xCA -> (long) in.readInt();
+            case 0xCB -> in.readLong();
+            case 0xCC -> in.readNBytes(in.readUnsignedByte());
+            case 0xCD -> in.readNBytes(in.readUnsignedShort());
+            case 0xCE -> in.readNBytes(in.readInt());
+            case 0xD0 -> unpackString(in, in.readUnsignedByte());
+            case 0xD1 -> unpackString(in, in.readUnsignedShort());
+            case 0xD2 -> unpackString(in, in.readInt());
+            case 0xD4 -> unpackList(in, in.readUnsignedByte());
+            case 0xD5 -> unpackList(in, in.readUnsignedShort());
+            case 0xD6 -> unpackList(in, in.readInt());
+            case 0xD8 -> unpackMap(in, in.readUnsignedByte());
+            case 0xD9 -> unpackMap(in, in.readUnsignedShort());
+            case 0xDA -> unpackMap(in, in.readInt());
+            default -> throw new IOException("Unsupported PackStream marker: 0x" + Integer.toHexString(marker));
+        };
+    }
+
+    private static void packInteger(DataOutputStream out, long value) throws IOException {
+        if (value >= -16 && value <= 127) {
+            out.writeByte((int) value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            out.writeByte(0xC8);
+            out.writeByte((int) value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            out.writeByte(0xC9);
+            out.writeShort((int) value);
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            out.writeByte(0xCA);
+            out.writeInt((int) value);
+        } else {
+            out.writeByte(0xCB);
+            out.writeLong(value);
+        }
+    }
+
+    private static void packHeader(DataOutputStream out, int size, int tiny, int marker8, int marker16, int marker32)
+            throws IOException {
+        if (size < 16) {
+            out.writeByte(tiny | size);
+        } else if (size <= 0xFF) {
+            out.writeByte(marker8);
+            out.writeByte(size);
+        } else if (size <= 0xFFFF) {
+            out.writeByte(marker16);
+            out.writeShort(size);
+        } else {
+            out.writeByte(marker32);
+            out.writeInt(size);
+        }
+    }
+
+    private static String unpackString(DataInputStream in, int length) throws IOException {
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static List<Object> unpackList(DataInputStream in, int size) throws IOException {
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(unpack(in));
+        }
+        return list;
+    }
+
+    private static Map<String, Object> unpackMap(DataInputStream in, int size) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put((String) unpack(in), unpack(in));
+        }
+        return map;
+    }
+}
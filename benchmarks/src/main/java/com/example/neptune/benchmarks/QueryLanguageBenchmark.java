@@ -0,0 +1,157 @@
+package com.example.neptune.benchmarks;
+
+import com.example.neptune.BoltQueryExecutor;
+import com.example.neptune.DataApiHttpTransport;
+import com.example.neptune.GraphQueryExecutor;
+import com.example.neptune.GremlinQueryExecutor;
+import com.example.neptune.NeptuneOpenCypherHttpClient;
+import com.example.neptune.NeptuneSparqlHttpClient;
+import com.example.neptune.QueryTemplateCache;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same traversal, the names of the people Alice knows, through each GraphQueryExecutor:
+ * openCypher over Bolt and over HTTP, Gremlin through the Data API and SPARQL. Every executor
+ * gets an equivalent response from an in-process stub, so the scores compare client-side
+ * request and result handling per language; run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryLanguageBenchmark {
+    private static final String CYPHER = "MATCH (p:Person {name: $name})-[:KNOWS]->(f:Person) RETURN f.name AS name";
+    private static final String GREMLIN = "g.V().has('Person','name','Alice').out('KNOWS').hasLabel('Person')"
+            + ".project('name').by('name')";
+    private static final String SPARQL = "PREFIX ex: <http://example.com/> SELECT ?name WHERE { "
+            + "?p a ex:Person ; ex:name \"Alice\" ; ex:knows ?f . ?f a ex:Person ; ex:name ?name }";
+
+    @Param({"bolt", "http", "gremlin", "sparql"})
+    public String executor;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private BoltStubServer boltServer;
+    private Driver driver;
+    private HttpStubServer httpServer;
+    private NeptunedataClient dataClient;
+    private GraphQueryExecutor queries;
+    private String query;
+    private Map<String, Object> parameters;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        parameters = Map.of();
+        switch (executor) {
+            case "bolt" -> {
+                List<List<Object>> records = new ArrayList<>(rows);
+                for (int i = 0; i < rows; i++) {
+                    records.add(List.of("person-" + i));
+                }
+                BoltStubServer.StubResult result = new BoltStubServer.StubResult(List.of("name"), records);
+                boltServer = new BoltStubServer(q -> result);
+                driver = GraphDatabase.driver(boltServer.getUri(), AuthTokens.none(),
+                        Config.builder().withoutEncryption().withFetchSize(1000).build());
+                driver.verifyConnectivity();
+                queries = new BoltQueryExecutor(driver, new QueryTemplateCache());
+                query = CYPHER;
+                parameters = Map.of("name", "Alice");
+            }
+            case "http" -> {
+                httpServer = new HttpStubServer(namesResponse("{\"results\":[", "{\"name\":\"", "\"}", "]}"));
+                queries = new NeptuneOpenCypherHttpClient(
+                        httpServer.getEndpoint(), "us-east-1", null, new QueryTemplateCache());
+                query = CYPHER;
+                parameters = Map.of("name", "Alice");
+            }
+            case "gremlin" -> {
+                httpServer = new HttpStubServer(namesResponse(
+                        "{\"requestId\":\"1\",\"status\":{\"code\":200},\"result\":{\"data\":[",
+                        "{\"name\":\"", "\"}", "],\"meta\":{}}}"));
+                dataClient = NeptunedataClient.builder()
+                        .region(Region.US_EAST_1)
+                        .endpointOverride(httpServer.getEndpoint())
+                        .credentialsProvider(AnonymousCredentialsProvider.create())
+                        .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(DataApiHttpTransport.Settings.defaults()))
+                        .build();
+                queries = new GremlinQueryExecutor(dataClient);
+                query = GREMLIN;
+            }
+            case "sparql" -> {
+                httpServer = new HttpStubServer(namesResponse(
+                        "{\"head\":{\"vars\":[\"name\"]},\"results\":{\"bindings\":[",
+                        "{\"name\":{\"type\":\"literal\",\"value\":\"", "\"}}", "]}}"));
+                queries = new NeptuneSparqlHttpClient(httpServer.getEndpoint(), "us-east-1", null);
+                query = SPARQL;
+            }
+            default -> throw new IllegalArgumentException("Unknown executor: " + executor);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queries.close();
+        if (dataClient != null) {
+            dataClient.close();
+        }
+        if (driver != null) {
+            driver.close();
+        }
+        if (httpServer != null) {
+            httpServer.close();
+        }
+        if (boltServer != null) {
+            try {
+                boltServer.close();
+            } catch (IOException e) {
+                // The stub is going away with the trial anyway
+            }
+        }
+    }
+
+    @Benchmark
+    public long friendNames(Blackhole blackhole) {
+        return queries.execute(query, parameters, row -> blackhole.consume(row.get("name")));
+    }
+
+    private byte[] namesResponse(String open, String rowOpen, String rowClose, String close) {
+        StringBuilder json = new StringBuilder(rows * 48).append(open);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(rowOpen).append("person-").append(i).append(rowClose);
+        }
+        return json.append(close).toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.neptune;
+
+import java.time.Duration;
+
+/**
+ * Limits the requests in flight to one endpoint and adapts the limit to how the endpoint
+ * copes (AIMD). A request that completes within {@code latencyThreshold} while the limit was
+ * at least half used raises the limit by one; a slower request, or one that failed with an
+ * overload error or timeout, cuts it by {@code backoffRatio}. Requests beyond the limit are
+ * rejected at once instead of queueing behind an instance that is already saturated.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Concurrency limit settings, from {@code neptune.concurrency.limit.*}
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                           double backoffRatio) {
+
+        public Settings {
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException(String.format(
+                        "Expected 1 <= min <= initial <= max limit, got %d, %d, %d", minLimit, initialLimit, maxLimit));
+            }
+            if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+                throw new IllegalArgumentException("Latency threshold must be positive: " + latencyThreshold);
+            }
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + backoffRatio);
+            }
+        }
+
+        /**
+         * Settings from config, or null unless {@code neptune.concurrency.limit.enabled} is set
+         */
+        public static Settings fromConfig(NeptuneConfig config) {
+            if (!config.getBooleanSetting("neptune.concurrency.limit.enabled", "NEPTUNE_CONCURRENCY_LIMIT_ENABLED", false)) {
+                return null;
+            }
+            return new Settings(
+                    config.getIntSetting("neptune.concurrency.limit.initial", "NEPTUNE_CONCURRENCY_LIMIT_INITIAL", 20),
+                    config.getIntSetting("neptune.concurrency.limit.min", "NEPTUNE_CONCURRENCY_LIMIT_MIN", 1),
+                    config.getIntSetting("neptune.concurrency.limit.max", "NEPTUNE_CONCURRENCY_LIMIT_MAX", 200),
+                    Duration.ofMillis(config.getLongSetting("neptune.concurrency.limit.latency.threshold.ms",
+                            "NEPTUNE_CONCURRENCY_LIMIT_LATENCY_THRESHOLD_MS", 1000)),
+                    config.getDoubleSetting("neptune.concurrency.limit.backoff.ratio",
+                            "NEPTUNE_CONCURRENCY_LIMIT_BACKOFF_RATIO", 0.9));
+        }
+    }
+
+    private final Settings settings;
+    private final long latencyThresholdNanos;
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(Settings settings) {
+        this.settings = settings;
+        this.latencyThresholdNanos = settings.latencyThreshold().toNanos();
+        this.limit = settings.initialLimit();
+    }
+
+    /**
+     * Take a slot for a request, or return false when the limit is reached. Every granted
+     * slot must be released with {@link #onSample} or {@link #onIgnored()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Release a slot and adjust the limit for how the request went
+     *
+     * @param overloaded whether the request failed in a way that signals overload
+     */
+    public synchronized void onSample(long latencyNanos, boolean overloaded) {
+        int wasInFlight = inFlight--;
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+        } else if (wasInFlight * 2 >= limit) {
+            // Only grow while the current limit is actually being used
+            limit = Math.min(settings.maxLimit(), limit + 1);
+        }
+    }
+
+    /**
+     * Release a slot without adjusting the limit
+     */
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
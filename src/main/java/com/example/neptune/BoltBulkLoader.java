@@ -0,0 +1,281 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Session;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads nodes and edges from CSV/JSONL files over Bolt. Records are grouped by
+ * label (or relationship type) into parameterized {@code UNWIND $rows ...} batches,
+ * which a fixed number of writer threads send concurrently, each on its own session.
+ * <p>
+ * The reader blocks when all writers are busy and the batch queue is full, so memory
+ * stays bounded regardless of file size. Batches that fail with a retryable error
+ * (Neptune's ConcurrentModificationException, transient or connectivity errors) are
+ * retried with jittered exponential backoff; batches that still fail are counted and
+ * logged, and loading continues. If a writer itself fails, e.g. because no session can be
+ * opened, the load stops and the other writers are cancelled.
+ * <p>
+ * Files are loaded one after another, so pass node files before the edge files that
+ * reference them. Node IDs become Neptune vertex IDs ({@code ~id}).
+ */
+public class BoltBulkLoader {
+    private static final Logger logger = LogManager.getLogger(BoltBulkLoader.class);
+
+    private static final long BASE_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5_000;
+    private static final Batch END = new Batch(null, List.of());
+    // How often a reader blocked on a full queue checks that the writers are still running
+    private static final long WRITER_CHECK_MS = 100;
+
+    private final Driver driver;
+    private final int batchSize;
+    private final int writers;
+    private final int maxRetries;
+
+    public BoltBulkLoader(Driver driver, int batchSize, int writers, int maxRetries) {
+        if (batchSize < 1 || writers < 1 || maxRetries < 0) {
+            throw new IllegalArgumentException("Invalid bulk load settings: batchSize=" + batchSize +
+                    ", writers=" + writers + ", maxRetries=" + maxRetries);
+        }
+        this.driver = driver;
+        this.batchSize = batchSize;
+        this.writers = writers;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Create a loader using the {@code neptune.bulk.*} settings from the given config
+     */
+    public static BoltBulkLoader fromConfig(Driver driver, NeptuneConfig config) {
+        return new BoltBulkLoader(driver,
+                config.getIntSetting("neptune.bulk.batch.size", "NEPTUNE_BULK_BATCH_SIZE", 500),
+                config.getIntSetting("neptune.bulk.writers", "NEPTUNE_BULK_WRITERS", 4),
+                config.getIntSetting("neptune.bulk.max.retries", "NEPTUNE_BULK_MAX_RETRIES", 5));
+    }
+
+    /**
+     * Load the given files in order and report throughput across all of them
+     */
+    public BulkLoadReport load(List<Path> files) throws IOException, InterruptedException {
+        Counters counters = new Counters();
+        long start = System.nanoTime();
+        for (Path file : files) {
+            logger.info("Bulk loading {} (batch size {}, {} writers)", file, batchSize, writers);
+            try (BulkRecordReader reader = BulkRecordReader.open(file)) {
+                load(reader, counters);
+            }
+        }
+        BulkLoadReport report = counters.toReport(Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Bulk load finished: {}", report);
+        return report;
+    }
+
+    private void load(BulkRecordReader reader, Counters counters) throws InterruptedException {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(writers * 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(writers,
+                r -> new Thread(r, "neptune-bulk-writer-" + threadIndex.incrementAndGet()));
+        List<Future<?>> workers = new ArrayList<>();
+        boolean queuedAll = false;
+        try {
+            for (int i = 0; i < writers; i++) {
+                workers.add(executor.submit(() -> writeBatches(queue, counters)));
+            }
+
+            Map<StatementShape, List<Map<String, Object>>> pending = new LinkedHashMap<>();
+            while (reader.hasNext()) {
+                BulkRecord record = reader.next();
+                StatementShape shape = StatementShape.of(record);
+                List<Map<String, Object>> rows = pending.computeIfAbsent(shape, s -> new ArrayList<>(batchSize));
+                rows.add(toRow(record));
+                if (rows.size() >= batchSize) {
+                    put(queue, new Batch(shape, rows), workers);
+                    pending.remove(shape);
+                }
+            }
+            for (Map.Entry<StatementShape, List<Map<String, Object>>> entry : pending.entrySet()) {
+                put(queue, new Batch(entry.getKey(), entry.getValue()), workers);
+            }
+            for (int i = 0; i < writers; i++) {
+                put(queue, END, workers);
+            }
+            queuedAll = true;
+        } finally {
+            if (queuedAll) {
+                executor.shutdown();
+            } else {
+                // Reading or a writer failed; the batches still queued are abandoned
+                executor.shutdownNow();
+            }
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk writer failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Queue a batch for the writers. A writer that has failed takes no more batches, so rather
+     * than blocking on a full queue forever once all of them have, fail as soon as one has.
+     */
+    private static void put(BlockingQueue<Batch> queue, Batch batch, List<Future<?>> workers)
+            throws InterruptedException {
+        do {
+            for (Future<?> worker : workers) {
+                // A writer returns normally only after taking its END marker
+                if (worker.isDone()) {
+                    try {
+                        worker.get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Bulk writer failed", e.getCause());
+                    }
+                }
+            }
+        } while (!queue.offer(batch, WRITER_CHECK_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private void writeBatches(BlockingQueue<Batch> queue, Counters counters) {
+        try (Session session = driver.session()) {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END) {
+                    return;
+                }
+                writeBatch(session, batch, counters);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBatch(Session session, Batch batch, Counters counters) throws InterruptedException {
+        Query query = new Query(batch.shape().cypher(), Map.of("rows", batch.rows()));
+        counters.records.add(batch.rows().size());
+        counters.batches.increment();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                session.run(query).consume();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || !NeptuneErrors.isRetryable(e)) {
+                    counters.failedBatches.increment();
+                    counters.failedRecords.add(batch.rows().size());
+                    logger.error("Giving up on {} batch of {} rows after {} attempts: {}",
+                            batch.shape().label(), batch.rows().size(), attempt + 1, e.getMessage());
+                    return;
+                }
+                counters.retries.increment();
+                long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+                long sleep = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+                logger.debug("Retrying {} batch in {} ms (attempt {}): {}",
+                        batch.shape().label(), sleep, attempt + 1, e.getMessage());
+                Thread.sleep(sleep);
+            }
+        }
+    }
+
+    private static Map<String, Object> toRow(BulkRecord record) {
+        Map<String, Object> row = new HashMap<>(4);
+        if (record.id() != null) {
+            row.put("id", record.id());
+        }
+        if (record.kind() == BulkRecord.Kind.EDGE) {
+            row.put("from", record.from());
+            row.put("to", record.to());
+        }
+        row.put("props", record.properties());
+        return row;
+    }
+
+    /**
+     * Records that can share one UNWIND statement
+     */
+    record StatementShape(BulkRecord.Kind kind, String label, boolean hasId) {
+
+        static StatementShape of(BulkRecord record) {
+            return new StatementShape(record.kind(), record.label(), record.id() != null);
+        }
+
+        String cypher() {
+            String escaped = escape(label);
+            if (kind == BulkRecord.Kind.NODE) {
+                return "UNWIND $rows AS row CREATE (n:" + escaped + " {`~id`: row.id}) SET n += row.props";
+            }
+            String idMap = hasId ? " {`~id`: row.id}" : "";
+            return "UNWIND $rows AS row MATCH (a), (b) WHERE id(a) = row.from AND id(b) = row.to " +
+                    "CREATE (a)-[r:" + escaped + idMap + "]->(b) SET r += row.props";
+        }
+
+        private static String escape(String name) {
+            if (name.isEmpty() || name.indexOf('`') >= 0) {
+                throw new IllegalArgumentException("Unsupported label or type: " + name);
+            }
+            return "`" + name + "`";
+        }
+    }
+
+    private record Batch(StatementShape shape, List<Map<String, Object>> rows) {
+    }
+
+    private static final class Counters {
+        final LongAdder records = new LongAdder();
+        final LongAdder batches = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder failedBatches = new LongAdder();
+        final LongAdder failedRecords = new LongAdder();
+
+        BulkLoadReport toReport(Duration elapsed) {
+            return new BulkLoadReport(records.sum(), batches.sum(), retries.sum(), failedBatches.sum(),
+                    failedRecords.sum(), elapsed);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("At least one node or edge file is required");
+        }
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            files.add(Path.of(arg));
+        }
+
+        NeptuneBoltDemo demo = new NeptuneBoltDemo(config);
+        try {
+            BulkLoadReport report = fromConfig(demo.getDriver(), config).load(files);
+            demo.logPoolStats();
+            if (report.failedBatches() > 0) {
+                throw new IllegalStateException(report.failedBatches() + " batches failed to load");
+            }
+        } finally {
+            demo.close();
+        }
+    }
+}
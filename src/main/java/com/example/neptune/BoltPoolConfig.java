@@ -0,0 +1,101 @@
+package com.example.neptune;
+
+import org.neo4j.driver.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool settings for the Bolt driver. Settings left {@code null} keep
+ * the neo4j driver defaults.
+ */
+public class BoltPoolConfig {
+    private final Integer maxPoolSize;
+    private final Long acquisitionTimeoutMs;
+    private final Long maxConnectionLifetimeMs;
+    private final Long idleLivenessCheckMs;
+    private final Long connectionTimeoutMs;
+    private final Long fetchSize;
+    private final boolean metricsEnabled;
+
+    public BoltPoolConfig(Integer maxPoolSize, Long acquisitionTimeoutMs, Long maxConnectionLifetimeMs,
+                          Long idleLivenessCheckMs, Long connectionTimeoutMs, Long fetchSize,
+                          boolean metricsEnabled) {
+        if (maxPoolSize != null && maxPoolSize < 1) {
+            throw new IllegalArgumentException("Bolt max pool size must be at least 1: " + maxPoolSize);
+        }
+        requireNonNegative("acquisition timeout", acquisitionTimeoutMs);
+        requireNonNegative("max connection lifetime", maxConnectionLifetimeMs);
+        requireNonNegative("idle liveness check", idleLivenessCheckMs);
+        requireNonNegative("connection timeout", connectionTimeoutMs);
+        if (fetchSize != null && fetchSize != -1 && fetchSize < 1) {
+            throw new IllegalArgumentException("Bolt fetch size must be positive or -1 (fetch all): " + fetchSize);
+        }
+
+        this.maxPoolSize = maxPoolSize;
+        this.acquisitionTimeoutMs = acquisitionTimeoutMs;
+        this.maxConnectionLifetimeMs = maxConnectionLifetimeMs;
+        this.idleLivenessCheckMs = idleLivenessCheckMs;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.fetchSize = fetchSize;
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public static BoltPoolConfig defaults() {
+        return new BoltPoolConfig(null, null, null, null, null, null, true);
+    }
+
+    /**
+     * Apply the configured settings to a driver config builder
+     */
+    public Config.ConfigBuilder applyTo(Config.ConfigBuilder builder) {
+        if (maxPoolSize != null) {
+            builder.withMaxConnectionPoolSize(maxPoolSize);
+        }
+        if (acquisitionTimeoutMs != null) {
+            builder.withConnectionAcquisitionTimeout(acquisitionTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        if (maxConnectionLifetimeMs != null) {
+            builder.withMaxConnectionLifetime(maxConnectionLifetimeMs, TimeUnit.MILLISECONDS);
+        }
+        if (idleLivenessCheckMs != null) {
+            builder.withConnectionLivenessCheckTimeout(idleLivenessCheckMs, TimeUnit.MILLISECONDS);
+        }
+        if (connectionTimeoutMs != null) {
+            builder.withConnectionTimeout(connectionTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        if (fetchSize != null) {
+            builder.withFetchSize(fetchSize);
+        }
+        if (metricsEnabled) {
+            builder.withDriverMetrics();
+        } else {
+            builder.withoutDriverMetrics();
+        }
+        return builder;
+    }
+
+    private static void requireNonNegative(String name, Long value) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException("Bolt " + name + " must not be negative: " + value);
+        }
+    }
+
+    public Integer getMaxPoolSize() { return maxPoolSize; }
+    public Long getAcquisitionTimeoutMs() { return acquisitionTimeoutMs; }
+    public Long getMaxConnectionLifetimeMs() { return maxConnectionLifetimeMs; }
+    public Long getIdleLivenessCheckMs() { return idleLivenessCheckMs; }
+    public Long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+    public Long getFetchSize() { return fetchSize; }
+    public boolean isMetricsEnabled() { return metricsEnabled; }
+
+    @Override
+    public String toString() {
+        return "BoltPoolConfig{maxPoolSize=" + maxPoolSize +
+                ", acquisitionTimeoutMs=" + acquisitionTimeoutMs +
+                ", maxConnectionLifetimeMs=" + maxConnectionLifetimeMs +
+                ", idleLivenessCheckMs=" + idleLivenessCheckMs +
+                ", connectionTimeoutMs=" + connectionTimeoutMs +
+                ", fetchSize=" + fetchSize +
+                ", metricsEnabled=" + metricsEnabled + "}";
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.neptune;
+
+import org.neo4j.driver.ConnectionPoolMetrics;
+
+/**
+ * Point-in-time snapshot of a Bolt connection pool, suitable for logging
+ */
+public record BoltPoolStats(String poolId, int inUse, int idle, int creating, int acquiring,
+                            long acquired, long timedOutToAcquire, long totalAcquisitionTimeMs) {
+
+    public static BoltPoolStats from(ConnectionPoolMetrics metrics) {
+        return new BoltPoolStats(metrics.id(), metrics.inUse(), metrics.idle(), metrics.creating(),
+                metrics.acquiring(), metrics.acquired(), metrics.timedOutToAcquire(),
+                metrics.totalAcquisitionTime());
+    }
+
+    /**
+     * Mean time callers waited to acquire a connection, in milliseconds
+     */
+    public double averageAcquisitionTimeMs() {
+        return acquired == 0 ? 0.0 : (double) totalAcquisitionTimeMs / acquired;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pool=%s inUse=%d idle=%d creating=%d acquiring=%d acquired=%d " +
+                        "timedOut=%d avgAcquisitionMs=%.2f",
+                poolId, inUse, idle, creating, acquiring, acquired, timedOutToAcquire, averageAcquisitionTimeMs());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.neptune;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * openCypher over Bolt as a {@link GraphQueryExecutor}. Queries are interned in a
+ * {@link QueryTemplateCache} and records are streamed to the consumer as the driver
+ * fetches them, in batches of {@code neptune.bolt.fetch.size}.
+ */
+public class BoltQueryExecutor implements GraphQueryExecutor {
+    private static final String TRANSPORT = "bolt";
+
+    private final Driver driver;
+    private final QueryTemplateCache templates;
+    private final boolean ownsDriver;
+
+    /**
+     * Run queries on an existing driver, which the caller keeps ownership of
+     */
+    public BoltQueryExecutor(Driver driver, QueryTemplateCache templates) {
+        this(driver, templates, false);
+    }
+
+    private BoltQueryExecutor(Driver driver, QueryTemplateCache templates, boolean ownsDriver) {
+        this.driver = driver;
+        this.templates = templates;
+        this.ownsDriver = ownsDriver;
+    }
+
+    /**
+     * An executor with its own driver for the writer, pooled and authenticated as configured
+     */
+    public static BoltQueryExecutor fromConfig(NeptuneConfig config) {
+        return new BoltQueryExecutor(NeptuneBoltDemo.createDriver(config), QueryTemplateCache.fromConfig(config), true);
+    }
+
+    @Override
+    public Language language() {
+        return Language.OPEN_CYPHER;
+    }
+
+    @Override
+    public String transport() {
+        return TRANSPORT;
+    }
+
+    @Override
+    public long execute(String query, Map<String, Object> parameters, Consumer<Map<String, Object>> rows) {
+        return NeptuneTelemetry.observeQuery(TRANSPORT, query, () -> {
+            try (Session session = driver.session()) {
+                Result result = session.run(templates.intern(query).bind(parameters));
+                long count = 0;
+                while (result.hasNext()) {
+                    rows.accept(result.next().asMap());
+                    count++;
+                }
+                return count;
+            }
+        }, Long::longValue, null);
+    }
+
+    @Override
+    public void close() {
+        if (ownsDriver) {
+            driver.close();
+        }
+    }
+}
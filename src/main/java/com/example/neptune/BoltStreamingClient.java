@@ -0,0 +1,278 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.AsyncTransaction;
+import org.neo4j.driver.async.ResultCursor;
+import org.neo4j.driver.reactive.ReactiveResult;
+import org.neo4j.driver.reactive.ReactiveSession;
+import org.neo4j.driver.summary.ResultSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Streaming, non-blocking read queries over Bolt. Records are pulled from Neptune
+ * in batches of the driver fetch size ({@code neptune.bolt.fetch.size}) as the caller
+ * consumes them, so result sets of any size are processed in constant memory and no
+ * thread is held while waiting for the server.
+ * <p>
+ * Callbacks and subscribers run on the driver's event loop threads and must not block.
+ */
+public class BoltStreamingClient {
+    private static final Logger logger = LogManager.getLogger(BoltStreamingClient.class);
+
+    private final Driver driver;
+    private final SessionConfig sessionConfig;
+
+    public BoltStreamingClient(Driver driver) {
+        this(driver, SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build());
+    }
+
+    public BoltStreamingClient(Driver driver, SessionConfig sessionConfig) {
+        this.driver = driver;
+        this.sessionConfig = sessionConfig;
+    }
+
+    /**
+     * Stream the records of a query to a callback. The returned stage completes with
+     * the result summary once every record has been handed to the consumer.
+     */
+    public CompletionStage<ResultSummary> forEachAsync(Query query, Consumer<Record> consumer) {
+        AsyncSession session = driver.session(AsyncSession.class, sessionConfig);
+        CompletionStage<ResultSummary> stage = session.runAsync(query)
+                .thenCompose(cursor -> cursor.forEachAsync(consumer));
+        return closeAfter(session, stage);
+    }
+
+    /**
+     * Run several queries in one read transaction. All queries are sent back to back
+     * on a single connection before any result is read, so the round trips overlap.
+     * Records are passed to the consumer with the index of the query they belong to.
+     * <p>
+     * Results of later queries are buffered by the driver until earlier ones have been
+     * consumed, so use this for many small queries and {@link #stream(Query)} for large ones.
+     */
+    public CompletionStage<List<ResultSummary>> pipelineAsync(List<Query> queries,
+                                                              BiConsumer<Integer, Record> consumer) {
+        AsyncSession session = driver.session(AsyncSession.class, sessionConfig);
+        CompletionStage<List<ResultSummary>> stage = session.beginTransactionAsync().thenCompose(tx -> {
+            List<CompletionStage<ResultCursor>> cursors = new ArrayList<>(queries.size());
+            for (Query query : queries) {
+                cursors.add(tx.runAsync(query));
+            }
+
+            CompletionStage<List<ResultSummary>> summaries =
+                    CompletableFuture.completedFuture(new ArrayList<>(queries.size()));
+            for (int i = 0; i < cursors.size(); i++) {
+                int index = i;
+                CompletionStage<ResultCursor> cursor = cursors.get(i);
+                summaries = summaries.thenCompose(list -> cursor
+                        .thenCompose(c -> c.forEachAsync(record -> consumer.accept(index, record)))
+                        .thenApply(summary -> {
+                            list.add(summary);
+                            return list;
+                        }));
+            }
+            return finishTransaction(tx, summaries);
+        });
+        return closeAfter(session, stage);
+    }
+
+    /**
+     * Stream the records of a query as a {@link Flow.Publisher}. Records are only
+     * fetched from Neptune as the subscriber requests them, and cancelling the
+     * subscription stops the query. The session is closed when the stream terminates.
+     */
+    public Flow.Publisher<Record> stream(Query query) {
+        return subscriber -> {
+            RecordSubscription subscription = new RecordSubscription(subscriber,
+                    driver.session(ReactiveSession.class, sessionConfig));
+            subscriber.onSubscribe(subscription);
+            subscription.start(query);
+        };
+    }
+
+    private static <T> CompletionStage<T> finishTransaction(AsyncTransaction tx, CompletionStage<T> work) {
+        return work.handle((value, error) -> {
+            if (error != null) {
+                return tx.rollbackAsync().<T>handle((ignored, rollbackError) -> {
+                    throw asCompletionException(error);
+                });
+            }
+            return tx.commitAsync().thenApply(ignored -> value);
+        }).thenCompose(stage -> stage);
+    }
+
+    private static <T> CompletionStage<T> closeAfter(AsyncSession session, CompletionStage<T> work) {
+        return work.handle((value, error) -> session.closeAsync().handle((ignored, closeError) -> {
+            if (error != null) {
+                throw asCompletionException(error);
+            }
+            if (closeError != null) {
+                logger.warn("Failed to close Bolt session: {}", closeError.getMessage());
+            }
+            return value;
+        })).thenCompose(stage -> stage);
+    }
+
+    private static CompletionException asCompletionException(Throwable error) {
+        return error instanceof CompletionException completion ? completion : new CompletionException(error);
+    }
+
+    /**
+     * Bridges the session's result publisher to a single downstream subscriber. Demand
+     * requested before the record stream is open is held and forwarded once it is.
+     */
+    private static final class RecordSubscription implements Flow.Subscription, Flow.Subscriber<Record> {
+        private final Flow.Subscriber<? super Record> downstream;
+        private final ReactiveSession session;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private Flow.Subscription upstream;
+        private long pendingDemand;
+        private boolean cancelled;
+
+        RecordSubscription(Flow.Subscriber<? super Record> downstream, ReactiveSession session) {
+            this.downstream = downstream;
+            this.session = session;
+        }
+
+        void start(Query query) {
+            session.run(query).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(ReactiveResult result) {
+                    result.records().subscribe(RecordSubscription.this);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    RecordSubscription.this.onError(error);
+                }
+
+                @Override
+                public void onComplete() {
+                    // The record stream signals completion
+                }
+            });
+        }
+
+        @Override
+        public void request(long n) {
+            Flow.Subscription current;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    // A spec violation ends the subscription: stop the query as on cancel
+                    cancelled = true;
+                } else if (upstream == null) {
+                    pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+                    return;
+                }
+                current = upstream;
+            }
+            if (n <= 0) {
+                if (current != null) {
+                    current.cancel();
+                }
+                onError(new IllegalArgumentException("Demand must be positive: " + n));
+            } else {
+                current.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription current;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                current = upstream;
+            }
+            if (current != null) {
+                current.cancel();
+            }
+            terminate(() -> { });
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            long demand;
+            synchronized (this) {
+                upstream = subscription;
+                demand = cancelled ? 0 : pendingDemand;
+                pendingDemand = 0;
+                if (cancelled) {
+                    subscription.cancel();
+                    return;
+                }
+            }
+            if (demand > 0) {
+                subscription.request(demand);
+            }
+        }
+
+        @Override
+        public void onNext(Record record) {
+            downstream.onNext(record);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            terminate(() -> downstream.onError(error));
+        }
+
+        @Override
+        public void onComplete() {
+            terminate(downstream::onComplete);
+        }
+
+        private void terminate(Runnable signal) {
+            if (!terminated.compareAndSet(false, true)) {
+                return;
+            }
+            session.close().subscribe(new Flow.Subscriber<Object>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(Object item) {
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    logger.warn("Failed to close Bolt session: {}", error.getMessage());
+                    signal.run();
+                }
+
+                @Override
+                public void onComplete() {
+                    signal.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Converts {@link BulkRecord}s into CSV files in Neptune's openCypher bulk load format,
+ * for {@link NeptuneBulkLoader} to stage and load.
+ * <p>
+ * Node files have {@code :ID} and {@code :LABEL} columns, edge files {@code :ID},
+ * {@code :START_ID}, {@code :END_ID} and {@code :TYPE}, and every property becomes a
+ * typed column such as {@code age:Long} or {@code tags:String[]}. Types are inferred per
+ * file from the values: integers are {@code Long}, decimals {@code Double} (or integers
+ * mixed with decimals), booleans {@code Bool}, dates and times {@code DateTime}, lists
+ * arrays of their element type, and anything else, or a mix, {@code String}.
+ * <p>
+ * Records are grouped by label into shards of about {@code shardBytes} of CSV. A full
+ * shard is handed to one of {@code writers} threads, which writes it (gzipped, unless
+ * disabled) while reading continues; at most two shards per writer are held in memory.
+ * Edges without an ID get {@code <from>-<type>-<to>}, so parallel edges of the same type
+ * between two nodes need IDs of their own.
+ */
+public class BulkLoadCsvWriter {
+    private static final Logger logger = LogManager.getLogger(BulkLoadCsvWriter.class);
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * A written CSV file
+     *
+     * @param bytes size of the CSV before compression
+     */
+    public record Shard(BulkRecord.Kind kind, String label, Path file, long records, long bytes) {
+    }
+
+    private final long shardBytes;
+    private final int writers;
+    private final boolean gzip;
+
+    public BulkLoadCsvWriter(long shardBytes, int writers, boolean gzip) {
+        if (shardBytes < 1 || writers < 1) {
+            throw new IllegalArgumentException("Invalid CSV writer settings: shardBytes=" + shardBytes +
+                    ", writers=" + writers);
+        }
+        this.shardBytes = shardBytes;
+        this.writers = writers;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Create a writer using the {@code neptune.loader.*} settings from the given config
+     */
+    public static BulkLoadCsvWriter fromConfig(NeptuneConfig config) {
+        return new BulkLoadCsvWriter(
+                config.getLongSetting("neptune.loader.shard.bytes", "NEPTUNE_LOADER_SHARD_BYTES", 256L * 1024 * 1024),
+                config.getIntSetting("neptune.loader.writers", "NEPTUNE_LOADER_WRITERS", 4),
+                config.getBooleanSetting("neptune.loader.gzip", "NEPTUNE_LOADER_GZIP", true));
+    }
+
+    /**
+     * Convert the given CSV/JSONL files, in order, into {@code nodes/} and {@code edges/}
+     * subdirectories of the output directory
+     */
+    public List<Shard> write(List<Path> files, Path directory) throws IOException, InterruptedException {
+        Run run = new Run(directory);
+        try {
+            for (Path file : files) {
+                logger.info("Converting {}", file);
+                try (BulkRecordReader reader = BulkRecordReader.open(file)) {
+                    run.addAll(reader);
+                }
+            }
+            return run.finish();
+        } finally {
+            run.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Convert records into {@code nodes/} and {@code edges/} subdirectories of the output directory
+     */
+    public List<Shard> write(Iterator<BulkRecord> records, Path directory) throws IOException, InterruptedException {
+        Run run = new Run(directory);
+        try {
+            run.addAll(records);
+            return run.finish();
+        } finally {
+            run.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * State of one conversion: the open shard per label and the shards being written
+     */
+    private final class Run {
+        private final Path directory;
+        private final Map<String, Chunk> open = new LinkedHashMap<>();
+        private final Map<String, Integer> shardCounts = new HashMap<>();
+        private final List<Future<Shard>> written = new ArrayList<>();
+        private final Semaphore inFlight = new Semaphore(writers * 2);
+        private final ExecutorService executor;
+
+        Run(Path directory) throws IOException {
+            this.directory = directory;
+            Files.createDirectories(directory.resolve("nodes"));
+            Files.createDirectories(directory.resolve("edges"));
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(writers,
+                    r -> new Thread(r, "neptune-csv-writer-" + threadIndex.incrementAndGet()));
+        }
+
+        void addAll(Iterator<BulkRecord> records) throws InterruptedException {
+            while (records.hasNext()) {
+                BulkRecord record = records.next();
+                String key = directoryName(record.kind()) + "/" + record.label();
+                Chunk chunk = open.computeIfAbsent(key, k -> new Chunk(record.kind(), record.label()));
+                chunk.add(record);
+                if (chunk.estimatedBytes >= shardBytes) {
+                    open.remove(key);
+                    submit(key, chunk);
+                }
+            }
+        }
+
+        List<Shard> finish() throws IOException, InterruptedException {
+            for (Map.Entry<String, Chunk> entry : open.entrySet()) {
+                submit(entry.getKey(), entry.getValue());
+            }
+            open.clear();
+
+            List<Shard> shards = new ArrayList<>(written.size());
+            for (Future<Shard> future : written) {
+                try {
+                    shards.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof UncheckedIOException io) {
+                        throw io.getCause();
+                    }
+                    throw new IllegalStateException("Failed to write bulk load CSV", e.getCause());
+                }
+            }
+            logger.info("Wrote {} bulk load files ({} records) to {}", shards.size(),
+                    shards.stream().mapToLong(Shard::records).sum(), directory);
+            return shards;
+        }
+
+        private void submit(String key, Chunk chunk) throws InterruptedException {
+            int index = shardCounts.merge(key, 1, Integer::sum) - 1;
+            Path file = directory.resolve(directoryName(chunk.kind)).resolve(String.format("%s-%s-%05d.csv%s",
+                    directoryName(chunk.kind), chunk.label.replaceAll("[^A-Za-z0-9_-]", "_"), index,
+                    gzip ? ".gz" : ""));
+            inFlight.acquire();
+            written.add(executor.submit(() -> {
+                try {
+                    return writeShard(chunk, file);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Records of one label waiting to be written as one file
+     */
+    private static final class Chunk {
+        final BulkRecord.Kind kind;
+        final String label;
+        final List<BulkRecord> records = new ArrayList<>();
+        long estimatedBytes;
+
+        Chunk(BulkRecord.Kind kind, String label) {
+            this.kind = kind;
+            this.label = label;
+        }
+
+        void add(BulkRecord record) {
+            records.add(record);
+            estimatedBytes += 8 + length(record.id()) + length(record.label()) + length(record.from()) + length(record.to());
+            for (Object value : record.properties().values()) {
+                estimatedBytes += 1 + (value instanceof String text ? text.length() : 8);
+            }
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    private Shard writeShard(Chunk chunk, Path file) {
+        Map<String, String> columns = inferColumns(chunk.records);
+        CountingOutputStream counter = null;
+        try {
+            OutputStream out = Files.newOutputStream(file);
+            if (gzip) {
+                out = new GZIPOutputStream(out, WRITE_BUFFER_BYTES);
+            }
+            counter = new CountingOutputStream(out);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8),
+                    WRITE_BUFFER_BYTES)) {
+                boolean edges = chunk.kind == BulkRecord.Kind.EDGE;
+                StringBuilder line = new StringBuilder(edges ? ":ID,:START_ID,:END_ID,:TYPE" : ":ID,:LABEL");
+                columns.forEach((name, type) -> line.append(',').append(quote(name + ":" + type)));
+                writer.write(line.append('\n').toString());
+
+                for (BulkRecord record : chunk.records) {
+                    line.setLength(0);
+                    if (edges) {
+                        String id = record.id() != null ? record.id()
+                                : record.from() + "-" + record.label() + "-" + record.to();
+                        line.append(quote(id)).append(',').append(quote(record.from())).append(',')
+                                .append(quote(record.to())).append(',').append(quote(record.label()));
+                    } else {
+                        line.append(quote(record.id())).append(',').append(quote(record.label()));
+                    }
+                    columns.forEach((name, type) -> line.append(',')
+                            .append(quote(format(record.properties().get(name), type))));
+                    writer.write(line.append('\n').toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+        logger.debug("Wrote {} {} records to {}", chunk.records.size(), chunk.label, file);
+        return new Shard(chunk.kind, chunk.label, file, chunk.records.size(), counter.count);
+    }
+
+    /**
+     * Property columns in first-seen order, with each column's type widened to fit all its values
+     */
+    static Map<String, String> inferColumns(List<BulkRecord> records) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (BulkRecord record : records) {
+            record.properties().forEach((name, value) -> {
+                if (value != null) {
+                    columns.merge(name, typeOf(value), BulkLoadCsvWriter::widen);
+                }
+            });
+        }
+        return columns;
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof List<?> list) {
+            String element = null;
+            for (Object item : list) {
+                if (item != null) {
+                    String type = typeOf(item);
+                    element = element == null ? type : widen(element, type);
+                }
+            }
+            return (element == null || element.endsWith("[]") ? "String" : element) + "[]";
+        }
+        if (value instanceof Boolean) {
+            return "Bool";
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return "Long";
+        }
+        if (value instanceof Number) {
+            return "Double";
+        }
+        if (value instanceof TemporalAccessor) {
+            return "DateTime";
+        }
+        return "String";
+    }
+
+    private static String widen(String a, String b) {
+        if (a.equals(b)) {
+            return a;
+        }
+        boolean array = a.endsWith("[]");
+        if (array != b.endsWith("[]")) {
+            return "String";
+        }
+        String suffix = array ? "[]" : "";
+        String elementA = a.substring(0, a.length() - suffix.length());
+        String elementB = b.substring(0, b.length() - suffix.length());
+        boolean numeric = (elementA.equals("Long") || elementA.equals("Double"))
+                && (elementB.equals("Long") || elementB.equals("Double"));
+        return (numeric ? "Double" : "String") + suffix;
+    }
+
+    /**
+     * The value as the column type expects it; array elements are separated by {@code ;}
+     */
+    private static String format(Object value, String type) {
+        if (value == null) {
+            return "";
+        }
+        if (type.endsWith("[]")) {
+            List<?> items = value instanceof List<?> list ? list : List.of(value);
+            StringBuilder joined = new StringBuilder();
+            for (Object item : items) {
+                if (item != null) {
+                    if (!joined.isEmpty()) {
+                        joined.append(';');
+                    }
+                    joined.append(String.valueOf(item).replace(";", "\\;"));
+                }
+            }
+            return joined.toString();
+        }
+        return String.valueOf(value);
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean needsQuotes = !value.isEmpty()
+                && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ');
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return needsQuotes ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    private static String directoryName(BulkRecord.Kind kind) {
+        return kind == BulkRecord.Kind.EDGE ? "edges" : "nodes";
+    }
+
+    /**
+     * Counts the bytes written through it, before compression
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
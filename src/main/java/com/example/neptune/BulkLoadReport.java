@@ -0,0 +1,23 @@
+package com.example.neptune;
+
+import java.time.Duration;
+
+/**
+ * Outcome and throughput of a bulk load
+ */
+public record BulkLoadReport(long records, long batches, long retries, long failedBatches, long failedRecords,
+                             Duration elapsed) {
+
+    public double recordsPerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0.0 : (records - failedRecords) / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("records=%d batches=%d retries=%d failedBatches=%d failedRecords=%d " +
+                        "elapsed=%.1fs throughput=%.0f records/s",
+                records, batches, retries, failedBatches, failedRecords, elapsed.toMillis() / 1000.0,
+                recordsPerSecond());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.neptune;
+
+import java.util.Map;
+
+/**
+ * A node or edge read from a bulk-ingest file. Edges carry {@code from}/{@code to}
+ * node IDs and use {@code label} for the relationship type; {@code id} is optional
+ * for edges.
+ */
+public record BulkRecord(Kind kind, String id, String label, String from, String to, Map<String, Object> properties) {
+
+    public enum Kind { NODE, EDGE }
+
+    public static BulkRecord node(String id, String label, Map<String, Object> properties) {
+        return new BulkRecord(Kind.NODE, id, label, null, null, properties);
+    }
+
+    public static BulkRecord edge(String id, String type, String from, String to, Map<String, Object> properties) {
+        return new BulkRecord(Kind.EDGE, id, type, from, to, properties);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.neptune;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams {@link BulkRecord}s from a CSV or JSONL file (optionally gzipped).
+ * <p>
+ * Both formats use the same reserved keys, with or without Neptune's {@code ~} prefix:
+ * {@code id} and {@code label} for nodes, {@code from}, {@code to} and {@code type}
+ * (or {@code label}) for edges. Every other column or field becomes a property.
+ * A record with both {@code from} and {@code to} is an edge.
+ * <p>
+ * CSV files need a header row. Unquoted CSV values that look like integers,
+ * decimals or booleans are converted to those types; quoted values stay strings.
+ * In JSONL, properties may also be given as a nested {@code properties} object.
+ */
+public class BulkRecordReader implements Iterator<BulkRecord>, Closeable {
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final List<String> header;
+    private final String source;
+    private long lineNumber;
+    private BulkRecord next;
+
+    public BulkRecordReader(BufferedReader reader, boolean csv, String source) throws IOException {
+        this.reader = reader;
+        this.csv = csv;
+        this.source = source;
+        if (csv) {
+            String headerLine = readLine();
+            if (headerLine == null) {
+                throw new IllegalArgumentException("CSV file has no header row: " + source);
+            }
+            List<String> columns = new ArrayList<>();
+            for (CsvValue value : parseCsvLine(headerLine)) {
+                columns.add(value.text());
+            }
+            this.header = columns;
+        } else {
+            this.header = List.of();
+        }
+    }
+
+    /**
+     * Open a file, choosing the format from its extension ({@code .csv}, {@code .jsonl},
+     * {@code .json}, each optionally followed by {@code .gz})
+     */
+    public static BulkRecordReader open(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        boolean csv;
+        if (name.endsWith(".csv")) {
+            csv = true;
+        } else if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+            csv = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported bulk file type (expected .csv or .jsonl): " + file);
+        }
+
+        InputStream input = Files.newInputStream(file);
+        if (gzip) {
+            input = new GZIPInputStream(input, 64 * 1024);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        return new BulkRecordReader(reader, csv, file.toString());
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        try {
+            String line;
+            while ((line = readLine()) != null) {
+                if (!line.isBlank()) {
+                    next = csv ? parseCsvRecord(line) : parseJsonRecord(line);
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + source, e);
+        }
+    }
+
+    @Override
+    public BulkRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        BulkRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    private BulkRecord parseCsvRecord(String line) {
+        List<CsvValue> values = parseCsvLine(line);
+        if (values.size() != header.size()) {
+            throw error("expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            CsvValue value = values.get(i);
+            if (!value.quoted() && value.text().isEmpty()) {
+                continue;
+            }
+            fields.put(header.get(i), value.quoted() ? value.text() : inferType(value.text()));
+        }
+        return toRecord(fields);
+    }
+
+    private BulkRecord parseJsonRecord(String line) {
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(line);
+        } catch (RuntimeException e) {
+            throw error("invalid JSON: " + e.getMessage());
+        }
+        if (!element.isJsonObject()) {
+            throw error("expected a JSON object");
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+            if (entry.getKey().equals("properties") && entry.getValue().isJsonObject()) {
+                for (Map.Entry<String, JsonElement> property : entry.getValue().getAsJsonObject().entrySet()) {
+                    putJsonValue(fields, property.getKey(), property.getValue());
+                }
+            } else {
+                putJsonValue(fields, entry.getKey(), entry.getValue());
+            }
+        }
+        return toRecord(fields);
+    }
+
+    private void putJsonValue(Map<String, Object> fields, String key, JsonElement value) {
+        Object converted = fromJson(value);
+        if (converted != null) {
+            fields.put(key, converted);
+        }
+    }
+
+    private Object fromJson(JsonElement value) {
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        if (value.isJsonArray()) {
+            List<Object> list = new ArrayList<>();
+            for (JsonElement item : value.getAsJsonArray()) {
+                list.add(fromJson(item));
+            }
+            return list;
+        }
+        if (value.isJsonObject()) {
+            throw error("nested objects are not supported as property values");
+        }
+        JsonPrimitive primitive = value.getAsJsonPrimitive();
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean();
+        }
+        if (primitive.isNumber()) {
+            return inferType(primitive.getAsString());
+        }
+        return primitive.getAsString();
+    }
+
+    private BulkRecord toRecord(Map<String, Object> fields) {
+        String id = takeString(fields, "id");
+        String from = takeString(fields, "from");
+        String to = takeString(fields, "to");
+        String type = takeString(fields, "type");
+        String label = takeString(fields, "label");
+
+        if (from != null || to != null) {
+            if (from == null || to == null) {
+                throw error("edge records need both 'from' and 'to'");
+            }
+            String edgeType = type != null ? type : label;
+            if (edgeType == null) {
+                throw error("edge records need a 'type'");
+            }
+            return BulkRecord.edge(id, edgeType, from, to, fields);
+        }
+        if (id == null || label == null) {
+            throw error("node records need an 'id' and a 'label'");
+        }
+        return BulkRecord.node(id, label, fields);
+    }
+
+    private static String takeString(Map<String, Object> fields, String key) {
+        Object value = fields.remove(key);
+        if (value == null) {
+            value = fields.remove("~" + key);
+        }
+        return value == null ? null : value.toString();
+    }
+
+    static Object inferType(String text) {
+        if (text.equals("true") || text.equals("false")) {
+            return Boolean.parseBoolean(text);
+        }
+        if (!text.isEmpty() && (Character.isDigit(text.charAt(0)) || text.charAt(0) == '-')) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                // Not an integer
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                // Not a number
+            }
+        }
+        return text;
+    }
+
+    static List<CsvValue> parseCsvLine(String line) {
+        List<CsvValue> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                values.add(new CsvValue(quoted ? current.toString() : current.toString().trim(), quoted));
+                current.setLength(0);
+                quoted = false;
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(new CsvValue(quoted ? current.toString() : current.toString().trim(), quoted));
+        return values;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(source + ":" + lineNumber + ": " + message);
+    }
+
+    record CsvValue(String text, boolean quoted) {
+    }
+}
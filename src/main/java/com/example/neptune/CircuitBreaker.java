@@ -0,0 +1,204 @@
+package com.example.neptune;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker for one endpoint. While closed it tracks the outcomes of the last
+ * {@code windowSize} requests; once at least {@code minimumCalls} have completed and the
+ * share of failures reaches {@code failureRateThreshold}, it opens and rejects requests
+ * for {@code openDuration}. It then lets {@code halfOpenProbes} trial requests through:
+ * if they all succeed it closes again, and any failure reopens it.
+ * <p>
+ * Only failures that point at an unhealthy endpoint count (see {@link NeptuneErrors#isOverload}),
+ * so a burst of bad queries does not cut off a healthy instance.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Circuit breaker settings, from {@code neptune.circuit.breaker.*}
+     */
+    public record Settings(double failureRateThreshold, int windowSize, int minimumCalls, Duration openDuration,
+                           int halfOpenProbes) {
+
+        public Settings {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                throw new IllegalArgumentException("Failure rate threshold must be in (0, 1]: " + failureRateThreshold);
+            }
+            if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("Minimum calls must be between 1 and the window size "
+                        + windowSize + ": " + minimumCalls);
+            }
+            if (openDuration.isNegative() || openDuration.isZero()) {
+                throw new IllegalArgumentException("Open duration must be positive: " + openDuration);
+            }
+            if (halfOpenProbes < 1) {
+                throw new IllegalArgumentException("Half-open probes must be at least 1: " + halfOpenProbes);
+            }
+        }
+
+        /**
+         * Settings from config, or null unless {@code neptune.circuit.breaker.enabled} is set
+         */
+        public static Settings fromConfig(NeptuneConfig config) {
+            if (!config.getBooleanSetting("neptune.circuit.breaker.enabled", "NEPTUNE_CIRCUIT_BREAKER_ENABLED", false)) {
+                return null;
+            }
+            return new Settings(
+                    config.getDoubleSetting("neptune.circuit.breaker.failure.rate",
+                            "NEPTUNE_CIRCUIT_BREAKER_FAILURE_RATE", 0.5),
+                    config.getIntSetting("neptune.circuit.breaker.window.size",
+                            "NEPTUNE_CIRCUIT_BREAKER_WINDOW_SIZE", 20),
+                    config.getIntSetting("neptune.circuit.breaker.minimum.calls",
+                            "NEPTUNE_CIRCUIT_BREAKER_MINIMUM_CALLS", 10),
+                    Duration.ofMillis(config.getLongSetting("neptune.circuit.breaker.open.ms",
+                            "NEPTUNE_CIRCUIT_BREAKER_OPEN_MS", 5000)),
+                    config.getIntSetting("neptune.circuit.breaker.half.open.probes",
+                            "NEPTUNE_CIRCUIT_BREAKER_HALF_OPEN_PROBES", 3));
+        }
+    }
+
+    private final Settings settings;
+    private final Clock clock;
+    // Ring buffer of recent outcomes while closed, true for a failure
+    private final boolean[] outcomes;
+    private int nextOutcome;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private long timesOpened;
+
+    public CircuitBreaker(Settings settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.outcomes = new boolean[settings.windowSize()];
+    }
+
+    /**
+     * Ask to send a request. Every granted request must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(settings.openDuration()))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= settings.halfOpenProbes()) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Whether {@link #tryAcquire()} would currently grant a request
+     */
+    public synchronized boolean isAvailable() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> !clock.instant().isBefore(openedAt.plus(settings.openDuration()));
+            case HALF_OPEN -> probesInFlight + probeSuccesses < settings.halfOpenProbes();
+        };
+    }
+
+    public synchronized void onSuccess() {
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                releaseProbe();
+                if (++probeSuccesses >= settings.halfOpenProbes()) {
+                    close();
+                }
+            }
+            case OPEN -> {
+                // A request from before the breaker opened; its outcome no longer matters
+            }
+        }
+    }
+
+    public synchronized void onFailure() {
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded >= settings.minimumCalls()
+                        && failures >= settings.failureRateThreshold() * recorded) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+            }
+        }
+    }
+
+    /**
+     * Release a granted request without an outcome, e.g. when it was never sent
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            releaseProbe();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Share of failures among the requests in the window while closed
+     */
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[nextOutcome]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[nextOutcome] = failure;
+        if (failure) {
+            failures++;
+        }
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+    }
+
+    private void releaseProbe() {
+        if (probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+        timesOpened++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        nextOutcome = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.neptune;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Query results stored column by column in primitive arrays. Useful for large
+ * numeric result sets, where a per-row object would dominate the memory footprint.
+ * Missing or null values are recorded in a per-column null mask and read as zero,
+ * {@code false} or {@code null}.
+ */
+public final class ColumnarResult {
+    private final int rowCount;
+    private final Map<String, Column> columns;
+
+    private ColumnarResult(int rowCount, Map<String, Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long[] getLongs(String name) {
+        return column(name, Type.LONG).longs;
+    }
+
+    public double[] getDoubles(String name) {
+        return column(name, Type.DOUBLE).doubles;
+    }
+
+    public boolean[] getBooleans(String name) {
+        return column(name, Type.BOOLEAN).booleans;
+    }
+
+    public String[] getStrings(String name) {
+        return column(name, Type.STRING).strings;
+    }
+
+    public boolean isNull(String name, int row) {
+        Column column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown column: " + name);
+        }
+        return column.nulls.get(row);
+    }
+
+    private Column column(String name, Type type) {
+        Column column = columns.get(name);
+        if (column == null || column.type != type) {
+            throw new IllegalArgumentException("No " + type.name().toLowerCase() + " column named " + name);
+        }
+        return column;
+    }
+
+    private enum Type { LONG, DOUBLE, BOOLEAN, STRING }
+
+    private static final class Column {
+        final Type type;
+        final BitSet nulls = new BitSet();
+        long[] longs;
+        double[] doubles;
+        boolean[] booleans;
+        String[] strings;
+
+        Column(Type type, int capacity) {
+            this.type = type;
+            switch (type) {
+                case LONG -> longs = new long[capacity];
+                case DOUBLE -> doubles = new double[capacity];
+                case BOOLEAN -> booleans = new boolean[capacity];
+                case STRING -> strings = new String[capacity];
+            }
+        }
+
+        void set(String name, int row, OpenCypherResultReader.Row source) {
+            if (source.isNull(name)) {
+                nulls.set(row);
+                return;
+            }
+            switch (type) {
+                case LONG -> longs[row] = source.getLong(name, 0);
+                case DOUBLE -> doubles[row] = source.getDouble(name, 0);
+                case BOOLEAN -> booleans[row] = source.getBoolean(name, false);
+                case STRING -> strings[row] = source.getString(name, null);
+            }
+        }
+
+        void resize(int capacity) {
+            switch (type) {
+                case LONG -> longs = Arrays.copyOf(longs, capacity);
+                case DOUBLE -> doubles = Arrays.copyOf(doubles, capacity);
+                case BOOLEAN -> booleans = Arrays.copyOf(booleans, capacity);
+                case STRING -> strings = Arrays.copyOf(strings, capacity);
+            }
+        }
+    }
+
+    /**
+     * Declares the columns to extract; columns not declared are ignored
+     */
+    public static final class Builder {
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+        private int capacity = 1024;
+        private int rows;
+
+        public Builder longColumn(String name) {
+            return add(name, Type.LONG);
+        }
+
+        public Builder doubleColumn(String name) {
+            return add(name, Type.DOUBLE);
+        }
+
+        public Builder booleanColumn(String name) {
+            return add(name, Type.BOOLEAN);
+        }
+
+        public Builder stringColumn(String name) {
+            return add(name, Type.STRING);
+        }
+
+        private Builder add(String name, Type type) {
+            if (rows > 0) {
+                throw new IllegalStateException("Columns must be declared before rows are added");
+            }
+            columns.put(name, new Column(type, capacity));
+            return this;
+        }
+
+        void add(OpenCypherResultReader.Row row) {
+            if (rows == capacity) {
+                capacity *= 2;
+                for (Column column : columns.values()) {
+                    column.resize(capacity);
+                }
+            }
+            for (Map.Entry<String, Column> entry : columns.entrySet()) {
+                entry.getValue().set(entry.getKey(), rows, row);
+            }
+            rows++;
+        }
+
+        public ColumnarResult build() {
+            for (Column column : columns.values()) {
+                column.resize(rows);
+            }
+            return new ColumnarResult(rows, columns);
+        }
+    }
+}
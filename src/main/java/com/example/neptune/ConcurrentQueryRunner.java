@@ -0,0 +1,216 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking graph queries concurrently, either on virtual threads (one per query)
+ * or on a fixed pool of platform threads. A semaphore caps the number of queries
+ * executing at once, which should match the connection pool size so that callers wait
+ * here, cheaply, rather than in the pool's acquisition queue. Latencies are aggregated
+ * per query key (normally the query template).
+ * <p>
+ * The mode comes from {@code neptune.executor.mode} ({@code virtual} or {@code platform}).
+ */
+public class ConcurrentQueryRunner implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ConcurrentQueryRunner.class);
+
+    public enum Mode { VIRTUAL, PLATFORM }
+
+    private final Mode mode;
+    private final int maxConcurrency;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Map<String, QueryLatencyStats> latencies = new ConcurrentHashMap<>();
+
+    public ConcurrentQueryRunner(Mode mode, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1: " + maxConcurrency);
+        }
+        this.mode = mode;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        if (mode == Mode.VIRTUAL) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("neptune-query-", 0).factory());
+        } else {
+            AtomicInteger index = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(maxConcurrency,
+                    r -> new Thread(r, "neptune-query-" + index.getAndIncrement()));
+        }
+        logger.info("Created {} query runner with max concurrency {}", mode.name().toLowerCase(), maxConcurrency);
+    }
+
+    /**
+     * Create a runner from {@code neptune.executor.*} settings. Concurrency defaults to
+     * the Bolt pool size when one is configured.
+     */
+    public static ConcurrentQueryRunner fromConfig(NeptuneConfig config) {
+        String modeName = config.getSetting("neptune.executor.mode", "NEPTUNE_EXECUTOR_MODE", "virtual");
+        Mode mode;
+        try {
+            mode = Mode.valueOf(modeName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid neptune.executor.mode (expected virtual or platform): " + modeName);
+        }
+        Integer poolSize = config.getBoltPoolConfig().getMaxPoolSize();
+        int maxConcurrency = config.getIntSetting("neptune.executor.max.concurrency",
+                "NEPTUNE_EXECUTOR_MAX_CONCURRENCY", poolSize != null ? poolSize : 100);
+        return new ConcurrentQueryRunner(mode, maxConcurrency);
+    }
+
+    /**
+     * Run a blocking task once a concurrency permit is free, recording its latency under the key
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        QueryLatencyStats stats = latencies.computeIfAbsent(key, k -> new QueryLatencyStats());
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+                return;
+            }
+            long start = System.nanoTime();
+            T value;
+            try {
+                value = task.call();
+                stats.record(System.nanoTime() - start, false);
+            } catch (Throwable e) {
+                stats.record(System.nanoTime() - start, true);
+                // Release before completing so callers joining the future see the permit returned
+                permits.release();
+                result.completeExceptionally(e);
+                return;
+            }
+            permits.release();
+            result.complete(value);
+        });
+        return result;
+    }
+
+    /**
+     * Run a read query over Bolt on its own session and collect its records. Latency is
+     * recorded under {@code "bolt: " + query text}.
+     */
+    public CompletableFuture<List<Record>> submit(Driver driver, Query query) {
+        return submit("bolt: " + query.text(), () -> {
+            try (Session session = driver.session(SessionConfig.builder()
+                    .withDefaultAccessMode(AccessMode.READ).build())) {
+                return session.run(query).list();
+            }
+        });
+    }
+
+    /**
+     * Run a parameterized read query through the Neptune Data API, on a reader when reader
+     * endpoints are configured. Latency is recorded under {@code "data-api: " + template}.
+     */
+    public CompletableFuture<ExecuteOpenCypherQueryResponse> submit(NeptuneDataApiDemo client, String template,
+                                                                  Map<String, Object> parameters) {
+        return submit("data-api: " + template, () -> client.executeReadQuery(template, parameters));
+    }
+
+    /**
+     * Wait for all futures and return their results in order
+     */
+    public static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Queries currently executing (holding a permit)
+     */
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public Map<String, QueryLatencyStats.Snapshot> getLatencyStats() {
+        Map<String, QueryLatencyStats.Snapshot> snapshot = new TreeMap<>();
+        latencies.forEach((key, stats) -> snapshot.put(key, stats.snapshot()));
+        return snapshot;
+    }
+
+    public void logLatencyStats() {
+        getLatencyStats().forEach((key, stats) -> logger.info("{} -> {}", key, stats));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) {
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+
+        NeptuneBoltDemo bolt = new NeptuneBoltDemo(config);
+        NeptuneDataApiDemo dataApi = new NeptuneDataApiDemo(config);
+        try (ConcurrentQueryRunner runner = fromConfig(config)) {
+            String template = "RETURN $i as i";
+
+            long start = System.nanoTime();
+            List<CompletableFuture<List<Record>>> boltResults = new ArrayList<>(queries);
+            for (int i = 0; i < queries; i++) {
+                boltResults.add(runner.submit(bolt.getDriver(), bolt.query(template, Map.of("i", i))));
+            }
+            joinAll(boltResults);
+            logger.info("Bolt: {} concurrent queries in {} ms", queries, (System.nanoTime() - start) / 1_000_000);
+
+            start = System.nanoTime();
+            List<CompletableFuture<ExecuteOpenCypherQueryResponse>> dataApiResults = new ArrayList<>(queries);
+            for (int i = 0; i < queries; i++) {
+                dataApiResults.add(runner.submit(dataApi, template, Map.of("i", i)));
+            }
+            joinAll(dataApiResults);
+            logger.info("Data API: {} concurrent queries in {} ms", queries, (System.nanoTime() - start) / 1_000_000);
+
+            runner.logLatencyStats();
+        } finally {
+            dataApi.close();
+            bolt.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opens connections to every endpoint of a router at startup, so the first requests after a
+ * deploy do not pay for TLS handshakes, authentication and pool growth.
+ * <p>
+ * For each endpoint, {@code connections} probes run at once on virtual threads, and each
+ * waits at a barrier until every probe for that endpoint has reached it. A probe that can
+ * keep its connection checked out (a Bolt transaction) reaches the barrier after its request,
+ * so the pool ends up with that many distinct connections rather than one connection reused.
+ * A probe that cannot (a synchronous HTTP request) reaches it before sending, which only
+ * releases the requests together; a response that comes back before the last request starts
+ * hands its connection on, so fewer connections may be opened. Failures are logged and do
+ * not stop startup.
+ */
+public final class ConnectionWarmUp {
+    private static final Logger logger = LogManager.getLogger(ConnectionWarmUp.class);
+
+    /**
+     * Warm-up settings, from {@code neptune.warmup.*}
+     *
+     * @param connections connections to open per endpoint; 0 disables warm-up
+     */
+    public record Settings(int connections, Duration timeout) {
+
+        public Settings {
+            if (connections < 0 || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Invalid warm-up settings: connections=" + connections +
+                        ", timeout=" + timeout);
+            }
+        }
+
+        public static Settings fromConfig(NeptuneConfig config) {
+            return new Settings(
+                    config.getIntSetting("neptune.warmup.connections", "NEPTUNE_WARMUP_CONNECTIONS", 0),
+                    Duration.ofMillis(config.getLongSetting("neptune.warmup.timeout.ms",
+                            "NEPTUNE_WARMUP_TIMEOUT_MS", 10_000)));
+        }
+    }
+
+    /**
+     * Opens one connection on the client and sends a request over it. {@code holdUntilAllOpen}
+     * blocks until every probe for the endpoint has called it, failed or timed out. Call it
+     * while the connection is checked out to keep it out of the pool until the others are
+     * open; calling it before the request is only a start barrier.
+     */
+    @FunctionalInterface
+    public interface Probe<T> {
+        void open(T client, Runnable holdUntilAllOpen) throws Exception;
+    }
+
+    private ConnectionWarmUp() {
+    }
+
+    /**
+     * Warm up every endpoint of the router
+     *
+     * @return the number of probes that succeeded
+     */
+    public static <T> int run(String transport, EndpointRouter<T> router, Settings settings, Probe<T> probe)
+            throws InterruptedException {
+        if (settings.connections() == 0) {
+            return 0;
+        }
+        List<EndpointRouter.EndpointStats> endpoints = router.getStats();
+        List<T> clients = router.getClients();
+        long start = System.nanoTime();
+
+        List<Callable<Boolean>> probes = new ArrayList<>();
+        for (int i = 0; i < endpoints.size(); i++) {
+            String name = endpoints.get(i).name();
+            T client = clients.get(i);
+            CountDownLatch opened = new CountDownLatch(settings.connections());
+            for (int n = 0; n < settings.connections(); n++) {
+                probes.add(() -> {
+                    AtomicBoolean counted = new AtomicBoolean();
+                    Runnable hold = () -> {
+                        if (counted.compareAndSet(false, true)) {
+                            opened.countDown();
+                        }
+                        try {
+                            opened.await(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    };
+                    try {
+                        probe.open(client, hold);
+                        return true;
+                    } catch (Exception e) {
+                        logger.warn("Warm-up probe to {} failed: {}", name, e.getMessage());
+                        return false;
+                    } finally {
+                        // Do not keep the other probes waiting for one that failed
+                        if (counted.compareAndSet(false, true)) {
+                            opened.countDown();
+                        }
+                    }
+                });
+            }
+        }
+
+        int succeeded = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<Boolean> result : executor.invokeAll(probes, settings.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    if (!result.isCancelled() && result.get()) {
+                        succeeded++;
+                    }
+                } catch (ExecutionException e) {
+                    logger.warn("Warm-up probe failed", e.getCause());
+                }
+            }
+        }
+        logger.info("Warmed up {} of {} {} connections to {} endpoint(s) in {} ms", succeeded, probes.size(),
+                transport, endpoints.size(), (System.nanoTime() - start) / 1_000_000);
+        return succeeded;
+    }
+}
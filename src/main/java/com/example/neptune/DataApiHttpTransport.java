@@ -0,0 +1,211 @@
+package com.example.neptune;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * HTTP transport for the Neptune Data API clients, selected and tuned from
+ * {@code neptune.dataapi.http.*} instead of the SDK defaults.
+ * <p>
+ * The synchronous client runs on Apache HttpClient (pooled, with keep-alive) or on the
+ * JDK's {@code HttpURLConnection}, whose keep-alive cache is sized by the JVM-wide
+ * {@code http.maxConnections} system property rather than by these settings. The async
+ * client runs on Netty or on the AWS Common Runtime (CRT). CRT is only offered for the
+ * async client: {@code aws-crt-client} 2.21.29, the SDK version this project uses, has no
+ * synchronous {@code AwsCrtHttpClient}.
+ * <p>
+ * With {@code gzip} enabled the clients ask for compressed responses, which trades some
+ * CPU for much less data on the wire for large results.
+ */
+public final class DataApiHttpTransport {
+
+    /**
+     * Neptune's default query timeout; reads should not time out before Neptune does
+     */
+    static final Duration NEPTUNE_QUERY_TIMEOUT = Duration.ofSeconds(120);
+
+    private static final Duration TCP_KEEPALIVE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration TCP_KEEPALIVE_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * HTTP client implementations. APACHE and URL_CONNECTION serve the synchronous client,
+     * NETTY and CRT the async one; there is no synchronous CRT client in this SDK version.
+     */
+    public enum Transport {
+        APACHE(false), URL_CONNECTION(false), NETTY(true), CRT(true);
+
+        private final boolean async;
+
+        Transport(boolean async) {
+            this.async = async;
+        }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        /**
+         * Parse a transport name, e.g. {@code apache} or {@code url-connection}
+         */
+        public static Transport of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown Data API HTTP transport: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Transport settings, from {@code neptune.dataapi.http.*}
+     *
+     * @param transport      HTTP client of the synchronous Data API client
+     * @param asyncTransport HTTP client of the async Data API client
+     * @param maxConnections pooled connections per client; the async client uses its in-flight limit
+     * @param connectionTtl  how long a connection is reused before it is replaced, or zero for no limit
+     * @param maxIdleTime    how long a connection may sit idle in the pool
+     * @param gzip           request gzip-compressed responses
+     */
+    public record Settings(Transport transport, Transport asyncTransport, int maxConnections,
+                           Duration connectionTimeout, Duration socketTimeout, Duration connectionTtl,
+                           Duration maxIdleTime, boolean tcpKeepAlive, boolean gzip) {
+
+        public Settings {
+            if (transport.isAsync() || !asyncTransport.isAsync()) {
+                throw new IllegalArgumentException("Data API transport must be apache or url-connection and the " +
+                        "async transport netty or crt: transport=" + transport + ", asyncTransport=" + asyncTransport);
+            }
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("Data API max connections must be at least 1: " + maxConnections);
+            }
+            if (connectionTimeout.isNegative() || connectionTimeout.isZero() || socketTimeout.isNegative()
+                    || socketTimeout.isZero() || connectionTtl.isNegative() || maxIdleTime.isNegative()
+                    || maxIdleTime.isZero()) {
+                throw new IllegalArgumentException("Invalid Data API HTTP timeouts: connectionTimeout=" +
+                        connectionTimeout + ", socketTimeout=" + socketTimeout + ", connectionTtl=" + connectionTtl +
+                        ", maxIdleTime=" + maxIdleTime);
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(Transport.APACHE, Transport.NETTY, 50, Duration.ofSeconds(2),
+                    NEPTUNE_QUERY_TIMEOUT.plusSeconds(10), Duration.ofMinutes(5), Duration.ofMinutes(1), true, false);
+        }
+
+        public static Settings fromConfig(NeptuneConfig config) {
+            Settings defaults = defaults();
+            return new Settings(
+                    Transport.of(config.getSetting("neptune.dataapi.http.transport",
+                            "NEPTUNE_DATAAPI_HTTP_TRANSPORT", "apache")),
+                    Transport.of(config.getSetting("neptune.dataapi.async.http.transport",
+                            "NEPTUNE_DATAAPI_ASYNC_HTTP_TRANSPORT", "netty")),
+                    config.getIntSetting("neptune.dataapi.http.max.connections",
+                            "NEPTUNE_DATAAPI_HTTP_MAX_CONNECTIONS", defaults.maxConnections()),
+                    Duration.ofMillis(config.getLongSetting("neptune.dataapi.http.connection.timeout.ms",
+                            "NEPTUNE_DATAAPI_HTTP_CONNECTION_TIMEOUT_MS", defaults.connectionTimeout().toMillis())),
+                    Duration.ofMillis(config.getLongSetting("neptune.dataapi.http.socket.timeout.ms",
+                            "NEPTUNE_DATAAPI_HTTP_SOCKET_TIMEOUT_MS", defaults.socketTimeout().toMillis())),
+                    Duration.ofMillis(config.getLongSetting("neptune.dataapi.http.connection.ttl.ms",
+                            "NEPTUNE_DATAAPI_HTTP_CONNECTION_TTL_MS", defaults.connectionTtl().toMillis())),
+                    Duration.ofMillis(config.getLongSetting("neptune.dataapi.http.max.idle.ms",
+                            "NEPTUNE_DATAAPI_HTTP_MAX_IDLE_MS", defaults.maxIdleTime().toMillis())),
+                    config.getBooleanSetting("neptune.dataapi.http.tcp.keepalive",
+                            "NEPTUNE_DATAAPI_HTTP_TCP_KEEPALIVE", defaults.tcpKeepAlive()),
+                    config.getBooleanSetting("neptune.dataapi.http.gzip", "NEPTUNE_DATAAPI_HTTP_GZIP",
+                            defaults.gzip()));
+        }
+    }
+
+    private DataApiHttpTransport() {
+    }
+
+    /**
+     * Builder for the synchronous HTTP client. Pass it to the service client's
+     * {@code httpClientBuilder} so the service client owns and closes the HTTP client.
+     */
+    public static SdkHttpClient.Builder<?> httpClientBuilder(Settings settings) {
+        if (settings.transport() == Transport.URL_CONNECTION) {
+            return UrlConnectionHttpClient.builder()
+                    .connectionTimeout(settings.connectionTimeout())
+                    .socketTimeout(settings.socketTimeout());
+        }
+        return ApacheHttpClient.builder()
+                .maxConnections(settings.maxConnections())
+                .connectionTimeout(settings.connectionTimeout())
+                .socketTimeout(settings.socketTimeout())
+                .connectionTimeToLive(settings.connectionTtl())
+                .connectionMaxIdleTime(settings.maxIdleTime())
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(settings.tcpKeepAlive());
+    }
+
+    /**
+     * Builder for the async HTTP client
+     *
+     * @param maxConcurrency   connections to open at most, one per in-flight request
+     * @param eventLoopThreads Netty event loop threads; CRT sizes its own event loop
+     */
+    public static SdkAsyncHttpClient.Builder<?> asyncHttpClientBuilder(Settings settings, int maxConcurrency,
+                                                                     int eventLoopThreads) {
+        if (settings.asyncTransport() == Transport.CRT) {
+            AwsCrtAsyncHttpClient.Builder builder = AwsCrtAsyncHttpClient.builder()
+                    .maxConcurrency(maxConcurrency)
+                    .connectionTimeout(settings.connectionTimeout())
+                    .connectionMaxIdleTime(settings.maxIdleTime())
+                    // CRT has no read timeout; fail connections that stall for as long instead
+                    .connectionHealthConfiguration(health -> health
+                            .minimumThroughputInBps(1L)
+                            .minimumThroughputTimeout(settings.socketTimeout()));
+            if (settings.tcpKeepAlive()) {
+                builder.tcpKeepAliveConfiguration(keepAlive -> keepAlive
+                        .keepAliveInterval(TCP_KEEPALIVE_INTERVAL)
+                        .keepAliveTimeout(TCP_KEEPALIVE_TIMEOUT));
+            }
+            return builder;
+        }
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConcurrency)
+                // A group from a builder is owned, and shut down, by the HTTP client; a built one would leak
+                .eventLoopGroupBuilder(SdkEventLoopGroup.builder().numberOfThreads(eventLoopThreads))
+                .connectionTimeout(settings.connectionTimeout())
+                .readTimeout(settings.socketTimeout())
+                .connectionTimeToLive(settings.connectionTtl())
+                .connectionMaxIdleTime(settings.maxIdleTime())
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(settings.tcpKeepAlive());
+    }
+
+    /**
+     * Add the transport's request handling, i.e. asking for gzip, to a client's overrides
+     */
+    public static ClientOverrideConfiguration applyTo(Settings settings, ClientOverrideConfiguration overrides) {
+        if (!settings.gzip()) {
+            return overrides;
+        }
+        return overrides.toBuilder().addExecutionInterceptor(new AcceptGzip()).build();
+    }
+
+    /**
+     * Asks for gzip-encoded responses; the SDK's response handlers decompress them
+     */
+    static final class AcceptGzip implements ExecutionInterceptor {
+        @Override
+        public SdkHttpRequest modifyHttpRequest(Context.ModifyHttpRequest context,
+                                                ExecutionAttributes executionAttributes) {
+            return context.httpRequest().toBuilder().putHeader("Accept-Encoding", "gzip").build();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls each endpoint's engine status in the background and marks endpoints unhealthy in
+ * an {@link EndpointRouter}, so reads are routed around them.
+ * <p>
+ * An endpoint is unhealthy after {@code failureThreshold} consecutive checks that fail or
+ * report a status other than {@code healthy} (e.g. {@code recovery} while an instance
+ * restarts after a failover), and healthy again after its next good check. Checks of all
+ * endpoints run on one daemon thread every {@code interval}.
+ */
+public class EndpointHealthMonitor implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(EndpointHealthMonitor.class);
+
+    static final String HEALTHY = "healthy";
+
+    /**
+     * Returns an endpoint's engine status, e.g. {@code healthy}
+     */
+    @FunctionalInterface
+    public interface HealthCheck {
+        String engineStatus();
+    }
+
+    /**
+     * Health check settings, from {@code neptune.health.*}
+     */
+    public record Settings(Duration interval, Duration timeout, int failureThreshold) {
+
+        public Settings {
+            if (interval.isNegative() || interval.isZero() || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Health check interval and timeout must be positive: interval="
+                        + interval + ", timeout=" + timeout);
+            }
+            if (failureThreshold < 1) {
+                throw new IllegalArgumentException("Failure threshold must be at least 1: " + failureThreshold);
+            }
+        }
+
+        /**
+         * Settings from config, or null unless {@code neptune.health.enabled} is set
+         */
+        public static Settings fromConfig(NeptuneConfig config) {
+            if (!config.getBooleanSetting("neptune.health.enabled", "NEPTUNE_HEALTH_ENABLED", false)) {
+                return null;
+            }
+            return new Settings(
+                    Duration.ofMillis(config.getLongSetting("neptune.health.interval.ms",
+                            "NEPTUNE_HEALTH_INTERVAL_MS", 5000)),
+                    Duration.ofMillis(config.getLongSetting("neptune.health.timeout.ms",
+                            "NEPTUNE_HEALTH_TIMEOUT_MS", 2000)),
+                    config.getIntSetting("neptune.health.failure.threshold", "NEPTUNE_HEALTH_FAILURE_THRESHOLD", 2));
+        }
+    }
+
+    private final EndpointRouter<?> router;
+    private final Map<String, HealthCheck> checks;
+    private final Settings settings;
+    private final Map<String, Integer> consecutiveFailures = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> health = new ConcurrentHashMap<>();
+    private final List<AutoCloseable> resources;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param checks health check per endpoint, keyed by the endpoint's name in the router
+     */
+    public EndpointHealthMonitor(EndpointRouter<?> router, Map<String, HealthCheck> checks, Settings settings) {
+        this(router, checks, settings, List.of());
+    }
+
+    private EndpointHealthMonitor(EndpointRouter<?> router, Map<String, HealthCheck> checks, Settings settings,
+                                  List<AutoCloseable> resources) {
+        this.router = router;
+        this.checks = new LinkedHashMap<>(checks);
+        this.settings = settings;
+        this.resources = resources;
+        checks.keySet().forEach(name -> health.put(name, true));
+    }
+
+    /**
+     * Create a monitor that checks each router endpoint through its HTTPS URI with the Data
+     * API's {@code getEngineStatus}, or return null when health checks are disabled
+     *
+     * @param httpsUris HTTPS URI of each endpoint, in the order of {@link EndpointRouter#getStats()}
+     */
+    public static EndpointHealthMonitor fromConfig(NeptuneConfig config, EndpointRouter<?> router,
+                                                   List<String> httpsUris) {
+        Settings settings = Settings.fromConfig(config);
+        if (settings == null) {
+            return null;
+        }
+        List<EndpointRouter.EndpointStats> endpoints = router.getStats();
+        Map<String, HealthCheck> checks = new LinkedHashMap<>();
+        List<AutoCloseable> clients = new ArrayList<>();
+        AwsCredentialsProvider credentialsProvider = config.isIamAuth()
+                ? config.getCredentialsProvider()
+                : AnonymousCredentialsProvider.create();
+        for (int i = 0; i < endpoints.size(); i++) {
+            NeptunedataClient client = NeptuneDataApiDemo.createClient(config, URI.create(httpsUris.get(i)),
+                    credentialsProvider, ClientOverrideConfiguration.builder()
+                            .retryPolicy(RetryPolicy.none())
+                            .apiCallTimeout(settings.timeout())
+                            .build());
+            clients.add(client);
+            checks.put(endpoints.get(i).name(), engineStatus(client));
+        }
+        EndpointHealthMonitor monitor = new EndpointHealthMonitor(router, checks, settings, clients);
+        monitor.start();
+        return monitor;
+    }
+
+    /**
+     * A health check calling {@code getEngineStatus} on the client
+     */
+    public static HealthCheck engineStatus(NeptunedataClient client) {
+        return () -> client.getEngineStatus(request -> { }).status();
+    }
+
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "neptune-health-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = settings.interval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::checkAll, 0, intervalMs, TimeUnit.MILLISECONDS);
+            logger.info("Checking the health of {} endpoint(s) every {} ms", checks.size(), intervalMs);
+        }
+    }
+
+    /**
+     * Check every endpoint once and update the router
+     */
+    public void checkAll() {
+        checks.forEach(this::check);
+    }
+
+    private void check(String name, HealthCheck check) {
+        String status;
+        try {
+            status = check.engineStatus();
+        } catch (RuntimeException e) {
+            status = "check failed: " + e.getMessage();
+        }
+
+        if (HEALTHY.equalsIgnoreCase(status)) {
+            consecutiveFailures.put(name, 0);
+            if (!health.put(name, true)) {
+                router.setHealthy(name, true);
+                logger.info("Endpoint {} is healthy again", name);
+            }
+            return;
+        }
+        int failures = consecutiveFailures.merge(name, 1, Integer::sum);
+        logger.debug("Endpoint {} health check {} of {} failed: {}", name, failures, settings.failureThreshold(), status);
+        if (failures >= settings.failureThreshold() && health.put(name, false)) {
+            router.setHealthy(name, false);
+            logger.warn("Endpoint {} is unhealthy ({}); routing reads elsewhere", name, status);
+        }
+    }
+
+    /**
+     * Current health per endpoint
+     */
+    public Map<String, Boolean> getHealth() {
+        Map<String, Boolean> current = new LinkedHashMap<>();
+        checks.keySet().forEach(name -> current.put(name, health.get(name)));
+        return current;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.debug("Failed to close health check client", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.neptune;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Routes requests between a cluster writer and its read replicas. Writes always go to the
+ * writer; reads go to the reader with the fewest outstanding requests, or to the writer
+ * when no readers are configured. Callers hold a {@link Lease} for the duration of the
+ * request so outstanding counts stay accurate.
+ * <p>
+ * Neptune replicas apply the writer's changes asynchronously, so a read issued right after
+ * a write may not see it. With read-your-writes enabled, reads within the configured window
+ * after this client's last write are sent to the writer instead.
+ * <p>
+ * Each endpoint can also have a {@link CircuitBreaker} and an {@link AdaptiveConcurrencyLimiter}.
+ * Reads skip readers that are shedding load; when no reader is available they go to the writer,
+ * and a writer that is shedding load fails the request with {@link EndpointUnavailableException}.
+ * Record each request's outcome on its lease ({@link Lease#recordSuccess()} or
+ * {@link Lease#recordFailure(Throwable)}), or use {@link #withReader}/{@link #withWriter}.
+ * <p>
+ * Endpoints can be marked unhealthy from outside, e.g. by an {@link EndpointHealthMonitor}.
+ * Reads skip unhealthy readers like readers that are shedding load; the writer is still
+ * used while unhealthy, as there is nowhere else to send writes.
+ *
+ * @param <T> the per-endpoint client, e.g. a Bolt Driver or a NeptunedataClient
+ */
+public class EndpointRouter<T> {
+    public static final Duration DEFAULT_READ_YOUR_WRITES_WINDOW = Duration.ofSeconds(1);
+
+    private final Endpoint<T> writer;
+    private final List<Endpoint<T>> readers;
+    private final Duration readYourWritesWindow;
+    private final Clock clock;
+    private final AtomicInteger nextReader = new AtomicInteger();
+    private final AtomicReference<Instant> lastWrite = new AtomicReference<>(Instant.MIN);
+
+    /**
+     * @param readYourWritesWindow how long after a write reads stay on the writer; null disables read-your-writes
+     */
+    public EndpointRouter(String writerName, T writer, List<String> readerNames, List<T> readers,
+                          Duration readYourWritesWindow) {
+        this(writerName, writer, readerNames, readers, readYourWritesWindow, null, null);
+    }
+
+    /**
+     * @param readYourWritesWindow how long after a write reads stay on the writer; null disables read-your-writes
+     * @param circuitBreaker       settings for a circuit breaker per endpoint; null disables circuit breaking
+     * @param concurrencyLimit     settings for a concurrency limiter per endpoint; null disables limiting
+     */
+    public EndpointRouter(String writerName, T writer, List<String> readerNames, List<T> readers,
+                          Duration readYourWritesWindow, CircuitBreaker.Settings circuitBreaker,
+                          AdaptiveConcurrencyLimiter.Settings concurrencyLimit) {
+        this(writerName, writer, readerNames, readers, readYourWritesWindow, circuitBreaker, concurrencyLimit,
+                Clock.systemUTC());
+    }
+
+    EndpointRouter(String writerName, T writer, List<String> readerNames, List<T> readers,
+                   Duration readYourWritesWindow, Clock clock) {
+        this(writerName, writer, readerNames, readers, readYourWritesWindow, null, null, clock);
+    }
+
+    EndpointRouter(String writerName, T writer, List<String> readerNames, List<T> readers,
+                   Duration readYourWritesWindow, CircuitBreaker.Settings circuitBreaker,
+                   AdaptiveConcurrencyLimiter.Settings concurrencyLimit, Clock clock) {
+        if (readerNames.size() != readers.size()) {
+            throw new IllegalArgumentException("Expected a name for each of the " + readers.size() + " readers");
+        }
+        this.writer = new Endpoint<>(writerName, true, writer, circuitBreaker, concurrencyLimit, clock);
+        this.readers = new ArrayList<>(readers.size());
+        for (int i = 0; i < readers.size(); i++) {
+            this.readers.add(new Endpoint<>(readerNames.get(i), false, readers.get(i), circuitBreaker,
+                    concurrencyLimit, clock));
+        }
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.clock = clock;
+    }
+
+    /**
+     * Lease the writer for a write. Call {@link #recordWrite()} once the write has committed.
+     */
+    public Lease<T> acquireWriter() {
+        return writer.lease();
+    }
+
+    /**
+     * Lease an endpoint for a read: the least loaded available reader, or the writer when
+     * there are no available readers or a recent write must be visible
+     */
+    public Lease<T> acquireReader() {
+        if (readers.isEmpty() || withinReadYourWritesWindow()) {
+            return writer.lease();
+        }
+        // Start the scan at a rotating offset so ties are spread across readers
+        int start = Math.floorMod(nextReader.getAndIncrement(), readers.size());
+        Endpoint<T> selected = null;
+        for (int i = 0; i < readers.size() && (selected == null || selected.outstanding.get() > 0); i++) {
+            Endpoint<T> candidate = readers.get((start + i) % readers.size());
+            if (candidate.isAvailable()
+                    && (selected == null || candidate.outstanding.get() < selected.outstanding.get())) {
+                selected = candidate;
+            }
+        }
+        Lease<T> lease = selected != null ? selected.tryLease() : null;
+        return lease != null ? lease : writer.lease();
+    }
+
+    /**
+     * Run work on a reader lease, recording its outcome
+     */
+    public <R> R withReader(Function<Lease<T>, R> work) {
+        return run(acquireReader(), work);
+    }
+
+    /**
+     * Run work on the writer lease, recording its outcome. Call {@link #recordWrite()} once
+     * the write has committed.
+     */
+    public <R> R withWriter(Function<Lease<T>, R> work) {
+        return run(acquireWriter(), work);
+    }
+
+    private static <T, R> R run(Lease<T> lease, Function<Lease<T>, R> work) {
+        try {
+            R result = work.apply(lease);
+            lease.recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            lease.recordFailure(e);
+            throw e;
+        } finally {
+            lease.close();
+        }
+    }
+
+    /**
+     * Note a committed write, opening the read-your-writes window
+     */
+    public void recordWrite() {
+        if (readYourWritesWindow != null) {
+            lastWrite.set(clock.instant());
+        }
+    }
+
+    /**
+     * Mark an endpoint healthy or unhealthy
+     *
+     * @return whether an endpoint has that name
+     */
+    public boolean setHealthy(String name, boolean healthy) {
+        boolean found = false;
+        for (Endpoint<T> endpoint : endpoints()) {
+            if (endpoint.name.equals(name)) {
+                endpoint.healthy = healthy;
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    public boolean hasReaders() {
+        return !readers.isEmpty();
+    }
+
+    /**
+     * The writer's client followed by the readers' clients
+     */
+    public List<T> getClients() {
+        List<T> clients = new ArrayList<>(readers.size() + 1);
+        clients.add(writer.client);
+        readers.forEach(reader -> clients.add(reader.client));
+        return clients;
+    }
+
+    public List<EndpointStats> getStats() {
+        List<EndpointStats> stats = new ArrayList<>(readers.size() + 1);
+        endpoints().forEach(endpoint -> stats.add(endpoint.stats()));
+        return stats;
+    }
+
+    private List<Endpoint<T>> endpoints() {
+        List<Endpoint<T>> endpoints = new ArrayList<>(readers.size() + 1);
+        endpoints.add(writer);
+        endpoints.addAll(readers);
+        return endpoints;
+    }
+
+    private boolean withinReadYourWritesWindow() {
+        return readYourWritesWindow != null
+                && clock.instant().isBefore(lastWrite.get().plus(readYourWritesWindow));
+    }
+
+    /**
+     * Requests served by one endpoint: those in progress, the total so far and those rejected
+     * while it was shedding load, with its health, circuit state and concurrency limit (null
+     * and 0 when disabled)
+     */
+    public record EndpointStats(String name, boolean writer, int outstanding, long requests, long rejected,
+                                CircuitBreaker.State circuitState, long circuitOpened, int concurrencyLimit,
+                                boolean healthy) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%s %s: outstanding=%d requests=%d rejected=%d",
+                    writer ? "writer" : "reader", name, outstanding, requests, rejected));
+            if (!healthy) {
+                text.append(" unhealthy");
+            }
+            if (circuitState != null) {
+                text.append(String.format(" circuit=%s opened=%d", circuitState, circuitOpened));
+            }
+            if (concurrencyLimit > 0) {
+                text.append(" limit=").append(concurrencyLimit);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * An endpoint held for one request; closing it releases the endpoint
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final Endpoint<T> endpoint;
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        private Lease(Endpoint<T> endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public T client() {
+            return endpoint.client;
+        }
+
+        public String name() {
+            return endpoint.name;
+        }
+
+        public boolean isWriter() {
+            return endpoint.writer;
+        }
+
+        /**
+         * Record that the request succeeded and release the endpoint
+         */
+        public void recordSuccess() {
+            if (!released) {
+                release();
+                endpoint.onSuccess(System.nanoTime() - startNanos);
+            }
+        }
+
+        /**
+         * Record that the request failed and release the endpoint. Only overload errors and
+         * timeouts count against the endpoint's health.
+         */
+        public void recordFailure(Throwable e) {
+            if (!released) {
+                release();
+                if (NeptuneErrors.isOverload(e)) {
+                    endpoint.onOverload(System.nanoTime() - startNanos);
+                } else {
+                    endpoint.onSuccess(System.nanoTime() - startNanos);
+                }
+            }
+        }
+
+        /**
+         * Release the endpoint; without a recorded outcome the request is ignored by its
+         * circuit breaker and concurrency limiter
+         */
+        @Override
+        public void close() {
+            if (!released) {
+                release();
+                endpoint.onIgnored();
+            }
+        }
+
+        private void release() {
+            released = true;
+            endpoint.outstanding.decrementAndGet();
+        }
+    }
+
+    private static final class Endpoint<T> {
+        final String name;
+        final boolean writer;
+        final T client;
+        final CircuitBreaker breaker;
+        final AdaptiveConcurrencyLimiter limiter;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final LongAdder requests = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        volatile boolean healthy = true;
+
+        Endpoint(String name, boolean writer, T client, CircuitBreaker.Settings breakerSettings,
+                 AdaptiveConcurrencyLimiter.Settings limiterSettings, Clock clock) {
+            this.name = name;
+            this.writer = writer;
+            this.client = client;
+            this.breaker = breakerSettings != null ? new CircuitBreaker(breakerSettings, clock) : null;
+            this.limiter = limiterSettings != null ? new AdaptiveConcurrencyLimiter(limiterSettings) : null;
+        }
+
+        boolean isAvailable() {
+            return healthy
+                    && (breaker == null || breaker.isAvailable())
+                    && (limiter == null || limiter.getInFlight() < limiter.getLimit());
+        }
+
+        /**
+         * Lease the endpoint, or return null when it is shedding load
+         */
+        Lease<T> tryLease() {
+            if (breaker != null && !breaker.tryAcquire()) {
+                rejected.increment();
+                return null;
+            }
+            if (limiter != null && !limiter.tryAcquire()) {
+                if (breaker != null) {
+                    breaker.onIgnored();
+                }
+                rejected.increment();
+                return null;
+            }
+            outstanding.incrementAndGet();
+            requests.increment();
+            return new Lease<>(this);
+        }
+
+        Lease<T> lease() {
+            Lease<T> lease = tryLease();
+            if (lease == null) {
+                throw new EndpointUnavailableException(name, String.format(
+                        "Endpoint %s is shedding load (circuit %s, concurrency limit %s)", name,
+                        breaker != null ? breaker.getState() : "disabled",
+                        limiter != null ? limiter.getLimit() : "disabled"));
+            }
+            return lease;
+        }
+
+        void onSuccess(long latencyNanos) {
+            if (breaker != null) {
+                breaker.onSuccess();
+            }
+            if (limiter != null) {
+                limiter.onSample(latencyNanos, false);
+            }
+        }
+
+        void onOverload(long latencyNanos) {
+            if (breaker != null) {
+                breaker.onFailure();
+            }
+            if (limiter != null) {
+                limiter.onSample(latencyNanos, true);
+            }
+        }
+
+        void onIgnored() {
+            if (breaker != null) {
+                breaker.onIgnored();
+            }
+            if (limiter != null) {
+                limiter.onIgnored();
+            }
+        }
+
+        EndpointStats stats() {
+            return new EndpointStats(name, writer, outstanding.get(), requests.sum(), rejected.sum(),
+                    breaker != null ? breaker.getState() : null,
+                    breaker != null ? breaker.getTimesOpened() : 0,
+                    limiter != null ? limiter.getLimit() : 0,
+                    healthy);
+        }
+    }
+}
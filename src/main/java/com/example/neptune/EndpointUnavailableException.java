@@ -0,0 +1,19 @@
+package com.example.neptune;
+
+/**
+ * Thrown without contacting an endpoint when its circuit breaker is open or its
+ * concurrency limit is reached, so callers fail fast instead of piling up on an
+ * overloaded instance
+ */
+public class EndpointUnavailableException extends RuntimeException {
+    private final String endpoint;
+
+    public EndpointUnavailableException(String endpoint, String message) {
+        super(message);
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.neptune;
+
+import java.time.Duration;
+
+/**
+ * Outcome and throughput of a graph export
+ *
+ * @param skippedPartitions partitions already complete from an earlier run
+ */
+public record ExportReport(int partitions, int skippedPartitions, int failedPartitions, long nodes, long edges,
+                           Duration elapsed) {
+
+    public double elementsPerSecond() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0.0 : (nodes + edges) / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("partitions=%d skipped=%d failed=%d nodes=%d edges=%d " +
+                        "elapsed=%.1fs throughput=%.0f elements/s",
+                partitions, skippedPartitions, failedPartitions, nodes, edges, elapsed.toMillis() / 1000.0,
+                elementsPerSecond());
+    }
+}
@@ -0,0 +1,451 @@
+package com.example.neptune;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.reflect.TypeToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports all nodes and edges to gzipped JSONL files, scanning partitions in parallel.
+ * <p>
+ * Nodes are partitioned by label and edges by relationship type. Labels with more than
+ * {@code partitionSize} elements are split further into ID ranges, whose boundaries are
+ * found once, up front. Each partition is read in pages of {@code pageSize} with keyset
+ * pagination ({@code WHERE id(n) > $after ORDER BY id(n) LIMIT $limit}), so a page costs
+ * the same wherever it is in the partition, and rows are streamed to a file per partition,
+ * so memory holds at most one page per worker.
+ * <p>
+ * The partition plan is saved as {@value #PLAN_FILE} in the output directory and each
+ * partition file only appears, by atomic rename, once it is complete. Running the export
+ * again into the same directory skips completed partitions, so a failed or interrupted
+ * export resumes where it stopped.
+ * <p>
+ * Rows use the reserved keys {@link BulkRecordReader} reads ({@code ~id}, {@code ~label},
+ * {@code ~from}, {@code ~to} and a nested {@code properties} object), so an export can be
+ * loaded back with the {@code bulk-load} tool. A node with several labels is exported once,
+ * under the first of them in sorted order that is being exported, with all its labels
+ * joined by {@code ;}.
+ */
+public class GraphExporter {
+    private static final Logger logger = LogManager.getLogger(GraphExporter.class);
+
+    static final String PLAN_FILE = "export-plan.json";
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Runs a read query and returns its rows as JSON objects keyed by column name
+     */
+    @FunctionalInterface
+    public interface Source {
+        List<JsonObject> query(String query, Map<String, Object> parameters);
+    }
+
+    /**
+     * Export settings, from {@code neptune.export.*}
+     *
+     * @param labels    node labels to export; empty to discover them
+     * @param edgeTypes relationship types to export; empty to discover them
+     */
+    public record Settings(int parallelism, long partitionSize, int pageSize, List<String> labels,
+                           List<String> edgeTypes) {
+
+        public Settings {
+            if (parallelism < 1 || partitionSize < 1 || pageSize < 1) {
+                throw new IllegalArgumentException("Invalid export settings: parallelism=" + parallelism +
+                        ", partitionSize=" + partitionSize + ", pageSize=" + pageSize);
+            }
+            labels = List.copyOf(labels);
+            edgeTypes = List.copyOf(edgeTypes);
+        }
+
+        public static Settings fromConfig(NeptuneConfig config) {
+            return new Settings(
+                    config.getIntSetting("neptune.export.parallelism", "NEPTUNE_EXPORT_PARALLELISM", 4),
+                    config.getLongSetting("neptune.export.partition.size", "NEPTUNE_EXPORT_PARTITION_SIZE", 1_000_000),
+                    config.getIntSetting("neptune.export.page.size", "NEPTUNE_EXPORT_PAGE_SIZE", 10_000),
+                    splitList(config.getSetting("neptune.export.labels", "NEPTUNE_EXPORT_LABELS", "")),
+                    splitList(config.getSetting("neptune.export.edge.types", "NEPTUNE_EXPORT_EDGE_TYPES", "")));
+        }
+
+        private static List<String> splitList(String value) {
+            List<String> items = new ArrayList<>();
+            for (String item : value.split(",")) {
+                if (!item.isBlank()) {
+                    items.add(item.strip());
+                }
+            }
+            return items;
+        }
+    }
+
+    /**
+     * One ID range of one label or relationship type
+     *
+     * @param from first ID in the range, or null for the start of the label
+     * @param to   first ID after the range, or null for the end of the label
+     */
+    record Partition(boolean edges, String label, String from, String to, String file) {
+    }
+
+    private final Source source;
+    private final Settings settings;
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+
+    public GraphExporter(Source source, Settings settings) {
+        this.source = source;
+        this.settings = settings;
+    }
+
+    /**
+     * Export into the directory, resuming from its saved plan if there is one
+     */
+    public ExportReport export(Path directory) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Partition> plan = loadOrCreatePlan(directory);
+        Set<String> nodeLabels = new HashSet<>();
+        for (Partition partition : plan) {
+            if (!partition.edges()) {
+                nodeLabels.add(partition.label());
+            }
+        }
+
+        List<Partition> pending = new ArrayList<>();
+        for (Partition partition : plan) {
+            if (!Files.exists(directory.resolve(partition.file()))) {
+                pending.add(partition);
+            }
+        }
+        int skipped = plan.size() - pending.size();
+        logger.info("Exporting {} partitions to {} with {} workers ({} already complete)",
+                pending.size(), directory, settings.parallelism(), skipped);
+
+        LongAdder nodes = new LongAdder();
+        LongAdder edges = new LongAdder();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.parallelism(),
+                r -> new Thread(r, "neptune-export-" + threadIndex.incrementAndGet()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Partition partition : pending) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        long rows = exportPartition(directory, partition, nodeLabels);
+                        (partition.edges() ? edges : nodes).add(rows);
+                        logger.info("Exported {} {} to {}", rows, partition.edges() ? "edges" : "nodes", partition.file());
+                    } catch (IOException | RuntimeException e) {
+                        failed.incrementAndGet();
+                        logger.error("Failed to export partition {}: {}", partition.file(), e.getMessage(), e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Export worker failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ExportReport report = new ExportReport(plan.size(), skipped, failed.get(), nodes.sum(), edges.sum(),
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Export finished: {}", report);
+        return report;
+    }
+
+    private List<Partition> loadOrCreatePlan(Path directory) throws IOException {
+        Path planFile = directory.resolve(PLAN_FILE);
+        if (Files.exists(planFile)) {
+            try (Reader reader = Files.newBufferedReader(planFile)) {
+                List<Partition> plan = gson.fromJson(reader, new TypeToken<List<Partition>>() { }.getType());
+                logger.info("Resuming export with the plan in {}", planFile);
+                return plan;
+            }
+        }
+
+        List<Partition> plan = new ArrayList<>();
+        List<String> labels = settings.labels().isEmpty()
+                ? discover("MATCH (n) UNWIND labels(n) AS label RETURN DISTINCT label")
+                : settings.labels();
+        for (String label : labels) {
+            plan(false, label, plan);
+        }
+        List<String> edgeTypes = settings.edgeTypes().isEmpty()
+                ? discover("MATCH ()-[r]->() RETURN DISTINCT type(r) AS label")
+                : settings.edgeTypes();
+        for (String type : edgeTypes) {
+            plan(true, type, plan);
+        }
+
+        Path temp = directory.resolve(PLAN_FILE + ".tmp");
+        Files.writeString(temp, gson.toJson(plan));
+        Files.move(temp, planFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return plan;
+    }
+
+    private List<String> discover(String query) {
+        List<String> names = new ArrayList<>();
+        for (JsonObject row : source.query(query, Map.of())) {
+            names.add(row.get("label").getAsString());
+        }
+        names.sort(null);
+        return names;
+    }
+
+    /**
+     * Split a label into ID ranges of about {@code partitionSize} elements
+     */
+    private void plan(boolean edges, String label, List<Partition> plan) {
+        String match = match(edges, label);
+        String id = edges ? "id(r)" : "id(n)";
+        long count = source.query(match + " RETURN count(*) AS count", Map.of()).get(0).get("count").getAsLong();
+
+        List<String> boundaries = new ArrayList<>();
+        for (long skip = settings.partitionSize(); skip < count; skip += settings.partitionSize()) {
+            List<JsonObject> rows = source.query(match + " RETURN " + id + " AS id ORDER BY " + id + " SKIP $skip LIMIT 1",
+                    Map.of("skip", skip));
+            if (!rows.isEmpty()) {
+                boundaries.add(rows.get(0).get("id").getAsString());
+            }
+        }
+        logger.info("Planned {} partitions for {} {} ({} elements)", boundaries.size() + 1,
+                edges ? "edge type" : "label", label, count);
+
+        String from = null;
+        for (int i = 0; i <= boundaries.size(); i++) {
+            String to = i < boundaries.size() ? boundaries.get(i) : null;
+            String file = String.format("part-%05d-%s-%s.jsonl.gz", plan.size(), edges ? "edges" : "nodes",
+                    label.replaceAll("[^A-Za-z0-9_-]", "_"));
+            plan.add(new Partition(edges, label, from, to, file));
+            from = to;
+        }
+    }
+
+    private long exportPartition(Path directory, Partition partition, Set<String> nodeLabels) throws IOException {
+        Path target = directory.resolve(partition.file());
+        Path temp = directory.resolve(partition.file() + ".tmp");
+        long rows = 0;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                Files.newOutputStream(temp), WRITE_BUFFER_BYTES), StandardCharsets.UTF_8), WRITE_BUFFER_BYTES)) {
+            String after = null;
+            while (true) {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("limit", settings.pageSize());
+                List<JsonObject> page = source.query(pageQuery(partition, after, parameters), parameters);
+                for (JsonObject row : page) {
+                    if (partition.edges() || ownsNode(partition.label(), nodeLabels, row)) {
+                        gson.toJson(toExportRow(partition, row), out);
+                        out.write('\n');
+                        rows++;
+                    }
+                }
+                if (page.size() < settings.pageSize()) {
+                    break;
+                }
+                after = page.get(page.size() - 1).get("id").getAsString();
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    static String pageQuery(Partition partition, String after, Map<String, Object> parameters) {
+        String id = partition.edges() ? "id(r)" : "id(n)";
+        List<String> conditions = new ArrayList<>(2);
+        if (after != null) {
+            conditions.add(id + " > $after");
+            parameters.put("after", after);
+        } else if (partition.from() != null) {
+            conditions.add(id + " >= $from");
+            parameters.put("from", partition.from());
+        }
+        if (partition.to() != null) {
+            conditions.add(id + " < $to");
+            parameters.put("to", partition.to());
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        String columns = partition.edges()
+                ? "id(r) AS id, type(r) AS type, id(a) AS from, id(b) AS to, properties(r) AS props"
+                : "id(n) AS id, labels(n) AS labels, properties(n) AS props";
+        return match(partition.edges(), partition.label()) + where + " RETURN " + columns
+                + " ORDER BY " + id + " LIMIT $limit";
+    }
+
+    private static String match(boolean edges, String label) {
+        String escaped = "`" + label.replace("`", "``") + "`";
+        return edges ? "MATCH (a)-[r:" + escaped + "]->(b)" : "MATCH (n:" + escaped + ")";
+    }
+
+    /**
+     * Whether a node belongs to this label's partitions: of its labels that are exported,
+     * the first in sorted order
+     */
+    private static boolean ownsNode(String label, Set<String> nodeLabels, JsonObject row) {
+        JsonArray labels = row.getAsJsonArray("labels");
+        String first = null;
+        for (JsonElement element : labels) {
+            String candidate = element.getAsString();
+            if (nodeLabels.contains(candidate) && (first == null || candidate.compareTo(first) < 0)) {
+                first = candidate;
+            }
+        }
+        return first == null || first.equals(label);
+    }
+
+    private static JsonObject toExportRow(Partition partition, JsonObject row) {
+        JsonObject out = new JsonObject();
+        out.add("~id", row.get("id"));
+        if (partition.edges()) {
+            out.add("~label", row.get("type"));
+            out.add("~from", row.get("from"));
+            out.add("~to", row.get("to"));
+        } else {
+            List<String> labels = new ArrayList<>();
+            row.getAsJsonArray("labels").forEach(label -> labels.add(label.getAsString()));
+            labels.sort(null);
+            out.addProperty("~label", String.join(";", labels));
+        }
+        JsonElement properties = row.get("props");
+        out.add("properties", properties == null || properties.isJsonNull() ? new JsonObject() : properties);
+        return out;
+    }
+
+    /**
+     * Source reading over Bolt through the demo's readers, with its retries
+     */
+    public static Source bolt(NeptuneBoltDemo demo) {
+        return (query, parameters) -> demo.executeRead(tx -> tx.run(query, parameters).list(GraphExporter::toJson));
+    }
+
+    /**
+     * Source reading over the openCypher HTTPS endpoint of the first reader (or the writer),
+     * with retries
+     */
+    public static Source dataApi(NeptuneOpenCypherHttpClient client, RetryExecutor retryExecutor) {
+        return (query, parameters) -> retryExecutor.execute("export query",
+                () -> client.queryList(query, parameters, row -> {
+                    JsonObject json = new JsonObject();
+                    for (int i = 0; i < row.size(); i++) {
+                        json.add(row.name(i), row.getJson(row.name(i)));
+                    }
+                    return json;
+                }));
+    }
+
+    static JsonObject toJson(Record record) {
+        JsonObject json = new JsonObject();
+        for (String key : record.keys()) {
+            json.add(key, toJson(record.get(key).asObject()));
+        }
+        return json;
+    }
+
+    private static JsonElement toJson(Object value) {
+        if (value == null) {
+            return JsonNull.INSTANCE;
+        }
+        if (value instanceof Value boltValue) {
+            return toJson(boltValue.asObject());
+        }
+        if (value instanceof Map<?, ?> map) {
+            JsonObject json = new JsonObject();
+            map.forEach((key, item) -> json.add(String.valueOf(key), toJson(item)));
+            return json;
+        }
+        if (value instanceof List<?> list) {
+            JsonArray json = new JsonArray(list.size());
+            list.forEach(item -> json.add(toJson(item)));
+            return json;
+        }
+        if (value instanceof Number number) {
+            return new JsonPrimitive(number);
+        }
+        if (value instanceof Boolean bool) {
+            return new JsonPrimitive(bool);
+        }
+        // Strings, and dates and times in their ISO-8601 form
+        return new JsonPrimitive(value.toString());
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("An output directory is required");
+        }
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+        Path directory = Path.of(args[0]);
+        String transport = args.length > 1 ? args[1].toLowerCase()
+                : config.getSetting("neptune.export.transport", "NEPTUNE_EXPORT_TRANSPORT", "bolt");
+        Settings settings = Settings.fromConfig(config);
+
+        NeptuneTelemetry.start(config);
+        ExportReport report;
+        try {
+            switch (transport) {
+                case "bolt" -> {
+                    NeptuneBoltDemo demo = new NeptuneBoltDemo(config);
+                    try {
+                        report = new GraphExporter(bolt(demo), settings).export(directory);
+                    } finally {
+                        demo.close();
+                    }
+                }
+                case "data-api" -> {
+                    List<String> readers = config.getReaderHttpsUris();
+                    URI endpoint = URI.create(readers.isEmpty() ? config.getHttpsUri() : readers.get(0));
+                    AwsCredentialsProvider credentials = config.isIamAuth() ? config.getCredentialsProvider() : null;
+                    try (NeptuneOpenCypherHttpClient client = new NeptuneOpenCypherHttpClient(endpoint,
+                            config.getRegion(), credentials, QueryTemplateCache.fromConfig(config))) {
+                        report = new GraphExporter(dataApi(client, RetryExecutor.fromConfig(config)), settings)
+                                .export(directory);
+                    }
+                }
+                default -> throw new IllegalArgumentException(
+                        "Invalid export transport (expected bolt or data-api): " + transport);
+            }
+        } finally {
+            NeptuneTelemetry.stop();
+        }
+        if (report.failedPartitions() > 0) {
+            throw new IllegalStateException(report.failedPartitions()
+                    + " partitions failed to export; run the export again to resume");
+        }
+    }
+}
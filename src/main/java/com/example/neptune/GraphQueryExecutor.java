@@ -0,0 +1,75 @@
+package com.example.neptune;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Runs queries in one graph query language over one transport, so callers can switch
+ * between openCypher, Gremlin and SPARQL without changing how they consume results.
+ * <p>
+ * Results are handed over row by row as maps: openCypher rows by column name, SPARQL
+ * solutions by variable name, and Gremlin traversal results as they are if they are
+ * maps, otherwise as {@code {"value": result}}.
+ * <p>
+ * Implementations run on the same pooled, authenticated clients as the demos and
+ * record the same query metrics, tagged with {@link #transport()}.
+ */
+public interface GraphQueryExecutor extends AutoCloseable {
+
+    enum Language { OPEN_CYPHER, GREMLIN, SPARQL }
+
+    Language language();
+
+    /**
+     * Metrics and tracing transport tag, e.g. {@code bolt} or {@code gremlin}
+     */
+    String transport();
+
+    /**
+     * Run a query and hand each result row to the consumer
+     *
+     * @param parameters query parameters; only openCypher supports them, the others take an empty map
+     * @return the number of rows
+     */
+    long execute(String query, Map<String, Object> parameters, Consumer<Map<String, Object>> rows);
+
+    /**
+     * Run a query and collect its result rows
+     */
+    default List<Map<String, Object>> query(String query, Map<String, Object> parameters) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        execute(query, parameters, rows::add);
+        return rows;
+    }
+
+    @Override
+    void close();
+
+    /**
+     * Create an executor with its own clients, configured, authenticated and pooled from
+     * config like the demos' clients
+     *
+     * @param kind {@code bolt} or {@code http} (openCypher), {@code gremlin} or {@code sparql}
+     */
+    static GraphQueryExecutor fromConfig(String kind, NeptuneConfig config) {
+        return switch (kind) {
+            case "bolt" -> BoltQueryExecutor.fromConfig(config);
+            case "http" -> new NeptuneOpenCypherHttpClient(config);
+            case "gremlin" -> GremlinQueryExecutor.fromConfig(config);
+            case "sparql" -> new NeptuneSparqlHttpClient(config);
+            default -> throw new IllegalArgumentException("Unknown query executor: " + kind
+                    + " (expected bolt, http, gremlin or sparql)");
+        };
+    }
+
+    /**
+     * Reject parameters for languages that are sent as plain query text
+     */
+    static void requireNoParameters(Language language, Map<String, Object> parameters) {
+        if (parameters != null && !parameters.isEmpty()) {
+            throw new IllegalArgumentException(language + " queries take no parameters: " + parameters.keySet());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.neptune;
+
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.SdkNumber;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteGremlinQueryResponse;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Gremlin through the Neptune Data API's {@code executeGremlinQuery}, as a
+ * {@link GraphQueryExecutor}. Traversals are sent as Gremlin scripts and results are
+ * requested as untyped GraphSON 3, so they arrive as plain JSON; typed GraphSON
+ * ({@code @type}/{@code @value}) is unwrapped as well.
+ */
+public class GremlinQueryExecutor implements GraphQueryExecutor {
+    private static final String TRANSPORT = "gremlin";
+
+    static final String SERIALIZER = "application/vnd.gremlin-v3.0+json;types=false";
+
+    private final NeptunedataClient client;
+    private final boolean ownsClient;
+
+    /**
+     * Run traversals on an existing Data API client, which the caller keeps ownership of
+     */
+    public GremlinQueryExecutor(NeptunedataClient client) {
+        this(client, false);
+    }
+
+    private GremlinQueryExecutor(NeptunedataClient client, boolean ownsClient) {
+        this.client = client;
+        this.ownsClient = ownsClient;
+    }
+
+    /**
+     * An executor with its own Data API client for the writer, with the configured HTTP
+     * transport and authentication
+     */
+    public static GremlinQueryExecutor fromConfig(NeptuneConfig config) {
+        AwsCredentialsProvider credentialsProvider = config.isIamAuth()
+                ? config.getCredentialsProvider()
+                : AnonymousCredentialsProvider.create();
+        return new GremlinQueryExecutor(NeptuneDataApiDemo.createClient(config, URI.create(config.getHttpsUri()),
+                credentialsProvider, ClientOverrideConfiguration.builder().build()), true);
+    }
+
+    @Override
+    public Language language() {
+        return Language.GREMLIN;
+    }
+
+    @Override
+    public String transport() {
+        return TRANSPORT;
+    }
+
+    @Override
+    public long execute(String query, Map<String, Object> parameters, Consumer<Map<String, Object>> rows) {
+        GraphQueryExecutor.requireNoParameters(Language.GREMLIN, parameters);
+        ExecuteGremlinQueryResponse response = NeptuneTelemetry.observeQuery(TRANSPORT, query,
+                () -> client.executeGremlinQuery(request -> request.gremlinQuery(query).serializer(SERIALIZER)),
+                null, r -> ResultSizes.ofDocument(r.result()));
+        return forEachResult(response.result(), rows);
+    }
+
+    /**
+     * Hand each item of a Gremlin response's {@code result.data} to the consumer
+     *
+     * @return the number of items
+     */
+    static long forEachResult(Document result, Consumer<Map<String, Object>> rows) {
+        Object data = result != null && result.isMap() ? toJava(result.asMap().get("data")) : null;
+        if (data == null) {
+            return 0;
+        }
+        List<?> items = data instanceof List<?> list ? list : List.of(data);
+        for (Object item : items) {
+            rows.accept(asRow(item));
+        }
+        return items.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asRow(Object item) {
+        if (item instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        return Collections.singletonMap("value", item);
+    }
+
+    /**
+     * Convert GraphSON to Java maps, lists, strings, booleans, longs and doubles
+     */
+    static Object toJava(Document document) {
+        if (document == null || document.isNull()) {
+            return null;
+        }
+        if (document.isString()) {
+            return document.asString();
+        }
+        if (document.isBoolean()) {
+            return document.asBoolean();
+        }
+        if (document.isNumber()) {
+            return toNumber(document.asNumber());
+        }
+        if (document.isList()) {
+            List<Object> list = new ArrayList<>(document.asList().size());
+            for (Document item : document.asList()) {
+                list.add(toJava(item));
+            }
+            return list;
+        }
+        Map<String, Document> map = document.asMap();
+        if (map.size() == 2 && map.containsKey("@type") && map.containsKey("@value")) {
+            return fromTyped(map.get("@type").asString(), map.get("@value"));
+        }
+        Map<String, Object> converted = new LinkedHashMap<>();
+        for (Map.Entry<String, Document> entry : map.entrySet()) {
+            converted.put(entry.getKey(), toJava(entry.getValue()));
+        }
+        return converted;
+    }
+
+    private static Object fromTyped(String type, Document value) {
+        if (type.equals("g:Map") && value.isList()) {
+            // Keys and values alternate, since GraphSON map keys need not be strings
+            List<Document> entries = value.asList();
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i + 1 < entries.size(); i += 2) {
+                map.put(String.valueOf(toJava(entries.get(i))), toJava(entries.get(i + 1)));
+            }
+            return map;
+        }
+        return toJava(value);
+    }
+
+    private static Object toNumber(SdkNumber number) {
+        BigDecimal decimal = number.bigDecimalValue();
+        if (decimal.scale() <= 0) {
+            try {
+                return decimal.longValueExact();
+            } catch (ArithmeticException e) {
+                // Too large for a long; keep it as a double
+            }
+        }
+        return decimal.doubleValue();
+    }
+
+    @Override
+    public void close() {
+        if (ownsClient) {
+            client.close();
+        }
+    }
+}
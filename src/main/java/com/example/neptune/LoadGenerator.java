@@ -0,0 +1,312 @@
+package com.example.neptune;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a read/write openCypher mix through one transport and records latencies in HDR
+ * histograms, to compare Bolt with the Data API for a workload and to size clusters.
+ * <p>
+ * With {@code neptune.load.rate} set, queries are issued on a fixed schedule (open loop)
+ * with up to {@code neptune.load.concurrency} in flight, and response times are measured
+ * from each query's scheduled start, so stalls are not hidden by the client slowing down
+ * (coordinated omission). Without a rate, {@code neptune.load.concurrency} workers run
+ * queries back to back (closed loop) and the corrected histogram is derived from the
+ * service times, using the mean service time as the expected interval.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LogManager.getLogger(LoadGenerator.class);
+
+    static final String READ_QUERY = "MATCH (n:LoadTest {id: $id}) RETURN n.id as id, n.value as value";
+    static final String WRITE_QUERY = "MERGE (n:LoadTest {id: $id}) SET n.value = $value";
+    static final String CLEANUP_QUERY = "MATCH (n:LoadTest) DETACH DELETE n";
+
+    // Latencies up to an hour at 3 significant digits
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    public enum OperationType { READ, WRITE }
+
+    /**
+     * Runs one query against the system under test; any exception counts as an error
+     */
+    @FunctionalInterface
+    public interface QueryTarget {
+        void execute(OperationType type, String query, Map<String, Object> parameters) throws Exception;
+    }
+
+    /**
+     * Load test settings, from {@code neptune.load.*}
+     *
+     * @param readRatio   fraction of operations that are reads, 0 to 1
+     * @param targetRate  operations per second across all workers; 0 for closed loop
+     * @param concurrency closed-loop workers, or the cap on queries in flight at a target rate
+     * @param keyspace    number of distinct node ids the workload touches
+     */
+    public record Settings(double readRatio, double targetRate, int concurrency, Duration duration,
+                           Duration warmup, int keyspace) {
+
+        public Settings {
+            if (readRatio < 0 || readRatio > 1) {
+                throw new IllegalArgumentException("Read ratio must be between 0 and 1: " + readRatio);
+            }
+            if (targetRate < 0) {
+                throw new IllegalArgumentException("Target rate must not be negative: " + targetRate);
+            }
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+            }
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+            if (warmup.isNegative()) {
+                throw new IllegalArgumentException("Warm-up must not be negative: " + warmup);
+            }
+            if (keyspace < 1) {
+                throw new IllegalArgumentException("Keyspace must be at least 1: " + keyspace);
+            }
+        }
+
+        public static Settings fromConfig(NeptuneConfig config) {
+            return new Settings(
+                    config.getDoubleSetting("neptune.load.read.ratio", "NEPTUNE_LOAD_READ_RATIO", 0.9),
+                    config.getDoubleSetting("neptune.load.rate", "NEPTUNE_LOAD_RATE", 0),
+                    config.getIntSetting("neptune.load.concurrency", "NEPTUNE_LOAD_CONCURRENCY", 16),
+                    Duration.ofSeconds(config.getLongSetting("neptune.load.duration.seconds",
+                            "NEPTUNE_LOAD_DURATION_SECONDS", 60)),
+                    Duration.ofSeconds(config.getLongSetting("neptune.load.warmup.seconds",
+                            "NEPTUNE_LOAD_WARMUP_SECONDS", 10)),
+                    config.getIntSetting("neptune.load.keyspace", "NEPTUNE_LOAD_KEYSPACE", 10_000));
+        }
+
+        public boolean isOpenLoop() {
+            return targetRate > 0;
+        }
+    }
+
+    private static final class Metrics {
+        final Recorder serviceTime = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final Recorder responseTime = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final Settings settings;
+    private final Map<OperationType, Metrics> metrics = new EnumMap<>(OperationType.class);
+
+    public LoadGenerator(Settings settings) {
+        this.settings = settings;
+        for (OperationType type : OperationType.values()) {
+            metrics.put(type, new Metrics());
+        }
+    }
+
+    /**
+     * Query target running each operation on its own Bolt session, reads on a reader when
+     * reader endpoints are configured and through the result cache when it is enabled
+     */
+    public static QueryTarget bolt(NeptuneBoltDemo demo) {
+        return (type, query, parameters) -> {
+            if (type == OperationType.READ) {
+                demo.readQuery(query, parameters);
+            } else {
+                demo.writeQuery(query, parameters);
+            }
+        };
+    }
+
+    /**
+     * Query target running each operation through the Neptune Data API, reads on a reader
+     * when reader endpoints are configured and through the result cache when it is enabled
+     */
+    public static QueryTarget dataApi(NeptuneDataApiDemo demo) {
+        return (type, query, parameters) -> {
+            if (type == OperationType.READ) {
+                demo.executeReadQuery(query, parameters);
+            } else {
+                demo.executeQuery(query, parameters);
+            }
+        };
+    }
+
+    /**
+     * Run the workload for the warm-up plus the measured duration and report on the measured part
+     */
+    public LoadReport run(String transport, QueryTarget target) throws InterruptedException {
+        String mode = settings.isOpenLoop()
+                ? String.format("open loop at %.1f ops/s, max %d in flight", settings.targetRate(), settings.concurrency())
+                : String.format("closed loop, %d workers", settings.concurrency());
+        logger.info("Starting load test over {}: {}, read ratio {}, {}s warm-up, {}s measured", transport, mode,
+                settings.readRatio(), settings.warmup().toSeconds(), settings.duration().toSeconds());
+
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        if (settings.isOpenLoop()) {
+            runOpenLoop(target, start, measureFrom, end);
+        } else {
+            runClosedLoop(target, measureFrom, end);
+        }
+        return report(transport, mode);
+    }
+
+    private void runOpenLoop(QueryTarget target, long start, long measureFrom, long end) throws InterruptedException {
+        long intervalNanos = Math.max(1, (long) (1e9 / settings.targetRate()));
+        Semaphore inFlight = new Semaphore(settings.concurrency());
+        try (ExecutorService executor =
+                     Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("neptune-load-", 0).factory())) {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                parkUntil(intended);
+                // Blocking here delays later queries, but their latency still counts from the schedule
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        executeOne(target, intended, measureFrom);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void runClosedLoop(QueryTarget target, long measureFrom, long end) {
+        try (ExecutorService executor =
+                     Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("neptune-load-", 0).factory())) {
+            for (int worker = 0; worker < settings.concurrency(); worker++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        executeOne(target, System.nanoTime(), measureFrom);
+                    }
+                });
+            }
+        }
+    }
+
+    private void executeOne(QueryTarget target, long intendedStart, long measureFrom) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        OperationType type = random.nextDouble() < settings.readRatio() ? OperationType.READ : OperationType.WRITE;
+        Map<String, Object> parameters = type == OperationType.READ
+                ? Map.of("id", random.nextInt(settings.keyspace()))
+                : Map.of("id", random.nextInt(settings.keyspace()), "value", random.nextLong());
+
+        long actualStart = System.nanoTime();
+        boolean failed = false;
+        try {
+            target.execute(type, type == OperationType.READ ? READ_QUERY : WRITE_QUERY, parameters);
+        } catch (Exception e) {
+            failed = true;
+            logger.debug("Load test {} failed: {}", type, e.getMessage());
+        }
+        long done = System.nanoTime();
+
+        if (intendedStart < measureFrom) {
+            return;
+        }
+        Metrics m = metrics.get(type);
+        m.count.increment();
+        if (failed) {
+            m.errors.increment();
+        } else {
+            m.serviceTime.recordValue(Math.min(done - actualStart, HIGHEST_TRACKABLE_NANOS));
+            m.responseTime.recordValue(Math.min(done - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        }
+    }
+
+    private LoadReport report(String transport, String mode) {
+        Map<OperationType, LoadReport.OperationStats> operations = new EnumMap<>(OperationType.class);
+        metrics.forEach((type, m) -> {
+            Histogram serviceTime = m.serviceTime.getIntervalHistogram();
+            Histogram responseTime = m.responseTime.getIntervalHistogram();
+            if (!settings.isOpenLoop() && serviceTime.getTotalCount() > 0) {
+                responseTime = serviceTime.copyCorrectedForCoordinatedOmission((long) serviceTime.getMean());
+            }
+            operations.put(type, new LoadReport.OperationStats(m.count.sum(), m.errors.sum(), serviceTime, responseTime));
+        });
+        return new LoadReport(transport, mode, settings.duration(), operations);
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+        NeptuneTelemetry.start(config);
+        String transport = args.length > 0 ? args[0].toLowerCase()
+                : config.getSetting("neptune.load.transport", "NEPTUNE_LOAD_TRANSPORT", "bolt");
+        LoadGenerator generator = new LoadGenerator(Settings.fromConfig(config));
+
+        LoadReport report;
+        try {
+            switch (transport) {
+                case "bolt" -> {
+                    NeptuneBoltDemo demo = new NeptuneBoltDemo(config);
+                    try {
+                        demo.warmUp();
+                        report = generator.run(transport, bolt(demo));
+                        demo.logPoolStats();
+                        demo.getRoutingStats().forEach(stats -> logger.info("Routing stats: {}", stats));
+                        logResultCacheStats(demo.getResultCacheStats());
+                        logger.info("Retry stats: {}", demo.getRetryStats());
+                        runCleanup(bolt(demo));
+                    } finally {
+                        demo.close();
+                    }
+                }
+                case "data-api" -> {
+                    NeptuneDataApiDemo demo = new NeptuneDataApiDemo(config);
+                    try {
+                        demo.warmUp();
+                        report = generator.run(transport, dataApi(demo));
+                        demo.getRoutingStats().forEach(stats -> logger.info("Routing stats: {}", stats));
+                        logResultCacheStats(demo.getResultCacheStats());
+                        logger.info("Retry stats: {}", demo.getRetryStats());
+                        runCleanup(dataApi(demo));
+                    } finally {
+                        demo.close();
+                    }
+                }
+                default -> throw new IllegalArgumentException("Invalid load transport (expected bolt or data-api): " + transport);
+            }
+        } finally {
+            NeptuneTelemetry.stop();
+        }
+        logger.info("\n{}", report.format());
+    }
+
+    private static void logResultCacheStats(QueryResultCache.Stats stats) {
+        if (stats != null) {
+            logger.info("Result cache stats: {}", stats);
+        }
+    }
+
+    private static void runCleanup(QueryTarget target) {
+        try {
+            target.execute(OperationType.WRITE, CLEANUP_QUERY, Map.of());
+        } catch (Exception e) {
+            logger.warn("Failed to clean up load test nodes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.neptune;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of a LoadGenerator run: per-operation counts, errors and latency histograms
+ * over the measured period (warm-up excluded). Histogram values are in nanoseconds.
+ */
+public record LoadReport(String transport, String mode, Duration measured,
+                         Map<LoadGenerator.OperationType, OperationStats> operations) {
+
+    /**
+     * Results for one operation type. {@code serviceTime} is measured from when a query
+     * actually started; {@code responseTime} is corrected for coordinated omission, i.e.
+     * measured from when it should have started had the client kept up with the schedule.
+     */
+    public record OperationStats(long count, long errors, Histogram serviceTime, Histogram responseTime) {
+
+        public double throughput(Duration measured) {
+            double seconds = measured.toNanos() / 1e9;
+            return seconds == 0 ? 0.0 : (count - errors) / seconds;
+        }
+
+        public double errorRate() {
+            return count == 0 ? 0.0 : (double) errors / count;
+        }
+    }
+
+    public long totalCount() {
+        return operations.values().stream().mapToLong(OperationStats::count).sum();
+    }
+
+    public long totalErrors() {
+        return operations.values().stream().mapToLong(OperationStats::errors).sum();
+    }
+
+    public String format() {
+        StringBuilder report = new StringBuilder(String.format(
+                "Load test over %s (%s): %d operations in %.1fs, %d errors%n",
+                transport, mode, totalCount(), measured.toNanos() / 1e9, totalErrors()));
+        operations.forEach((type, stats) -> report.append(String.format(
+                "  %-5s %8d ops %10.1f ops/s %6.2f%% errors | service   %s%n" +
+                        "  %-5s %8s     %10s       %6s         | corrected %s%n",
+                type, stats.count(), stats.throughput(measured), stats.errorRate() * 100,
+                percentiles(stats.serviceTime()), "", "", "", "", percentiles(stats.responseTime()))));
+        return report.toString();
+    }
+
+    private static String percentiles(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "no samples";
+        }
+        return String.format("p50 %8.2fms  p99 %8.2fms  p99.9 %8.2fms  max %8.2fms",
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+    }
+}
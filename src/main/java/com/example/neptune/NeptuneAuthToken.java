@@ -6,6 +6,7 @@ import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
 import org.neo4j.driver.internal.security.InternalAuthToken;
 import org.neo4j.driver.internal.value.StringValue;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.signer.Aws4Signer;
 import software.amazon.awssdk.auth.signer.params.Aws4SignerParams;
@@ -14,8 +15,16 @@ import software.amazon.awssdk.http.SdkHttpMethod;
 import software.amazon.awssdk.regions.Region;
 
 import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.neo4j.driver.internal.security.InternalAuthToken.CREDENTIALS_KEY;
 import static org.neo4j.driver.internal.security.InternalAuthToken.PRINCIPAL_KEY;
@@ -30,10 +39,18 @@ import static software.amazon.awssdk.http.auth.aws.internal.signer.util.SignerCo
  * Use this class instead of `AuthTokens.basic` when working with an IAM
  * auth-enabled server. It works the same as `AuthTokens.basic` when using
  * static credentials, and avoids making requests with an expired signature
- * when using temporary credentials. Internally, it generates a new signature
- * on every invocation (this may change in a future implementation).
+ * when using temporary credentials.
+ * <p>
+ * Signed tokens are cached and reused until shortly before they expire. A token
+ * expires {@link #DEFAULT_SIGNATURE_TTL} after signing, or earlier if the
+ * temporary credentials it was signed with expire first. Once a token is older
+ * than its refresh point, callers keep receiving it while a single background
+ * refresh re-signs it, so concurrent callers never all re-sign at once. Pass a
+ * zero TTL to sign on every invocation.
  * <p>
  * Note that authentication happens only the first time for a pooled connection.
+ * Wrap the token in a {@link NeptuneAuthTokenManager} so that connections opened
+ * later in the driver's lifetime receive a current signature.
  * <p>
  * Typical usage:
  *
@@ -52,61 +69,190 @@ import static software.amazon.awssdk.http.auth.aws.internal.signer.util.SignerCo
  * </pre>
  */
 public class NeptuneAuthToken {
+    /**
+     * Neptune rejects signatures older than five minutes; stay well inside that window.
+     */
+    public static final Duration DEFAULT_SIGNATURE_TTL = Duration.ofMinutes(4);
+
     private static final String SCHEME = "basic";
     private static final String REALM = "realm";
     private static final String SERVICE_NAME = "neptune-db";
     private static final String HTTP_METHOD_HDR = "HttpMethod";
     private static final String DUMMY_USERNAME = "username";
+    private static final double REFRESH_FRACTION = 0.75;
+
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "neptune-auth-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final String region;
     private final String url;
     private final AwsCredentialsProvider credentialsProvider;
     private final Gson gson = new Gson();
+    private final Aws4Signer signer = Aws4Signer.create();
+    private final SdkHttpFullRequest unsignedRequest;
+    private final Duration signatureTtl;
+    private final Duration refreshAfter;
+    private final Clock clock;
+    private final Executor refreshExecutor;
+
+    private final Object signLock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private volatile CachedToken cached;
 
     public NeptuneAuthToken(String region, String url, AwsCredentialsProvider credentialsProvider) {
-        // The superclass caches the result of toMap(), which we don't want
+        this(region, url, credentialsProvider, DEFAULT_SIGNATURE_TTL);
+    }
+
+    public NeptuneAuthToken(String region, String url, AwsCredentialsProvider credentialsProvider,
+                            Duration signatureTtl) {
+        this(region, url, credentialsProvider, signatureTtl, Clock.systemUTC(), REFRESH_EXECUTOR);
+    }
+
+    NeptuneAuthToken(String region, String url, AwsCredentialsProvider credentialsProvider,
+                     Duration signatureTtl, Clock clock, Executor refreshExecutor) {
+        if (signatureTtl.isNegative()) {
+            throw new IllegalArgumentException("Signature TTL must not be negative: " + signatureTtl);
+        }
         this.region = region;
         this.url = url;
         this.credentialsProvider = credentialsProvider;
+        this.signatureTtl = signatureTtl;
+        this.refreshAfter = Duration.ofMillis((long) (signatureTtl.toMillis() * REFRESH_FRACTION));
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+
+        URI uri = URI.create(url);
+        this.unsignedRequest = SdkHttpFullRequest.builder()
+                .method(SdkHttpMethod.GET)
+                .uri(uri)
+                .protocol(uri.getScheme())
+                .appendRawQueryParameter("", "")
+                .encodedPath("/opencypher")
+                .build();
     }
 
     public AuthToken toAuthToken() {
-        return new InternalAuthToken(toMap());
+        if (signatureTtl.isZero()) {
+            misses.increment();
+            return sign().authToken();
+        }
+
+        Instant now = clock.instant();
+        CachedToken current = cached;
+        if (current != null && now.isBefore(current.expiresAt())) {
+            hits.increment();
+            if (!now.isBefore(current.refreshAt())) {
+                scheduleRefresh();
+            }
+            return current.authToken();
+        }
+
+        synchronized (signLock) {
+            current = cached;
+            if (current != null && clock.instant().isBefore(current.expiresAt())) {
+                hits.increment();
+                return current.authToken();
+            }
+            misses.increment();
+            current = sign();
+            cached = current;
+            return current.authToken();
+        }
     }
 
     public String getUrl() {
         return url;
     }
 
-    private Map<String, Value> toMap() {
+    /**
+     * Drop the cached token if it is the one the server rejected, so the next
+     * call signs afresh. A token that has already been replaced is left alone.
+     */
+    public void invalidate(AuthToken rejected) {
+        synchronized (signLock) {
+            CachedToken current = cached;
+            if (current != null && current.authToken() == rejected) {
+                cached = null;
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the signature cache counters.
+     */
+    public CacheStats getCacheStats() {
+        return new CacheStats(hits.sum(), misses.sum(), refreshes.sum());
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    CachedToken refreshed = sign();
+                    synchronized (signLock) {
+                        cached = refreshed;
+                    }
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    // Keep serving the current token; the next caller past the refresh point retries
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+        }
+    }
+
+    private CachedToken sign() {
+        return NeptuneTelemetry.signingTimer().record(this::signNow);
+    }
+
+    private CachedToken signNow() {
+        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+        Instant signedAt = clock.instant();
+        AuthToken authToken = new InternalAuthToken(toMap(getSignedHeader(credentials)));
+
+        Instant expiresAt = signedAt.plus(signatureTtl);
+        Instant credentialsExpiry = credentials.expirationTime().orElse(null);
+        if (credentialsExpiry != null && credentialsExpiry.isBefore(expiresAt)) {
+            expiresAt = credentialsExpiry;
+        }
+        Instant refreshAt = signedAt.plus(refreshAfter);
+        if (refreshAt.isAfter(expiresAt)) {
+            refreshAt = expiresAt;
+        }
+        return new CachedToken(authToken, refreshAt, expiresAt);
+    }
+
+    private Map<String, Value> toMap(String signedHeader) {
         final Map<String, Value> map = new HashMap<>();
         map.put(SCHEME_KEY, Values.value(SCHEME));
         map.put(PRINCIPAL_KEY, Values.value(DUMMY_USERNAME));
-        map.put(CREDENTIALS_KEY, new StringValue(getSignedHeader()));
+        map.put(CREDENTIALS_KEY, new StringValue(signedHeader));
         map.put(REALM_KEY, Values.value(REALM));
 
         return map;
     }
 
-    private String getSignedHeader() {
-        URI uri = URI.create(url);
-
-        SdkHttpFullRequest request = SdkHttpFullRequest.builder()
-                .method(SdkHttpMethod.GET)
-                .uri(uri)
-                .protocol(uri.getScheme())
-                .appendRawQueryParameter("", "")
-                .encodedPath("/opencypher")
-                .build();
-
+    private String getSignedHeader(AwsCredentials credentials) {
         Aws4SignerParams signerParams = Aws4SignerParams.builder()
-                .awsCredentials(credentialsProvider.resolveCredentials())
+                .awsCredentials(credentials)
                 .signingName(SERVICE_NAME)
                 .signingRegion(Region.of(region))
+                .signingClockOverride(clock)
                 .build();
 
-        Aws4Signer signer = Aws4Signer.create();
-        SdkHttpFullRequest signedRequest = signer.sign(request, signerParams);
+        SdkHttpFullRequest signedRequest = signer.sign(unsignedRequest, signerParams);
 
         return getAuthInfoJson(signedRequest);
     }
@@ -121,4 +267,14 @@ public class NeptuneAuthToken {
 
         return gson.toJson(obj);
     }
+
+    private record CachedToken(AuthToken authToken, Instant refreshAt, Instant expiresAt) {
+    }
+
+    /**
+     * Signature cache counters. Misses are synchronous signings on the caller's
+     * thread; refreshes are background re-signings ahead of expiry.
+     */
+    public record CacheStats(long hits, long misses, long refreshes) {
+    }
 }
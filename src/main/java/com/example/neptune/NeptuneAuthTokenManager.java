@@ -0,0 +1,86 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.AuthToken;
+import org.neo4j.driver.AuthTokenManager;
+import org.neo4j.driver.exceptions.AuthenticationException;
+import org.neo4j.driver.exceptions.AuthorizationExpiredException;
+import org.neo4j.driver.exceptions.SecurityException;
+import org.neo4j.driver.exceptions.TokenExpiredException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link AuthTokenManager} backed by a {@link NeptuneAuthToken}. The driver asks
+ * it for a token whenever it opens a pooled connection, so new connections are
+ * always authenticated with a current signature and the driver never has to be
+ * rebuilt when signatures or temporary credentials expire.
+ * <p>
+ * When Neptune rejects a token, the cached signature is dropped and the error is
+ * reported to the driver as retryable: the driver throws a
+ * {@code SecurityRetryableException}, which {@link NeptuneErrors#isRetryable}
+ * accepts, so calls run under {@link RetryExecutor} (and the driver's managed
+ * transactions) retry once with a freshly signed token. If that fresh token is
+ * rejected too, the failure is not an expiry and is surfaced to the caller.
+ * <p>
+ * Typical usage:
+ *
+ * <pre>
+ * NeptuneAuthToken neptuneAuthToken = new NeptuneAuthToken(region, httpsUri, credentialsProvider);
+ * Driver driver = GraphDatabase.driver(boltUri, new NeptuneAuthTokenManager(neptuneAuthToken), config);
+ * </pre>
+ */
+public class NeptuneAuthTokenManager implements AuthTokenManager {
+    private static final Logger logger = LogManager.getLogger(NeptuneAuthTokenManager.class);
+
+    private final NeptuneAuthToken neptuneAuthToken;
+    private final AtomicBoolean awaitingRetryToken = new AtomicBoolean();
+    private volatile AuthToken retryToken;
+
+    public NeptuneAuthTokenManager(NeptuneAuthToken neptuneAuthToken) {
+        this.neptuneAuthToken = neptuneAuthToken;
+    }
+
+    @Override
+    public CompletionStage<AuthToken> getToken() {
+        try {
+            AuthToken token = neptuneAuthToken.toAuthToken();
+            if (awaitingRetryToken.compareAndSet(true, false)) {
+                retryToken = token;
+            }
+            return CompletableFuture.completedFuture(token);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public boolean handleSecurityException(AuthToken authToken, SecurityException exception) {
+        if (!isExpiry(exception)) {
+            return false;
+        }
+        if (authToken == retryToken) {
+            logger.warn("Freshly signed token was rejected, not retrying: {}", exception.getMessage());
+            return false;
+        }
+
+        logger.info("Neptune rejected an auth token ({}), re-signing and retrying once", exception.getMessage());
+        neptuneAuthToken.invalidate(authToken);
+        awaitingRetryToken.set(true);
+        return true;
+    }
+
+    public NeptuneAuthToken getNeptuneAuthToken() {
+        return neptuneAuthToken;
+    }
+
+    private static boolean isExpiry(SecurityException exception) {
+        // Neptune reports a stale SigV4 signature as a plain authentication failure
+        return exception instanceof TokenExpiredException
+                || exception instanceof AuthorizationExpiredException
+                || exception instanceof AuthenticationException;
+    }
+}
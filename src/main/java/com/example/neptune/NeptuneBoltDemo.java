@@ -2,38 +2,290 @@ package com.example.neptune;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.neo4j.driver.AuthToken;
+import org.neo4j.driver.AccessMode;
 import org.neo4j.driver.AuthTokens;
 import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Query;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Transaction;
 import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.summary.ResultSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Demo application for connecting to Amazon Neptune using OpenCypher via Bolt protocol
  */
 public class NeptuneBoltDemo {
     private static final Logger logger = LogManager.getLogger(NeptuneBoltDemo.class);
+    private static final String TRANSPORT = "bolt";
+
+    record Person(String name, int age) {
+    }
+
+    record Employment(String person, String relationship, String company) {
+    }
 
     private final Driver driver;
+    private final EndpointRouter<Driver> router;
+    private final boolean metricsEnabled;
+    private final QueryTemplateCache templates;
+    private final QueryResultCache<List<Record>> resultCache;
+    private final RetryExecutor retryExecutor;
+    private final ConnectionWarmUp.Settings warmUp;
+    private final WriteCoalescer.Settings writeCoalescing;
+    private final EndpointHealthMonitor healthMonitor;
+    private final SlowQueryLog slowQueries;
 
     public NeptuneBoltDemo(NeptuneConfig config) {
-        AuthToken authToken = config.isIamAuth() ?
-                new NeptuneAuthToken(config.getRegion(), config.getHttpsUri(), config.getCredentialsProvider())
-                        .toAuthToken() :
-                AuthTokens.none();
+        BoltPoolConfig poolConfig = config.getBoltPoolConfig();
+        Config driverConfig = driverConfig(poolConfig);
+        metricsEnabled = poolConfig.isMetricsEnabled();
+        templates = QueryTemplateCache.fromConfig(config);
+        resultCache = QueryResultCache.fromConfig(config, ResultSizes::ofRecords);
+        retryExecutor = RetryExecutor.fromConfig(config);
+        writeCoalescing = WriteCoalescer.Settings.fromConfig(config);
+        ConnectionWarmUp.Settings warmUpSettings = ConnectionWarmUp.Settings.fromConfig(config);
+        // More connections than the pool allows would wait for each other until the timeout
+        int maxPoolSize = poolConfig.getMaxPoolSize() != null ? poolConfig.getMaxPoolSize() : Integer.MAX_VALUE;
+        warmUp = new ConnectionWarmUp.Settings(Math.min(warmUpSettings.connections(), maxPoolSize),
+                warmUpSettings.timeout());
+
+        driver = createDriver(config, config.getBoltUri(), config.getHttpsUri(), driverConfig);
+        List<String> readerUris = config.getReaderBoltUris();
+        List<String> readerHttpsUris = config.getReaderHttpsUris();
+        List<Driver> readers = new ArrayList<>(readerUris.size());
+        for (int i = 0; i < readerUris.size(); i++) {
+            readers.add(createDriver(config, readerUris.get(i), readerHttpsUris.get(i), driverConfig));
+        }
+        router = new EndpointRouter<>(config.getBoltUri(), driver, readerUris, readers,
+                config.getReadYourWritesWindow(), CircuitBreaker.Settings.fromConfig(config),
+                AdaptiveConcurrencyLimiter.Settings.fromConfig(config));
+        List<String> httpsUris = new ArrayList<>(readerHttpsUris.size() + 1);
+        httpsUris.add(config.getHttpsUri());
+        httpsUris.addAll(readerHttpsUris);
+        healthMonitor = EndpointHealthMonitor.fromConfig(config, router, httpsUris);
+        // Explains go through the Data API, on a client the log creates for the writer
+        slowQueries = SlowQueryLog.fromConfig(config, TRANSPORT, null);
+
+        NeptuneTelemetry.bindRouter(TRANSPORT, router);
+        NeptuneTelemetry.bindRetries(TRANSPORT, retryExecutor);
+        if (resultCache != null) {
+            NeptuneTelemetry.bindResultCache(TRANSPORT, resultCache);
+        }
+        if (metricsEnabled) {
+            NeptuneTelemetry.bindBoltPools(config.getBoltUri(), driver);
+            for (int i = 0; i < readers.size(); i++) {
+                NeptuneTelemetry.bindBoltPools(readerUris.get(i), readers.get(i));
+            }
+        }
+
+        logger.info("Successfully created Bolt driver for URI: {}", config.getBoltUri());
+        if (!readers.isEmpty()) {
+            logger.info("Routing reads to {} reader(s): {}", readers.size(), readerUris);
+        }
+        logger.debug("Bolt pool settings: {}", poolConfig);
+    }
 
+    private static Config driverConfig(BoltPoolConfig poolConfig) {
+        return poolConfig.applyTo(Config.builder().withEncryption()
+                        .withTrustStrategy(Config.TrustStrategy.trustSystemCertificates()))
+                .build();
+    }
 
-        // Create driver instance
-        driver = GraphDatabase.driver(config.getBoltUri(), authToken,
-                Config.builder().withEncryption()
-                        .withTrustStrategy(Config.TrustStrategy.trustSystemCertificates())
-                        .build());
+    /**
+     * A driver for the writer endpoint with the configured pool and authentication
+     */
+    static Driver createDriver(NeptuneConfig config) {
+        return createDriver(config, config.getBoltUri(), config.getHttpsUri(), driverConfig(config.getBoltPoolConfig()));
+    }
 
-        logger.info("Successfully created Bolt driver for URI: {}", config.getBoltUri());
+    private static Driver createDriver(NeptuneConfig config, String boltUri, String httpsUri, Config driverConfig) {
+        // With IAM auth every new pooled connection gets a current signature for its endpoint
+        if (config.isIamAuth()) {
+            NeptuneAuthToken neptuneAuthToken = new NeptuneAuthToken(
+                    config.getRegion(), httpsUri, config.getCredentialsProvider());
+            return GraphDatabase.driver(boltUri, new NeptuneAuthTokenManager(neptuneAuthToken), driverConfig);
+        }
+        return GraphDatabase.driver(boltUri, AuthTokens.none(), driverConfig);
+    }
+
+    /**
+     * Run read-only work in a transaction on the least busy reader (or the writer, when
+     * there are no readers or read-your-writes requires it). Transactions that fail with a
+     * retryable error are retried on a fresh session, so the work must consume its results
+     * inside the function and may run more than once.
+     */
+    public <T> T executeRead(Function<Transaction, T> work) {
+        return NeptuneTelemetry.observeQuery(TRANSPORT, "<read transaction>", () -> runRead(work), null, null);
+    }
+
+    private <T> T runRead(Function<Transaction, T> work) {
+        return retryExecutor.execute("read transaction",
+                () -> router.withReader(lease -> inTransaction(lease.client(), AccessMode.READ, work)));
+    }
+
+    /**
+     * Run work that writes in a transaction on the writer, retrying retryable failures like
+     * {@link #executeRead}. The written labels are unknown, so this clears the result cache;
+     * prefer {@link #writeQuery} for single statements.
+     */
+    public <T> T executeWrite(Function<Transaction, T> work) {
+        T result = NeptuneTelemetry.observeQuery(TRANSPORT, "<write transaction>", () -> runWrite(work), null, null);
+        if (resultCache != null) {
+            resultCache.invalidateAll();
+        }
+        return result;
+    }
+
+    private <T> T runWrite(Function<Transaction, T> work) {
+        T result = retryExecutor.execute("write transaction",
+                () -> router.withWriter(lease -> inTransaction(lease.client(), AccessMode.WRITE, work)));
+        router.recordWrite();
+        return result;
+    }
+
+    private static <T> T inTransaction(Driver client, AccessMode accessMode, Function<Transaction, T> work) {
+        try (Session session = client.session(SessionConfig.builder().withDefaultAccessMode(accessMode).build());
+             Transaction tx = session.beginTransaction()) {
+            T result = work.apply(tx);
+            tx.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Run a read-only query and collect its records, through the result cache when
+     * {@code neptune.result.cache.enabled} is set
+     */
+    public List<Record> readQuery(String template, Map<String, Object> parameters) {
+        QueryTemplate queryTemplate = templates.intern(template);
+        Supplier<List<Record>> query = () -> NeptuneTelemetry.observeQuery(TRANSPORT, template,
+                () -> runRead(tx -> collect(tx, queryTemplate, parameters)), List::size, ResultSizes::ofRecords);
+        if (resultCache == null) {
+            return query.get();
+        }
+        return resultCache.get(queryTemplate, parameters, query);
+    }
+
+    /**
+     * Run a write query on the writer and invalidate cached results for the labels it names
+     */
+    public List<Record> writeQuery(String template, Map<String, Object> parameters) {
+        QueryTemplate queryTemplate = templates.intern(template);
+        List<Record> records = NeptuneTelemetry.observeQuery(TRANSPORT, template,
+                () -> runWrite(tx -> collect(tx, queryTemplate, parameters)), List::size, ResultSizes::ofRecords);
+        if (resultCache != null) {
+            resultCache.invalidate(queryTemplate);
+        }
+        return records;
+    }
+
+    /**
+     * Run a query in a transaction and collect its records, timing each attempt for the slow query log
+     */
+    private List<Record> collect(Transaction tx, QueryTemplate template, Map<String, Object> parameters) {
+        if (slowQueries == null) {
+            return tx.run(template.bind(parameters)).list();
+        }
+        return slowQueries.time(template.getText(), parameters, () -> tx.run(template.bind(parameters)).list(),
+                List::size);
+    }
+
+    /**
+     * A write coalescer with the {@code neptune.coalesce.*} settings that writes through
+     * {@link #writeQuery}, so coalesced statements are retried and invalidate the result cache
+     */
+    public WriteCoalescer newWriteCoalescer() {
+        return new WriteCoalescer(this::writeQuery, writeCoalescing);
+    }
+
+    /**
+     * Result cache counters, or null when the cache is disabled
+     */
+    public QueryResultCache.Stats getResultCacheStats() {
+        return resultCache == null ? null : resultCache.getStats();
+    }
+
+    public List<EndpointRouter.EndpointStats> getRoutingStats() {
+        return router.getStats();
+    }
+
+    public RetryExecutor.Stats getRetryStats() {
+        return retryExecutor.getStats();
+    }
+
+    /**
+     * Bind parameters to a cached query template
+     */
+    public Query query(String template, Map<String, Object> parameters) {
+        return templates.intern(template).bind(parameters);
+    }
+
+    public QueryTemplateCache.Stats getTemplateStats() {
+        return templates.getStats();
+    }
+
+    /**
+     * Slow query log counters, or null when the slow query log is disabled
+     */
+    public SlowQueryLog.Stats getSlowQueryStats() {
+        return slowQueries == null ? null : slowQueries.getStats();
+    }
+
+    /**
+     * Demonstrate non-blocking streaming and pipelined queries
+     */
+    public void runStreamingQueries() {
+        BoltStreamingClient streamingClient = new BoltStreamingClient(driver);
+
+        logger.info("Streaming records asynchronously");
+        ResultSummary summary = streamingClient.forEachAsync(
+                        query("UNWIND range(1, $count) AS i RETURN i", Map.of("count", 5)),
+                        record -> logger.info("Streamed record: {}", record.get("i").asInt()))
+                .toCompletableFuture().join();
+        logger.info("Stream finished after {} ms", summary.resultAvailableAfter(TimeUnit.MILLISECONDS)
+                + summary.resultConsumedAfter(TimeUnit.MILLISECONDS));
+
+        logger.info("Pipelining queries over one connection");
+        List<Query> queries = List.of(
+                query("MATCH (p:Person) RETURN count(p) as count", Map.of()),
+                query("MATCH (c:Company) RETURN count(c) as count", Map.of()));
+        streamingClient.pipelineAsync(queries, (index, record) ->
+                        logger.info("{} -> {}", queries.get(index).text(), record.get("count").asLong()))
+                .toCompletableFuture().join();
+    }
+
+    /**
+     * Snapshot the driver's connection pools. Empty when pool metrics are disabled.
+     */
+    public List<BoltPoolStats> getPoolStats() {
+        if (!metricsEnabled) {
+            return List.of();
+        }
+        return router.getClients().stream()
+                .flatMap(client -> client.metrics().connectionPoolMetrics().stream())
+                .map(BoltPoolStats::from)
+                .toList();
+    }
+
+    /**
+     * Log a snapshot of the driver's connection pools
+     */
+    public void logPoolStats() {
+        for (BoltPoolStats stats : getPoolStats()) {
+            logger.info("Bolt pool stats: {}", stats);
+        }
     }
 
     /**
@@ -73,16 +325,19 @@ public class NeptuneBoltDemo {
 
             // Query 1: Create some sample nodes
             String createQuery = """
-                    CREATE (p1:Person {name: 'Alice', age: 30})
-                    CREATE (p2:Person {name: 'Bob', age: 25})
-                    CREATE (c:Company {name: 'TechCorp'})
+                    CREATE (p1:Person {name: $name1, age: $age1})
+                    CREATE (p2:Person {name: $name2, age: $age2})
+                    CREATE (c:Company {name: $company})
                     CREATE (p1)-[:WORKS_FOR]->(c)
                     CREATE (p2)-[:WORKS_FOR]->(c)
                     RETURN p1.name as person1, p2.name as person2, c.name as company
                     """;
 
             logger.info("Creating sample data");
-            Result createResult = session.run(createQuery);
+            Result createResult = session.run(query(createQuery, Map.of(
+                    "name1", "Alice", "age1", 30,
+                    "name2", "Bob", "age2", 25,
+                    "company", "TechCorp")));
 
             if (createResult.hasNext()) {
                 Record record = createResult.next();
@@ -96,13 +351,12 @@ public class NeptuneBoltDemo {
             String findQuery = "MATCH (p:Person) RETURN p.name as name, p.age as age ORDER BY p.name";
 
             logger.info("Finding all persons");
-            Result findResult = session.run(findQuery);
+            Result findResult = session.run(query(findQuery, Map.of()));
 
+            ResultMapper<Person> persons = ResultMapper.of(Person.class);
             while (findResult.hasNext()) {
-                Record record = findResult.next();
-                logger.info("Person: {} (age: {})",
-                        record.get("name").asString(),
-                        record.get("age").asInt());
+                Person person = persons.fromRecord(findResult.next());
+                logger.info("Person: {} (age: {})", person.name(), person.age());
             }
 
             // Query 3: Find relationships
@@ -112,14 +366,12 @@ public class NeptuneBoltDemo {
                     """;
 
             logger.info("Finding relationships");
-            Result relationResult = session.run(relationQuery);
+            Result relationResult = session.run(query(relationQuery, Map.of()));
 
+            ResultMapper<Employment> employments = ResultMapper.of(Employment.class);
             while (relationResult.hasNext()) {
-                Record record = relationResult.next();
-                logger.info("{} {} {}",
-                        record.get("person").asString(),
-                        record.get("relationship").asString(),
-                        record.get("company").asString());
+                Employment employment = employments.fromRecord(relationResult.next());
+                logger.info("{} {} {}", employment.person(), employment.relationship(), employment.company());
             }
 
             // Query 4: Cleanup - remove the test data
@@ -130,7 +382,7 @@ public class NeptuneBoltDemo {
                     """;
 
             logger.info("Cleaning up test data");
-            session.run(cleanupQuery);
+            session.run(query(cleanupQuery, Map.of()));
             logger.info("Test data cleaned up successfully");
 
             logger.info("Sample queries completed successfully");
@@ -144,18 +396,50 @@ public class NeptuneBoltDemo {
         }
     }
 
+    /**
+     * Open {@code neptune.warmup.connections} pooled connections to each endpoint, in
+     * parallel, each holding a read transaction until all are open
+     *
+     * @return the number of connections opened
+     */
+    public int warmUp() throws InterruptedException {
+        return ConnectionWarmUp.run(TRANSPORT, router, warmUp, (endpoint, holdUntilAllOpen) -> {
+            try (Session session = endpoint.session(SessionConfig.builder()
+                    .withDefaultAccessMode(AccessMode.READ)
+                    .build());
+                 Transaction tx = session.beginTransaction()) {
+                tx.run("RETURN 1").consume();
+                holdUntilAllOpen.run();
+            }
+        });
+    }
+
+    /**
+     * The writer's driver, for components that need their own sessions
+     */
+    public Driver getDriver() {
+        return driver;
+    }
+
     /**
      * Close the driver connection
      */
     public void close() {
+        if (healthMonitor != null) {
+            healthMonitor.close();
+        }
+        if (slowQueries != null) {
+            slowQueries.close();
+        }
         if (driver != null) {
-            driver.close();
+            router.getClients().forEach(Driver::close);
             logger.info("Bolt driver closed");
         }
     }
 
     public static void main(String[] args) {
         NeptuneConfig config = NeptuneConfig.fromProperties();
+        NeptuneTelemetry.start(config);
 
         logger.info("Connecting to Neptune at: {}", config.getBoltUri());
 
@@ -163,6 +447,7 @@ public class NeptuneBoltDemo {
         try {
             // Create connection
             demo = new NeptuneBoltDemo(config);
+            demo.warmUp();
 
             // Test connection
             demo.testConnection();
@@ -170,6 +455,20 @@ public class NeptuneBoltDemo {
             // Run sample queries
             demo.runSampleQueries();
 
+            // Stream and pipeline queries without blocking
+            demo.runStreamingQueries();
+
+            demo.logPoolStats();
+            demo.getRoutingStats().forEach(stats -> logger.info("Bolt routing stats: {}", stats));
+            if (demo.getResultCacheStats() != null) {
+                logger.info("Result cache stats: {}", demo.getResultCacheStats());
+            }
+            logger.info("Query template stats: {}", demo.getTemplateStats());
+            logger.info("Retry stats: {}", demo.getRetryStats());
+            if (demo.getSlowQueryStats() != null) {
+                logger.info("Slow query stats: {}", demo.getSlowQueryStats());
+            }
+
         } catch (Exception e) {
             logger.error("Demo failed: {}", e.getMessage(), e);
             System.exit(1);
@@ -177,6 +476,7 @@ public class NeptuneBoltDemo {
             if (demo != null) {
                 demo.close();
             }
+            NeptuneTelemetry.stop();
         }
 
         logger.info("Neptune Bolt Demo completed successfully");
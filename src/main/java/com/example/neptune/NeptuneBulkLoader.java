@@ -0,0 +1,322 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.neptunedata.model.Format;
+import software.amazon.awssdk.services.neptunedata.model.GetLoaderJobStatusResponse;
+import software.amazon.awssdk.services.neptunedata.model.StartLoaderJobResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads files written by {@link BulkLoadCsvWriter} with Neptune's native bulk loader,
+ * which is orders of magnitude faster than running {@code CREATE} statements.
+ * <p>
+ * Files are uploaded in parallel to {@code s3://<bucket>/<prefix>/<run>/nodes/} and
+ * {@code .../edges/}, then a loader job is started for each directory through the
+ * Neptune Data API. Every run is staged under its own {@code <run>} directory (a UTC
+ * timestamp and a random suffix), since a loader job reads everything under its source:
+ * files left over from an earlier run with more shards or other labels would otherwise be
+ * loaded again. The edge job depends on the node job, so edges are only loaded
+ * once their nodes exist. Both jobs are polled until they finish.
+ * <p>
+ * The S3 endpoint can be overridden to stage files in any S3-compatible store; the
+ * loader itself always reads from S3, with the IAM role attached to the cluster.
+ */
+public class NeptuneBulkLoader implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(NeptuneBulkLoader.class);
+
+    /**
+     * Loader statuses for jobs that have not finished yet
+     */
+    private static final Set<String> RUNNING = Set.of("LOAD_NOT_STARTED", "LOAD_IN_QUEUE", "LOAD_IN_PROGRESS");
+    static final String LOAD_COMPLETED = "LOAD_COMPLETED";
+    private static final DateTimeFormatter RUN_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * Staging and loader job settings, from {@code neptune.loader.*}
+     *
+     * @param s3Endpoint  endpoint of an S3-compatible store, or null for S3 itself
+     * @param parallelism loader parallelism: LOW, MEDIUM, HIGH or OVERSUBSCRIBE
+     */
+    public record Settings(String bucket, String prefix, String region, String iamRoleArn, String s3Endpoint,
+                           String parallelism, boolean failOnError, int uploadThreads, Duration pollInterval,
+                           Duration timeout) {
+
+        public Settings {
+            if (bucket == null || bucket.isBlank()) {
+                throw new IllegalArgumentException("A staging bucket is required (neptune.loader.s3.bucket)");
+            }
+            if (uploadThreads < 1 || pollInterval.isNegative() || timeout.isNegative()) {
+                throw new IllegalArgumentException("Invalid loader settings: uploadThreads=" + uploadThreads +
+                        ", pollInterval=" + pollInterval + ", timeout=" + timeout);
+            }
+            prefix = prefix == null ? "" : prefix.replaceAll("^/+|/+$", "");
+        }
+
+        /**
+         * @return the settings, or null when no staging bucket is configured
+         */
+        public static Settings fromConfig(NeptuneConfig config) {
+            String bucket = config.getSetting("neptune.loader.s3.bucket", "NEPTUNE_LOADER_S3_BUCKET", null);
+            if (bucket == null || bucket.isBlank()) {
+                return null;
+            }
+            String endpoint = config.getSetting("neptune.loader.s3.endpoint", "NEPTUNE_LOADER_S3_ENDPOINT", "");
+            return new Settings(bucket,
+                    config.getSetting("neptune.loader.s3.prefix", "NEPTUNE_LOADER_S3_PREFIX", "neptune-load"),
+                    config.getSetting("neptune.loader.s3.region", "NEPTUNE_LOADER_S3_REGION", config.getRegion()),
+                    config.getSetting("neptune.loader.iam.role.arn", "NEPTUNE_LOADER_IAM_ROLE_ARN", null),
+                    endpoint.isBlank() ? null : endpoint,
+                    config.getSetting("neptune.loader.parallelism", "NEPTUNE_LOADER_PARALLELISM", "HIGH"),
+                    config.getBooleanSetting("neptune.loader.fail.on.error", "NEPTUNE_LOADER_FAIL_ON_ERROR", false),
+                    config.getIntSetting("neptune.loader.upload.threads", "NEPTUNE_LOADER_UPLOAD_THREADS", 8),
+                    Duration.ofSeconds(config.getLongSetting("neptune.loader.poll.seconds",
+                            "NEPTUNE_LOADER_POLL_SECONDS", 10)),
+                    Duration.ofMinutes(config.getLongSetting("neptune.loader.timeout.minutes",
+                            "NEPTUNE_LOADER_TIMEOUT_MINUTES", 240)));
+        }
+    }
+
+    /**
+     * Overall status of a loader job
+     */
+    public record JobStatus(String loadId, String status, long totalRecords, long totalDuplicates,
+                            long parsingErrors, long datatypeMismatchErrors, long insertErrors, long totalTimeSpentSeconds) {
+
+        public boolean isRunning() {
+            return RUNNING.contains(status);
+        }
+
+        public boolean isCompleted() {
+            return LOAD_COMPLETED.equals(status);
+        }
+    }
+
+    private final NeptunedataClient neptune;
+    private final S3Client s3;
+    private final Settings settings;
+
+    public NeptuneBulkLoader(NeptunedataClient neptune, S3Client s3, Settings settings) {
+        this.neptune = neptune;
+        this.s3 = s3;
+        this.settings = settings;
+    }
+
+    /**
+     * Create a loader for the writer endpoint of the configured cluster
+     */
+    public static NeptuneBulkLoader fromConfig(NeptuneConfig config, Settings settings) {
+        AwsCredentialsProvider neptuneCredentials = config.isIamAuth()
+                ? config.getCredentialsProvider()
+                : AnonymousCredentialsProvider.create();
+        DataApiHttpTransport.Settings transport = DataApiHttpTransport.Settings.fromConfig(config);
+        NeptunedataClient neptune = NeptunedataClient.builder()
+                .region(Region.of(config.getRegion()))
+                .endpointOverride(URI.create(config.getHttpsUri()))
+                .credentialsProvider(neptuneCredentials)
+                .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(transport))
+                .build();
+        S3ClientBuilder s3 = S3Client.builder()
+                .region(Region.of(settings.region()))
+                .credentialsProvider(config.getCredentialsProvider())
+                .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(transport));
+        if (settings.s3Endpoint() != null) {
+            s3.endpointOverride(URI.create(settings.s3Endpoint())).forcePathStyle(true);
+        }
+        return new NeptuneBulkLoader(neptune, s3.build(), settings);
+    }
+
+    /**
+     * Stage the files and load them, nodes before edges
+     *
+     * @return the status of each job when it finished
+     */
+    public List<JobStatus> load(List<BulkLoadCsvWriter.Shard> shards) throws InterruptedException {
+        String run = stage(shards);
+
+        List<JobStatus> results = new ArrayList<>(2);
+        List<String> started = new ArrayList<>(2);
+        for (BulkRecord.Kind kind : BulkRecord.Kind.values()) {
+            if (shards.stream().anyMatch(shard -> shard.kind() == kind)) {
+                started.add(startJob(sourceUri(run, kind), started));
+            }
+        }
+        for (String loadId : started) {
+            results.add(awaitCompletion(loadId));
+        }
+        return results;
+    }
+
+    /**
+     * Upload the files in parallel under {@code <prefix>/<run>/nodes/} and
+     * {@code <prefix>/<run>/edges/}, for a new run
+     *
+     * @return the key of the run's directory, {@code <prefix>/<run>}
+     */
+    public String stage(List<BulkLoadCsvWriter.Shard> shards) throws InterruptedException {
+        long start = System.nanoTime();
+        String directory = RUN_TIMESTAMP.format(Instant.now()) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        String run = settings.prefix().isEmpty() ? directory : settings.prefix() + "/" + directory;
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.uploadThreads(),
+                r -> new Thread(r, "neptune-loader-upload-" + threadIndex.incrementAndGet()));
+        try {
+            List<Future<?>> uploads = new ArrayList<>(shards.size());
+            for (BulkLoadCsvWriter.Shard shard : shards) {
+                String key = key(run, shard.kind(), shard.file());
+                uploads.add(executor.submit(() -> s3.putObject(PutObjectRequest.builder()
+                        .bucket(settings.bucket())
+                        .key(key)
+                        .build(), RequestBody.fromFile(shard.file()))));
+            }
+            for (Future<?> upload : uploads) {
+                try {
+                    upload.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed to stage bulk load files in s3://" + settings.bucket(),
+                            e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Staged {} files in s3://{}/{} in {} ms", shards.size(), settings.bucket(), run,
+                (System.nanoTime() - start) / 1_000_000);
+        return run;
+    }
+
+    /**
+     * Start a loader job for everything under the source URI
+     *
+     * @param dependencies load IDs of jobs that must complete first
+     * @return the load ID
+     */
+    public String startJob(String source, List<String> dependencies) {
+        StartLoaderJobResponse response = neptune.startLoaderJob(request -> {
+            request.source(source)
+                    .format(Format.OPENCYPHER)
+                    .s3BucketRegion(settings.region())
+                    .iamRoleArn(settings.iamRoleArn())
+                    .parallelism(settings.parallelism())
+                    .failOnError(settings.failOnError())
+                    .userProvidedEdgeIds(true)
+                    .queueRequest(true);
+            if (!dependencies.isEmpty()) {
+                request.dependencies(dependencies);
+            }
+        });
+        String loadId = response.payload().get("loadId");
+        logger.info("Started loader job {} for {}", loadId, source);
+        return loadId;
+    }
+
+    public JobStatus getStatus(String loadId) {
+        GetLoaderJobStatusResponse response = neptune.getLoaderJobStatus(request -> request.loadId(loadId));
+        Map<String, Document> overall = response.payload().asMap().get("overallStatus").asMap();
+        return new JobStatus(loadId, overall.get("status").asString(),
+                count(overall, "totalRecords"), count(overall, "totalDuplicates"), count(overall, "parsingErrors"),
+                count(overall, "datatypeMismatchErrors"), count(overall, "insertErrors"),
+                count(overall, "totalTimeSpent"));
+    }
+
+    /**
+     * Poll a job until it is no longer queued or running
+     */
+    public JobStatus awaitCompletion(String loadId) throws InterruptedException {
+        long deadline = System.nanoTime() + settings.timeout().toNanos();
+        while (true) {
+            try {
+                JobStatus status = getStatus(loadId);
+                if (!status.isRunning()) {
+                    logger.info("Loader job {} finished: {}", loadId, status);
+                    return status;
+                }
+                logger.info("Loader job {}: {} ({} records)", loadId, status.status(), status.totalRecords());
+            } catch (RuntimeException e) {
+                if (!NeptuneErrors.isRetryable(e)) {
+                    throw e;
+                }
+                logger.warn("Failed to get the status of loader job {}, will retry: {}", loadId, e.getMessage());
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Loader job " + loadId + " did not finish within " + settings.timeout());
+            }
+            Thread.sleep(settings.pollInterval().toMillis());
+        }
+    }
+
+    private String sourceUri(String run, BulkRecord.Kind kind) {
+        return "s3://" + settings.bucket() + "/" + key(run, kind, null);
+    }
+
+    private static String key(String run, BulkRecord.Kind kind, Path file) {
+        String key = run + "/" + (kind == BulkRecord.Kind.EDGE ? "edges" : "nodes") + "/";
+        return file == null ? key : key + file.getFileName();
+    }
+
+    private static long count(Map<String, Document> fields, String name) {
+        Document value = fields.get(name);
+        if (value == null || !value.isNumber()) {
+            return 0;
+        }
+        return value.asNumber().longValue();
+    }
+
+    @Override
+    public void close() {
+        neptune.close();
+        s3.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("An output directory and at least one node or edge file are required");
+        }
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+        Path directory = Path.of(args[0]);
+        List<Path> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            files.add(Path.of(args[i]));
+        }
+
+        List<BulkLoadCsvWriter.Shard> shards = BulkLoadCsvWriter.fromConfig(config).write(files, directory);
+        Settings settings = Settings.fromConfig(config);
+        if (settings == null) {
+            logger.info("No staging bucket configured (neptune.loader.s3.bucket); the CSV files are in {}", directory);
+            return;
+        }
+        try (NeptuneBulkLoader loader = fromConfig(config, settings)) {
+            for (JobStatus status : loader.load(shards)) {
+                if (!status.isCompleted()) {
+                    throw new IllegalStateException("Loader job " + status.loadId() + " ended with " + status.status());
+                }
+            }
+        }
+    }
+}
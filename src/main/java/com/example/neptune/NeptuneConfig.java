@@ -8,6 +8,10 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class NeptuneConfig {
@@ -18,8 +22,21 @@ public class NeptuneConfig {
     private final String accessKey;
     private final String secretKey;
     private final String sessionToken;
+    private final BoltPoolConfig boltPoolConfig;
+    private final Properties properties;
+    private final Map<String, String> env;
 
     public NeptuneConfig(String host, String port, String region, boolean iamAuth, String accessKey, String secretKey, String sessionToken) {
+        this(host, port, region, iamAuth, accessKey, secretKey, sessionToken, BoltPoolConfig.defaults());
+    }
+
+    public NeptuneConfig(String host, String port, String region, boolean iamAuth, String accessKey, String secretKey, String sessionToken,
+                         BoltPoolConfig boltPoolConfig) {
+        this(host, port, region, iamAuth, accessKey, secretKey, sessionToken, boltPoolConfig, new Properties(), System.getenv());
+    }
+
+    NeptuneConfig(String host, String port, String region, boolean iamAuth, String accessKey, String secretKey, String sessionToken,
+                  BoltPoolConfig boltPoolConfig, Properties properties, Map<String, String> env) {
         this.host = host;
         this.port = port;
         this.region = region;
@@ -27,20 +44,69 @@ public class NeptuneConfig {
         this.accessKey = accessKey;
         this.secretKey = secretKey;
         this.sessionToken = sessionToken;
+        this.boltPoolConfig = boltPoolConfig;
+        this.properties = properties;
+        this.env = env;
     }
 
     public static NeptuneConfig fromProperties() {
-        Properties properties = loadProperties();
-        
-        String uri = getConfigValue(properties, "neptune.endpoint", "NEPTUNE_ENDPOINT", null);
-        String port = getConfigValue(properties, "neptune.port", "NEPTUNE_PORT", "8182");
-        String region = getConfigValue(properties, "aws.region", "AWS_REGION", "us-east-1");
-        boolean iamAuth = Boolean.parseBoolean(getConfigValue(properties, "neptune.iam.auth", "NEPTUNE_IAM_AUTH", "false"));
-        String accessKey = getConfigValue(properties, "aws.access.key", "AWS_ACCESS_KEY_ID", null);
-        String secretKey = getConfigValue(properties, "aws.secret.key", "AWS_SECRET_ACCESS_KEY", null);
-        String sessionToken = getConfigValue(properties, "aws.session.token", "AWS_SESSION_TOKEN", null);
-        
-        return new NeptuneConfig(uri, port, region, iamAuth, accessKey, secretKey, sessionToken);
+        return fromProperties(loadProperties(), System.getenv());
+    }
+
+    static NeptuneConfig fromProperties(Properties properties, Map<String, String> env) {
+        String uri = getConfigValue(properties, env, "neptune.endpoint", "NEPTUNE_ENDPOINT", null);
+        String port = getConfigValue(properties, env, "neptune.port", "NEPTUNE_PORT", "8182");
+        String region = getConfigValue(properties, env, "aws.region", "AWS_REGION", "us-east-1");
+        boolean iamAuth = Boolean.parseBoolean(getConfigValue(properties, env, "neptune.iam.auth", "NEPTUNE_IAM_AUTH", "false"));
+        String accessKey = getConfigValue(properties, env, "aws.access.key", "AWS_ACCESS_KEY_ID", null);
+        String secretKey = getConfigValue(properties, env, "aws.secret.key", "AWS_SECRET_ACCESS_KEY", null);
+        String sessionToken = getConfigValue(properties, env, "aws.session.token", "AWS_SESSION_TOKEN", null);
+
+        BoltPoolConfig boltPoolConfig = new BoltPoolConfig(
+                getIntConfigValue(properties, env, "neptune.bolt.max.pool.size", "NEPTUNE_BOLT_MAX_POOL_SIZE"),
+                getLongConfigValue(properties, env, "neptune.bolt.acquisition.timeout.ms", "NEPTUNE_BOLT_ACQUISITION_TIMEOUT_MS"),
+                getLongConfigValue(properties, env, "neptune.bolt.max.connection.lifetime.ms", "NEPTUNE_BOLT_MAX_CONNECTION_LIFETIME_MS"),
+                getLongConfigValue(properties, env, "neptune.bolt.idle.liveness.check.ms", "NEPTUNE_BOLT_IDLE_LIVENESS_CHECK_MS"),
+                getLongConfigValue(properties, env, "neptune.bolt.connection.timeout.ms", "NEPTUNE_BOLT_CONNECTION_TIMEOUT_MS"),
+                getLongConfigValue(properties, env, "neptune.bolt.fetch.size", "NEPTUNE_BOLT_FETCH_SIZE"),
+                Boolean.parseBoolean(getConfigValue(properties, env, "neptune.bolt.pool.metrics", "NEPTUNE_BOLT_POOL_METRICS", "true")));
+
+        return new NeptuneConfig(uri, port, region, iamAuth, accessKey, secretKey, sessionToken, boltPoolConfig,
+                properties, env);
+    }
+
+    /**
+     * Look up an additional setting, with the same precedence as the core settings:
+     * environment variable, then application.properties, then the default.
+     */
+    public String getSetting(String propertyKey, String envKey, String defaultValue) {
+        return getConfigValue(properties, env, propertyKey, envKey, defaultValue);
+    }
+
+    public int getIntSetting(String propertyKey, String envKey, int defaultValue) {
+        Integer value = getIntConfigValue(properties, env, propertyKey, envKey);
+        return value == null ? defaultValue : value;
+    }
+
+    public long getLongSetting(String propertyKey, String envKey, long defaultValue) {
+        Long value = getLongConfigValue(properties, env, propertyKey, envKey);
+        return value == null ? defaultValue : value;
+    }
+
+    public double getDoubleSetting(String propertyKey, String envKey, double defaultValue) {
+        String value = getConfigValue(properties, env, propertyKey, envKey, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + propertyKey + ": " + value, e);
+        }
+    }
+
+    public boolean getBooleanSetting(String propertyKey, String envKey, boolean defaultValue) {
+        return Boolean.parseBoolean(getConfigValue(properties, env, propertyKey, envKey, String.valueOf(defaultValue)));
     }
 
     public AwsCredentialsProvider getCredentialsProvider() {
@@ -74,8 +140,8 @@ public class NeptuneConfig {
         return properties;
     }
 
-    private static String getConfigValue(Properties properties, String propertyKey, String envKey, String defaultValue) {
-        String envValue = System.getenv(envKey);
+    private static String getConfigValue(Properties properties, Map<String, String> env, String propertyKey, String envKey, String defaultValue) {
+        String envValue = env.get(envKey);
         if (envValue != null && !envValue.trim().isEmpty()) {
             return envValue.trim();
         }
@@ -88,10 +154,31 @@ public class NeptuneConfig {
         return defaultValue;
     }
 
+    private static Integer getIntConfigValue(Properties properties, Map<String, String> env, String propertyKey, String envKey) {
+        Long value = getLongConfigValue(properties, env, propertyKey, envKey);
+        if (value != null && (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)) {
+            throw new IllegalArgumentException("Value for " + propertyKey + " is out of range: " + value);
+        }
+        return value == null ? null : value.intValue();
+    }
+
+    private static Long getLongConfigValue(Properties properties, Map<String, String> env, String propertyKey, String envKey) {
+        String value = getConfigValue(properties, env, propertyKey, envKey, null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid numeric value for " + propertyKey + ": " + value, e);
+        }
+    }
+
     public String getHost() { return host; }
     public String getPort() { return port; }
     public String getRegion() { return region; }
     public boolean isIamAuth() { return iamAuth; }
+    public BoltPoolConfig getBoltPoolConfig() { return boltPoolConfig; }
     
     public String getBoltUri() {
         return "bolt://" + host + ":" + port;
@@ -100,4 +187,44 @@ public class NeptuneConfig {
     public String getHttpsUri() {
         return "https://" + host + ":" + port;
     }
+
+    /**
+     * Read replica endpoints as {@code host:port}, from the comma-separated
+     * {@code neptune.reader.endpoints}; entries without a port use the writer's port.
+     * Empty when reads should share the writer endpoint.
+     */
+    public List<String> getReaderEndpoints() {
+        String value = getSetting("neptune.reader.endpoints", "NEPTUNE_READER_ENDPOINTS", "");
+        List<String> endpoints = new ArrayList<>();
+        for (String endpoint : value.split(",")) {
+            endpoint = endpoint.trim();
+            if (!endpoint.isEmpty()) {
+                endpoints.add(endpoint.contains(":") ? endpoint : endpoint + ":" + port);
+            }
+        }
+        return endpoints;
+    }
+
+    public List<String> getReaderBoltUris() {
+        return getReaderEndpoints().stream().map(endpoint -> "bolt://" + endpoint).toList();
+    }
+
+    public List<String> getReaderHttpsUris() {
+        return getReaderEndpoints().stream().map(endpoint -> "https://" + endpoint).toList();
+    }
+
+    /**
+     * How long after a write reads stay on the writer, or null when read-your-writes is off
+     */
+    public Duration getReadYourWritesWindow() {
+        if (!getBooleanSetting("neptune.read.your.writes", "NEPTUNE_READ_YOUR_WRITES", false)) {
+            return null;
+        }
+        long windowMs = getLongSetting("neptune.read.your.writes.window.ms", "NEPTUNE_READ_YOUR_WRITES_WINDOW_MS",
+                EndpointRouter.DEFAULT_READ_YOUR_WRITES_WINDOW.toMillis());
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("neptune.read.your.writes.window.ms must be positive: " + windowMs);
+        }
+        return Duration.ofMillis(windowMs);
+    }
 }
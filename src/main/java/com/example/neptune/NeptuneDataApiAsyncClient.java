@@ -0,0 +1,214 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.neptunedata.NeptunedataAsyncClient;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryRequest;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryResponse;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking Neptune Data API client. Queries run on {@link NeptunedataAsyncClient}
+ * over a Netty NIO (or CRT) HTTP client and return {@link CompletableFuture}s, so a handful of
+ * event-loop threads can keep many requests in flight.
+ * <p>
+ * At most {@code neptune.dataapi.async.max.inflight} requests are sent at once. Further
+ * requests wait in a queue, without holding a thread, until an in-flight request completes.
+ */
+public class NeptuneDataApiAsyncClient implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(NeptuneDataApiAsyncClient.class);
+
+    private final NeptunedataAsyncClient neptuneClient;
+    private final SdkAsyncHttpClient httpClient;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    // Drains requested while one is running; the running one loops again instead of recursing
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final QueryTemplateCache templates;
+
+    public NeptuneDataApiAsyncClient(NeptuneConfig config) {
+        this.maxInFlight = config.getIntSetting("neptune.dataapi.async.max.inflight",
+                "NEPTUNE_DATAAPI_ASYNC_MAX_INFLIGHT", 64);
+        int eventLoopThreads = config.getIntSetting("neptune.dataapi.async.event.loop.threads",
+                "NEPTUNE_DATAAPI_ASYNC_EVENT_LOOP_THREADS", 2);
+        if (maxInFlight < 1 || eventLoopThreads < 1) {
+            throw new IllegalArgumentException("Async Data API client needs at least one in-flight request " +
+                    "and one event loop thread: maxInFlight=" + maxInFlight + ", eventLoopThreads=" + eventLoopThreads);
+        }
+        this.permits = new Semaphore(maxInFlight);
+        this.templates = QueryTemplateCache.fromConfig(config);
+
+        AwsCredentialsProvider credentialsProvider = config.isIamAuth() ?
+                config.getCredentialsProvider() :
+                AnonymousCredentialsProvider.create();
+
+        // One connection per in-flight request; extra requests queue here rather than in the HTTP client
+        DataApiHttpTransport.Settings transport = DataApiHttpTransport.Settings.fromConfig(config);
+        this.httpClient = DataApiHttpTransport.asyncHttpClientBuilder(transport, maxInFlight, eventLoopThreads)
+                .build();
+
+        this.neptuneClient = NeptunedataAsyncClient.builder()
+                .region(Region.of(config.getRegion()))
+                .endpointOverride(URI.create(config.getHttpsUri()))
+                .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(DataApiHttpTransport.applyTo(transport,
+                        ClientOverrideConfiguration.builder().build()))
+                .build();
+
+        logger.info("Created async Neptune Data API client for {} over {} (max in-flight {}, {} event loop threads)",
+                config.getHttpsUri(), transport.asyncTransport(), maxInFlight, eventLoopThreads);
+    }
+
+    /**
+     * @param httpClient the HTTP client {@code neptuneClient} runs on, closed with it, or null
+     */
+    NeptuneDataApiAsyncClient(NeptunedataAsyncClient neptuneClient, SdkAsyncHttpClient httpClient, int maxInFlight,
+                              QueryTemplateCache templates) {
+        this.neptuneClient = neptuneClient;
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        this.templates = templates;
+    }
+
+    /**
+     * Execute an OpenCypher query without blocking the calling thread
+     */
+    public CompletableFuture<ExecuteOpenCypherQueryResponse> executeQuery(String query) {
+        return executeQuery(query, Map.of());
+    }
+
+    /**
+     * Execute a parameterized OpenCypher query without blocking the calling thread
+     */
+    public CompletableFuture<ExecuteOpenCypherQueryResponse> executeQuery(String template,
+                                                                        Map<String, Object> parameters) {
+        ExecuteOpenCypherQueryRequest request = templates.intern(template).toRequest(parameters);
+        return submit(() -> neptuneClient.executeOpenCypherQuery(request));
+    }
+
+    /**
+     * Run independent queries concurrently. The returned future completes with the
+     * responses in query order, or exceptionally with the first failure once all
+     * queries have finished.
+     */
+    public CompletableFuture<List<ExecuteOpenCypherQueryResponse>> executeAll(List<String> queries) {
+        List<CompletableFuture<ExecuteOpenCypherQueryResponse>> futures = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            futures.add(executeQuery(query));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Requests currently sent and awaiting a response
+     */
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Requests waiting for an in-flight slot
+     */
+    public int getQueued() {
+        return pending.size();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        pending.add(() -> {
+            CompletableFuture<T> response;
+            try {
+                response = call.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((value, error) -> {
+                permits.release();
+                drain();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    /**
+     * Start queued requests while there are free permits. A request that completes at once,
+     * e.g. one failing before it is sent, drains again from inside {@code task.run()}; that
+     * drain is handed to the one already running, so the stack does not grow with the queue.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!pending.isEmpty() && permits.tryAcquire()) {
+                Runnable task = pending.poll();
+                if (task == null) {
+                    permits.release();
+                    break;
+                }
+                task.run();
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    @Override
+    public void close() {
+        neptuneClient.close();
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        logger.info("Async Neptune Data API client closed");
+    }
+
+    public static void main(String[] args) {
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+
+        logger.info("Connecting to Neptune Data API (async) at: {}", config.getHost());
+
+        try (NeptuneDataApiAsyncClient client = new NeptuneDataApiAsyncClient(config)) {
+            List<String> queries = List.of(
+                    "RETURN 'Hello Neptune!' as message",
+                    "MATCH (p:Person) RETURN count(p) as persons",
+                    "MATCH (c:Company) RETURN count(c) as companies",
+                    "MATCH ()-[r]->() RETURN count(r) as relationships");
+
+            long start = System.nanoTime();
+            List<ExecuteOpenCypherQueryResponse> responses = client.executeAll(queries).join();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            for (int i = 0; i < queries.size(); i++) {
+                logger.info("{} -> {}", queries.get(i), responses.get(i).results());
+            }
+            logger.info("Ran {} queries concurrently in {} ms", queries.size(), elapsedMs);
+        }
+
+        logger.info("Neptune Data API async demo completed successfully");
+    }
+}
@@ -4,7 +4,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
 import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryRequest;
@@ -13,7 +15,10 @@ import software.amazon.awssdk.services.neptunedata.model.GetEngineStatusRequest;
 import software.amazon.awssdk.services.neptunedata.model.GetEngineStatusResponse;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Demo application for connecting to Amazon Neptune using the Neptune Data API (REST)
@@ -21,10 +26,25 @@ import java.util.Map;
  */
 public class NeptuneDataApiDemo {
     private static final Logger logger = LogManager.getLogger(NeptuneDataApiDemo.class);
+    private static final String TRANSPORT = "data-api";
+
+    record Person(String name, int age) {
+    }
+
+    record Relationship(String person1, String relationship, String person2) {
+    }
 
     private final NeptunedataClient neptuneClient;
+    private final EndpointRouter<NeptunedataClient> router;
     private final String neptuneEndpoint;
     private final String awsRegion;
+    private final QueryTemplateCache templates;
+    private final QueryResultCache<ExecuteOpenCypherQueryResponse> resultCache;
+    private final RetryExecutor retryExecutor;
+    private final ConnectionWarmUp.Settings warmUp;
+    private final WriteCoalescer.Settings writeCoalescing;
+    private final EndpointHealthMonitor healthMonitor;
+    private final SlowQueryLog slowQueries;
 
     public NeptuneDataApiDemo(NeptuneConfig config) {
         // Parse the URI to extract endpoint
@@ -37,18 +57,62 @@ public class NeptuneDataApiDemo {
             throw new java.lang.IllegalArgumentException("Invalid Neptune URI: " + config.getHttpsUri(), e);
         }
 
+        this.templates = QueryTemplateCache.fromConfig(config);
+        this.resultCache = QueryResultCache.fromConfig(config, response -> ResultSizes.ofDocument(response.results()));
+        this.retryExecutor = RetryExecutor.fromConfig(config);
+        this.warmUp = ConnectionWarmUp.Settings.fromConfig(config);
+        this.writeCoalescing = WriteCoalescer.Settings.fromConfig(config);
+
         AwsCredentialsProvider credentialsProvider = config.isIamAuth() ?
                 config.getCredentialsProvider() :
                 AnonymousCredentialsProvider.create();
 
-        // Create Neptune Data API client
-        this.neptuneClient = NeptunedataClient.builder()
+        // Create Neptune Data API clients for the writer and any read replicas
+        this.neptuneClient = createClient(config, uri, credentialsProvider);
+        List<String> readerUris = config.getReaderHttpsUris();
+        List<NeptunedataClient> readers = new ArrayList<>(readerUris.size());
+        for (String readerUri : readerUris) {
+            readers.add(createClient(config, URI.create(readerUri), credentialsProvider));
+        }
+        this.router = new EndpointRouter<>(config.getHttpsUri(), neptuneClient, readerUris, readers,
+                config.getReadYourWritesWindow(), CircuitBreaker.Settings.fromConfig(config),
+                AdaptiveConcurrencyLimiter.Settings.fromConfig(config));
+        List<String> httpsUris = new ArrayList<>(readerUris.size() + 1);
+        httpsUris.add(config.getHttpsUri());
+        httpsUris.addAll(readerUris);
+        this.healthMonitor = EndpointHealthMonitor.fromConfig(config, router, httpsUris);
+        this.slowQueries = SlowQueryLog.fromConfig(config, TRANSPORT, neptuneClient);
+
+        NeptuneTelemetry.bindRouter(TRANSPORT, router);
+        NeptuneTelemetry.bindRetries(TRANSPORT, retryExecutor);
+        if (resultCache != null) {
+            NeptuneTelemetry.bindResultCache(TRANSPORT, resultCache);
+        }
+
+        logger.info("Successfully created Neptune Data API client for endpoint: {}", neptuneEndpoint);
+        if (!readers.isEmpty()) {
+            logger.info("Routing read queries to {} reader(s): {}", readers.size(), readerUris);
+        }
+    }
+
+    private static NeptunedataClient createClient(NeptuneConfig config, URI uri,
+                                                  AwsCredentialsProvider credentialsProvider) {
+        // Retries happen in RetryExecutor, under its budget; SDK retries would multiply them
+        return createClient(config, uri, credentialsProvider, ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.none())
+                .build());
+    }
+
+    static NeptunedataClient createClient(NeptuneConfig config, URI uri, AwsCredentialsProvider credentialsProvider,
+                                          ClientOverrideConfiguration overrides) {
+        DataApiHttpTransport.Settings transport = DataApiHttpTransport.Settings.fromConfig(config);
+        return NeptunedataClient.builder()
                 .region(Region.of(config.getRegion()))
                 .endpointOverride(uri)
                 .credentialsProvider(credentialsProvider)
+                .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(transport))
+                .overrideConfiguration(DataApiHttpTransport.applyTo(transport, overrides))
                 .build();
-
-        logger.info("Successfully created Neptune Data API client for endpoint: {}", neptuneEndpoint);
     }
 
     /**
@@ -73,28 +137,42 @@ public class NeptuneDataApiDemo {
     }
 
     /**
-     * Create sample nodes and relationships using OpenCypher
+     * Create sample nodes and relationships using OpenCypher. The writes are coalesced,
+     * so the two persons are created by a single statement.
      */
     public void createSampleData() {
-        try {
+        try (WriteCoalescer coalescer = newWriteCoalescer()) {
             // Create Person nodes
-            executeQuery("CREATE (p:Person {name: 'Alice', age: 30})");
-            executeQuery("CREATE (p:Person {name: 'Bob', age: 25})");
-            executeQuery("CREATE (c:Company {name: 'TechCorp'})");
+            String createPerson = "CREATE (p:Person {name: $name, age: $age})";
+            coalescer.submit(createPerson, Map.of("name", "Alice", "age", 30));
+            coalescer.submit(createPerson, Map.of("name", "Bob", "age", 25));
+            coalescer.submit("CREATE (c:Company {name: $name})", Map.of("name", "TechCorp"));
+            // Relationships match the nodes, so those must be written first
+            coalescer.flush().join();
 
             // Create relationships
-            executeQuery("MATCH (a:Person {name: 'Alice'}), (c:Company {name: 'TechCorp'}) " +
-                    "CREATE (a)-[:WORKS_FOR]->(c)");
-            executeQuery("MATCH (a:Person {name: 'Alice'}), (b:Person {name: 'Bob'}) " +
-                    "CREATE (a)-[:KNOWS]->(b)");
+            coalescer.submit("MATCH (a:Person {name: $person}), (c:Company {name: $company}) " +
+                    "CREATE (a)-[:WORKS_FOR]->(c)", Map.of("person", "Alice", "company", "TechCorp"));
+            coalescer.submit("MATCH (a:Person {name: $from}), (b:Person {name: $to}) " +
+                    "CREATE (a)-[:KNOWS]->(b)", Map.of("from", "Alice", "to", "Bob"));
+            coalescer.flush().join();
 
-            logger.info("Sample data created successfully using Neptune Data API");
+            logger.info("Sample data created successfully using Neptune Data API ({})", coalescer.getStats());
         } catch (Exception e) {
             logger.error("Failed to create sample data", e);
             throw e;
         }
     }
 
+    /**
+     * A write coalescer with the {@code neptune.coalesce.*} settings that writes through
+     * {@link #executeQuery(String, Map)}, so coalesced statements are routed, retried and
+     * invalidate the result cache like any other write
+     */
+    public WriteCoalescer newWriteCoalescer() {
+        return new WriteCoalescer(this::executeQuery, writeCoalescing);
+    }
+
     /**
      * Query sample data using OpenCypher
      */
@@ -102,50 +180,26 @@ public class NeptuneDataApiDemo {
         try {
             // Query all persons
             logger.info("Querying persons in the database:");
-            ExecuteOpenCypherQueryResponse response = executeQuery("MATCH (p:Person) RETURN p.name as name, p.age as age");
+            ExecuteOpenCypherQueryResponse response = executeReadQuery("MATCH (p:Person) RETURN p.name as name, p.age as age",
+                    Map.of());
 
-            Document results = response.results();
-            logger.info("Persons query results: {}", results.toString());
-
-            // Parse results if they contain a results array
-            if (results.isMap() && results.asMap().containsKey("results")) {
-                Document resultsArray = results.asMap().get("results");
-                if (resultsArray.isList()) {
-                    for (Document row : resultsArray.asList()) {
-                        if (row.isMap()) {
-                            Map<String, Document> rowMap = row.asMap();
-                            String name = rowMap.containsKey("name") ? rowMap.get("name").asString() : "Unknown";
-                            Integer age = rowMap.containsKey("age") ? rowMap.get("age").asNumber().intValue() : 0;
-                            logger.info("- Name: {}, Age: {}", name, age);
-                        }
-                    }
-                }
+            logger.debug("Persons query results: {}", response.results());
+            for (Person person : ResultMapper.of(Person.class).fromResults(response.results())) {
+                logger.info("- Name: {}, Age: {}", person.name(), person.age());
             }
 
             // Query relationships
             logger.info("Querying relationships:");
-            response = executeQuery(
+            response = executeReadQuery(
                     "MATCH (p1:Person)-[r]->(p2) " +
-                            "RETURN p1.name as person1, type(r) as relationship, p2.name as person2"
+                            "RETURN p1.name as person1, type(r) as relationship, p2.name as person2",
+                    Map.of()
             );
 
-            results = response.results();
-            logger.info("Relationships query results: {}", results.toString());
-
-            // Parse relationship results
-            if (results.isMap() && results.asMap().containsKey("results")) {
-                Document resultsArray = results.asMap().get("results");
-                if (resultsArray.isList()) {
-                    for (Document row : resultsArray.asList()) {
-                        if (row.isMap()) {
-                            Map<String, Document> rowMap = row.asMap();
-                            String person1 = rowMap.containsKey("person1") ? rowMap.get("person1").asString() : "Unknown";
-                            String relationship = rowMap.containsKey("relationship") ? rowMap.get("relationship").asString() : "Unknown";
-                            String person2 = rowMap.containsKey("person2") ? rowMap.get("person2").asString() : "Unknown";
-                            logger.info("- {} {} {}", person1, relationship, person2);
-                        }
-                    }
-                }
+            logger.debug("Relationships query results: {}", response.results());
+            for (Relationship relationship : ResultMapper.of(Relationship.class).fromResults(response.results())) {
+                logger.info("- {} {} {}", relationship.person1(), relationship.relationship(),
+                        relationship.person2());
             }
 
         } catch (Exception e) {
@@ -168,24 +222,120 @@ public class NeptuneDataApiDemo {
     }
 
     /**
-     * Execute an OpenCypher query using Neptune Data API
+     * Execute an OpenCypher write query using Neptune Data API
      */
     private ExecuteOpenCypherQueryResponse executeQuery(String query) {
+        return executeQuery(query, Map.of());
+    }
+
+    /**
+     * Execute a parameterized OpenCypher query using Neptune Data API. The template is
+     * interned in the client's template cache and the parameters are sent separately.
+     * The query runs on the writer and counts as a write for read-your-writes and for
+     * result cache invalidation, so run reads through {@link #executeReadQuery} instead.
+     * Retryable failures are retried with backoff, so the query should be idempotent.
+     */
+    public ExecuteOpenCypherQueryResponse executeQuery(String template, Map<String, Object> parameters) {
+        ExecuteOpenCypherQueryResponse response = observe(template, () -> retryExecutor.execute("write query",
+                () -> router.withWriter(lease -> execute(lease, template, parameters))));
+        router.recordWrite();
+        if (resultCache != null) {
+            resultCache.invalidate(templates.intern(template));
+        }
+        return response;
+    }
+
+    /**
+     * Execute a read-only parameterized OpenCypher query on the least busy reader (or the
+     * writer, when there are no readers or read-your-writes requires it), through the result
+     * cache when {@code neptune.result.cache.enabled} is set
+     */
+    public ExecuteOpenCypherQueryResponse executeReadQuery(String template, Map<String, Object> parameters) {
+        if (resultCache == null) {
+            return executeOnReader(template, parameters);
+        }
+        return resultCache.get(templates.intern(template), parameters, () -> executeOnReader(template, parameters));
+    }
+
+    private ExecuteOpenCypherQueryResponse executeOnReader(String template, Map<String, Object> parameters) {
+        return observe(template, () -> retryExecutor.execute("read query",
+                () -> router.withReader(lease -> execute(lease, template, parameters))));
+    }
+
+    private static ExecuteOpenCypherQueryResponse observe(String template,
+                                                          Supplier<ExecuteOpenCypherQueryResponse> query) {
+        return NeptuneTelemetry.observeQuery(TRANSPORT, template, query, NeptuneDataApiDemo::rowCount,
+                response -> ResultSizes.ofDocument(response.results()));
+    }
+
+    private static long rowCount(ExecuteOpenCypherQueryResponse response) {
+        return response.results() != null && response.results().isList() ? response.results().asList().size() : 0;
+    }
+
+    /**
+     * Result cache counters, or null when the cache is disabled
+     */
+    public QueryResultCache.Stats getResultCacheStats() {
+        return resultCache == null ? null : resultCache.getStats();
+    }
+
+    private ExecuteOpenCypherQueryResponse execute(EndpointRouter.Lease<NeptunedataClient> lease, String template,
+                                                   Map<String, Object> parameters) {
         try {
-            ExecuteOpenCypherQueryRequest request = ExecuteOpenCypherQueryRequest.builder()
-                    .openCypherQuery(query)
-                    .build();
+            ExecuteOpenCypherQueryRequest request = templates.intern(template).toRequest(parameters);
 
-            ExecuteOpenCypherQueryResponse response = neptuneClient.executeOpenCypherQuery(request);
-            logger.debug("Executed query: {}", query);
+            // Each attempt is timed on its own, so a slow attempt is logged even if a retry is fast
+            ExecuteOpenCypherQueryResponse response = slowQueries == null
+                    ? lease.client().executeOpenCypherQuery(request)
+                    : slowQueries.time(template, parameters, () -> lease.client().executeOpenCypherQuery(request),
+                    NeptuneDataApiDemo::rowCount);
+            logger.debug("Executed query on {}: {} with parameters {}", lease.name(), template, parameters);
 
             return response;
-        } catch (Exception e) {
-            logger.error("Failed to execute query: {}", query, e);
+        } catch (RuntimeException e) {
+            if (NeptuneErrors.isRetryable(e)) {
+                logger.debug("Retryable failure executing query on {}: {}", lease.name(), e.getMessage());
+            } else {
+                logger.error("Failed to execute query on {}: {}", lease.name(), template, e);
+            }
             throw e;
         }
     }
 
+    public List<EndpointRouter.EndpointStats> getRoutingStats() {
+        return router.getStats();
+    }
+
+    public RetryExecutor.Stats getRetryStats() {
+        return retryExecutor.getStats();
+    }
+
+    public QueryTemplateCache.Stats getTemplateStats() {
+        return templates.getStats();
+    }
+
+    /**
+     * Slow query log counters, or null when the slow query log is disabled
+     */
+    public SlowQueryLog.Stats getSlowQueryStats() {
+        return slowQueries == null ? null : slowQueries.getStats();
+    }
+
+    /**
+     * Open up to {@code neptune.warmup.connections} HTTP connections to each endpoint by
+     * sending that many engine status requests to it at once. The synchronous client cannot
+     * hold a connection past its response, so the requests are only released together; any
+     * that do not overlap reuse a connection.
+     *
+     * @return the number of requests that succeeded
+     */
+    public int warmUp() throws InterruptedException {
+        return ConnectionWarmUp.run(TRANSPORT, router, warmUp, (client, holdUntilAllOpen) -> {
+            holdUntilAllOpen.run();
+            client.getEngineStatus(GetEngineStatusRequest.builder().build());
+        });
+    }
+
     /**
      * Get Neptune cluster status
      */
@@ -206,14 +356,22 @@ public class NeptuneDataApiDemo {
      * Close the Neptune client
      */
     public void close() {
+        if (healthMonitor != null) {
+            healthMonitor.close();
+        }
+        // Before the clients, since pending entries may still need an explain
+        if (slowQueries != null) {
+            slowQueries.close();
+        }
         if (neptuneClient != null) {
-            neptuneClient.close();
+            router.getClients().forEach(NeptunedataClient::close);
             logger.info("Neptune Data API client closed");
         }
     }
 
     public static void main(String[] args) {
         NeptuneConfig config = NeptuneConfig.fromProperties();
+        NeptuneTelemetry.start(config);
 
         logger.info("Connecting to Neptune Data API at: {}", config.getHost());
         logger.info("Neptune Port: {}", config.getPort());
@@ -223,6 +381,7 @@ public class NeptuneDataApiDemo {
         try {
             // Create connection
             demo = new NeptuneDataApiDemo(config);
+            demo.warmUp();
 
             // Get cluster status
             demo.getClusterStatus();
@@ -237,6 +396,16 @@ public class NeptuneDataApiDemo {
             // Cleanup
             demo.cleanupSampleData();
 
+            demo.getRoutingStats().forEach(stats -> logger.info("Data API routing stats: {}", stats));
+            if (demo.getResultCacheStats() != null) {
+                logger.info("Result cache stats: {}", demo.getResultCacheStats());
+            }
+            logger.info("Query template stats: {}", demo.getTemplateStats());
+            logger.info("Retry stats: {}", demo.getRetryStats());
+            if (demo.getSlowQueryStats() != null) {
+                logger.info("Slow query stats: {}", demo.getSlowQueryStats());
+            }
+
         } catch (Exception e) {
             logger.error("Application failed", e);
             System.exit(1);
@@ -244,6 +413,7 @@ public class NeptuneDataApiDemo {
             if (demo != null) {
                 demo.close();
             }
+            NeptuneTelemetry.stop();
         }
 
         logger.info("Neptune Data API Demo completed successfully");
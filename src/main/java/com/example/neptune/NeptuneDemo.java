@@ -3,36 +3,56 @@ package com.example.neptune;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+
 /**
  * Main entry point for Neptune Java Demo application.
- * Runs either NeptuneBoltDemo or NeptuneDataApiDemo based on command-line parameter.
+ * Runs NeptuneBoltDemo, NeptuneDataApiDemo or one of the tools based on command-line parameter.
  * 
  * Usage:
  *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo bolt
  *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo data-api
+ *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo bulk-load nodes.csv edges.csv
+ *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo load data-api
+ *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo export export-dir
+ *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo loader csv-dir nodes.csv edges.csv
+ *   java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo stream
  */
 public class NeptuneDemo {
     private static final Logger logger = LogManager.getLogger(NeptuneDemo.class);
     
     private static final String USAGE = 
-            "Usage: java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo <demo-type>\n" +
+            "Usage: java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo <demo-type> [args]\n" +
             "\n" +
             "Demo Types:\n" +
             "  bolt      - Run Neptune demo using Bolt driver with Bolt protocol\n" +
             "  data-api  - Run Neptune demo using AWS SDK Neptune Data API (REST)\n" +
+            "  data-api-async - Run concurrent queries through the non-blocking Neptune Data API client\n" +
+            "  concurrent - Run many concurrent queries over Bolt and the Data API (args: [query count])\n" +
+            "  bulk-load - Load nodes and edges from CSV/JSONL files over Bolt (args: files, nodes first)\n" +
+            "  load      - Run a read/write load test and report throughput and latency percentiles (args: [bolt|data-api])\n" +
+            "  export    - Export all nodes and edges to gzipped JSONL in parallel, resumable (args: <dir> [bolt|data-api])\n" +
+            "  loader    - Convert CSV/JSONL files to bulk load CSVs and load them with Neptune's bulk loader (args: <dir> files)\n" +
+            "  stream    - Follow the Neptune Streams change log with parallel, checkpointed workers\n" +
             "\n" +
             "Examples:\n" +
             "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo bolt\n" +
-            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo data-api\n";
+            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo data-api\n" +
+            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo bulk-load nodes.csv edges.jsonl\n" +
+            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo load data-api\n" +
+            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo export export-dir\n" +
+            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo loader csv-dir nodes.csv edges.jsonl\n" +
+            "  java -cp target/neptune-java-demo-1.0-SNAPSHOT.jar com.example.neptune.NeptuneDemo stream\n";
 
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.err.println("Error: Exactly one argument required.");
+        if (args.length < 1) {
+            System.err.println("Error: A demo type argument is required.");
             System.err.println(USAGE);
             System.exit(1);
         }
 
         String demoType = args[0].toLowerCase();
+        String[] demoArgs = Arrays.copyOfRange(args, 1, args.length);
         
         try {
             switch (demoType) {
@@ -46,10 +66,45 @@ public class NeptuneDemo {
                     logger.info("Starting Neptune Data API Demo (REST)");
                     NeptuneDataApiDemo.main(new String[0]);
                     break;
+
+                case "data-api-async":
+                    logger.info("Starting Neptune Data API async Demo (REST, non-blocking)");
+                    NeptuneDataApiAsyncClient.main(new String[0]);
+                    break;
+
+                case "concurrent":
+                    logger.info("Starting Neptune concurrent query demo");
+                    ConcurrentQueryRunner.main(demoArgs);
+                    break;
+
+                case "bulk-load":
+                    logger.info("Starting Neptune bulk load (Bolt protocol)");
+                    BoltBulkLoader.main(demoArgs);
+                    break;
+
+                case "load":
+                    logger.info("Starting Neptune load test");
+                    LoadGenerator.main(demoArgs);
+                    break;
+
+                case "export":
+                    logger.info("Starting Neptune graph export");
+                    GraphExporter.main(demoArgs);
+                    break;
+
+                case "loader":
+                    logger.info("Starting Neptune bulk loader");
+                    NeptuneBulkLoader.main(demoArgs);
+                    break;
+
+                case "stream":
+                    logger.info("Starting Neptune Streams consumer");
+                    NeptuneStreamConsumer.main(demoArgs);
+                    break;
                     
                 default:
                     System.err.println("Error: Invalid demo type '" + demoType + "'");
-                    System.err.println("Valid options are: bolt, data-api");
+                    System.err.println("Valid options are: bolt, data-api, data-api-async, concurrent, bulk-load, load, export, loader, stream");
                     System.err.println();
                     System.err.println(USAGE);
                     System.exit(1);
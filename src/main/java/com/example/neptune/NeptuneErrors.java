@@ -0,0 +1,134 @@
+package com.example.neptune;
+
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.exceptions.RetryableException;
+import org.neo4j.driver.exceptions.SecurityException;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.neptunedata.model.ConcurrentModificationException;
+import software.amazon.awssdk.services.neptunedata.model.InternalFailureException;
+import software.amazon.awssdk.services.neptunedata.model.MemoryLimitExceededException;
+import software.amazon.awssdk.services.neptunedata.model.QueryLimitExceededException;
+import software.amazon.awssdk.services.neptunedata.model.ReadOnlyViolationException;
+import software.amazon.awssdk.services.neptunedata.model.ServerShutdownException;
+import software.amazon.awssdk.services.neptunedata.model.ThrottlingException;
+import software.amazon.awssdk.services.neptunedata.model.TimeLimitExceededException;
+import software.amazon.awssdk.services.neptunedata.model.TooManyRequestsException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+
+/**
+ * Classifies errors from the Bolt driver and the Neptune Data API as retryable or not.
+ * <p>
+ * Retryable are the errors Neptune documents as safe to retry: concurrent modification
+ * under write contention, throttling and request limits, memory pressure, read-only
+ * violations while a failover promotes a new writer, and internal failures, plus lost
+ * connections and anything the Bolt driver marks retryable, including a rejected token
+ * that {@link NeptuneAuthTokenManager} has re-signed. Timeouts are not retried, since re-running a query that already hit the
+ * time limit only adds load. Over Bolt, Neptune reports its error names in the failure
+ * code or message, so those are matched by name.
+ */
+public final class NeptuneErrors {
+    private static final List<String> RETRYABLE_NAMES = List.of(
+            "ConcurrentModification", "Throttling", "TooManyRequests", "QueryLimitExceeded",
+            "MemoryLimitExceeded", "ReadOnlyViolation", "InternalFailure", "ServerShutdown");
+    private static final List<String> TIMEOUT_NAMES = List.of("TimeLimitExceeded");
+    private static final List<String> CONTENTION_NAMES = List.of("ConcurrentModification", "ReadOnlyViolation");
+
+    private NeptuneErrors() {
+    }
+
+    public static boolean isRetryable(Throwable e) {
+        if (e instanceof RetryableException) {
+            // Transient errors, lost connections, and expired tokens the auth token manager re-signs
+            return true;
+        }
+        if (e instanceof ConcurrentModificationException
+                || e instanceof ThrottlingException
+                || e instanceof TooManyRequestsException
+                || e instanceof QueryLimitExceededException
+                || e instanceof MemoryLimitExceededException
+                || e instanceof ReadOnlyViolationException
+                || e instanceof InternalFailureException
+                || e instanceof ServerShutdownException) {
+            return true;
+        }
+        if (e instanceof SdkClientException || e instanceof UncheckedIOException) {
+            // Connection failures rather than request errors
+            return e.getCause() instanceof IOException;
+        }
+        if (e instanceof NeptuneHttpException httpException) {
+            return httpException.getErrorCode() != null && hasRetryableName(httpException.getErrorCode());
+        }
+        if (e instanceof Neo4jException neo4jException) {
+            return hasRetryableName(neo4jException.code()) || hasRetryableName(neo4jException.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Whether the error suggests the endpoint is overloaded or unhealthy: any retryable error
+     * except write contention and expired tokens, plus timeouts. Used by circuit breakers and
+     * concurrency limiters, which should react to a struggling instance but not to bad
+     * queries, conflicting writes or authentication on a healthy one.
+     */
+    public static boolean isOverload(Throwable e) {
+        if (isContention(e) || e instanceof SecurityException) {
+            return false;
+        }
+        if (isRetryable(e)
+                || e instanceof TimeLimitExceededException
+                || e instanceof ApiCallTimeoutException
+                || e instanceof ApiCallAttemptTimeoutException
+                || e.getCause() instanceof SocketTimeoutException
+                || e.getCause() instanceof HttpTimeoutException) {
+            return true;
+        }
+        if (e instanceof NeptuneHttpException httpException) {
+            return hasName(httpException.getErrorCode(), TIMEOUT_NAMES);
+        }
+        if (e instanceof Neo4jException neo4jException) {
+            return hasName(neo4jException.code(), TIMEOUT_NAMES) || hasName(neo4jException.getMessage(), TIMEOUT_NAMES);
+        }
+        return false;
+    }
+
+    /**
+     * Whether the error comes from writes conflicting with each other, or with a failover
+     * (concurrent modification, read-only violation), rather than from the instance's load
+     */
+    static boolean isContention(Throwable e) {
+        if (e instanceof ConcurrentModificationException || e instanceof ReadOnlyViolationException) {
+            return true;
+        }
+        if (e instanceof NeptuneHttpException httpException) {
+            return hasName(httpException.getErrorCode(), CONTENTION_NAMES);
+        }
+        if (e instanceof Neo4jException neo4jException) {
+            return hasName(neo4jException.code(), CONTENTION_NAMES)
+                    || hasName(neo4jException.getMessage(), CONTENTION_NAMES);
+        }
+        return false;
+    }
+
+    private static boolean hasRetryableName(String text) {
+        return hasName(text, RETRYABLE_NAMES);
+    }
+
+    private static boolean hasName(String text, List<String> names) {
+        if (text == null) {
+            return false;
+        }
+        for (String name : names) {
+            if (text.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.signer.Aws4Signer;
+import software.amazon.awssdk.auth.signer.params.Aws4SignerParams;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A Neptune HTTP endpoint reached with the JDK HTTP client, which keeps connections to it
+ * alive between requests. Requests are SigV4-signed when credentials are given. Shared by
+ * the clients that stream results from Neptune's endpoints ({@code /openCypher},
+ * {@code /sparql}, {@code /propertygraph/stream}).
+ */
+final class NeptuneHttpEndpoint implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(NeptuneHttpEndpoint.class);
+
+    private static final String SERVICE_NAME = "neptune-db";
+    // Headers the JDK client sets itself and refuses to accept from callers
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("host", "content-length", "connection", "expect", "upgrade");
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final Region region;
+    private final AwsCredentialsProvider credentialsProvider;
+    private final Aws4Signer signer = Aws4Signer.create();
+
+    /**
+     * @param baseUri             scheme, host and port of the Neptune endpoint
+     * @param credentialsProvider credentials to sign requests with, or {@code null} to send them unsigned
+     */
+    NeptuneHttpEndpoint(URI baseUri, String region, AwsCredentialsProvider credentialsProvider) {
+        this.baseUri = baseUri;
+        this.region = Region.of(region);
+        this.credentialsProvider = credentialsProvider;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * POST a body to a path of the endpoint and return the response body as it streams in
+     *
+     * @param query the query being run, for error messages
+     * @throws NeptuneHttpException if Neptune answers with an error status
+     */
+    InputStream post(String path, String contentType, String accept, byte[] body, String query) {
+        return send(SdkHttpMethod.POST, path, contentType, accept, body, query);
+    }
+
+    /**
+     * GET a path of the endpoint, with its query string, and return the response body as it
+     * streams in. The response may be gzipped, and is decompressed while it is read.
+     *
+     * @param query what is being read, for error messages
+     * @throws NeptuneHttpException if Neptune answers with an error status
+     */
+    InputStream get(String pathAndQuery, String accept, String query) {
+        return send(SdkHttpMethod.GET, pathAndQuery, null, accept, null, query);
+    }
+
+    private InputStream send(SdkHttpMethod method, String path, String contentType, String accept, byte[] body,
+                             String query) {
+        URI uri = baseUri.resolve(path);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+        if (method == SdkHttpMethod.POST) {
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(body)).header("Content-Type", contentType);
+        } else {
+            request.GET().header("Accept-Encoding", "gzip");
+        }
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        if (credentialsProvider != null) {
+            sign(method, uri, contentType, accept, body).headers().forEach((name, values) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> request.header(name, value));
+                }
+            });
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Request to " + path + " failed: " + query, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running query on " + path, e);
+        }
+
+        if (response.statusCode() != 200) {
+            try (InputStream error = response.body()) {
+                throw NeptuneHttpException.fromResponse(response.statusCode(),
+                        new String(error.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new NeptuneHttpException(response.statusCode(), null, "unreadable error body");
+            }
+        }
+        logger.debug("Streaming results from {} for query: {}", path, query);
+        if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+            try {
+                return new GZIPInputStream(response.body(), 64 * 1024);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable gzip response from " + path + " for: " + query, e);
+            }
+        }
+        return response.body();
+    }
+
+    private SdkHttpFullRequest sign(SdkHttpMethod method, URI uri, String contentType, String accept, byte[] body) {
+        SdkHttpFullRequest.Builder request = SdkHttpFullRequest.builder()
+                .method(method)
+                .uri(uri);
+        if (body != null) {
+            request.putHeader("Content-Type", contentType)
+                    .contentStreamProvider(() -> new ByteArrayInputStream(body));
+        }
+        if (accept != null) {
+            request.putHeader("Accept", accept);
+        }
+
+        Aws4SignerParams signerParams = Aws4SignerParams.builder()
+                .awsCredentials(credentialsProvider.resolveCredentials())
+                .signingName(SERVICE_NAME)
+                .signingRegion(region)
+                .build();
+
+        return signer.sign(request.build(), signerParams);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+}
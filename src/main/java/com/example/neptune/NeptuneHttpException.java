@@ -0,0 +1,50 @@
+package com.example.neptune;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * Error response from one of Neptune's HTTP endpoints. Neptune reports the failure
+ * class (e.g. {@code ConcurrentModificationException}) in the {@code code} field of
+ * the JSON body.
+ */
+public class NeptuneHttpException extends RuntimeException {
+    private final int statusCode;
+    private final String errorCode;
+
+    public NeptuneHttpException(int statusCode, String errorCode, String message) {
+        super("Neptune returned HTTP " + statusCode + (errorCode != null ? " (" + errorCode + ")" : "") + ": " + message);
+        this.statusCode = statusCode;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Build an exception from a Neptune error body, falling back to the raw body if it is not JSON
+     */
+    public static NeptuneHttpException fromResponse(int statusCode, String body) {
+        String errorCode = null;
+        String message = body;
+        try {
+            JsonElement json = JsonParser.parseString(body);
+            if (json.isJsonObject()) {
+                if (json.getAsJsonObject().has("code")) {
+                    errorCode = json.getAsJsonObject().get("code").getAsString();
+                }
+                if (json.getAsJsonObject().has("detailedMessage")) {
+                    message = json.getAsJsonObject().get("detailedMessage").getAsString();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Not a JSON error body
+        }
+        return new NeptuneHttpException(statusCode, errorCode, message);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.neptune;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * OpenCypher client for Neptune's HTTP endpoint that decodes results while they stream
+ * in, using {@link OpenCypherResultReader}. Unlike {@code NeptunedataClient}, it never
+ * builds an SDK {@code Document} for the response, which keeps large result sets cheap.
+ * Requests are SigV4-signed when IAM auth is enabled.
+ * <p>
+ * As a {@link GraphQueryExecutor} it hands rows over as maps, with nested values (such as
+ * returned nodes) as Java maps and lists.
+ */
+public class NeptuneOpenCypherHttpClient implements GraphQueryExecutor {
+    private static final String TRANSPORT = "http";
+    private static final String CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final NeptuneHttpEndpoint endpoint;
+    private final QueryTemplateCache templates;
+
+    public NeptuneOpenCypherHttpClient(NeptuneConfig config) {
+        this(URI.create(config.getHttpsUri()), config.getRegion(),
+                config.isIamAuth() ? config.getCredentialsProvider() : null,
+                QueryTemplateCache.fromConfig(config));
+    }
+
+    /**
+     * @param baseUri             scheme, host and port of the Neptune endpoint
+     * @param credentialsProvider credentials to sign requests with, or {@code null} to send them unsigned
+     */
+    public NeptuneOpenCypherHttpClient(URI baseUri, String region, AwsCredentialsProvider credentialsProvider,
+                                       QueryTemplateCache templates) {
+        this.endpoint = new NeptuneHttpEndpoint(baseUri, region, credentialsProvider);
+        this.templates = templates;
+    }
+
+    /**
+     * Run a query and hand each mapped row to the consumer as it is decoded
+     *
+     * @return the number of rows read
+     */
+    public <T> long query(String template, Map<String, Object> parameters,
+                          OpenCypherResultReader.RowMapper<T> mapper, Consumer<? super T> consumer) {
+        try (OpenCypherResultReader reader = new OpenCypherResultReader(send(template, parameters))) {
+            return reader.forEach(mapper, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read openCypher results for: " + template, e);
+        }
+    }
+
+    /**
+     * Run a query and collect the mapped rows
+     */
+    public <T> List<T> queryList(String template, Map<String, Object> parameters,
+                                 OpenCypherResultReader.RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        query(template, parameters, mapper, rows::add);
+        return rows;
+    }
+
+    /**
+     * Run a query and collect the declared columns into primitive arrays
+     */
+    public ColumnarResult queryColumns(String template, Map<String, Object> parameters,
+                                       ColumnarResult.Builder columns) {
+        try (OpenCypherResultReader reader = new OpenCypherResultReader(send(template, parameters))) {
+            return reader.readColumns(columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read openCypher results for: " + template, e);
+        }
+    }
+
+    public QueryTemplateCache.Stats getTemplateStats() {
+        return templates.getStats();
+    }
+
+    @Override
+    public Language language() {
+        return Language.OPEN_CYPHER;
+    }
+
+    @Override
+    public String transport() {
+        return TRANSPORT;
+    }
+
+    @Override
+    public long execute(String query, Map<String, Object> parameters, Consumer<Map<String, Object>> rows) {
+        return NeptuneTelemetry.observeQuery(TRANSPORT, query,
+                () -> query(query, parameters, OpenCypherResultReader.Row::toMap, rows), Long::longValue, null);
+    }
+
+    private InputStream send(String template, Map<String, Object> parameters) {
+        byte[] body = templates.intern(template).toFormBody(parameters).getBytes(StandardCharsets.UTF_8);
+        return endpoint.post("/openCypher", CONTENT_TYPE, null, body, template);
+    }
+
+    @Override
+    public void close() {
+        endpoint.close();
+    }
+}
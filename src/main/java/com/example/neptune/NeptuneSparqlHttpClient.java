@@ -0,0 +1,152 @@
+package com.example.neptune;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * SPARQL client for Neptune's {@code /sparql} endpoint, as a {@link GraphQueryExecutor}.
+ * Results are requested as SPARQL JSON and decoded while they stream in, one solution at
+ * a time, without building a document tree. Requests are SigV4-signed when IAM auth is
+ * enabled.
+ * <p>
+ * Each solution becomes a row keyed by variable name. IRIs and blank nodes map to their
+ * string value; literals typed as XSD integers, decimals/doubles or booleans map to
+ * {@code Long}, {@code Double} or {@code Boolean}, and other literals to their lexical
+ * form. An {@code ASK} query yields one row, {@code {"boolean": answer}}.
+ */
+public class NeptuneSparqlHttpClient implements GraphQueryExecutor {
+    private static final String TRANSPORT = "sparql";
+    private static final String CONTENT_TYPE = "application/x-www-form-urlencoded";
+    private static final String ACCEPT = "application/sparql-results+json";
+    private static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+    private final NeptuneHttpEndpoint endpoint;
+
+    public NeptuneSparqlHttpClient(NeptuneConfig config) {
+        this(URI.create(config.getHttpsUri()), config.getRegion(),
+                config.isIamAuth() ? config.getCredentialsProvider() : null);
+    }
+
+    /**
+     * @param baseUri             scheme, host and port of the Neptune endpoint
+     * @param credentialsProvider credentials to sign requests with, or {@code null} to send them unsigned
+     */
+    public NeptuneSparqlHttpClient(URI baseUri, String region, AwsCredentialsProvider credentialsProvider) {
+        this.endpoint = new NeptuneHttpEndpoint(baseUri, region, credentialsProvider);
+    }
+
+    @Override
+    public Language language() {
+        return Language.SPARQL;
+    }
+
+    @Override
+    public String transport() {
+        return TRANSPORT;
+    }
+
+    @Override
+    public long execute(String query, Map<String, Object> parameters, Consumer<Map<String, Object>> rows) {
+        GraphQueryExecutor.requireNoParameters(Language.SPARQL, parameters);
+        byte[] body = ("query=" + URLEncoder.encode(query, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        return NeptuneTelemetry.observeQuery(TRANSPORT, query, () -> {
+            try (InputStream in = endpoint.post("/sparql", CONTENT_TYPE, ACCEPT, body, query)) {
+                return readResults(new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8)), rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read SPARQL results for: " + query, e);
+            }
+        }, Long::longValue, null);
+    }
+
+    /**
+     * Decode {@code {"head": ..., "results": {"bindings": [...]}}} or {@code {"boolean": ...}}
+     *
+     * @return the number of rows
+     */
+    static long readResults(JsonReader json, Consumer<Map<String, Object>> rows) throws IOException {
+        long count = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (name.equals("boolean")) {
+                rows.accept(Map.of("boolean", json.nextBoolean()));
+                count++;
+            } else if (name.equals("results") && json.peek() == JsonToken.BEGIN_OBJECT) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    if (json.nextName().equals("bindings")) {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            rows.accept(readSolution(json));
+                            count++;
+                        }
+                        json.endArray();
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return count;
+    }
+
+    private static Map<String, Object> readSolution(JsonReader json) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            row.put(json.nextName(), readTerm(json));
+        }
+        json.endObject();
+        return row;
+    }
+
+    private static Object readTerm(JsonReader json) throws IOException {
+        String value = null;
+        String datatype = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "value" -> value = json.nextString();
+                case "datatype" -> datatype = json.nextString();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (value == null || datatype == null || !datatype.startsWith(XSD)) {
+            return value;
+        }
+        try {
+            return switch (datatype.substring(XSD.length())) {
+                case "integer", "long", "int", "short", "byte", "nonNegativeInteger", "positiveInteger",
+                     "unsignedInt", "unsignedShort", "unsignedByte" -> Long.parseLong(value);
+                case "double", "float", "decimal" -> Double.parseDouble(value);
+                case "boolean" -> Boolean.parseBoolean(value);
+                default -> value;
+            };
+        } catch (NumberFormatException e) {
+            // Out of range, or a special value such as INF; keep the lexical form
+            return value;
+        }
+    }
+
+    @Override
+    public void close() {
+        endpoint.close();
+    }
+}
@@ -0,0 +1,679 @@
+package com.example.neptune;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.neptunedata.model.GetPropertygraphStreamResponse;
+import software.amazon.awssdk.services.neptunedata.model.PropertygraphData;
+import software.amazon.awssdk.services.neptunedata.model.PropertygraphRecord;
+import software.amazon.awssdk.services.neptunedata.model.StreamRecordsNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Consumes the Neptune Streams change log of a property graph and hands the changes to a
+ * {@link Handler} on worker threads.
+ * <p>
+ * Pages of up to {@code pageSize} change records are read back to back while there are
+ * changes, and every {@code pollInterval} once the consumer has caught up. Each record goes
+ * to the worker its entity ID hashes to, so changes to one vertex or edge are handled in
+ * commit order while different entities are handled in parallel; ordering across entities,
+ * such as between an edge and its vertices, is not preserved. Up to
+ * {@code maxPagesInFlight} pages are handled while the next one is read.
+ * <p>
+ * After each batch a worker has handled, the checkpoint file is rewritten with the position
+ * up to which every page is done and the position each worker has reached. A restarted
+ * consumer reads on from the first position and skips the records each worker already
+ * handled, so every record is handed over exactly once as long as the handler applies a
+ * batch atomically (or idempotently); a crash inside the handler redelivers that batch.
+ * Workers must stay at the same count across restarts for this; with another count, the
+ * records after the first position are handed over again.
+ */
+public class NeptuneStreamConsumer implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(NeptuneStreamConsumer.class);
+    private static final Gson GSON = new Gson();
+
+    static final String STREAM_PATH = "/propertygraph/stream";
+
+    /**
+     * Handles the changes of one page that hash to one worker, in commit order
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(List<ChangeRecord> records) throws Exception;
+    }
+
+    /**
+     * Reads a page of the change log
+     */
+    @FunctionalInterface
+    public interface ChangeSource {
+        /**
+         * @param after   read the records after this position, or from the start of the log when null
+         * @param latest  with no position, start at the latest record rather than the oldest one kept
+         */
+        Page read(Position after, boolean latest, int limit);
+    }
+
+    /**
+     * Position of a change in the log: the commit and the operation within it
+     */
+    public record Position(long commitNum, long opNum) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+            int byCommit = Long.compare(commitNum, other.commitNum);
+            return byCommit != 0 ? byCommit : Long.compare(opNum, other.opNum);
+        }
+
+        @Override
+        public String toString() {
+            return commitNum + ":" + opNum;
+        }
+    }
+
+    /**
+     * One change: {@code op} is {@code ADD} or {@code REMOVE}, and {@code type} is {@code vl}
+     * (vertex label), {@code vp} (vertex property), {@code e} (edge, with {@code from} and
+     * {@code to}) or {@code ep} (edge property). For labels and properties, {@code key} is
+     * the label or property name and {@code value} its value, as a String, Long, Double or
+     * Boolean with Neptune's {@code dataType} name.
+     */
+    public record ChangeRecord(long commitNum, long opNum, long commitTimestamp, String op, String type, String id,
+                               String key, Object value, String dataType, String from, String to, boolean lastOp) {
+
+        public Position position() {
+            return new Position(commitNum, opNum);
+        }
+    }
+
+    /**
+     * A page of the change log, and the position of its last record
+     */
+    public record Page(List<ChangeRecord> records, Position lastEventId, long lastTrxTimestamp) {
+    }
+
+    /**
+     * Stream consumer settings, from {@code neptune.streams.*}
+     *
+     * @param source {@code http} to decode pages while they stream in, or {@code data-api} to read
+     *               them with {@code NeptunedataClient.getPropertygraphStream}
+     */
+    public record Settings(int pageSize, int workers, int maxPagesInFlight, Duration pollInterval,
+                           Path checkpointFile, boolean startAtLatest, String source) {
+
+        public Settings {
+            if (pageSize < 1 || pageSize > 100_000) {
+                throw new IllegalArgumentException("Stream page size must be between 1 and 100000: " + pageSize);
+            }
+            if (workers < 1 || maxPagesInFlight < 1) {
+                throw new IllegalArgumentException("Stream workers and pages in flight must be at least 1: workers="
+                        + workers + ", maxPagesInFlight=" + maxPagesInFlight);
+            }
+            if (pollInterval.isNegative() || pollInterval.isZero()) {
+                throw new IllegalArgumentException("Stream poll interval must be positive: " + pollInterval);
+            }
+            if (!source.equals("http") && !source.equals("data-api")) {
+                throw new IllegalArgumentException("Unknown stream source (expected http or data-api): " + source);
+            }
+        }
+
+        public static Settings fromConfig(NeptuneConfig config) {
+            return new Settings(
+                    config.getIntSetting("neptune.streams.page.size", "NEPTUNE_STREAMS_PAGE_SIZE", 10_000),
+                    config.getIntSetting("neptune.streams.workers", "NEPTUNE_STREAMS_WORKERS", 4),
+                    config.getIntSetting("neptune.streams.max.pages.in.flight", "NEPTUNE_STREAMS_MAX_PAGES_IN_FLIGHT", 2),
+                    Duration.ofMillis(config.getLongSetting("neptune.streams.poll.ms", "NEPTUNE_STREAMS_POLL_MS", 1000)),
+                    Paths.get(config.getSetting("neptune.streams.checkpoint.file", "NEPTUNE_STREAMS_CHECKPOINT_FILE",
+                            "neptune-stream.checkpoint")),
+                    config.getSetting("neptune.streams.start", "NEPTUNE_STREAMS_START", "oldest")
+                            .equalsIgnoreCase("latest"),
+                    config.getSetting("neptune.streams.source", "NEPTUNE_STREAMS_SOURCE", "http").toLowerCase());
+        }
+    }
+
+    /**
+     * Pages and records handled, records skipped as handled before a restart, checkpoints
+     * written, the position every page is done up to, and how far behind the last handled
+     * commit is
+     */
+    public record Stats(long pages, long records, long skipped, long checkpoints, Position checkpoint, long lagMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("pages=%d records=%d skipped=%d checkpoints=%d checkpoint=%s lag=%dms",
+                    pages, records, skipped, checkpoints, checkpoint, lagMillis);
+        }
+    }
+
+    private record Checkpoint(Position position, List<Position> workers) {
+    }
+
+    private static final class PendingPage {
+        private final Position last;
+        private final long lastCommitTimestamp;
+        private int remaining;
+        private boolean done;
+
+        PendingPage(Position last, long lastCommitTimestamp, int batches) {
+            this.last = last;
+            this.lastCommitTimestamp = lastCommitTimestamp;
+            this.remaining = batches;
+        }
+    }
+
+    private final ChangeSource source;
+    private final Handler handler;
+    private final Settings settings;
+    private final Clock clock;
+    private final List<AutoCloseable> resources;
+    private final ExecutorService[] workers;
+    private final Semaphore pagesInFlight;
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<>();
+    private final CountDownLatch stopping = new CountDownLatch(1);
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder records = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private final Position[] handled;
+    private Position committed;
+    private long lastCommitTimestamp;
+    private volatile Throwable failure;
+    private volatile boolean started;
+
+    public NeptuneStreamConsumer(ChangeSource source, Handler handler, Settings settings) throws IOException {
+        this(source, handler, settings, Clock.systemUTC(), List.of());
+    }
+
+    NeptuneStreamConsumer(ChangeSource source, Handler handler, Settings settings, Clock clock,
+                          List<AutoCloseable> resources) throws IOException {
+        this.source = source;
+        this.handler = handler;
+        this.settings = settings;
+        this.clock = clock;
+        this.resources = resources;
+        this.pagesInFlight = new Semaphore(settings.maxPagesInFlight());
+        this.handled = new Position[settings.workers()];
+        this.workers = new ExecutorService[settings.workers()];
+        for (int i = 0; i < workers.length; i++) {
+            String name = "neptune-stream-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        loadCheckpoint();
+    }
+
+    /**
+     * Create a consumer reading the writer's change log through the configured source, with
+     * retries of transient read errors
+     */
+    public static NeptuneStreamConsumer fromConfig(NeptuneConfig config, Handler handler) throws IOException {
+        Settings settings = Settings.fromConfig(config);
+        RetryExecutor retries = RetryExecutor.fromConfig(config);
+        ChangeSource source;
+        AutoCloseable resource;
+        if (settings.source().equals("data-api")) {
+            NeptunedataClient client = NeptuneDataApiDemo.createClient(config, URI.create(config.getHttpsUri()),
+                    config.isIamAuth() ? config.getCredentialsProvider() : AnonymousCredentialsProvider.create(),
+                    ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.none()).build());
+            source = dataApi(client);
+            resource = client;
+        } else {
+            NeptuneHttpEndpoint endpoint = new NeptuneHttpEndpoint(URI.create(config.getHttpsUri()),
+                    config.getRegion(), config.isIamAuth() ? config.getCredentialsProvider() : null);
+            source = http(endpoint);
+            resource = endpoint;
+        }
+        ChangeSource retrying = (after, latest, limit) ->
+                retries.execute("stream read", () -> source.read(after, latest, limit));
+        return new NeptuneStreamConsumer(retrying, handler, settings, Clock.systemUTC(), List.of(resource));
+    }
+
+    /**
+     * A source reading the change log with the Data API's {@code getPropertygraphStream}.
+     * The SDK builds a {@code Document} for each record's value; {@link #http} avoids that.
+     */
+    public static ChangeSource dataApi(NeptunedataClient client) {
+        return (after, latest, limit) -> {
+            GetPropertygraphStreamResponse response;
+            try {
+                response = client.getPropertygraphStream(request -> {
+                    request.limit((long) limit).encoding("gzip");
+                    if (after != null) {
+                        request.iteratorType("AFTER_SEQUENCE_NUMBER").commitNum(after.commitNum()).opNum(after.opNum());
+                    } else {
+                        request.iteratorType(latest ? "LATEST" : "TRIM_HORIZON");
+                    }
+                });
+            } catch (StreamRecordsNotFoundException e) {
+                return new Page(List.of(), after, 0);
+            }
+            List<ChangeRecord> changes = new ArrayList<>(response.records().size());
+            for (PropertygraphRecord record : response.records()) {
+                changes.add(toChange(record));
+            }
+            return new Page(changes, toPosition(response.lastEventId()),
+                    response.lastTrxTimestampInMillis() == null ? 0 : response.lastTrxTimestampInMillis());
+        };
+    }
+
+    private static ChangeRecord toChange(PropertygraphRecord record) {
+        Position position = toPosition(record.eventId());
+        PropertygraphData data = record.data();
+        Object value = null;
+        String dataType = null;
+        Document typedValue = data.value();
+        if (typedValue != null && typedValue.isMap()) {
+            value = GremlinQueryExecutor.toJava(typedValue.asMap().get("value"));
+            Document type = typedValue.asMap().get("dataType");
+            dataType = type != null && type.isString() ? type.asString() : null;
+        }
+        return new ChangeRecord(position.commitNum(), position.opNum(),
+                record.commitTimestampInMillis() == null ? 0 : record.commitTimestampInMillis(),
+                record.op(), data.type(), data.id(), data.key(), value, dataType, data.from(), data.to(),
+                Boolean.TRUE.equals(record.isLastOp()));
+    }
+
+    private static Position toPosition(Map<String, String> eventId) {
+        if (eventId == null || !eventId.containsKey("commitNum")) {
+            return null;
+        }
+        return new Position(Long.parseLong(eventId.get("commitNum")),
+                Long.parseLong(eventId.getOrDefault("opNum", "0")));
+    }
+
+    /**
+     * A source reading the change log from Neptune's {@code /propertygraph/stream} endpoint,
+     * gzipped, and decoding each record while the page streams in, without a document tree
+     */
+    static ChangeSource http(NeptuneHttpEndpoint endpoint) {
+        return (after, latest, limit) -> {
+            String query = STREAM_PATH + "?limit=" + limit + (after != null
+                    ? "&iteratorType=AFTER_SEQUENCE_NUMBER&commitNum=" + after.commitNum() + "&opNum=" + after.opNum()
+                    : "&iteratorType=" + (latest ? "LATEST" : "TRIM_HORIZON"));
+            try (InputStream in = endpoint.get(query, "application/json", query)) {
+                return readPage(new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            } catch (NeptuneHttpException e) {
+                if ("StreamRecordsNotFoundException".equals(e.getErrorCode())) {
+                    return new Page(List.of(), after, 0);
+                }
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read stream page: " + query, e);
+            }
+        };
+    }
+
+    /**
+     * Decode a {@code PG_JSON} stream page
+     */
+    static Page readPage(JsonReader json) throws IOException {
+        List<ChangeRecord> changes = new ArrayList<>();
+        Position lastEventId = null;
+        long lastTrxTimestamp = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "lastEventId" -> lastEventId = readPosition(json);
+                case "lastTrxTimestamp" -> lastTrxTimestamp = json.nextLong();
+                case "records" -> {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        changes.add(readChange(json));
+                    }
+                    json.endArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        return new Page(changes, lastEventId, lastTrxTimestamp);
+    }
+
+    private static ChangeRecord readChange(JsonReader json) throws IOException {
+        Position position = null;
+        long commitTimestamp = 0;
+        String op = null;
+        boolean lastOp = false;
+        String type = null, id = null, key = null, dataType = null, from = null, to = null;
+        Object value = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "eventId" -> position = readPosition(json);
+                case "commitTimestamp" -> commitTimestamp = json.nextLong();
+                case "op" -> op = json.nextString();
+                case "isLastOp" -> lastOp = json.nextBoolean();
+                case "data" -> {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        switch (json.nextName()) {
+                            case "id" -> id = json.nextString();
+                            case "type" -> type = json.nextString();
+                            case "key" -> key = json.nextString();
+                            case "from" -> from = json.nextString();
+                            case "to" -> to = json.nextString();
+                            case "value" -> {
+                                json.beginObject();
+                                while (json.hasNext()) {
+                                    switch (json.nextName()) {
+                                        case "value" -> value = readValue(json);
+                                        case "dataType" -> dataType = json.nextString();
+                                        default -> json.skipValue();
+                                    }
+                                }
+                                json.endObject();
+                            }
+                            default -> json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (position == null) {
+            throw new IOException("Stream record without an eventId");
+        }
+        return new ChangeRecord(position.commitNum(), position.opNum(), commitTimestamp, op, type, id, key, value,
+                dataType, from, to, lastOp);
+    }
+
+    private static Position readPosition(JsonReader json) throws IOException {
+        long commitNum = 0;
+        long opNum = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "commitNum" -> commitNum = json.nextLong();
+                case "opNum" -> opNum = json.nextLong();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        return new Position(commitNum, opNum);
+    }
+
+    private static Object readValue(JsonReader json) throws IOException {
+        JsonToken token = json.peek();
+        return switch (token) {
+            case STRING -> json.nextString();
+            case BOOLEAN -> json.nextBoolean();
+            case NULL -> {
+                json.nextNull();
+                yield null;
+            }
+            case NUMBER -> {
+                String number = json.nextString();
+                try {
+                    yield Long.parseLong(number);
+                } catch (NumberFormatException e) {
+                    yield Double.parseDouble(number);
+                }
+            }
+            default -> GSON.fromJson(json, Object.class);
+        };
+    }
+
+    /**
+     * Read and hand over changes until {@link #close()} is called or the handler fails,
+     * then wait for the pages in flight and write the last checkpoint
+     *
+     * @throws IllegalStateException if the handler failed; the checkpoint holds everything handled before
+     */
+    public void run() throws InterruptedException {
+        started = true;
+        Position next;
+        synchronized (this) {
+            next = committed;
+        }
+        logger.info("Consuming Neptune stream {} with {} workers", next == null
+                ? "from the " + (settings.startAtLatest() ? "latest" : "oldest") + " record" : "after " + next,
+                workers.length);
+        try {
+            while (stopping.getCount() > 0 && failure == null) {
+                if (!pagesInFlight.tryAcquire(settings.pollInterval().toMillis(), TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                Page page;
+                try {
+                    page = source.read(next, settings.startAtLatest(), settings.pageSize());
+                } catch (RuntimeException e) {
+                    pagesInFlight.release();
+                    throw e;
+                }
+                if (page.records().isEmpty()) {
+                    pagesInFlight.release();
+                    stopping.await(settings.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                dispatch(page);
+                next = page.records().get(page.records().size() - 1).position();
+            }
+        } finally {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+            for (ExecutorService worker : workers) {
+                worker.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            synchronized (this) {
+                writeCheckpoint();
+            }
+            finished.countDown();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Stream handler failed; resume from the checkpoint in "
+                    + settings.checkpointFile(), failure);
+        }
+    }
+
+    private void dispatch(Page page) {
+        List<List<ChangeRecord>> batches = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            batches.add(new ArrayList<>());
+        }
+        Position[] alreadyHandled;
+        synchronized (this) {
+            alreadyHandled = handled.clone();
+        }
+        for (ChangeRecord change : page.records()) {
+            int worker = partition(change.id());
+            if (alreadyHandled[worker] != null && change.position().compareTo(alreadyHandled[worker]) <= 0) {
+                skipped.increment();
+            } else {
+                batches.get(worker).add(change);
+            }
+        }
+        ChangeRecord last = page.records().get(page.records().size() - 1);
+        int nonEmpty = (int) batches.stream().filter(batch -> !batch.isEmpty()).count();
+        PendingPage pending = new PendingPage(last.position(), last.commitTimestamp(), nonEmpty);
+        synchronized (this) {
+            pendingPages.addLast(pending);
+        }
+        if (nonEmpty == 0) {
+            batchDone(pending, -1, null);
+            return;
+        }
+        for (int i = 0; i < workers.length; i++) {
+            List<ChangeRecord> batch = batches.get(i);
+            if (!batch.isEmpty()) {
+                int worker = i;
+                workers[i].execute(() -> handle(worker, batch, pending));
+            }
+        }
+    }
+
+    int partition(String id) {
+        return Math.floorMod(id == null ? 0 : id.hashCode(), workers.length);
+    }
+
+    private void handle(int worker, List<ChangeRecord> batch, PendingPage page) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            handler.handle(batch);
+        } catch (Exception e) {
+            logger.error("Stream handler failed on worker {} at {}", worker, batch.get(0).position(), e);
+            failure = e;
+            stopping.countDown();
+            return;
+        }
+        records.add(batch.size());
+        batchDone(page, worker, batch.get(batch.size() - 1).position());
+    }
+
+    private synchronized void batchDone(PendingPage page, int worker, Position position) {
+        if (worker >= 0) {
+            handled[worker] = position;
+        }
+        if (--page.remaining <= 0) {
+            page.done = true;
+        }
+        while (!pendingPages.isEmpty() && pendingPages.peekFirst().done) {
+            PendingPage completed = pendingPages.pollFirst();
+            committed = completed.last;
+            lastCommitTimestamp = completed.lastCommitTimestamp;
+            pages.increment();
+            pagesInFlight.release();
+        }
+        writeCheckpoint();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        Path file = settings.checkpointFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        Checkpoint checkpoint = GSON.fromJson(Files.readString(file), Checkpoint.class);
+        committed = checkpoint.position();
+        if (checkpoint.workers() != null && checkpoint.workers().size() == handled.length) {
+            checkpoint.workers().toArray(handled);
+        } else if (checkpoint.workers() != null) {
+            logger.warn("Checkpoint {} was written by {} workers, not {}; records after {} are handed over again",
+                    file, checkpoint.workers().size(), handled.length, committed);
+        }
+    }
+
+    private void writeCheckpoint() {
+        if (committed == null && Arrays.stream(handled).allMatch(position -> position == null)) {
+            return;
+        }
+        Path file = settings.checkpointFile().toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        byte[] json = GSON.toJson(new Checkpoint(committed, Arrays.asList(handled))).getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(json));
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            checkpoints.increment();
+        } catch (IOException e) {
+            // Without checkpoints a restart would hand the same records over again, so stop
+            logger.error("Failed to write stream checkpoint {}", file, e);
+            if (failure == null) {
+                failure = e;
+            }
+            stopping.countDown();
+        }
+    }
+
+    /**
+     * The position up to which every page has been handled, or null before the first page
+     */
+    public synchronized Position getCheckpoint() {
+        return committed;
+    }
+
+    public synchronized Stats getStats() {
+        long lag = lastCommitTimestamp == 0 ? 0 : Math.max(0, clock.millis() - lastCommitTimestamp);
+        return new Stats(pages.sum(), records.sum(), skipped.sum(), checkpoints.sum(), committed, lag);
+    }
+
+    /**
+     * Stop reading, wait up to a minute for {@link #run()} to hand over the pages in flight
+     * and write its checkpoint, and close the resources the consumer owns
+     */
+    @Override
+    public void close() {
+        stopping.countDown();
+        try {
+            if (started && !finished.await(1, TimeUnit.MINUTES)) {
+                logger.warn("Stream consumer did not stop within a minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ExecutorService worker : workers) {
+            worker.shutdownNow();
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close stream consumer resource", e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        NeptuneConfig config = NeptuneConfig.fromProperties();
+        NeptuneTelemetry.start(config);
+        NeptuneStreamConsumer consumer = fromConfig(config, changes -> {
+            for (ChangeRecord change : changes) {
+                logger.info("{} {} {} {}{}", change.position(), change.op(), change.type(), change.id(),
+                        change.key() != null ? " " + change.key() + "=" + change.value() : "");
+            }
+        });
+        Thread shutdown = new Thread(consumer::close, "neptune-stream-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdown);
+        try {
+            consumer.run();
+        } finally {
+            logger.info("Stream consumer stats: {}", consumer.getStats());
+            NeptuneTelemetry.stop();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.neptune;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.micrometer.registry.otlp.OtlpMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.ConnectionPoolMetrics;
+import org.neo4j.driver.Driver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Metrics and traces for the Neptune clients. Metrics are recorded with Micrometer against
+ * {@link Metrics#globalRegistry}, which records nothing until {@link #start} adds a registry
+ * for the configured exporter: a Prometheus scrape endpoint or an OTLP collector. Query spans
+ * are created with OpenTelemetry and exported over OTLP when tracing is enabled.
+ * <p>
+ * Query meters are tagged with the query template, so they stay bounded as long as callers
+ * pass parameters instead of inlining literals; beyond {@code neptune.metrics.max.templates}
+ * distinct templates further ones are dropped.
+ */
+public final class NeptuneTelemetry {
+    private static final Logger logger = LogManager.getLogger(NeptuneTelemetry.class);
+
+    static final String QUERY_DURATION = "neptune.query.duration";
+    static final String QUERY_ROWS = "neptune.query.rows";
+    static final String QUERY_RESULT_BYTES = "neptune.query.result.bytes";
+    static final String QUERY_ERRORS = "neptune.query.errors";
+    static final String SIGNING_DURATION = "neptune.auth.signing.duration";
+
+    private static final int MAX_TEMPLATE_TAG_LENGTH = 200;
+    private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+    private static final AttributeKey<String> DB_STATEMENT = AttributeKey.stringKey("db.statement");
+    private static final AttributeKey<String> TRANSPORT = AttributeKey.stringKey("neptune.transport");
+    private static final AttributeKey<Long> ROWS = AttributeKey.longKey("neptune.rows");
+
+    private static final List<MeterRegistry> registries = new ArrayList<>();
+    private static final List<AutoCloseable> resources = new ArrayList<>();
+    private static volatile Tracer tracer = OpenTelemetry.noop().getTracer("com.example.neptune");
+    // Skip per-query bookkeeping entirely while nothing is exported
+    private static volatile boolean enabled;
+    private static boolean started;
+
+    private NeptuneTelemetry() {
+    }
+
+    /**
+     * Start exporting as configured by {@code neptune.metrics.*} and {@code neptune.tracing.*}.
+     * Later calls do nothing until {@link #stop()}.
+     */
+    public static synchronized void start(NeptuneConfig config) {
+        if (started) {
+            return;
+        }
+        int maxTemplates = config.getIntSetting("neptune.metrics.max.templates", "NEPTUNE_METRICS_MAX_TEMPLATES", 100);
+        String exporter = config.getSetting("neptune.metrics.exporter", "NEPTUNE_METRICS_EXPORTER", "none").toLowerCase();
+        MeterRegistry registry = switch (exporter) {
+            case "none" -> null;
+            case "prometheus" -> startPrometheus(
+                    config.getIntSetting("neptune.metrics.prometheus.port", "NEPTUNE_METRICS_PROMETHEUS_PORT", 9464));
+            case "otlp" -> startOtlpMetrics(
+                    config.getSetting("neptune.metrics.otlp.endpoint", "NEPTUNE_METRICS_OTLP_ENDPOINT",
+                            "http://localhost:4318/v1/metrics"),
+                    config.getIntSetting("neptune.metrics.step.seconds", "NEPTUNE_METRICS_STEP_SECONDS", 10));
+            default -> throw new IllegalArgumentException(
+                    "Invalid metrics exporter (expected none, prometheus or otlp): " + exporter);
+        };
+
+        OpenTelemetry openTelemetry = null;
+        if (config.getBooleanSetting("neptune.tracing.enabled", "NEPTUNE_TRACING_ENABLED", false)) {
+            String endpoint = config.getSetting("neptune.tracing.otlp.endpoint", "NEPTUNE_TRACING_OTLP_ENDPOINT",
+                    "http://localhost:4318/v1/traces");
+            OpenTelemetrySdk sdk = OpenTelemetrySdk.builder()
+                    .setTracerProvider(SdkTracerProvider.builder()
+                            .setResource(Resource.getDefault().merge(Resource.create(
+                                    Attributes.of(AttributeKey.stringKey("service.name"), "neptune-java-demo"))))
+                            .addSpanProcessor(BatchSpanProcessor.builder(
+                                    OtlpHttpSpanExporter.builder().setEndpoint(endpoint).build()).build())
+                            .build())
+                    .build();
+            resources.add(sdk);
+            openTelemetry = sdk;
+            logger.info("Exporting query spans to {}", endpoint);
+        }
+        install(registry, openTelemetry, maxTemplates);
+    }
+
+    /**
+     * Record into the given registry and trace with the given OpenTelemetry instance; either
+     * may be null to leave that signal off
+     */
+    static synchronized void install(MeterRegistry registry, OpenTelemetry openTelemetry, int maxTemplates) {
+        if (registry != null) {
+            registry.config().meterFilter(MeterFilter.maximumAllowableTags(
+                    "neptune.query", "template", maxTemplates, MeterFilter.deny()));
+            registries.add(registry);
+            Metrics.addRegistry(registry);
+        }
+        if (openTelemetry != null) {
+            tracer = openTelemetry.getTracer("com.example.neptune");
+        }
+        enabled = registry != null || openTelemetry != null;
+        started = true;
+    }
+
+    /**
+     * Flush and stop the exporters
+     */
+    public static synchronized void stop() {
+        for (MeterRegistry registry : registries) {
+            Metrics.removeRegistry(registry);
+            registry.close();
+        }
+        registries.clear();
+        // Drop meters bound to clients of this run, so a later start begins from a clean slate
+        Metrics.globalRegistry.clear();
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close telemetry exporter: {}", e.getMessage());
+            }
+        }
+        resources.clear();
+        tracer = OpenTelemetry.noop().getTracer("com.example.neptune");
+        enabled = false;
+        started = false;
+    }
+
+    private static MeterRegistry startPrometheus(int port) {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "neptune-metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            resources.add(() -> server.stop(0));
+            logger.info("Serving Prometheus metrics on http://localhost:{}/metrics", server.getAddress().getPort());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start the Prometheus endpoint on port " + port, e);
+        }
+        return registry;
+    }
+
+    private static MeterRegistry startOtlpMetrics(String endpoint, int stepSeconds) {
+        Map<String, String> settings = Map.of("otlp.url", endpoint, "otlp.step", stepSeconds + "s");
+        logger.info("Exporting metrics to {} every {}s", endpoint, stepSeconds);
+        return new OtlpMeterRegistry(settings::get, io.micrometer.core.instrument.Clock.SYSTEM);
+    }
+
+    /**
+     * Run a query in a span, recording its latency, result size and any error against its template
+     *
+     * @param transport e.g. {@code bolt} or {@code data-api}
+     * @param rows      counts the rows of a result, or null when unknown
+     * @param bytes     estimates the size of a result, or null when unknown
+     */
+    public static <T> T observeQuery(String transport, String template, Supplier<T> query,
+                                     ToLongFunction<T> rows, ToLongFunction<T> bytes) {
+        if (!enabled) {
+            return query.get();
+        }
+        String templateTag = templateTag(template);
+        Span span = tracer.spanBuilder("neptune.query " + transport)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(DB_SYSTEM, "neptune")
+                .setAttribute(DB_STATEMENT, template)
+                .setAttribute(TRANSPORT, transport)
+                .startSpan();
+        long start = System.nanoTime();
+        try (Scope ignored = span.makeCurrent()) {
+            T result = query.get();
+            queryTimer(transport, templateTag, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (rows != null) {
+                long count = rows.applyAsLong(result);
+                span.setAttribute(ROWS, count);
+                DistributionSummary.builder(QUERY_ROWS)
+                        .tags("transport", transport, "template", templateTag)
+                        .register(Metrics.globalRegistry)
+                        .record(count);
+            }
+            if (bytes != null) {
+                DistributionSummary.builder(QUERY_RESULT_BYTES)
+                        .baseUnit("bytes")
+                        .tags("transport", transport, "template", templateTag)
+                        .register(Metrics.globalRegistry)
+                        .record(bytes.applyAsLong(result));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            queryTimer(transport, templateTag, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Metrics.counter(QUERY_ERRORS, "transport", transport, "template", templateTag,
+                    "exception", e.getClass().getSimpleName(),
+                    "retryable", String.valueOf(NeptuneErrors.isRetryable(e))).increment();
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static Timer queryTimer(String transport, String templateTag, String outcome) {
+        return Timer.builder(QUERY_DURATION)
+                .tags("transport", transport, "template", templateTag, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    static String templateTag(String template) {
+        String collapsed = template.strip().replaceAll("\\s+", " ");
+        return collapsed.length() <= MAX_TEMPLATE_TAG_LENGTH ? collapsed
+                : collapsed.substring(0, MAX_TEMPLATE_TAG_LENGTH);
+    }
+
+    /**
+     * Timer for SigV4 signing of Bolt auth tokens
+     */
+    static Timer signingTimer() {
+        return Timer.builder(SIGNING_DURATION)
+                .description("Time to sign a Neptune IAM auth token")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Publish requests in flight, totals, rejections, circuit state and concurrency limit per endpoint
+     */
+    public static void bindRouter(String transport, EndpointRouter<?> router) {
+        List<EndpointRouter.EndpointStats> endpoints = router.getStats();
+        for (int i = 0; i < endpoints.size(); i++) {
+            int index = i;
+            EndpointRouter.EndpointStats endpoint = endpoints.get(i);
+            Tags tags = Tags.of("transport", transport, "endpoint", endpoint.name(),
+                    "role", endpoint.writer() ? "writer" : "reader");
+            gauge("neptune.endpoint.in.flight", tags, router, r -> r.getStats().get(index).outstanding());
+            counter("neptune.endpoint.requests", tags, router, r -> r.getStats().get(index).requests());
+            counter("neptune.endpoint.rejected", tags, router, r -> r.getStats().get(index).rejected());
+            gauge("neptune.endpoint.healthy", tags, router, r -> r.getStats().get(index).healthy() ? 1 : 0);
+            if (endpoint.circuitState() != null) {
+                // 0 closed, 1 half open, 2 open
+                gauge("neptune.endpoint.circuit.state", tags, router, r -> switch (r.getStats().get(index).circuitState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                });
+                counter("neptune.endpoint.circuit.opened", tags, router, r -> r.getStats().get(index).circuitOpened());
+            }
+            if (endpoint.concurrencyLimit() > 0) {
+                gauge("neptune.endpoint.concurrency.limit", tags, router,
+                        r -> r.getStats().get(index).concurrencyLimit());
+            }
+        }
+    }
+
+    /**
+     * Publish the result cache's hit, miss and eviction counts and its size
+     */
+    public static void bindResultCache(String transport, QueryResultCache<?> cache) {
+        Tags tags = Tags.of("transport", transport);
+        counter("neptune.result.cache.hits", tags, cache, c -> c.getStats().hits());
+        counter("neptune.result.cache.misses", tags, cache, c -> c.getStats().misses());
+        counter("neptune.result.cache.evictions", tags, cache, c -> c.getStats().evictions());
+        counter("neptune.result.cache.invalidations", tags, cache, c -> c.getStats().invalidations());
+        gauge("neptune.result.cache.entries", tags, cache, c -> c.getStats().size());
+        gauge("neptune.result.cache.bytes", tags, cache, c -> c.getStats().bytes());
+    }
+
+    /**
+     * Publish retry counts and retries refused by the retry budget
+     */
+    public static void bindRetries(String transport, RetryExecutor executor) {
+        Tags tags = Tags.of("transport", transport);
+        counter("neptune.retry.calls", tags, executor, e -> e.getStats().calls());
+        counter("neptune.retry.retries", tags, executor, e -> e.getStats().retries());
+        counter("neptune.retry.budget.exhausted", tags, executor, e -> e.getStats().budgetExhausted());
+        counter("neptune.retry.failures", tags, executor, e -> e.getStats().failures());
+    }
+
+    /**
+     * Publish a Bolt driver's connection acquisition time and pool usage, summed over its
+     * pools. Needs driver metrics ({@code neptune.bolt.pool.metrics}).
+     */
+    public static void bindBoltPools(String endpoint, Driver driver) {
+        Tags tags = Tags.of("endpoint", endpoint);
+        FunctionTimer.builder("neptune.bolt.pool.acquisition", driver,
+                        d -> sumPools(d, ConnectionPoolMetrics::acquired),
+                        d -> sumPools(d, ConnectionPoolMetrics::totalAcquisitionTime), TimeUnit.MILLISECONDS)
+                .tags(tags)
+                .description("Time spent waiting to acquire a pooled Bolt connection")
+                .register(Metrics.globalRegistry);
+        counter("neptune.bolt.pool.acquisition.timeouts", tags, driver,
+                d -> sumPools(d, ConnectionPoolMetrics::timedOutToAcquire));
+        gauge("neptune.bolt.pool.in.use", tags, driver, d -> sumPools(d, ConnectionPoolMetrics::inUse));
+        gauge("neptune.bolt.pool.idle", tags, driver, d -> sumPools(d, ConnectionPoolMetrics::idle));
+        gauge("neptune.bolt.pool.acquiring", tags, driver, d -> sumPools(d, ConnectionPoolMetrics::acquiring));
+    }
+
+    private static long sumPools(Driver driver, ToLongFunction<ConnectionPoolMetrics> metric) {
+        long sum = 0;
+        for (ConnectionPoolMetrics pool : driver.metrics().connectionPoolMetrics()) {
+            sum += metric.applyAsLong(pool);
+        }
+        return sum;
+    }
+
+    private static <T> void gauge(String name, Tags tags, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).tags(tags).register(Metrics.globalRegistry);
+    }
+
+    private static <T> void counter(String name, Tags tags, T source, ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, source, value).tags(tags).register(Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.neptune;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for Neptune openCypher HTTP responses ({@code {"results": [row, ...]}}).
+ * Rows are decoded one at a time straight from the response stream into a reusable
+ * {@link Row} view, so no document tree is built for the response and memory use does
+ * not grow with the number of rows.
+ * <p>
+ * Scalar columns are stored unboxed; only nested maps and lists (such as returned nodes)
+ * are materialized, as Gson {@link JsonElement}s.
+ */
+public class OpenCypherResultReader implements Closeable {
+    private final JsonReader json;
+    private final Row row = new Row();
+    private boolean inResults;
+    private boolean finished;
+
+    public OpenCypherResultReader(InputStream input) {
+        this(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    public OpenCypherResultReader(Reader reader) {
+        this.json = new JsonReader(reader);
+    }
+
+    /**
+     * Maps the current row to a caller-supplied type. The row view is reused for the
+     * next row, so mappers must copy out what they need.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(Row row);
+    }
+
+    /**
+     * Advance to the next row. The returned view is only valid until the next call.
+     *
+     * @return the next row, or {@code null} when the results are exhausted
+     */
+    public Row next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!inResults && !openResults()) {
+            finished = true;
+            return null;
+        }
+        if (!json.hasNext()) {
+            json.endArray();
+            finished = true;
+            return null;
+        }
+        readRow();
+        return row;
+    }
+
+    /**
+     * Map every remaining row and hand it to the consumer
+     *
+     * @return the number of rows read
+     */
+    public <T> long forEach(RowMapper<T> mapper, Consumer<? super T> consumer) throws IOException {
+        long count = 0;
+        Row current;
+        while ((current = next()) != null) {
+            consumer.accept(mapper.map(current));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Read every remaining row into primitive column arrays
+     */
+    public ColumnarResult readColumns(ColumnarResult.Builder builder) throws IOException {
+        Row current;
+        while ((current = next()) != null) {
+            builder.add(current);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+
+    private boolean openResults() throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("results") && json.peek() == JsonToken.BEGIN_ARRAY) {
+                json.beginArray();
+                inResults = true;
+                return true;
+            }
+            json.skipValue();
+        }
+        json.endObject();
+        return false;
+    }
+
+    private void readRow() throws IOException {
+        row.clear();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (json.peek()) {
+                case STRING -> row.putString(name, json.nextString());
+                case NUMBER -> {
+                    String number = json.nextString();
+                    if (isIntegral(number)) {
+                        try {
+                            row.putLong(name, Long.parseLong(number));
+                            break;
+                        } catch (NumberFormatException e) {
+                            // Too large for a long; keep it as a double
+                        }
+                    }
+                    row.putDouble(name, Double.parseDouble(number));
+                }
+                case BOOLEAN -> row.putBoolean(name, json.nextBoolean());
+                case NULL -> {
+                    json.nextNull();
+                    row.putNull(name);
+                }
+                default -> row.putJson(name, JsonParser.parseReader(json));
+            }
+        }
+        json.endObject();
+    }
+
+    private static boolean isIntegral(String number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reusable view of one result row. Columns are looked up by name with a linear
+     * scan, which is faster than hashing for the handful of columns a row has.
+     */
+    public static final class Row {
+        private static final Gson GSON = new Gson();
+        private static final byte NULL = 0;
+        private static final byte STRING = 1;
+        private static final byte LONG = 2;
+        private static final byte DOUBLE = 3;
+        private static final byte BOOLEAN = 4;
+        private static final byte JSON = 5;
+
+        private String[] names = new String[8];
+        private byte[] types = new byte[8];
+        private long[] longs = new long[8];
+        private double[] doubles = new double[8];
+        private Object[] objects = new Object[8];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public String name(int index) {
+            return names[index];
+        }
+
+        public boolean has(String name) {
+            return indexOf(name) >= 0;
+        }
+
+        public boolean isNull(String name) {
+            int index = indexOf(name);
+            return index < 0 || types[index] == NULL;
+        }
+
+        public String getString(String name, String defaultValue) {
+            int index = indexOf(name);
+            if (index < 0 || types[index] == NULL) {
+                return defaultValue;
+            }
+            return switch (types[index]) {
+                case STRING -> (String) objects[index];
+                case LONG -> Long.toString(longs[index]);
+                case DOUBLE -> Double.toString(doubles[index]);
+                case BOOLEAN -> Boolean.toString(longs[index] != 0);
+                default -> objects[index].toString();
+            };
+        }
+
+        public long getLong(String name, long defaultValue) {
+            int index = indexOf(name);
+            if (index < 0) {
+                return defaultValue;
+            }
+            return switch (types[index]) {
+                case LONG -> longs[index];
+                case DOUBLE -> (long) doubles[index];
+                case NULL -> defaultValue;
+                default -> throw typeMismatch(name, "long");
+            };
+        }
+
+        public int getInt(String name, int defaultValue) {
+            return Math.toIntExact(getLong(name, defaultValue));
+        }
+
+        public double getDouble(String name, double defaultValue) {
+            int index = indexOf(name);
+            if (index < 0) {
+                return defaultValue;
+            }
+            return switch (types[index]) {
+                case DOUBLE -> doubles[index];
+                case LONG -> longs[index];
+                case NULL -> defaultValue;
+                default -> throw typeMismatch(name, "double");
+            };
+        }
+
+        public boolean getBoolean(String name, boolean defaultValue) {
+            int index = indexOf(name);
+            if (index < 0) {
+                return defaultValue;
+            }
+            return switch (types[index]) {
+                case BOOLEAN -> longs[index] != 0;
+                case NULL -> defaultValue;
+                default -> throw typeMismatch(name, "boolean");
+            };
+        }
+
+        /**
+         * A nested map or list value, or {@code null} if the column is absent or scalar
+         */
+        public JsonElement getJson(String name) {
+            int index = indexOf(name);
+            return index >= 0 && types[index] == JSON ? (JsonElement) objects[index] : null;
+        }
+
+        /**
+         * Copy the row into a map by column name, with nested values as Java maps and lists
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                map.put(names[i], switch (types[i]) {
+                    case NULL -> null;
+                    case LONG -> longs[i];
+                    case DOUBLE -> doubles[i];
+                    case BOOLEAN -> longs[i] != 0;
+                    case JSON -> GSON.fromJson((JsonElement) objects[i], Object.class);
+                    default -> objects[i];
+                });
+            }
+            return map;
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private IllegalStateException typeMismatch(String name, String expected) {
+            return new IllegalStateException("Column '" + name + "' is not a " + expected);
+        }
+
+        void clear() {
+            Arrays.fill(objects, 0, size, null);
+            size = 0;
+        }
+
+        void putString(String name, String value) {
+            int index = append(name, STRING);
+            objects[index] = value;
+        }
+
+        void putLong(String name, long value) {
+            int index = append(name, LONG);
+            longs[index] = value;
+        }
+
+        void putDouble(String name, double value) {
+            int index = append(name, DOUBLE);
+            doubles[index] = value;
+        }
+
+        void putBoolean(String name, boolean value) {
+            int index = append(name, BOOLEAN);
+            longs[index] = value ? 1 : 0;
+        }
+
+        void putNull(String name) {
+            append(name, NULL);
+        }
+
+        void putJson(String name, JsonElement value) {
+            int index = append(name, JSON);
+            objects[index] = value;
+        }
+
+        private int append(String name, byte type) {
+            if (size == names.length) {
+                int capacity = size * 2;
+                names = Arrays.copyOf(names, capacity);
+                types = Arrays.copyOf(types, capacity);
+                longs = Arrays.copyOf(longs, capacity);
+                doubles = Arrays.copyOf(doubles, capacity);
+                objects = Arrays.copyOf(objects, capacity);
+            }
+            names[size] = name;
+            types[size] = type;
+            return size++;
+        }
+    }
+}
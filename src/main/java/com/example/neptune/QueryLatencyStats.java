@@ -0,0 +1,46 @@
+package com.example.neptune;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency aggregate for one query (or query template)
+ */
+public final class QueryLatencyStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos, boolean failed) {
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        minNanos.accumulateAndGet(nanos, Math::min);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        long n = count.sum();
+        return new Snapshot(n, errors.sum(), n == 0 ? 0 : minNanos.get(), maxNanos.get(), totalNanos.sum());
+    }
+
+    /**
+     * Point-in-time copy of the aggregate
+     */
+    public record Snapshot(long count, long errors, long minNanos, long maxNanos, long totalNanos) {
+
+        public double meanMillis() {
+            return count == 0 ? 0.0 : totalNanos / 1e6 / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d errors=%d min=%.2fms mean=%.2fms max=%.2fms",
+                    count, errors, minNanos / 1e6, meanMillis(), maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.neptune;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Client-side read-through cache of query results, keyed by query template plus
+ * parameters. Entries expire after a fixed TTL and the cache is bounded both by entry
+ * count and by estimated bytes.
+ * <p>
+ * Eviction follows W-TinyLFU: new entries land in a small LRU window; entries leaving the
+ * window compete for a place in the main space (a segmented LRU of probation and protected
+ * entries) against its least recently used probation entry, and the one with the higher
+ * estimated access frequency, from a count-min sketch that is periodically halved, stays.
+ * A burst of one-off queries therefore cannot flush the hot lookups.
+ * <p>
+ * Writes through the same client invalidate every entry whose template names a label the
+ * write names, plus entries of queries that may touch any label. A write that may touch any
+ * label clears the cache. Writes from other clients are only bounded by the TTL.
+ *
+ * @param <V> the cached result type
+ */
+public class QueryResultCache<V> {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+    // Share of the entry bound given to the admission window and to protected main entries
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+    // Estimated overhead per entry on top of the result itself
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    private record Key(String template, Map<String, Object> parameters) {
+    }
+
+    private enum Region { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node<V> {
+        final Key key;
+        final V value;
+        final long weight;
+        final long expiresAtMillis;
+        final Set<String> labels; // null when the query may touch any label
+        Region region;
+        Node<V> prev;
+        Node<V> next;
+
+        Node(Key key, V value, long weight, long expiresAtMillis, Set<String> labels) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtMillis = expiresAtMillis;
+            this.labels = labels;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Duration ttl;
+    private final ToLongFunction<V> weigher;
+    private final Clock clock;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final FrequencySketch sketch;
+
+    private final Map<Key, Node<V>> entries = new HashMap<>();
+    private final Map<String, Set<Key>> keysByLabel = new HashMap<>();
+    private final Set<Key> anyLabelKeys = new HashSet<>();
+    private final LruList<V> window = new LruList<>();
+    private final LruList<V> probation = new LruList<>();
+    private final LruList<V> protectedList = new LruList<>();
+    private long totalBytes;
+    private long invalidationGeneration;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * @param weigher estimates the size of a result in bytes
+     */
+    public QueryResultCache(int maxEntries, long maxBytes, Duration ttl, ToLongFunction<V> weigher) {
+        this(maxEntries, maxBytes, ttl, weigher, Clock.systemUTC());
+    }
+
+    QueryResultCache(int maxEntries, long maxBytes, Duration ttl, ToLongFunction<V> weigher, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Result cache max entries must be at least 1: " + maxEntries);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Result cache max bytes must be at least 1: " + maxBytes);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Result cache TTL must be positive: " + ttl);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.weigher = weigher;
+        this.clock = clock;
+        this.maxWindow = Math.max(1, (int) (maxEntries * WINDOW_SHARE));
+        this.maxProtected = Math.max(1, (int) ((maxEntries - maxWindow) * PROTECTED_SHARE));
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * Create a cache from {@code neptune.result.cache.*} settings, or return null when
+     * {@code neptune.result.cache.enabled} is not set
+     */
+    public static <V> QueryResultCache<V> fromConfig(NeptuneConfig config, ToLongFunction<V> weigher) {
+        if (!config.getBooleanSetting("neptune.result.cache.enabled", "NEPTUNE_RESULT_CACHE_ENABLED", false)) {
+            return null;
+        }
+        return new QueryResultCache<>(
+                config.getIntSetting("neptune.result.cache.max.entries", "NEPTUNE_RESULT_CACHE_MAX_ENTRIES",
+                        DEFAULT_MAX_ENTRIES),
+                config.getLongSetting("neptune.result.cache.max.bytes", "NEPTUNE_RESULT_CACHE_MAX_BYTES",
+                        DEFAULT_MAX_BYTES),
+                Duration.ofMillis(config.getLongSetting("neptune.result.cache.ttl.ms", "NEPTUNE_RESULT_CACHE_TTL_MS",
+                        DEFAULT_TTL.toMillis())),
+                weigher);
+    }
+
+    /**
+     * Return the cached result for the template and parameters, or run the loader and cache
+     * its result. The loader runs outside the cache lock; its result is not cached if a
+     * write invalidated the cache while it ran.
+     */
+    public V get(QueryTemplate template, Map<String, Object> parameters, Supplier<V> loader) {
+        Key key = new Key(template.getText(),
+                parameters == null ? Map.of() : Collections.unmodifiableMap(new HashMap<>(parameters)));
+        long generation;
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            Node<V> node = entries.get(key);
+            if (node != null && node.expiresAtMillis > clock.millis()) {
+                hits++;
+                onAccess(node);
+                return node.value;
+            }
+            if (node != null) {
+                expirations++;
+                remove(node);
+            }
+            misses++;
+            generation = invalidationGeneration;
+        }
+
+        V value = loader.get();
+        long weight = weigher.applyAsLong(value) + ENTRY_OVERHEAD_BYTES + 2L * key.template().length();
+        synchronized (this) {
+            if (generation == invalidationGeneration && weight <= maxBytes && !entries.containsKey(key)) {
+                Set<String> labels = template.touchesAnyLabel() ? null : template.getLabels();
+                insert(new Node<>(key, value, weight, clock.millis() + ttl.toMillis(), labels));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Invalidate the entries a write with this template may have changed
+     */
+    public synchronized void invalidate(QueryTemplate writeTemplate) {
+        invalidationGeneration++;
+        if (writeTemplate.touchesAnyLabel()) {
+            invalidateAll();
+            return;
+        }
+        Set<Key> affected = new HashSet<>(anyLabelKeys);
+        for (String label : writeTemplate.getLabels()) {
+            affected.addAll(keysByLabel.getOrDefault(label, Set.of()));
+        }
+        for (Key key : affected) {
+            Node<V> node = entries.get(key);
+            if (node != null) {
+                invalidations++;
+                remove(node);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidationGeneration++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByLabel.clear();
+        anyLabelKeys.clear();
+        window.clear();
+        probation.clear();
+        protectedList.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, expirations, invalidations, entries.size(), totalBytes);
+    }
+
+    private void onAccess(Node<V> node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToFront(node);
+            case PROTECTED -> protectedList.moveToFront(node);
+            case PROBATION -> {
+                // A second hit in the main space promotes the entry; the protected overflow drops back
+                probation.remove(node);
+                protectedList.addFirst(node, Region.PROTECTED);
+                if (protectedList.size > maxProtected) {
+                    probation.addFirst(protectedList.removeLast(), Region.PROBATION);
+                }
+            }
+        }
+    }
+
+    private void insert(Node<V> node) {
+        entries.put(node.key, node);
+        totalBytes += node.weight;
+        if (node.labels == null) {
+            anyLabelKeys.add(node.key);
+        } else {
+            for (String label : node.labels) {
+                keysByLabel.computeIfAbsent(label, l -> new HashSet<>()).add(node.key);
+            }
+        }
+        window.addFirst(node, Region.WINDOW);
+
+        Node<V> candidate = null;
+        if (window.size > maxWindow) {
+            candidate = window.removeLast();
+            probation.addFirst(candidate, Region.PROBATION);
+        }
+        evictIfNeeded(candidate);
+    }
+
+    private void evictIfNeeded(Node<V> candidate) {
+        while (entries.size() > maxEntries || totalBytes > maxBytes) {
+            Node<V> victim = probation.last();
+            if (victim == null) {
+                if (protectedList.size > 0) {
+                    probation.addFirst(protectedList.removeLast(), Region.PROBATION);
+                    continue;
+                }
+                victim = window.last();
+            } else if (candidate != null && victim != candidate && candidate.region == Region.PROBATION
+                    && sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                // The newcomer is not accessed more often than the entry it would displace
+                victim = candidate;
+                candidate = null;
+            }
+            evictions++;
+            remove(victim);
+        }
+    }
+
+    private void remove(Node<V> node) {
+        entries.remove(node.key);
+        totalBytes -= node.weight;
+        if (node.labels == null) {
+            anyLabelKeys.remove(node.key);
+        } else {
+            for (String label : node.labels) {
+                Set<Key> keys = keysByLabel.get(label);
+                if (keys != null && keys.remove(node.key) && keys.isEmpty()) {
+                    keysByLabel.remove(label);
+                }
+            }
+        }
+        switch (node.region) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedList.remove(node);
+        }
+    }
+
+    /**
+     * Cache counters and current size
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations, long invalidations,
+                        int size, long bytes) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("entries=%d bytes=%d hits=%d misses=%d evictions=%d expirations=%d " +
+                    "invalidations=%d hitRate=%.2f", size, bytes, hits, misses, evictions, expirations,
+                    invalidations, hitRate());
+        }
+    }
+
+    /**
+     * Doubly linked list in recency order, most recent first
+     */
+    private static final class LruList<V> {
+        private Node<V> head;
+        private Node<V> tail;
+        int size;
+
+        void addFirst(Node<V> node, Region region) {
+            node.region = region;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            }
+            head = node;
+            if (tail == null) {
+                tail = node;
+            }
+            size++;
+        }
+
+        void remove(Node<V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToFront(Node<V> node) {
+            if (node != head) {
+                Region region = node.region;
+                remove(node);
+                addFirst(node, region);
+            }
+        }
+
+        Node<V> last() {
+            return tail;
+        }
+
+        Node<V> removeLast() {
+            Node<V> node = tail;
+            remove(node);
+            return node;
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, four rows deep. All counters are halved once the
+     * number of increments reaches ten times the width, so old popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            this.counters = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, counters[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9E3779B1;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
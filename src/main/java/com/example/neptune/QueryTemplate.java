@@ -0,0 +1,124 @@
+package com.example.neptune;
+
+import com.google.gson.Gson;
+import org.neo4j.driver.Query;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryRequest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An interned OpenCypher query template. Values are never inlined into the text;
+ * they are bound as parameters, so Neptune sees the same query string on every call
+ * and can reuse its cached plan. Obtain instances from a {@link QueryTemplateCache}.
+ */
+public final class QueryTemplate {
+    private static final Gson GSON = new Gson();
+
+    // ":Label" / ":`Label`" after a node variable, in a pattern, or in SET/REMOVE and WHERE label checks
+    private static final Pattern LABEL = Pattern.compile(":\\s*`?([A-Za-z_][A-Za-z0-9_]*)`?");
+    // A node pattern or bare variable such as "(p)" or "(p {id: $id})"
+    private static final Pattern NODE_VARIABLE = Pattern.compile("\\(\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*[){]");
+
+    private final String text;
+    private final Set<String> labels;
+    private final boolean unlabeledNodes;
+    private final LongAdder uses = new LongAdder();
+
+    QueryTemplate(String text) {
+        this.text = text;
+        this.labels = extractLabels(text);
+        this.unlabeledNodes = hasUnlabeledNodes(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Node labels and relationship types the template names. This is a lexical
+     * over-approximation (map keys followed by a bare word also match), which is the safe
+     * direction for cache invalidation.
+     */
+    public Set<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * Whether the template may touch nodes of any label: it names no labels, or has a node
+     * variable that is never given one (e.g. {@code MATCH (n) DETACH DELETE n})
+     */
+    public boolean touchesAnyLabel() {
+        return labels.isEmpty() || unlabeledNodes;
+    }
+
+    /**
+     * Number of times this template has been bound
+     */
+    public long getUses() {
+        return uses.sum();
+    }
+
+    /**
+     * Bind parameters for execution over Bolt
+     */
+    public Query bind(Map<String, Object> parameters) {
+        uses.increment();
+        return new Query(text, parameters);
+    }
+
+    /**
+     * Bind parameters for execution over the Neptune Data API
+     */
+    public ExecuteOpenCypherQueryRequest toRequest(Map<String, Object> parameters) {
+        uses.increment();
+        ExecuteOpenCypherQueryRequest.Builder builder = ExecuteOpenCypherQueryRequest.builder().openCypherQuery(text);
+        if (parameters != null && !parameters.isEmpty()) {
+            builder.parameters(GSON.toJson(parameters));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Bind parameters as a form-encoded body for Neptune's openCypher HTTP endpoint
+     */
+    public String toFormBody(Map<String, Object> parameters) {
+        uses.increment();
+        StringBuilder body = new StringBuilder("query=").append(URLEncoder.encode(text, StandardCharsets.UTF_8));
+        if (parameters != null && !parameters.isEmpty()) {
+            body.append("&parameters=").append(URLEncoder.encode(GSON.toJson(parameters), StandardCharsets.UTF_8));
+        }
+        return body.toString();
+    }
+
+    private static Set<String> extractLabels(String text) {
+        Set<String> labels = new HashSet<>();
+        Matcher matcher = LABEL.matcher(text);
+        while (matcher.find()) {
+            labels.add(matcher.group(1));
+        }
+        return Set.copyOf(labels);
+    }
+
+    private static boolean hasUnlabeledNodes(String text) {
+        Matcher matcher = NODE_VARIABLE.matcher(text);
+        while (matcher.find()) {
+            String variable = matcher.group(1);
+            if (!Pattern.compile("\\b" + variable + "\\s*:").matcher(text).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
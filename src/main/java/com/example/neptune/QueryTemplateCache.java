@@ -0,0 +1,85 @@
+package com.example.neptune;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of {@link QueryTemplate}s keyed by query text. Repeated calls with
+ * the same text return the same template instance, and the cache counts how often
+ * templates are reused so that callers still building queries by string concatenation
+ * show up as a low hit rate.
+ */
+public class QueryTemplateCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final LinkedHashMap<String, QueryTemplate> templates;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public QueryTemplateCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public QueryTemplateCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Query template cache capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryTemplate> eldest) {
+                if (size() > QueryTemplateCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Create a cache sized by {@code neptune.query.template.cache.size}
+     */
+    public static QueryTemplateCache fromConfig(NeptuneConfig config) {
+        return new QueryTemplateCache(config.getIntSetting("neptune.query.template.cache.size",
+                "NEPTUNE_QUERY_TEMPLATE_CACHE_SIZE", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Return the cached template for this text, creating it on first use
+     */
+    public synchronized QueryTemplate intern(String text) {
+        QueryTemplate template = templates.get(text);
+        if (template != null) {
+            hits++;
+            return template;
+        }
+        misses++;
+        template = new QueryTemplate(text);
+        templates.put(text, template);
+        return template;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, templates.size());
+    }
+
+    /**
+     * Template reuse counters
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("templates=%d hits=%d misses=%d evictions=%d hitRate=%.2f",
+                    size, hits, misses, evictions, hitRate());
+        }
+    }
+}
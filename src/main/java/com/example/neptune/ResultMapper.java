@@ -0,0 +1,414 @@
+package com.example.neptune;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import software.amazon.awssdk.core.document.Document;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds query result rows to Java records and POJOs: Bolt {@link Record}s, Data API rows
+ * ({@link Document} maps) and streamed {@link OpenCypherResultReader.Row}s.
+ * <p>
+ * The decoder for a type is compiled once, on first use, into {@link MethodHandle}s that
+ * read each column straight into the constructor argument or field it feeds. Mapping a
+ * row does no reflection, and primitive fields are read as primitives without boxing.
+ * <p>
+ * Record components are bound to their constructor arguments; POJOs need a no-argument
+ * constructor and have every non-static, non-transient field set. Columns are matched by
+ * component or field name unless renamed with {@link Column}. Supported types are
+ * {@code int}, {@code long}, {@code double}, {@code boolean}, their wrappers and
+ * {@code String}. Missing or null columns map to zero, {@code false} or {@code null}.
+ */
+public final class ResultMapper<T> implements OpenCypherResultReader.RowMapper<T> {
+
+    /**
+     * Names the result column a record component or field is read from
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.RECORD_COMPONENT, ElementType.FIELD})
+    public @interface Column {
+        String value();
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<ResultMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected ResultMapper<?> computeValue(Class<?> type) {
+            return new ResultMapper<>(type);
+        }
+    };
+
+    /**
+     * Where a row comes from; each has its own column extractors
+     */
+    private enum Source {
+        RECORD("record", Record.class), ROW("row", OpenCypherResultReader.Row.class), DOCUMENT("document", Map.class);
+
+        final String prefix;
+        final Class<?> type;
+
+        Source(String prefix, Class<?> type) {
+            this.prefix = prefix;
+            this.type = type;
+        }
+    }
+
+    private final Class<T> type;
+    private final Decoder recordDecoder;
+    private final Decoder rowDecoder;
+    private final Decoder documentDecoder;
+
+    private ResultMapper(Class<T> type) {
+        this.type = type;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+            this.recordDecoder = compile(lookup, type, Source.RECORD);
+            this.rowDecoder = compile(lookup, type, Source.ROW);
+            this.documentDecoder = compile(lookup, type, Source.DOCUMENT);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot map results to " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The mapper for a type, compiled on first use and shared afterwards
+     *
+     * @throws IllegalArgumentException if the type cannot be mapped
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ResultMapper<T> of(Class<T> type) {
+        return (ResultMapper<T>) MAPPERS.get(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public T fromRecord(Record record) {
+        return type.cast(recordDecoder.decode(record));
+    }
+
+    /**
+     * Map a streamed row. The row view is reused by the reader, but the mapped object is not.
+     */
+    public T fromRow(OpenCypherResultReader.Row row) {
+        return type.cast(rowDecoder.decode(row));
+    }
+
+    @Override
+    public T map(OpenCypherResultReader.Row row) {
+        return fromRow(row);
+    }
+
+    /**
+     * Map one Data API result row, a map {@link Document}
+     */
+    public T fromDocument(Document row) {
+        if (!row.isMap()) {
+            throw new IllegalArgumentException("Data API result row is not a map: " + row);
+        }
+        return type.cast(documentDecoder.decode(row.asMap()));
+    }
+
+    /**
+     * Map every row of a Data API response's {@code results}, given either as the row
+     * list or as the {@code {"results": [...]}} document that wraps it
+     */
+    public List<T> fromResults(Document results) {
+        if (results == null || results.isNull()) {
+            return List.of();
+        }
+        if (results.isMap() && results.asMap().containsKey("results")) {
+            results = results.asMap().get("results");
+        }
+        if (!results.isList()) {
+            throw new IllegalArgumentException("Data API results are not a list of rows");
+        }
+        List<Document> rows = results.asList();
+        List<T> mapped = new ArrayList<>(rows.size());
+        for (Document row : rows) {
+            mapped.add(fromDocument(row));
+        }
+        return mapped;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultMapper[" + type.getName() + "]";
+    }
+
+    /**
+     * Creates the object from a row and fills in its fields. Records are built entirely by
+     * {@code create}; POJOs are constructed empty and filled by {@code setters}.
+     *
+     * @param create  {@code (Object source)Object}
+     * @param setters {@code (Object target, Object source)void}, one per field
+     */
+    private record Decoder(MethodHandle create, MethodHandle[] setters) {
+
+        Object decode(Object source) {
+            try {
+                Object target = (Object) create.invokeExact(source);
+                for (MethodHandle setter : setters) {
+                    setter.invokeExact(target, source);
+                }
+                return target;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to map result row", e);
+            }
+        }
+    }
+
+    private static Decoder compile(MethodHandles.Lookup lookup, Class<?> type, Source source)
+            throws ReflectiveOperationException {
+        if (type.isRecord()) {
+            return compileRecord(lookup, type, source);
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isPrimitive() || type.isArray()) {
+            throw new IllegalArgumentException("Cannot map results to " + type.getName()
+                    + ": not a record or concrete class");
+        }
+        return compilePojo(lookup, type, source);
+    }
+
+    private static Decoder compileRecord(MethodHandles.Lookup lookup, Class<?> type, Source source)
+            throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        MethodHandle[] extractors = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            extractors[i] = extractor(source, columnName(components[i].getName(),
+                    components[i].getAnnotation(Column.class)), parameterTypes[i]);
+        }
+
+        // new Type(extract0(source), extract1(source), ...) as one (Object)Object handle
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes));
+        MethodHandle create = MethodHandles.filterArguments(constructor, 0, extractors);
+        create = MethodHandles.permuteArguments(create,
+                MethodType.methodType(type, Object.class), new int[components.length]);
+        return new Decoder(create.asType(MethodType.methodType(Object.class, Object.class)), new MethodHandle[0]);
+    }
+
+    private static Decoder compilePojo(MethodHandles.Lookup lookup, Class<?> type, Source source)
+            throws ReflectiveOperationException {
+        Constructor<?> noArgs = type.getDeclaredConstructor();
+        MethodHandle create = MethodHandles.dropArguments(
+                lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class)), 0, Object.class);
+
+        List<MethodHandle> setters = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                if (Modifier.isFinal(modifiers)) {
+                    throw new IllegalArgumentException("Cannot map results to " + type.getName()
+                            + ": field " + field.getName() + " is final; use a record instead");
+                }
+                MethodHandles.Lookup fieldLookup = c == type ? lookup : MethodHandles.privateLookupIn(c, LOOKUP);
+                MethodHandle setter = MethodHandles.filterArguments(fieldLookup.unreflectSetter(field), 1,
+                        extractor(source, columnName(field.getName(), field.getAnnotation(Column.class)),
+                                field.getType()));
+                setters.add(setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+            }
+        }
+        return new Decoder(create, setters.toArray(new MethodHandle[0]));
+    }
+
+    private static String columnName(String name, Column column) {
+        return column != null ? column.value() : name;
+    }
+
+    /**
+     * A {@code (Object source)fieldType} handle reading one column, e.g. {@code recordInt}
+     * bound to the column name for an {@code int} field mapped from a Bolt record
+     */
+    private static MethodHandle extractor(Source source, String column, Class<?> fieldType)
+            throws ReflectiveOperationException {
+        String suffix;
+        if (fieldType == int.class) {
+            suffix = "Int";
+        } else if (fieldType == long.class) {
+            suffix = "Long";
+        } else if (fieldType == double.class) {
+            suffix = "Double";
+        } else if (fieldType == boolean.class) {
+            suffix = "Boolean";
+        } else if (fieldType == Integer.class) {
+            suffix = "BoxedInt";
+        } else if (fieldType == Long.class) {
+            suffix = "BoxedLong";
+        } else if (fieldType == Double.class) {
+            suffix = "BoxedDouble";
+        } else if (fieldType == Boolean.class) {
+            suffix = "BoxedBoolean";
+        } else if (fieldType == String.class) {
+            suffix = "String";
+        } else {
+            throw new IllegalArgumentException("Unsupported type " + fieldType.getName() + " for column " + column);
+        }
+        MethodHandle extract = LOOKUP.findStatic(ResultMapper.class, source.prefix + suffix,
+                MethodType.methodType(fieldType, String.class, source.type));
+        return MethodHandles.insertArguments(extract, 0, column)
+                .asType(MethodType.methodType(fieldType, Object.class));
+    }
+
+    // Bolt records. A missing column reads as NullValue.
+
+    private static int recordInt(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? 0 : value.asInt();
+    }
+
+    private static long recordLong(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? 0 : value.asLong();
+    }
+
+    private static double recordDouble(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? 0 : value.asDouble();
+    }
+
+    private static boolean recordBoolean(String column, Record record) {
+        Value value = record.get(column);
+        return !value.isNull() && value.asBoolean();
+    }
+
+    private static Integer recordBoxedInt(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? null : value.asInt();
+    }
+
+    private static Long recordBoxedLong(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? null : value.asLong();
+    }
+
+    private static Double recordBoxedDouble(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? null : value.asDouble();
+    }
+
+    private static Boolean recordBoxedBoolean(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? null : value.asBoolean();
+    }
+
+    private static String recordString(String column, Record record) {
+        Value value = record.get(column);
+        return value.isNull() ? null : value.asString();
+    }
+
+    // Streamed Data API rows
+
+    private static int rowInt(String column, OpenCypherResultReader.Row row) {
+        return row.getInt(column, 0);
+    }
+
+    private static long rowLong(String column, OpenCypherResultReader.Row row) {
+        return row.getLong(column, 0);
+    }
+
+    private static double rowDouble(String column, OpenCypherResultReader.Row row) {
+        return row.getDouble(column, 0);
+    }
+
+    private static boolean rowBoolean(String column, OpenCypherResultReader.Row row) {
+        return row.getBoolean(column, false);
+    }
+
+    private static Integer rowBoxedInt(String column, OpenCypherResultReader.Row row) {
+        return row.isNull(column) ? null : row.getInt(column, 0);
+    }
+
+    private static Long rowBoxedLong(String column, OpenCypherResultReader.Row row) {
+        return row.isNull(column) ? null : row.getLong(column, 0);
+    }
+
+    private static Double rowBoxedDouble(String column, OpenCypherResultReader.Row row) {
+        return row.isNull(column) ? null : row.getDouble(column, 0);
+    }
+
+    private static Boolean rowBoxedBoolean(String column, OpenCypherResultReader.Row row) {
+        return row.isNull(column) ? null : row.getBoolean(column, false);
+    }
+
+    private static String rowString(String column, OpenCypherResultReader.Row row) {
+        return row.getString(column, null);
+    }
+
+    // SDK Document rows
+
+    private static Document documentValue(String column, Map<String, Document> row) {
+        Document value = row.get(column);
+        return value == null || value.isNull() ? null : value;
+    }
+
+    private static int documentInt(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? 0 : value.asNumber().intValue();
+    }
+
+    private static long documentLong(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? 0 : value.asNumber().longValue();
+    }
+
+    private static double documentDouble(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? 0 : value.asNumber().doubleValue();
+    }
+
+    private static boolean documentBoolean(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value != null && value.asBoolean();
+    }
+
+    private static Integer documentBoxedInt(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? null : value.asNumber().intValue();
+    }
+
+    private static Long documentBoxedLong(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? null : value.asNumber().longValue();
+    }
+
+    private static Double documentBoxedDouble(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? null : value.asNumber().doubleValue();
+    }
+
+    private static Boolean documentBoxedBoolean(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        return value == null ? null : value.asBoolean();
+    }
+
+    private static String documentString(String column, Map<String, Document> row) {
+        Document value = documentValue(column, row);
+        if (value == null) {
+            return null;
+        }
+        return value.isString() ? value.asString() : value.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.neptune;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.TypeSystem;
+import software.amazon.awssdk.core.document.Document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rough heap-size estimates of query results, used to bound the result cache by bytes.
+ * Strings count two bytes per character plus object overhead; other scalars a flat amount.
+ */
+final class ResultSizes {
+    private static final long OBJECT_BYTES = 16;
+    private static final long SCALAR_BYTES = 24;
+    private static final long STRING_BYTES = 40;
+
+    private ResultSizes() {
+    }
+
+    static long ofRecords(List<Record> records) {
+        long bytes = OBJECT_BYTES;
+        for (Record record : records) {
+            bytes += OBJECT_BYTES;
+            for (Value value : record.values()) {
+                bytes += ofValue(value);
+            }
+        }
+        return bytes;
+    }
+
+    static long ofValue(Value value) {
+        TypeSystem types = TypeSystem.getDefault();
+        if (value.hasType(types.STRING())) {
+            return STRING_BYTES + 2L * value.asString().length();
+        }
+        if (value.hasType(types.LIST()) || value.hasType(types.MAP()) || value.hasType(types.NODE())
+                || value.hasType(types.RELATIONSHIP())) {
+            long bytes = OBJECT_BYTES;
+            for (Value item : value.values()) {
+                bytes += ofValue(item);
+            }
+            if (!value.hasType(types.LIST())) {
+                for (String key : value.keys()) {
+                    bytes += STRING_BYTES + 2L * key.length();
+                }
+            }
+            return bytes;
+        }
+        return SCALAR_BYTES;
+    }
+
+    static long ofDocument(Document document) {
+        if (document == null || document.isNull()) {
+            return OBJECT_BYTES;
+        }
+        if (document.isString()) {
+            return STRING_BYTES + 2L * document.asString().length();
+        }
+        if (document.isList()) {
+            long bytes = OBJECT_BYTES;
+            for (Document item : document.asList()) {
+                bytes += ofDocument(item);
+            }
+            return bytes;
+        }
+        if (document.isMap()) {
+            long bytes = OBJECT_BYTES;
+            for (Map.Entry<String, Document> entry : document.asMap().entrySet()) {
+                bytes += STRING_BYTES + 2L * entry.getKey().length() + ofDocument(entry.getValue());
+            }
+            return bytes;
+        }
+        return SCALAR_BYTES;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.neptune;
+
+import java.time.Clock;
+
+/**
+ * Token bucket that caps retries relative to traffic, so that retries cannot multiply load
+ * on a cluster that is already overloaded. Every first attempt deposits {@code retryRatio}
+ * tokens and every retry withdraws one; on top of that the bucket refills at
+ * {@code minRetriesPerSecond} so that low-traffic clients can still retry. The balance is
+ * capped at ten seconds' worth of the minimum rate, or 10 tokens, whichever is more.
+ */
+public final class RetryBudget {
+    private final double retryRatio;
+    private final double minRetriesPerSecond;
+    private final double maxBalance;
+    private final Clock clock;
+    private double balance;
+    private long lastRefillMillis;
+
+    public RetryBudget(double retryRatio, double minRetriesPerSecond) {
+        this(retryRatio, minRetriesPerSecond, Clock.systemUTC());
+    }
+
+    RetryBudget(double retryRatio, double minRetriesPerSecond, Clock clock) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("Retry budget ratio must not be negative: " + retryRatio);
+        }
+        if (minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("Minimum retries per second must not be negative: " + minRetriesPerSecond);
+        }
+        this.retryRatio = retryRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxBalance = Math.max(10.0, minRetriesPerSecond * 10);
+        this.clock = clock;
+        this.balance = maxBalance;
+        this.lastRefillMillis = clock.millis();
+    }
+
+    /**
+     * Record a first attempt
+     */
+    public synchronized void onRequest() {
+        balance = Math.min(maxBalance, balance + retryRatio);
+    }
+
+    /**
+     * Take a token for a retry, or return false when the budget is exhausted
+     */
+    public synchronized boolean tryAcquireRetry() {
+        long now = clock.millis();
+        balance = Math.min(maxBalance, balance + (now - lastRefillMillis) / 1000.0 * minRetriesPerSecond);
+        lastRefillMillis = now;
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+
+    public synchronized double getBalance() {
+        return balance;
+    }
+}
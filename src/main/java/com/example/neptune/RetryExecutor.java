@@ -0,0 +1,136 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs an operation and retries it on retryable errors (see {@link NeptuneErrors}) with
+ * jittered exponential backoff: retry n, counting from 0, waits a random time between half
+ * and all of {@code min(maxBackoff, baseBackoff * 2^n)}. Each retry must also be granted by
+ * a shared {@link RetryBudget}; when the budget is exhausted the error is rethrown at once.
+ * <p>
+ * An operation may run more than once, so writes should be idempotent (e.g. MERGE rather
+ * than CREATE) or tolerate duplicates when a connection drops after a commit.
+ */
+public class RetryExecutor {
+    private static final Logger logger = LogManager.getLogger(RetryExecutor.class);
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_BASE_BACKOFF = Duration.ofMillis(50);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(2);
+
+    /**
+     * Waits between attempts; replaced in tests
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final RetryBudget budget;
+    private final Predicate<Throwable> retryable;
+    private final Sleeper sleeper;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public RetryExecutor(int maxRetries, Duration baseBackoff, Duration maxBackoff, RetryBudget budget) {
+        this(maxRetries, baseBackoff, maxBackoff, budget, NeptuneErrors::isRetryable, Thread::sleep);
+    }
+
+    RetryExecutor(int maxRetries, Duration baseBackoff, Duration maxBackoff, RetryBudget budget,
+                  Predicate<Throwable> retryable, Sleeper sleeper) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must not be negative: " + maxRetries);
+        }
+        if (baseBackoff.isNegative() || baseBackoff.isZero() || maxBackoff.compareTo(baseBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must be positive with max >= base: " + baseBackoff + ", " + maxBackoff);
+        }
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoff.toMillis();
+        this.maxBackoffMs = maxBackoff.toMillis();
+        this.budget = budget;
+        this.retryable = retryable;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Create an executor from {@code neptune.retry.*} settings
+     */
+    public static RetryExecutor fromConfig(NeptuneConfig config) {
+        RetryBudget budget = new RetryBudget(
+                config.getDoubleSetting("neptune.retry.budget.ratio", "NEPTUNE_RETRY_BUDGET_RATIO", 0.1),
+                config.getDoubleSetting("neptune.retry.budget.min.per.second", "NEPTUNE_RETRY_BUDGET_MIN_PER_SECOND", 10));
+        return new RetryExecutor(
+                config.getIntSetting("neptune.retry.max.retries", "NEPTUNE_RETRY_MAX_RETRIES", DEFAULT_MAX_RETRIES),
+                Duration.ofMillis(config.getLongSetting("neptune.retry.base.backoff.ms", "NEPTUNE_RETRY_BASE_BACKOFF_MS",
+                        DEFAULT_BASE_BACKOFF.toMillis())),
+                Duration.ofMillis(config.getLongSetting("neptune.retry.max.backoff.ms", "NEPTUNE_RETRY_MAX_BACKOFF_MS",
+                        DEFAULT_MAX_BACKOFF.toMillis())),
+                budget);
+    }
+
+    /**
+     * Run the operation, retrying retryable failures within the attempt and budget limits
+     *
+     * @param description names the operation in log messages
+     */
+    public <T> T execute(String description, Supplier<T> operation) {
+        calls.increment();
+        budget.onRequest();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || !retryable.test(e)) {
+                    failures.increment();
+                    throw e;
+                }
+                if (!budget.tryAcquireRetry()) {
+                    budgetExhausted.increment();
+                    failures.increment();
+                    logger.warn("Retry budget exhausted, not retrying {}: {}", description, e.getMessage());
+                    throw e;
+                }
+                retries.increment();
+                long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+                long sleep = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+                logger.debug("Retrying {} in {} ms (attempt {}): {}", description, sleep, attempt + 1, e.getMessage());
+                try {
+                    sleeper.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    failures.increment();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(calls.sum(), retries.sum(), budgetExhausted.sum(), failures.sum());
+    }
+
+    /**
+     * Retry counters: operations run, retries made, retries refused by the budget, and
+     * operations that failed in the end
+     */
+    public record Stats(long calls, long retries, long budgetExhausted, long failures) {
+        @Override
+        public String toString() {
+            return String.format("calls=%d retries=%d budgetExhausted=%d failures=%d",
+                    calls, retries, budgetExhausted, failures);
+        }
+    }
+}
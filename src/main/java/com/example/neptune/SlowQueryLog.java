@@ -0,0 +1,371 @@
+package com.example.neptune;
+
+import com.google.gson.Gson;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherExplainQueryRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Records queries slower than a threshold in a rolling JSON-lines log, one entry per slow
+ * query with its template, parameters, latency, row count or error, and the plan Neptune
+ * returns from the openCypher {@code explain} endpoint for it.
+ * <p>
+ * Explains are fetched through the Data API on a background thread, at most
+ * {@code explainsPerMinute} a minute (slow queries beyond that are logged without a
+ * plan), so a burst of slow queries does not add a burst of explain load on the cluster.
+ * The {@code dynamic} and {@code details} modes run the query to collect runtime
+ * statistics, so templates that write are explained in {@code static} mode.
+ * <p>
+ * Entries go to {@code slow-queries.jsonl} in the log directory. When it would grow past
+ * {@code maxFileBytes} it is rolled to {@code slow-queries.1.jsonl}, shifting older files
+ * up, and only {@code maxFiles} files are kept.
+ */
+public class SlowQueryLog implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(SlowQueryLog.class);
+    private static final Gson GSON = new Gson();
+
+    static final String FILE_NAME = "slow-queries.jsonl";
+    static final Set<String> EXPLAIN_MODES = Set.of("static", "dynamic", "details");
+    private static final String STATIC = "static";
+    private static final int MAX_QUEUED_ENTRIES = 1024;
+    private static final Pattern WRITE_CLAUSE =
+            Pattern.compile("\\b(CREATE|MERGE|SET|DELETE|REMOVE)\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Returns Neptune's explain output for a query
+     */
+    @FunctionalInterface
+    public interface Explainer {
+        String explain(String template, Map<String, Object> parameters, String mode);
+    }
+
+    /**
+     * Slow query log settings, from {@code neptune.slow.query.*}
+     *
+     * @param explainsPerMinute explains fetched per minute at most, in bursts of up to as many; 0 logs no plans
+     * @param explainMode       {@code static}, {@code dynamic} or {@code details}
+     */
+    public record Settings(Duration threshold, double explainsPerMinute, String explainMode, Path directory,
+                           long maxFileBytes, int maxFiles) {
+
+        public Settings {
+            if (threshold.isNegative() || threshold.isZero()) {
+                throw new IllegalArgumentException("Slow query threshold must be positive: " + threshold);
+            }
+            if (explainsPerMinute < 0) {
+                throw new IllegalArgumentException("Explains per minute must not be negative: " + explainsPerMinute);
+            }
+            explainMode = explainMode.toLowerCase(Locale.ROOT);
+            if (!EXPLAIN_MODES.contains(explainMode)) {
+                throw new IllegalArgumentException("Unknown explain mode: " + explainMode
+                        + " (expected static, dynamic or details)");
+            }
+            if (maxFileBytes < 1 || maxFiles < 1) {
+                throw new IllegalArgumentException("Slow query log must keep at least one non-empty file: maxFileBytes="
+                        + maxFileBytes + ", maxFiles=" + maxFiles);
+            }
+        }
+
+        /**
+         * Settings from config, or null unless {@code neptune.slow.query.ms} is set above zero
+         */
+        public static Settings fromConfig(NeptuneConfig config) {
+            long thresholdMs = config.getLongSetting("neptune.slow.query.ms", "NEPTUNE_SLOW_QUERY_MS", 0);
+            if (thresholdMs <= 0) {
+                return null;
+            }
+            return new Settings(
+                    Duration.ofMillis(thresholdMs),
+                    config.getDoubleSetting("neptune.slow.query.explains.per.minute",
+                            "NEPTUNE_SLOW_QUERY_EXPLAINS_PER_MINUTE", 6),
+                    config.getSetting("neptune.slow.query.explain.mode", "NEPTUNE_SLOW_QUERY_EXPLAIN_MODE", "details"),
+                    Paths.get(config.getSetting("neptune.slow.query.dir", "NEPTUNE_SLOW_QUERY_DIR", "slow-queries")),
+                    config.getLongSetting("neptune.slow.query.max.file.bytes",
+                            "NEPTUNE_SLOW_QUERY_MAX_FILE_BYTES", 10 * 1024 * 1024),
+                    config.getIntSetting("neptune.slow.query.max.files", "NEPTUNE_SLOW_QUERY_MAX_FILES", 5));
+        }
+    }
+
+    /**
+     * Counts of slow queries seen, plans explained, explains skipped by the rate limit or
+     * failed, and entries dropped because the writer fell behind
+     */
+    public record Stats(long slow, long explained, long rateLimited, long explainFailures, long dropped) {
+
+        @Override
+        public String toString() {
+            return String.format("slow=%d explained=%d rateLimited=%d explainFailures=%d dropped=%d",
+                    slow, explained, rateLimited, explainFailures, dropped);
+        }
+    }
+
+    private final String transport;
+    private final Explainer explainer;
+    private final Settings settings;
+    private final Clock clock;
+    private final List<AutoCloseable> resources;
+    private final long thresholdNanos;
+    private final double maxTokens;
+    private final ThreadPoolExecutor writer;
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder explained = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder explainFailures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private double tokens;
+    private long lastRefillMillis;
+
+    /**
+     * @param transport tag written with each entry, e.g. {@code bolt} or {@code data-api}
+     */
+    public SlowQueryLog(String transport, Explainer explainer, Settings settings) {
+        this(transport, explainer, settings, Clock.systemUTC(), List.of());
+    }
+
+    SlowQueryLog(String transport, Explainer explainer, Settings settings, Clock clock, List<AutoCloseable> resources) {
+        this.transport = transport;
+        this.explainer = explainer;
+        this.settings = settings;
+        this.clock = clock;
+        this.resources = resources;
+        this.thresholdNanos = settings.threshold().toNanos();
+        this.maxTokens = Math.max(1.0, settings.explainsPerMinute());
+        this.tokens = settings.explainsPerMinute() > 0 ? maxTokens : 0;
+        this.lastRefillMillis = clock.millis();
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_ENTRIES), r -> {
+            Thread thread = new Thread(r, "neptune-slow-query-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a log that explains through the given Data API client, or through a client of
+     * its own for the writer when it is null; returns null when the slow query log is disabled
+     */
+    public static SlowQueryLog fromConfig(NeptuneConfig config, String transport, NeptunedataClient client) {
+        Settings settings = Settings.fromConfig(config);
+        if (settings == null) {
+            return null;
+        }
+        List<AutoCloseable> resources = List.of();
+        if (client == null) {
+            AwsCredentialsProvider credentialsProvider = config.isIamAuth()
+                    ? config.getCredentialsProvider()
+                    : AnonymousCredentialsProvider.create();
+            client = NeptuneDataApiDemo.createClient(config, URI.create(config.getHttpsUri()), credentialsProvider,
+                    ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.none()).build());
+            resources = List.of(client);
+        }
+        logger.info("Logging {} queries slower than {} ms to {}", transport, settings.threshold().toMillis(),
+                settings.directory().toAbsolutePath());
+        return new SlowQueryLog(transport, dataApiExplainer(client), settings, Clock.systemUTC(), resources);
+    }
+
+    /**
+     * An explainer calling the Data API's {@code executeOpenCypherExplainQuery}
+     */
+    public static Explainer dataApiExplainer(NeptunedataClient client) {
+        return (template, parameters, mode) -> {
+            ExecuteOpenCypherExplainQueryRequest.Builder request = ExecuteOpenCypherExplainQueryRequest.builder()
+                    .openCypherQuery(template)
+                    .explainMode(mode);
+            if (parameters != null && !parameters.isEmpty()) {
+                request.parameters(GSON.toJson(parameters));
+            }
+            return client.executeOpenCypherExplainQuery(request.build()).results().asUtf8String();
+        };
+    }
+
+    /**
+     * Run a query and record it if it is slow, whether it succeeds or fails
+     *
+     * @param rows row count of the result, or null if it is not known
+     */
+    public <T> T time(String template, Map<String, Object> parameters, Supplier<T> query, ToLongFunction<T> rows) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException e) {
+            record(template, parameters, System.nanoTime() - start, -1, e);
+            throw e;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        if (elapsedNanos >= thresholdNanos) {
+            record(template, parameters, elapsedNanos, rows == null ? -1 : rows.applyAsLong(result), null);
+        }
+        return result;
+    }
+
+    /**
+     * Record a query that took {@code elapsedNanos}, if that is over the threshold. The entry
+     * is written, and the plan fetched, in the background.
+     *
+     * @param rows    rows returned, or -1 if unknown
+     * @param failure the error the query failed with, or null
+     */
+    public void record(String template, Map<String, Object> parameters, long elapsedNanos, long rows,
+                       Throwable failure) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        slow.increment();
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("timestamp", clock.instant().toString());
+        entry.put("transport", transport);
+        entry.put("template", template);
+        entry.put("parameters", parameters == null ? Map.of() : parameters);
+        entry.put("elapsedMs", elapsedNanos / 1e6);
+        entry.put("thresholdMs", settings.threshold().toMillis());
+        if (rows >= 0) {
+            entry.put("rows", rows);
+        }
+        if (failure != null) {
+            entry.put("error", failure.getClass().getSimpleName() + ": " + failure.getMessage());
+        }
+        boolean explain = tryAcquireExplain();
+        if (!explain) {
+            rateLimited.increment();
+        }
+        try {
+            writer.execute(() -> write(entry, explain));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            logger.debug("Slow query log is behind; dropped entry for: {}", template);
+        }
+    }
+
+    private synchronized boolean tryAcquireExplain() {
+        long now = clock.millis();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefillMillis) / 60_000.0 * settings.explainsPerMinute());
+        lastRefillMillis = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(Map<String, Object> entry, boolean explain) {
+        String template = (String) entry.get("template");
+        if (explain) {
+            String mode = isWrite(template) ? STATIC : settings.explainMode();
+            entry.put("explainMode", mode);
+            long start = System.nanoTime();
+            try {
+                entry.put("explain", explainer.explain(template, (Map<String, Object>) entry.get("parameters"), mode));
+                explained.increment();
+            } catch (RuntimeException e) {
+                explainFailures.increment();
+                entry.put("explainError", e.getClass().getSimpleName() + ": " + e.getMessage());
+                logger.debug("Failed to explain slow query: {}", template, e);
+            }
+            entry.put("explainMs", (System.nanoTime() - start) / 1e6);
+        } else {
+            entry.put("explainSkipped", "rate limited");
+        }
+        logger.warn("Slow {} query ({} ms): {}", transport, String.format("%.1f", (double) entry.get("elapsedMs")),
+                template);
+        try {
+            append((GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write slow query log entry for: {}", template, e);
+        }
+    }
+
+    /**
+     * Whether a template may write, in which case explaining it must not run it
+     */
+    static boolean isWrite(String template) {
+        return WRITE_CLAUSE.matcher(template).find();
+    }
+
+    private void append(byte[] line) throws IOException {
+        Files.createDirectories(settings.directory());
+        Path file = settings.directory().resolve(FILE_NAME);
+        if (Files.exists(file) && Files.size(file) > 0 && Files.size(file) + line.length > settings.maxFileBytes()) {
+            roll(file);
+        }
+        Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void roll(Path file) throws IOException {
+        int keep = settings.maxFiles() - 1;
+        if (keep == 0) {
+            Files.delete(file);
+            return;
+        }
+        Files.deleteIfExists(rolledFile(keep));
+        for (int i = keep - 1; i >= 1; i--) {
+            if (Files.exists(rolledFile(i))) {
+                Files.move(rolledFile(i), rolledFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolledFile(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Path rolledFile(int index) {
+        return settings.directory().resolve("slow-queries." + index + ".jsonl");
+    }
+
+    public Stats getStats() {
+        return new Stats(slow.sum(), explained.sum(), rateLimited.sum(), explainFailures.sum(), dropped.sum());
+    }
+
+    /**
+     * Write the entries already recorded, waiting up to a minute for their explains, then
+     * close the resources the log owns
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Slow query log did not finish writing within a minute");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.shutdownNow();
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close slow query log resource", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.neptune;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Write-behind buffer that coalesces many single-entity writes into a few
+ * {@code UNWIND $rows AS row ...} statements. Writes are grouped by statement shape (the
+ * same node label, relationship type or query template) and each group is sent as one
+ * parameterized statement once it holds {@code batchSize} rows, or at the latest every
+ * {@code flushInterval}.
+ * <p>
+ * With {@link Ack#ACCEPTED} the future of a write completes as soon as it is buffered;
+ * failed batches are logged, counted and reported by the next {@link #flush()}. With
+ * {@link Ack#DURABLE} it completes only once the statement holding the write has
+ * committed, and fails with that statement's error.
+ * <p>
+ * Full batches, and on each flush the partial ones, are sealed into one queue that the
+ * flusher thread writes one at a time, in order, so writes of one shape are applied in the
+ * order they were submitted. Across shapes, the oldest group is written first; a write
+ * that depends on one of another shape (an edge on its nodes) is only safe once the other
+ * was flushed, e.g. after {@link #flush()} or its durable future completes.
+ * <p>
+ * At most {@code maxPending} writes are buffered or in flight; further submits block
+ * until a batch has been written.
+ */
+public class WriteCoalescer implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(WriteCoalescer.class);
+
+    private static final Pattern PARAMETER = Pattern.compile("\\$([A-Za-z_][A-Za-z0-9_]*)");
+    private static final Pattern RETURN = Pattern.compile("\\bRETURN\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Runs one coalesced statement, e.g. {@link NeptuneDataApiDemo#executeQuery}
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(String template, Map<String, Object> parameters);
+    }
+
+    public enum Ack {
+        /**
+         * Complete a write's future once it is buffered
+         */
+        ACCEPTED,
+        /**
+         * Complete a write's future once its statement has committed on Neptune
+         */
+        DURABLE;
+
+        public static Ack of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown write ack mode: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Coalescing settings, from {@code neptune.coalesce.*}
+     * <p>
+     * A failed batch is retried as a whole by the writer (e.g. through {@link RetryExecutor}).
+     * If a commit was applied but its response was lost, the retry applies the batch again:
+     * harmless for the {@code MERGE} statements of {@link #upsertNode} and {@link #upsertEdge},
+     * but a {@link #submit submitted} {@code CREATE} template then creates its rows twice.
+     * Coalesce {@code CREATE}s only where duplicates are acceptable or cleaned up later.
+     */
+    public record Settings(int batchSize, Duration flushInterval, int maxPending, Ack ack) {
+
+        public Settings {
+            if (batchSize < 1 || maxPending < batchSize) {
+                throw new IllegalArgumentException("Coalescing needs 1 <= batchSize <= maxPending: batchSize="
+                        + batchSize + ", maxPending=" + maxPending);
+            }
+            if (flushInterval.isNegative() || flushInterval.isZero()) {
+                throw new IllegalArgumentException("Flush interval must be positive: " + flushInterval);
+            }
+        }
+
+        public static Settings fromConfig(NeptuneConfig config) {
+            return new Settings(
+                    config.getIntSetting("neptune.coalesce.batch.size", "NEPTUNE_COALESCE_BATCH_SIZE", 500),
+                    Duration.ofMillis(config.getLongSetting("neptune.coalesce.flush.ms",
+                            "NEPTUNE_COALESCE_FLUSH_MS", 50)),
+                    config.getIntSetting("neptune.coalesce.max.pending", "NEPTUNE_COALESCE_MAX_PENDING", 10_000),
+                    Ack.of(config.getSetting("neptune.coalesce.ack", "NEPTUNE_COALESCE_ACK", "accepted")));
+        }
+    }
+
+    private final Writer writer;
+    private final Settings settings;
+    private final Semaphore capacity;
+    private final ScheduledExecutorService flusher;
+    // Open batch per shape, oldest first; guarded by this
+    private final Map<String, Batch> pending = new LinkedHashMap<>();
+    // Batches sealed for writing, in the order they must be written; guarded by this,
+    // only drained on the flusher thread
+    private final Deque<Batch> sealed = new ArrayDeque<>();
+    private boolean closed;
+    // Batch failures not yet reported by flush(); only touched on the flusher thread
+    private RuntimeException unreportedFailure;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WriteCoalescer(Writer writer, Settings settings) {
+        this.writer = writer;
+        this.settings = settings;
+        this.capacity = new Semaphore(settings.maxPending());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "neptune-write-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = settings.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::writePending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create or update the node with the given ID, setting the given properties
+     */
+    public CompletableFuture<Void> upsertNode(String label, String id, Map<String, Object> properties) {
+        return enqueue("UNWIND $rows AS row MERGE (n:" + escape(label) + " {`~id`: row.id}) SET n += row.props",
+                UnaryOperator.identity(), Map.of("id", id, "props", properties));
+    }
+
+    /**
+     * Create the edge between two existing nodes, or update it if there already is one of
+     * this type, setting the given properties. Nothing is written if either node is missing.
+     */
+    public CompletableFuture<Void> upsertEdge(String type, String from, String to, Map<String, Object> properties) {
+        return enqueue("UNWIND $rows AS row MATCH (a), (b) WHERE id(a) = row.from AND id(b) = row.to " +
+                        "MERGE (a)-[r:" + escape(type) + "]->(b) SET r += row.props",
+                UnaryOperator.identity(), Map.of("from", from, "to", to, "props", properties));
+    }
+
+    /**
+     * Buffer a single-row write query. Writes with the same template are sent together as
+     * {@code UNWIND $rows AS row <template>}, with each {@code $name} read from
+     * {@code row.name}, so the template must not use {@code $rows} or {@code row} itself.
+     * Templates that return results are rejected, since the results would be dropped.
+     */
+    public CompletableFuture<Void> submit(String template, Map<String, Object> parameters) {
+        if (RETURN.matcher(template).find()) {
+            throw new IllegalArgumentException("Coalesced writes cannot return results: " + template);
+        }
+        return enqueue(template, WriteCoalescer::toUnwind, parameters);
+    }
+
+    static String toUnwind(String template) {
+        Matcher matcher = PARAMETER.matcher(template);
+        return "UNWIND $rows AS row " + matcher.replaceAll("row.$1");
+    }
+
+    private CompletableFuture<Void> enqueue(String shape, UnaryOperator<String> toStatement, Map<String, Object> row) {
+        capacity.acquireUninterruptibly();
+        CompletableFuture<Void> future = settings.ack() == Ack.DURABLE ? new CompletableFuture<>() : null;
+        synchronized (this) {
+            if (closed) {
+                capacity.release();
+                throw new IllegalStateException("Write coalescer is closed");
+            }
+            Batch batch = pending.computeIfAbsent(shape, s -> new Batch(toStatement.apply(s)));
+            batch.add(row, future);
+            if (batch.rows.size() >= settings.batchSize()) {
+                pending.remove(shape);
+                // Sealed under the lock, so it is written before anything of its shape buffered later
+                sealed.addLast(batch);
+                flusher.execute(this::writeSealed);
+            }
+        }
+        submitted.increment();
+        return future != null ? future : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Write everything buffered so far. The returned future completes once it has been
+     * written, and fails if any batch failed since the previous flush.
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        sealPending();
+        flusher.execute(() -> {
+            writeSealed();
+            RuntimeException failure = unreportedFailure;
+            unreportedFailure = null;
+            if (failure != null) {
+                done.completeExceptionally(failure);
+            } else {
+                done.complete(null);
+            }
+        });
+        return done;
+    }
+
+    private void writePending() {
+        sealPending();
+        writeSealed();
+    }
+
+    private synchronized void sealPending() {
+        sealed.addAll(pending.values());
+        pending.clear();
+    }
+
+    /**
+     * Write the sealed batches in order; only runs on the flusher thread
+     */
+    private void writeSealed() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                batch = sealed.pollFirst();
+            }
+            if (batch == null) {
+                return;
+            }
+            write(batch);
+        }
+    }
+
+    private void write(Batch batch) {
+        int size = batch.rows.size();
+        try {
+            writer.write(batch.statement, Map.of("rows", batch.rows));
+            statements.increment();
+            written.add(size);
+            batch.complete(null);
+        } catch (RuntimeException e) {
+            failed.add(size);
+            logger.error("Failed to write {} coalesced rows: {}", size, e.getMessage());
+            batch.complete(e);
+            if (unreportedFailure == null) {
+                unreportedFailure = e;
+            } else if (unreportedFailure != e) {
+                unreportedFailure.addSuppressed(e);
+            }
+        } finally {
+            capacity.release(size);
+        }
+    }
+
+    private static String escape(String name) {
+        if (name.isEmpty() || name.indexOf('`') >= 0) {
+            throw new IllegalArgumentException("Unsupported label or type: " + name);
+        }
+        return "`" + name + "`";
+    }
+
+    public Stats getStats() {
+        return new Stats(submitted.sum(), statements.sum(), written.sum(), failed.sum());
+    }
+
+    /**
+     * Write what is still buffered and stop. Failures are logged; callers that need them
+     * should {@link #flush()} first or use {@link Ack#DURABLE}.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        CompletableFuture<Void> last = flush();
+        flusher.shutdown();
+        try {
+            last.join();
+        } catch (RuntimeException e) {
+            logger.warn("Coalesced writes failed before close: {}", e.getMessage());
+        }
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Write coalescer closed: {}", getStats());
+    }
+
+    /**
+     * Rows of one shape, with the futures of durable writes
+     */
+    private static final class Batch {
+        final String statement;
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        Batch(String statement) {
+            this.statement = statement;
+        }
+
+        void add(Map<String, Object> row, CompletableFuture<Void> future) {
+            rows.add(row);
+            if (future != null) {
+                futures.add(future);
+            }
+        }
+
+        void complete(RuntimeException failure) {
+            for (CompletableFuture<Void> future : futures) {
+                if (failure == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param submitted  writes accepted
+     * @param statements coalesced statements written
+     * @param written    writes in statements that succeeded
+     * @param failed     writes in statements that failed
+     */
+    public record Stats(long submitted, long statements, long written, long failed) {
+        @Override
+        public String toString() {
+            return String.format("submitted=%d statements=%d written=%d failed=%d avgBatch=%.1f",
+                    submitted, statements, written, failed, statements == 0 ? 0.0 : (double) written / statements);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.TransientException;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batching, retrying and writer failures of the Bolt bulk loader, against a stub driver
+ */
+@DisplayName("Bolt Bulk Loader Tests")
+class BoltBulkLoaderTest {
+    private final List<Query> queries = new CopyOnWriteArrayList<>();
+
+    /**
+     * A driver whose sessions pass each query to {@code run}, which may throw; other methods do nothing
+     */
+    private static Driver driver(Supplier<Session> session) {
+        return (Driver) Proxy.newProxyInstance(Driver.class.getClassLoader(), new Class<?>[]{Driver.class},
+                (proxy, method, args) -> method.getName().equals("session") ? session.get() : null);
+    }
+
+    private static Session session(Function<Query, RuntimeException> run) {
+        Result result = (Result) Proxy.newProxyInstance(Result.class.getClassLoader(), new Class<?>[]{Result.class},
+                (proxy, method, args) -> null);
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("run")) {
+                        RuntimeException failure = run.apply((Query) args[0]);
+                        if (failure != null) {
+                            throw failure;
+                        }
+                        return result;
+                    }
+                    return null;
+                });
+    }
+
+    private static Path people(Path dir) throws Exception {
+        Path file = dir.resolve("people.csv");
+        Files.writeString(file, """
+                ~id,~label,name
+                p1,Person,Alice
+                c1,Company,TechCorp
+                p2,Person,Bob
+                p3,Person,Carol
+                """);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should group records by shape into UNWIND batches of the batch size")
+    void shouldBatchByShape(@TempDir Path dir) throws Exception {
+        Path edges = dir.resolve("edges.jsonl");
+        Files.writeString(edges, """
+                {"from": "p1", "to": "c1", "type": "WORKS_FOR"}
+                {"id": "e2", "from": "p2", "to": "c1", "type": "WORKS_FOR"}
+                """);
+        BoltBulkLoader loader = new BoltBulkLoader(driver(() -> session(query -> {
+            queries.add(query);
+            return null;
+        })), 2, 1, 0);
+
+        BulkLoadReport report = loader.load(List.of(people(dir), edges));
+
+        assertEquals(6, report.records());
+        assertEquals(5, report.batches());
+        assertEquals(0, report.failedBatches());
+        assertEquals("UNWIND $rows AS row CREATE (n:`Person` {`~id`: row.id}) SET n += row.props",
+                queries.get(0).text());
+        assertEquals(List.of(Map.of("id", "p1", "props", Map.of("name", "Alice")),
+                Map.of("id", "p2", "props", Map.of("name", "Bob"))), queries.get(0).parameters().get("rows").asObject());
+        assertTrue(queries.get(1).text().contains("(n:`Company`"));
+        assertTrue(queries.get(2).text().contains("(n:`Person`"));
+        // Edges with and without an ID have different statements
+        assertFalse(queries.get(3).text().contains("~id"));
+        assertTrue(queries.get(4).text().contains("[r:`WORKS_FOR` {`~id`: row.id}]"));
+    }
+
+    @Test
+    @DisplayName("Should retry retryable failures and give up on the others")
+    void shouldRetryAndGiveUp(@TempDir Path dir) throws Exception {
+        BoltBulkLoader loader = new BoltBulkLoader(driver(() -> session(query -> {
+            queries.add(query);
+            if (query.text().contains("Company")) {
+                return new ClientException("Neo.ClientError.Statement.SyntaxError", "bad statement");
+            }
+            // The first attempt of each Person batch hits write contention
+            long attempts = queries.stream().filter(q -> q.text().equals(query.text())).count();
+            return attempts % 2 == 1
+                    ? new TransientException("Neo.TransientError.General", "ConcurrentModificationException")
+                    : null;
+        })), 2, 1, 3);
+
+        BulkLoadReport report = loader.load(List.of(people(dir)));
+
+        assertEquals(3, report.batches());
+        assertEquals(2, report.retries());
+        assertEquals(1, report.failedBatches());
+        assertEquals(1, report.failedRecords());
+        assertEquals(5, queries.size(), "The non-retryable Company batch is tried only once");
+    }
+
+    @Test
+    @DisplayName("Should stop instead of blocking when the writers fail")
+    void shouldFailWhenWritersDie(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("many.csv");
+        StringBuilder csv = new StringBuilder("~id,~label\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("p").append(i).append(",Person\n");
+        }
+        Files.writeString(file, csv);
+        BoltBulkLoader loader = new BoltBulkLoader(driver(() -> {
+            throw new IllegalStateException("no session");
+        }), 1, 2, 0);
+
+        CompletableFuture<Void> load = CompletableFuture.runAsync(() -> {
+            IllegalStateException failure = assertThrows(IllegalStateException.class,
+                    () -> loader.load(List.of(file)));
+            assertEquals("no session", failure.getCause().getMessage());
+        });
+        load.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.reactive.ReactiveResult;
+import org.neo4j.driver.reactive.ReactiveSession;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for demand, cancellation and errors of streamed Bolt results, against a stub
+ * reactive session that emits records only as they are requested
+ */
+@DisplayName("Bolt Streaming Client Tests")
+class BoltStreamingClientTest {
+    private final RecordSource records = new RecordSource();
+    private final AtomicBoolean sessionClosed = new AtomicBoolean();
+    private final Downstream downstream = new Downstream();
+    private final BoltStreamingClient client = new BoltStreamingClient(driver());
+
+    /**
+     * Publishes stub records, no more than requested, and remembers cancellation
+     */
+    private static final class RecordSource implements Flow.Publisher<Record> {
+        final AtomicLong requested = new AtomicLong();
+        volatile boolean cancelled;
+        Flow.Subscriber<? super Record> subscriber;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Record> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+
+        /**
+         * Emit up to {@code count} records, as far as there is demand
+         */
+        void emit(int count) {
+            for (int i = 0; i < count && requested.get() > 0 && !cancelled; i++) {
+                requested.decrementAndGet();
+                subscriber.onNext(record());
+            }
+        }
+    }
+
+    private static final class Downstream implements Flow.Subscriber<Record> {
+        final List<Record> received = new CopyOnWriteArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Record item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private static Record record() {
+        return (Record) Proxy.newProxyInstance(Record.class.getClassLoader(), new Class<?>[]{Record.class},
+                (proxy, method, args) -> null);
+    }
+
+    private static <T> Flow.Publisher<T> just(T item) {
+        return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                if (!done) {
+                    done = true;
+                    if (item != null) {
+                        subscriber.onNext(item);
+                    }
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+    }
+
+    private Driver driver() {
+        ReactiveResult result = (ReactiveResult) Proxy.newProxyInstance(ReactiveResult.class.getClassLoader(),
+                new Class<?>[]{ReactiveResult.class},
+                (proxy, method, args) -> method.getName().equals("records") ? records : null);
+        ReactiveSession session = (ReactiveSession) Proxy.newProxyInstance(ReactiveSession.class.getClassLoader(),
+                new Class<?>[]{ReactiveSession.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "run" -> just(result);
+                    case "close" -> {
+                        sessionClosed.set(true);
+                        yield just(null);
+                    }
+                    default -> null;
+                });
+        return (Driver) Proxy.newProxyInstance(Driver.class.getClassLoader(), new Class<?>[]{Driver.class},
+                (proxy, method, args) -> method.getName().equals("session") ? session : null);
+    }
+
+    @Test
+    @DisplayName("Should pass on demand and never deliver more records than requested")
+    void shouldRespectDemand() {
+        // Demand requested before the record stream is open is held until it is
+        Flow.Publisher<Record> stream = client.stream(new Query("MATCH (p:Person) RETURN p"));
+        stream.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                downstream.onSubscribe(subscription);
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(Record item) {
+                downstream.onNext(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                downstream.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                downstream.onComplete();
+            }
+        });
+        assertEquals(2, records.requested.get());
+
+        records.emit(5);
+        assertEquals(2, downstream.received.size());
+
+        downstream.subscription.request(3);
+        records.emit(5);
+        assertEquals(5, downstream.received.size());
+        assertFalse(downstream.completed);
+
+        records.subscriber.onComplete();
+        assertTrue(downstream.completed);
+        assertTrue(sessionClosed.get());
+        assertNull(downstream.error);
+    }
+
+    @Test
+    @DisplayName("Should stop the query and close the session on cancel")
+    void shouldCancelUpstream() {
+        client.stream(new Query("MATCH (p:Person) RETURN p")).subscribe(downstream);
+        downstream.subscription.request(10);
+        records.emit(1);
+
+        downstream.subscription.cancel();
+        assertTrue(records.cancelled);
+        assertTrue(sessionClosed.get());
+
+        downstream.subscription.request(10);
+        assertEquals(9, records.requested.get(), "No demand is passed on after cancel");
+        assertEquals(1, downstream.received.size());
+        assertFalse(downstream.completed);
+        assertNull(downstream.error);
+    }
+
+    @Test
+    @DisplayName("Should pass query errors on once the session is closed")
+    void shouldPropagateErrors() {
+        client.stream(new Query("MATCH (p:Person) RETURN p")).subscribe(downstream);
+        downstream.subscription.request(1);
+
+        IllegalStateException failure = new IllegalStateException("MemoryLimitExceededException");
+        records.subscriber.onError(failure);
+        assertSame(failure, downstream.error);
+        assertTrue(sessionClosed.get());
+
+        records.subscriber.onComplete();
+        assertFalse(downstream.completed, "Only one terminal signal is delivered");
+    }
+
+    @Test
+    @DisplayName("Should fail and cancel the query on a non-positive request")
+    void shouldRejectInvalidDemand() {
+        client.stream(new Query("MATCH (p:Person) RETURN p")).subscribe(downstream);
+        downstream.subscription.request(1);
+
+        downstream.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, downstream.error);
+        assertTrue(records.cancelled, "The upstream result is cancelled");
+        assertTrue(sessionClosed.get());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading bulk-ingest files
+ */
+@DisplayName("Bulk Record Reader Tests")
+class BulkRecordReaderTest {
+
+    @Test
+    @DisplayName("Should read typed node properties from CSV")
+    void shouldReadNodesFromCsv() throws IOException {
+        List<BulkRecord> records = read(true, """
+                ~id,~label,name,age,active,nickname
+                p1,Person,Alice,30,true,"42"
+                p2,Person,"Bob, Jr.",25.5,false,
+                """);
+
+        assertEquals(2, records.size());
+        assertEquals(BulkRecord.node("p1", "Person",
+                Map.of("name", "Alice", "age", 30L, "active", true, "nickname", "42")), records.get(0));
+        assertEquals(BulkRecord.node("p2", "Person",
+                Map.of("name", "Bob, Jr.", "age", 25.5, "active", false)), records.get(1));
+    }
+
+    @Test
+    @DisplayName("Should read edges from JSONL")
+    void shouldReadEdgesFromJsonl() throws IOException {
+        List<BulkRecord> records = read(false, """
+                {"from": "p1", "to": "c1", "type": "WORKS_FOR", "properties": {"since": 2020}}
+
+                {"id": "e2", "from": "p2", "to": "c1", "label": "WORKS_FOR", "role": "dev"}
+                """);
+
+        assertEquals(BulkRecord.edge(null, "WORKS_FOR", "p1", "c1", Map.of("since", 2020L)), records.get(0));
+        assertEquals(BulkRecord.edge("e2", "WORKS_FOR", "p2", "c1", Map.of("role", "dev")), records.get(1));
+    }
+
+    @Test
+    @DisplayName("Should report the line of a malformed record")
+    void shouldReportMalformedRecord() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> read(true, "id,label\np1\n"));
+        assertTrue(e.getMessage().contains(":2:"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should pick the format from the file extension")
+    void shouldOpenByExtension(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("nodes.jsonl");
+        Files.writeString(file, "{\"id\": \"c1\", \"label\": \"Company\", \"name\": \"TechCorp\"}\n");
+
+        try (BulkRecordReader reader = BulkRecordReader.open(file)) {
+            assertEquals(BulkRecord.node("c1", "Company", Map.of("name", "TechCorp")), reader.next());
+            assertFalse(reader.hasNext());
+        }
+        assertThrows(IllegalArgumentException.class, () -> BulkRecordReader.open(dir.resolve("nodes.txt")));
+    }
+
+    private static List<BulkRecord> read(boolean csv, String content) throws IOException {
+        List<BulkRecord> records = new ArrayList<>();
+        try (BulkRecordReader reader = new BulkRecordReader(
+                new BufferedReader(new StringReader(content)), csv, "test")) {
+            reader.forEachRemaining(records::add);
+        }
+        return records;
+    }
+}
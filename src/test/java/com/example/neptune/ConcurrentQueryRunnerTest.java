@@ -0,0 +1,83 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the concurrent query runner, using simulated blocking queries
+ */
+@DisplayName("Concurrent Query Runner Tests")
+class ConcurrentQueryRunnerTest {
+
+    @ParameterizedTest
+    @EnumSource(ConcurrentQueryRunner.Mode.class)
+    @DisplayName("Should cap concurrency and aggregate latencies")
+    void shouldCapConcurrency(ConcurrentQueryRunner.Mode mode) {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (ConcurrentQueryRunner runner = new ConcurrentQueryRunner(mode, 4)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                int value = i;
+                futures.add(runner.submit("sleep", () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return value;
+                }));
+            }
+
+            List<Integer> results = ConcurrentQueryRunner.joinAll(futures);
+
+            assertEquals(49, results.get(49));
+            assertTrue(peak.get() <= 4, "Peak concurrency " + peak.get() + " exceeded the cap");
+            QueryLatencyStats.Snapshot stats = runner.getLatencyStats().get("sleep");
+            assertEquals(50, stats.count());
+            assertEquals(0, stats.errors());
+            assertTrue(stats.minNanos() >= 5_000_000);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ConcurrentQueryRunner.Mode.class)
+    @DisplayName("Should record failed queries as errors")
+    void shouldRecordErrors(ConcurrentQueryRunner.Mode mode) {
+        try (ConcurrentQueryRunner runner = new ConcurrentQueryRunner(mode, 2)) {
+            CompletableFuture<Object> failed = runner.submit("fail", () -> {
+                throw new IllegalStateException("boom");
+            });
+
+            CompletionException e = assertThrows(CompletionException.class, failed::join);
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals(1, runner.getLatencyStats().get("fail").errors());
+            assertEquals(0, runner.getActive());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ConcurrentQueryRunner.Mode.class)
+    @DisplayName("Should select the mode and default concurrency from config")
+    void shouldConfigureFromProperties(ConcurrentQueryRunner.Mode mode) {
+        Properties properties = new Properties();
+        properties.setProperty("neptune.executor.mode", mode.name().toLowerCase());
+        properties.setProperty("neptune.bolt.max.pool.size", "16");
+
+        try (ConcurrentQueryRunner runner = ConcurrentQueryRunner.fromConfig(
+                NeptuneConfig.fromProperties(properties, Map.of()))) {
+            assertEquals(mode, runner.getMode());
+            assertEquals(16, runner.getMaxConcurrency());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for opening connections in parallel at startup, against stub probes that count the
+ * connections each endpoint has open at once
+ */
+@DisplayName("Connection Warm-Up Tests")
+class ConnectionWarmUpTest {
+    private final EndpointRouter<String> router = new EndpointRouter<>("writer", "w",
+            List.of("reader-1"), List.of("r1"), null);
+    private final Map<String, AtomicInteger> open = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> peak = new ConcurrentHashMap<>();
+
+    /**
+     * A probe that holds its stub connection open until all probes for the endpoint have opened theirs
+     */
+    private void holdConnection(String client, Runnable holdUntilAllOpen) {
+        int now = open.computeIfAbsent(client, c -> new AtomicInteger()).incrementAndGet();
+        peak.computeIfAbsent(client, c -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+        try {
+            holdUntilAllOpen.run();
+        } finally {
+            open.get(client).decrementAndGet();
+        }
+    }
+
+    @Test
+    @DisplayName("Should have the configured number of connections open at once to every endpoint")
+    void shouldReachConfiguredConcurrency() throws Exception {
+        int succeeded = ConnectionWarmUp.run("test", router, new ConnectionWarmUp.Settings(6, Duration.ofSeconds(10)),
+                this::holdConnection);
+
+        assertEquals(12, succeeded);
+        assertEquals(6, peak.get("w").get());
+        assertEquals(6, peak.get("r1").get());
+        assertEquals(0, open.get("w").get());
+    }
+
+    @Test
+    @DisplayName("Should not keep the other probes waiting for one that fails")
+    void shouldReleaseProbesOnFailure() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+        int succeeded = ConnectionWarmUp.run("test", router, new ConnectionWarmUp.Settings(4, Duration.ofSeconds(10)),
+                (client, holdUntilAllOpen) -> {
+                    if (client.equals("r1") && attempts.getAndIncrement() == 0) {
+                        throw new IllegalStateException("connection refused");
+                    }
+                    holdConnection(client, holdUntilAllOpen);
+                });
+
+        assertEquals(7, succeeded);
+        assertEquals(3, peak.get("r1").get());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0,
+                "Probes should not wait for the timeout");
+    }
+
+    @Test
+    @DisplayName("Should do nothing when warm-up is disabled")
+    void shouldSkipWhenDisabled() throws Exception {
+        assertEquals(0, ConnectionWarmUp.run("test", router, new ConnectionWarmUp.Settings(0, Duration.ofSeconds(1)),
+                this::holdConnection));
+        assertTrue(peak.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionWarmUp.Settings(-1, Duration.ofSeconds(1)));
+    }
+}
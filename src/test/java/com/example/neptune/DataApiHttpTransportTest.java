@@ -0,0 +1,125 @@
+package com.example.neptune;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.document.Document;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the configurable Data API HTTP transports against a local HTTP stub
+ */
+@DisplayName("Data API HTTP Transport Tests")
+class DataApiHttpTransportTest {
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            acceptEncodings.add(String.valueOf(acceptEncoding));
+
+            byte[] body = "{\"results\":[{\"name\":\"Alice\",\"age\":30},{\"name\":\"Bob\",\"age\":25}]}"
+                    .getBytes(StandardCharsets.UTF_8);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"apache", "url-connection"})
+    @DisplayName("Should reuse one connection and decompress gzip responses")
+    void shouldReuseConnectionsAndDecompress(String transport) {
+        Properties properties = new Properties();
+        properties.setProperty("neptune.endpoint", "127.0.0.1");
+        properties.setProperty("neptune.dataapi.http.transport", transport);
+        properties.setProperty("neptune.dataapi.http.gzip", "true");
+        NeptuneConfig config = NeptuneConfig.fromProperties(properties, Map.of());
+
+        try (NeptunedataClient client = NeptuneDataApiDemo.createClient(config,
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort()),
+                AnonymousCredentialsProvider.create(), ClientOverrideConfiguration.builder().build())) {
+            for (int i = 0; i < 5; i++) {
+                List<Document> rows = client.executeOpenCypherQuery(request -> request
+                        .openCypherQuery("MATCH (p:Person) RETURN p.name as name, p.age as age")).results().asList();
+                assertEquals(2, rows.size());
+                assertEquals("Bob", rows.get(1).asMap().get("name").asString());
+            }
+        }
+
+        assertEquals(List.of("gzip", "gzip", "gzip", "gzip", "gzip"), acceptEncodings);
+        assertEquals(1, clientPorts.size(), "Requests should share one kept-alive connection");
+    }
+
+    @Test
+    @DisplayName("Should read transport settings and reject transports of the wrong kind")
+    void shouldValidateSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("neptune.dataapi.http.transport", "url-connection");
+        properties.setProperty("neptune.dataapi.http.max.connections", "8");
+        NeptuneConfig config = NeptuneConfig.fromProperties(properties,
+                Map.of("NEPTUNE_DATAAPI_ASYNC_HTTP_TRANSPORT", "crt", "NEPTUNE_DATAAPI_HTTP_SOCKET_TIMEOUT_MS", "5000"));
+
+        DataApiHttpTransport.Settings settings = DataApiHttpTransport.Settings.fromConfig(config);
+        assertEquals(DataApiHttpTransport.Transport.URL_CONNECTION, settings.transport());
+        assertEquals(DataApiHttpTransport.Transport.CRT, settings.asyncTransport());
+        assertEquals(8, settings.maxConnections());
+        assertEquals(Duration.ofSeconds(5), settings.socketTimeout());
+        assertFalse(settings.gzip());
+        assertTrue(DataApiHttpTransport.Settings.defaults().socketTimeout()
+                .compareTo(DataApiHttpTransport.NEPTUNE_QUERY_TIMEOUT) > 0);
+
+        properties.setProperty("neptune.dataapi.http.transport", "crt");
+        assertThrows(IllegalArgumentException.class, () -> DataApiHttpTransport.Settings.fromConfig(config));
+        properties.setProperty("neptune.dataapi.http.transport", "okhttp");
+        assertThrows(IllegalArgumentException.class, () -> DataApiHttpTransport.Settings.fromConfig(config));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for engine-status health checks and connection warm-up
+ */
+@DisplayName("Endpoint Health Monitor Tests")
+class EndpointHealthMonitorTest {
+
+    @Test
+    @DisplayName("Should route reads around a reader after consecutive failed health checks")
+    void shouldMarkUnhealthyReaders() {
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w", List.of("reader-1", "reader-2"),
+                List.of("r1", "r2"), null);
+        Map<String, String> statuses = new ConcurrentHashMap<>(Map.of("writer", "healthy", "reader-1", "healthy",
+                "reader-2", "healthy"));
+        Map<String, EndpointHealthMonitor.HealthCheck> checks = new LinkedHashMap<>();
+        for (String name : List.of("writer", "reader-1", "reader-2")) {
+            checks.put(name, () -> {
+                String status = statuses.get(name);
+                if (status.equals("unreachable")) {
+                    throw new IllegalStateException("Connection refused");
+                }
+                return status;
+            });
+        }
+        EndpointHealthMonitor monitor = new EndpointHealthMonitor(router, checks,
+                new EndpointHealthMonitor.Settings(Duration.ofSeconds(1), Duration.ofSeconds(1), 2));
+
+        statuses.put("reader-1", "recovery");
+        monitor.checkAll();
+        assertTrue(monitor.getHealth().get("reader-1"), "One failed check is not enough");
+        monitor.checkAll();
+        assertEquals(Map.of("writer", true, "reader-1", false, "reader-2", true), monitor.getHealth());
+        assertFalse(router.getStats().get(1).healthy());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("r2", router.withReader(EndpointRouter.Lease::client));
+        }
+
+        statuses.put("reader-2", "unreachable");
+        monitor.checkAll();
+        monitor.checkAll();
+        assertEquals("w", router.withReader(EndpointRouter.Lease::client), "Reads fall back to the writer");
+
+        statuses.put("reader-1", "healthy");
+        monitor.checkAll();
+        assertTrue(router.getStats().get(1).healthy());
+        assertEquals("r1", router.withReader(EndpointRouter.Lease::client));
+    }
+
+    @Test
+    @DisplayName("Should open the configured number of connections to each endpoint at once")
+    void shouldWarmUpConnectionsInParallel() throws InterruptedException {
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w", List.of("reader-1"), List.of("r1"), null);
+        Map<String, AtomicInteger> open = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> peak = new ConcurrentHashMap<>();
+
+        int opened = ConnectionWarmUp.run("test", router, new ConnectionWarmUp.Settings(4, Duration.ofSeconds(5)),
+                (client, holdUntilAllOpen) -> {
+                    int current = open.computeIfAbsent(client, c -> new AtomicInteger()).incrementAndGet();
+                    peak.computeIfAbsent(client, c -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+                    holdUntilAllOpen.run();
+                    open.get(client).decrementAndGet();
+                    if (client.equals("r1") && current == 1) {
+                        throw new IllegalStateException("Handshake failed");
+                    }
+                });
+
+        assertEquals(7, opened, "One failed probe is reported, not thrown");
+        assertEquals(4, peak.get("w").get(), "Connections should be held until all are open");
+        assertEquals(4, peak.get("r1").get());
+        assertEquals(0, ConnectionWarmUp.run("test", router, new ConnectionWarmUp.Settings(0, Duration.ofSeconds(1)),
+                (client, holdUntilAllOpen) -> fail("Warm-up is disabled")));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for read/write routing between the writer and read replicas
+ */
+@DisplayName("Endpoint Router Tests")
+class EndpointRouterTest {
+
+    @Test
+    @DisplayName("Should send writes to the writer and reads to the least busy reader")
+    void shouldRouteByOutstandingRequests() {
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w",
+                List.of("reader-1", "reader-2"), List.of("r1", "r2"), null);
+
+        try (EndpointRouter.Lease<String> write = router.acquireWriter();
+             EndpointRouter.Lease<String> first = router.acquireReader();
+             EndpointRouter.Lease<String> second = router.acquireReader()) {
+            assertEquals("w", write.client());
+            assertTrue(write.isWriter());
+            assertNotEquals(first.client(), second.client(), "Second read should go to the idle reader");
+
+            EndpointRouter.Lease<String> third = router.acquireReader();
+            third.close();
+            first.close();
+            try (EndpointRouter.Lease<String> fourth = router.acquireReader()) {
+                assertEquals(first.client(), fourth.client(), "Released reader is now the least busy");
+            }
+        }
+
+        List<EndpointRouter.EndpointStats> stats = router.getStats();
+        assertEquals(3, stats.size());
+        assertEquals(1, stats.get(0).requests());
+        assertEquals(4, stats.get(1).requests() + stats.get(2).requests());
+        stats.forEach(endpoint -> assertEquals(0, endpoint.outstanding()));
+    }
+
+    @Test
+    @DisplayName("Should read from the writer when no readers are configured")
+    void shouldFallBackToWriter() {
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w", List.of(), List.of(), null);
+
+        try (EndpointRouter.Lease<String> read = router.acquireReader()) {
+            assertEquals("w", read.client());
+        }
+        assertFalse(router.hasReaders());
+    }
+
+    @Test
+    @DisplayName("Should keep reads on the writer within the read-your-writes window")
+    void shouldReadYourWrites() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w",
+                List.of("reader-1"), List.of("r1"), Duration.ofMillis(500), clock);
+
+        assertEquals("r1", readClient(router));
+
+        router.recordWrite();
+        clock.advance(Duration.ofMillis(499));
+        assertEquals("w", readClient(router));
+
+        clock.advance(Duration.ofMillis(1));
+        assertEquals("r1", readClient(router));
+    }
+
+    @Test
+    @DisplayName("Should read reader endpoints and read-your-writes settings from config")
+    void shouldReadReaderConfig() {
+        Properties properties = new Properties();
+        properties.setProperty("neptune.endpoint", "writer.example.com");
+        properties.setProperty("neptune.reader.endpoints", "replica-1.example.com, replica-2.example.com:8183,");
+        NeptuneConfig config = NeptuneConfig.fromProperties(properties, Map.of("NEPTUNE_READ_YOUR_WRITES", "true"));
+
+        assertEquals(List.of("replica-1.example.com:8182", "replica-2.example.com:8183"), config.getReaderEndpoints());
+        assertEquals(List.of("bolt://replica-1.example.com:8182", "bolt://replica-2.example.com:8183"),
+                config.getReaderBoltUris());
+        assertEquals(EndpointRouter.DEFAULT_READ_YOUR_WRITES_WINDOW, config.getReadYourWritesWindow());
+        assertNull(NeptuneConfig.fromProperties(properties, Map.of()).getReadYourWritesWindow());
+    }
+
+    @Test
+    @DisplayName("Should not count write contention against the writer's circuit breaker")
+    void shouldIgnoreContentionForCircuitBreaker() {
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w", List.of(), List.of(), null,
+                new CircuitBreaker.Settings(0.5, 10, 5, Duration.ofSeconds(5), 2), null,
+                new MutableClock(Instant.parse("2024-01-01T00:00:00Z")));
+        NeptuneHttpException conflict = new NeptuneHttpException(500, "ConcurrentModificationException", "conflict");
+
+        for (int i = 0; i < 20; i++) {
+            try (EndpointRouter.Lease<String> lease = router.acquireWriter()) {
+                lease.recordFailure(conflict);
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, router.getStats().get(0).circuitState());
+        assertEquals("w", router.withWriter(EndpointRouter.Lease::client));
+        assertTrue(NeptuneErrors.isRetryable(conflict));
+        assertFalse(NeptuneErrors.isOverload(conflict));
+        assertFalse(NeptuneErrors.isOverload(new NeptuneHttpException(400, "ReadOnlyViolationException", "ro")));
+        assertTrue(NeptuneErrors.isOverload(new NeptuneHttpException(500, "ThrottlingException", "busy")));
+    }
+
+    private static String readClient(EndpointRouter<String> router) {
+        try (EndpointRouter.Lease<String> lease = router.acquireReader()) {
+            return lease.client();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.neptune;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the partitioned, resumable graph export, against an in-memory graph
+ */
+@DisplayName("Graph Exporter Tests")
+class GraphExporterTest {
+    private static final GraphExporter.Settings SETTINGS = new GraphExporter.Settings(3, 10, 4, List.of(), List.of());
+
+    @Test
+    @DisplayName("Should split labels into ID ranges and export rows the bulk loader can read")
+    void shouldExportPartitions(@TempDir Path dir) throws Exception {
+        InMemoryGraph graph = new InMemoryGraph();
+
+        ExportReport report = new GraphExporter(graph, SETTINGS).export(dir);
+
+        // Company: 4 nodes; Person: 25 + 1 shared with Company; KNOWS: 12 edges
+        assertEquals(6, report.partitions());
+        assertEquals(0, report.failedPartitions());
+        assertEquals(29, report.nodes(), "A node with two labels is exported once");
+        assertEquals(12, report.edges());
+
+        List<BulkRecord> records = readAll(dir);
+        assertEquals(41, records.size());
+        Set<String> ids = new HashSet<>();
+        records.forEach(record -> assertTrue(ids.add(record.id()), "Duplicate " + record.id()));
+        BulkRecord shared = records.stream().filter(record -> record.id().equals("both")).findFirst().orElseThrow();
+        assertEquals("Company;Person", shared.label());
+        assertEquals(Map.of("name", "both"), shared.properties());
+        BulkRecord edge = records.stream().filter(record -> record.kind() == BulkRecord.Kind.EDGE).findFirst().orElseThrow();
+        assertEquals("KNOWS", edge.label());
+        assertNotNull(edge.from());
+        assertTrue(graph.queries.stream().noneMatch(query -> query.contains("SKIP $skip") && query.contains("props")),
+                "Pages use keyset pagination, not SKIP");
+    }
+
+    @Test
+    @DisplayName("Should resume from the saved plan and skip completed partitions")
+    void shouldResumeAfterFailure(@TempDir Path dir) throws Exception {
+        InMemoryGraph graph = new InMemoryGraph();
+        graph.failEdges = true;
+
+        ExportReport first = new GraphExporter(graph, SETTINGS).export(dir);
+        assertEquals(2, first.failedPartitions());
+        assertEquals(29, first.nodes());
+        assertEquals(0, first.edges());
+        assertTrue(Files.exists(dir.resolve(GraphExporter.PLAN_FILE)));
+
+        graph.failEdges = false;
+        graph.queries.clear();
+        ExportReport second = new GraphExporter(graph, SETTINGS).export(dir);
+        assertEquals(0, second.failedPartitions());
+        assertEquals(4, second.skippedPartitions());
+        assertEquals(0, second.nodes());
+        assertEquals(12, second.edges());
+        assertTrue(graph.queries.stream().allMatch(query -> query.contains("-[r:`KNOWS`]->")),
+                "Only the failed partitions should be read again: " + graph.queries);
+        assertEquals(41, readAll(dir).size());
+    }
+
+    @Test
+    @DisplayName("Should export a node with several labels under a label that is in the export list")
+    void shouldExportListedLabels(@TempDir Path dir) throws Exception {
+        InMemoryGraph graph = new InMemoryGraph();
+        GraphExporter.Settings personsOnly = new GraphExporter.Settings(3, 10, 4, List.of("Person"), List.of("KNOWS"));
+
+        ExportReport report = new GraphExporter(graph, personsOnly).export(dir);
+
+        assertEquals(0, report.failedPartitions());
+        assertEquals(26, report.nodes(), "The Company and Person node is exported with the Person nodes");
+        List<BulkRecord> records = readAll(dir);
+        BulkRecord shared = records.stream().filter(record -> record.id().equals("both")).findFirst().orElseThrow();
+        assertEquals("Company;Person", shared.label());
+        assertTrue(records.stream().noneMatch(record -> record.id().startsWith("c")), "Company nodes are not exported");
+        assertTrue(graph.queries.stream().noneMatch(query -> query.contains("UNWIND labels(n)")));
+    }
+
+    private static List<BulkRecord> readAll(Path dir) throws IOException {
+        List<BulkRecord> records = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".jsonl.gz")).sorted().toList()) {
+                try (BulkRecordReader reader = BulkRecordReader.open(file)) {
+                    reader.forEachRemaining(records::add);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Answers the exporter's queries from sorted maps of nodes and edges
+     */
+    private static final class InMemoryGraph implements GraphExporter.Source {
+        private static final Pattern LABEL = Pattern.compile(":`([^`]+)`");
+
+        private final Map<String, List<String>> nodeLabels = new HashMap<>();
+        private final Map<String, String[]> edges = new HashMap<>();
+        private final List<String> queries = new CopyOnWriteArrayList<>();
+        private volatile boolean failEdges;
+
+        InMemoryGraph() {
+            for (int i = 0; i < 25; i++) {
+                nodeLabels.put(String.format("p%02d", i), List.of("Person"));
+            }
+            for (int i = 0; i < 3; i++) {
+                nodeLabels.put("c" + i, List.of("Company"));
+            }
+            nodeLabels.put("both", List.of("Person", "Company"));
+            for (int i = 0; i < 12; i++) {
+                edges.put(String.format("e%02d", i), new String[]{String.format("p%02d", i), String.format("p%02d", i + 1)});
+            }
+        }
+
+        @Override
+        public List<JsonObject> query(String query, Map<String, Object> parameters) {
+            queries.add(query);
+            if (query.contains("UNWIND labels(n)")) {
+                return labelRows(Set.of("Person", "Company"));
+            }
+            if (query.contains("DISTINCT type(r)")) {
+                return labelRows(Set.of("KNOWS"));
+            }
+            boolean edgeQuery = query.contains("-[r:");
+            if (edgeQuery && failEdges && query.contains("props")) {
+                throw new IllegalStateException("Injected failure");
+            }
+            Matcher matcher = LABEL.matcher(query);
+            assertTrue(matcher.find(), query);
+            TreeSet<String> ids = new TreeSet<>();
+            if (edgeQuery) {
+                ids.addAll(edges.keySet());
+            } else {
+                nodeLabels.forEach((id, labels) -> {
+                    if (labels.contains(matcher.group(1))) {
+                        ids.add(id);
+                    }
+                });
+            }
+
+            if (query.contains("count(*)")) {
+                JsonObject row = new JsonObject();
+                row.addProperty("count", ids.size());
+                return List.of(row);
+            }
+            if (query.contains("SKIP $skip")) {
+                JsonObject row = new JsonObject();
+                row.addProperty("id", new ArrayList<>(ids).get(((Number) parameters.get("skip")).intValue()));
+                return List.of(row);
+            }
+
+            List<JsonObject> rows = new ArrayList<>();
+            for (String id : ids) {
+                if (parameters.containsKey("after") && id.compareTo((String) parameters.get("after")) <= 0
+                        || parameters.containsKey("from") && id.compareTo((String) parameters.get("from")) < 0
+                        || parameters.containsKey("to") && id.compareTo((String) parameters.get("to")) >= 0) {
+                    continue;
+                }
+                if (rows.size() == (Integer) parameters.get("limit")) {
+                    break;
+                }
+                JsonObject row = new JsonObject();
+                row.addProperty("id", id);
+                JsonObject props = new JsonObject();
+                if (edgeQuery) {
+                    row.addProperty("type", "KNOWS");
+                    row.addProperty("from", edges.get(id)[0]);
+                    row.addProperty("to", edges.get(id)[1]);
+                    props.addProperty("since", 2020);
+                } else {
+                    JsonArray labels = new JsonArray();
+                    nodeLabels.get(id).forEach(labels::add);
+                    row.add("labels", labels);
+                    props.addProperty("name", id);
+                }
+                row.add("props", props);
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        private static List<JsonObject> labelRows(Set<String> labels) {
+            List<JsonObject> rows = new ArrayList<>();
+            for (String label : labels) {
+                JsonObject row = new JsonObject();
+                row.addProperty("label", label);
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+}
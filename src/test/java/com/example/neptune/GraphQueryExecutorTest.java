@@ -0,0 +1,157 @@
+package com.example.neptune;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.document.Document;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the openCypher, Gremlin and SPARQL query executors
+ */
+@DisplayName("Graph Query Executor Tests")
+class GraphQueryExecutorTest {
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+    private final AtomicReference<String> responseBody = new AtomicReference<>();
+    private HttpServer server;
+    private URI endpoint;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody.set(exchange.getRequestURI().getPath() + " "
+                        + URLDecoder.decode(new String(in.readAllBytes(), StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+            }
+            byte[] body = responseBody.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should stream openCypher HTTP rows as maps")
+    void shouldStreamOpenCypherRowsAsMaps() {
+        responseBody.set("{\"results\":[{\"name\":\"Alice\",\"age\":30,\"tags\":[\"a\"]},{\"name\":\"Bob\",\"age\":null}]}");
+
+        try (GraphQueryExecutor queries = new NeptuneOpenCypherHttpClient(endpoint, "us-east-1", null,
+                new QueryTemplateCache())) {
+            List<Map<String, Object>> rows = queries.query("MATCH (p:Person {name: $name}) RETURN p.name AS name",
+                    Map.of("name", "Alice"));
+
+            assertEquals(GraphQueryExecutor.Language.OPEN_CYPHER, queries.language());
+            assertEquals(2, rows.size());
+            assertEquals("Alice", rows.get(0).get("name"));
+            assertEquals(30.0, ((Number) rows.get(0).get("age")).doubleValue());
+            assertEquals(List.of("a"), rows.get(0).get("tags"));
+            assertTrue(rows.get(1).containsKey("age"));
+            assertNull(rows.get(1).get("age"));
+            assertTrue(requestBody.get().startsWith("/openCypher "));
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode SPARQL bindings by datatype")
+    void shouldDecodeSparqlBindings() {
+        responseBody.set("{\"head\":{\"vars\":[\"s\",\"name\",\"age\",\"score\",\"active\"]},"
+                + "\"results\":{\"bindings\":["
+                + "{\"s\":{\"type\":\"uri\",\"value\":\"http://example.com/alice\"},"
+                + "\"name\":{\"type\":\"literal\",\"value\":\"Alice\"},"
+                + "\"age\":{\"type\":\"literal\",\"datatype\":\"http://www.w3.org/2001/XMLSchema#integer\",\"value\":\"30\"},"
+                + "\"score\":{\"type\":\"literal\",\"datatype\":\"http://www.w3.org/2001/XMLSchema#double\",\"value\":\"1.5\"},"
+                + "\"active\":{\"type\":\"literal\",\"datatype\":\"http://www.w3.org/2001/XMLSchema#boolean\",\"value\":\"true\"}},"
+                + "{\"name\":{\"type\":\"literal\",\"value\":\"Bob\"}}]}}");
+        String query = "SELECT ?s ?name ?age ?score ?active WHERE { ?s <http://example.com/name> ?name }";
+
+        try (GraphQueryExecutor queries = new NeptuneSparqlHttpClient(endpoint, "us-east-1", null)) {
+            List<Map<String, Object>> rows = queries.query(query, Map.of());
+
+            assertEquals(2, rows.size());
+            assertEquals(Map.of("s", "http://example.com/alice", "name", "Alice", "age", 30L,
+                    "score", 1.5, "active", true), rows.get(0));
+            assertEquals(Map.of("name", "Bob"), rows.get(1));
+            assertEquals("/sparql query=" + query, requestBody.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer a SPARQL ASK query with one row")
+    void shouldAnswerSparqlAsk() {
+        responseBody.set("{\"head\":{},\"boolean\":true}");
+
+        try (GraphQueryExecutor queries = new NeptuneSparqlHttpClient(endpoint, "us-east-1", null)) {
+            assertEquals(List.of(Map.of("boolean", true)), queries.query("ASK { ?s ?p ?o }", Map.of()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject parameters for Gremlin and SPARQL")
+    void shouldRejectParameters() {
+        try (GraphQueryExecutor queries = new NeptuneSparqlHttpClient(endpoint, "us-east-1", null)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> queries.query("SELECT * WHERE { ?s ?p ?o }", Map.of("limit", 1)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> GraphQueryExecutor.requireNoParameters(
+                GraphQueryExecutor.Language.GREMLIN, Map.of("name", "Alice")));
+        assertDoesNotThrow(() -> GraphQueryExecutor.requireNoParameters(GraphQueryExecutor.Language.GREMLIN, null));
+    }
+
+    @Test
+    @DisplayName("Should convert untyped and typed GraphSON results to rows")
+    void shouldConvertGremlinResults() {
+        Document untyped = Document.mapBuilder()
+                .putList("data", List.of(
+                        Document.mapBuilder().putString("name", "Alice").putNumber("age", 30).build(),
+                        Document.fromString("Bob")))
+                .build();
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        assertEquals(2, GremlinQueryExecutor.forEachResult(untyped, rows::add));
+        assertEquals(Map.of("name", "Alice", "age", 30L), rows.get(0));
+        assertEquals(Map.of("value", "Bob"), rows.get(1));
+
+        Document typed = Document.mapBuilder()
+                .putString("@type", "g:Map")
+                .putList("@value", List.of(
+                        Document.fromString("name"), Document.fromString("Carol"),
+                        Document.fromString("score"), Document.mapBuilder()
+                                .putString("@type", "g:Double").putNumber("@value", 2.5).build()))
+                .build();
+        assertEquals(Map.of("name", "Carol", "score", 2.5), GremlinQueryExecutor.toJava(typed));
+        assertEquals(0, GremlinQueryExecutor.forEachResult(null, rows::add));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown executor kinds")
+    void shouldRejectUnknownKinds() {
+        NeptuneConfig config = new NeptuneConfig("localhost", "8182", "us-east-1", false, null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> GraphQueryExecutor.fromConfig("cypher", config));
+    }
+}
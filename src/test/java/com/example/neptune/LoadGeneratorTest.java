@@ -0,0 +1,87 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the load generator, using simulated query targets
+ */
+@DisplayName("Load Generator Tests")
+class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Should correct for coordinated omission when a stall delays the schedule")
+    void shouldCorrectForCoordinatedOmission() throws Exception {
+        // One query in flight at 200 ops/s: a 250ms stall holds back the ~50 queries scheduled behind it
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(
+                1.0, 200, 1, Duration.ofSeconds(1), Duration.ZERO, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        LoadReport report = new LoadGenerator(settings).run("stub", (type, query, parameters) ->
+                Thread.sleep(calls.incrementAndGet() == 50 ? 250 : 1));
+
+        LoadReport.OperationStats reads = report.operations().get(LoadGenerator.OperationType.READ);
+        assertEquals(200, reads.count());
+        assertEquals(0, reads.errors());
+        assertEquals(0, report.operations().get(LoadGenerator.OperationType.WRITE).count());
+        assertTrue(reads.serviceTime().getValueAtPercentile(90) < 100_000_000L,
+                "Service time p90 should only reflect the query itself");
+        assertTrue(reads.responseTime().getValueAtPercentile(90) >= 100_000_000L,
+                "Corrected p90 should include the time queries waited behind the stall");
+        assertTrue(reads.responseTime().getMaxValue() >= 250_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should mix reads and writes and count errors in a closed loop")
+    void shouldCountErrorsInClosedLoop() throws Exception {
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(
+                0.5, 0, 4, Duration.ofMillis(300), Duration.ofMillis(100), 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        LoadReport report = new LoadGenerator(settings).run("stub", (type, query, parameters) -> {
+            assertEquals(type == LoadGenerator.OperationType.READ ? LoadGenerator.READ_QUERY
+                    : LoadGenerator.WRITE_QUERY, query);
+            assertTrue((Integer) parameters.get("id") < 100);
+            Thread.sleep(1);
+            if (calls.incrementAndGet() % 10 == 0) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertTrue(report.totalCount() > 0);
+        assertTrue(report.totalErrors() > 0);
+        report.operations().forEach((type, stats) -> {
+            assertTrue(stats.count() > 0, type + " should have run");
+            assertEquals(stats.count() - stats.errors(), stats.serviceTime().getTotalCount());
+            assertTrue(stats.responseTime().getTotalCount() >= stats.serviceTime().getTotalCount());
+        });
+        assertTrue(report.format().contains("p99.9"));
+    }
+
+    @Test
+    @DisplayName("Should read and validate load settings")
+    void shouldReadSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("neptune.load.read.ratio", "0.75");
+        properties.setProperty("neptune.load.rate", "250");
+        NeptuneConfig config = NeptuneConfig.fromProperties(properties, Map.of("NEPTUNE_LOAD_CONCURRENCY", "8"));
+
+        LoadGenerator.Settings settings = LoadGenerator.Settings.fromConfig(config);
+
+        assertEquals(0.75, settings.readRatio());
+        assertTrue(settings.isOpenLoop());
+        assertEquals(8, settings.concurrency());
+        assertEquals(Duration.ofSeconds(60), settings.duration());
+
+        properties.setProperty("neptune.load.read.ratio", "1.5");
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Settings.fromConfig(
+                NeptuneConfig.fromProperties(properties, Map.of())));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.neptune;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-endpoint circuit breaking and adaptive concurrency limits, against a local
+ * stub server that injects latency and failures
+ */
+@DisplayName("Load Shedding Tests")
+class LoadSheddingTest {
+    private static final CircuitBreaker.Settings BREAKER =
+            new CircuitBreaker.Settings(0.5, 10, 5, Duration.ofSeconds(5), 2);
+    private static final AdaptiveConcurrencyLimiter.Settings LIMITER =
+            new AdaptiveConcurrencyLimiter.Settings(8, 1, 50, Duration.ofMillis(50), 0.5);
+
+    private final AtomicLong latencyMillis = new AtomicLong();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/openCypher", exchange -> {
+            requests.incrementAndGet();
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+                Thread.sleep(latencyMillis.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean fail = failing.get();
+            byte[] response = (fail
+                    ? "{\"code\":\"InternalFailureException\",\"detailedMessage\":\"overloaded\"}"
+                    : "{\"results\": [{\"one\": 1}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(fail ? 500 : 200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should cut the concurrency limit under latency and open the circuit on failures")
+    void shouldShedLoadFromSlowAndFailingEndpoint() throws Exception {
+        try (NeptuneOpenCypherHttpClient client = new NeptuneOpenCypherHttpClient(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort()), "us-east-1", null,
+                new QueryTemplateCache())) {
+            EndpointRouter<NeptuneOpenCypherHttpClient> router = new EndpointRouter<>("stub", client,
+                    List.of(), List.of(), null, BREAKER, LIMITER, clock);
+
+            // Slow responses: only the limit gets through at once, and each slow answer halves it
+            latencyMillis.set(100);
+            AtomicInteger rejected = new AtomicInteger();
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 16; i++) {
+                    callers.execute(() -> {
+                        try {
+                            query(router);
+                        } catch (EndpointUnavailableException e) {
+                            rejected.incrementAndGet();
+                        }
+                    });
+                }
+            }
+            EndpointRouter.EndpointStats slow = router.getStats().get(0);
+            assertEquals(8, requests.get());
+            assertEquals(8, rejected.get());
+            assertEquals(8, slow.rejected());
+            assertEquals(1, slow.concurrencyLimit());
+            assertEquals(CircuitBreaker.State.CLOSED, slow.circuitState(), "Slow successes are not failures");
+
+            // Failing responses open the circuit, after which requests fail without reaching the server
+            latencyMillis.set(0);
+            failing.set(true);
+            for (int i = 0; i < 20 && router.getStats().get(0).circuitState() == CircuitBreaker.State.CLOSED; i++) {
+                assertThrows(NeptuneHttpException.class, () -> query(router));
+            }
+            assertEquals(CircuitBreaker.State.OPEN, router.getStats().get(0).circuitState());
+            int sent = requests.get();
+            assertThrows(EndpointUnavailableException.class, () -> query(router));
+            assertEquals(sent, requests.get());
+
+            // Once the open period passes, successful probes close the circuit again
+            failing.set(false);
+            clock.advance(BREAKER.openDuration());
+            query(router);
+            assertEquals(CircuitBreaker.State.HALF_OPEN, router.getStats().get(0).circuitState());
+            query(router);
+            EndpointRouter.EndpointStats recovered = router.getStats().get(0);
+            assertEquals(CircuitBreaker.State.CLOSED, recovered.circuitState());
+            assertEquals(1, recovered.circuitOpened());
+        }
+    }
+
+    @Test
+    @DisplayName("Should route reads around a reader whose circuit is open")
+    void shouldSkipUnavailableReaders() {
+        EndpointRouter<String> router = new EndpointRouter<>("writer", "w", List.of("reader-1", "reader-2"),
+                List.of("r1", "r2"), null, BREAKER, null, clock);
+        NeptuneHttpException overload = new NeptuneHttpException(500, "MemoryLimitExceededException", "busy");
+        NeptuneHttpException badQuery = new NeptuneHttpException(400, "MalformedQueryException", "syntax");
+
+        // Bad queries do not count against an endpoint
+        for (int i = 0; i < 10; i++) {
+            assertThrows(NeptuneHttpException.class, () -> router.withReader(lease -> {
+                throw badQuery;
+            }));
+        }
+        assertTrue(router.getStats().stream().allMatch(stats -> stats.circuitState() == CircuitBreaker.State.CLOSED));
+
+        for (int i = 0; i < 10; i++) {
+            try (EndpointRouter.Lease<String> lease = router.acquireReader()) {
+                if (lease.client().equals("r1")) {
+                    lease.recordFailure(overload);
+                } else {
+                    lease.recordSuccess();
+                }
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, router.getStats().get(1).circuitState());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("r2", router.withReader(EndpointRouter.Lease::client));
+        }
+    }
+
+    private static List<Map<String, Object>> query(EndpointRouter<NeptuneOpenCypherHttpClient> router) {
+        return router.withWriter(lease -> lease.client().queryList("RETURN 1 as one", Map.of(),
+                row -> Map.of("one", row.getLong("one", 0))));
+    }
+}
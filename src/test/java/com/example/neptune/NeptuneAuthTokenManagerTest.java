@@ -0,0 +1,62 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.AuthToken;
+import org.neo4j.driver.exceptions.AuthenticationException;
+import org.neo4j.driver.exceptions.SecurityException;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the rotating Bolt auth token manager
+ */
+@DisplayName("Neptune Auth Token Manager Tests")
+class NeptuneAuthTokenManagerTest {
+
+    private NeptuneAuthTokenManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new NeptuneAuthTokenManager(new NeptuneAuthToken("us-east-1", "https://localhost:8182",
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDEXAMPLE", "secret"))));
+    }
+
+    @Test
+    @DisplayName("Should hand out the cached token while it is valid")
+    void shouldHandOutCachedToken() {
+        assertSame(token(), token());
+    }
+
+    @Test
+    @DisplayName("Should re-sign and retry once when a token is rejected")
+    void shouldRetryOnceWithFreshToken() {
+        AuthToken rejected = token();
+        AuthenticationException unauthorized =
+                new AuthenticationException("Neo.ClientError.Security.Unauthorized", "expired signature");
+
+        assertTrue(manager.handleSecurityException(rejected, unauthorized));
+        AuthToken fresh = token();
+        assertNotSame(rejected, fresh);
+
+        assertFalse(manager.handleSecurityException(fresh, unauthorized),
+                "A freshly signed token that is rejected should not be retried again");
+    }
+
+    @Test
+    @DisplayName("Should not retry unrelated security errors")
+    void shouldNotRetryOtherSecurityErrors() {
+        AuthToken token = token();
+
+        assertFalse(manager.handleSecurityException(token,
+                new SecurityException("Neo.ClientError.Security.Forbidden", "forbidden")));
+        assertSame(token, token());
+    }
+
+    private AuthToken token() {
+        return manager.getToken().toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.AuthToken;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the signature cache in NeptuneAuthToken. Signing is local, so no
+ * Neptune endpoint is needed.
+ */
+@DisplayName("Neptune Auth Token Tests")
+class NeptuneAuthTokenTest {
+
+    private static final String URL = "https://localhost:8182";
+    private static final AwsCredentialsProvider CREDENTIALS =
+            StaticCredentialsProvider.create(AwsBasicCredentials.create("AKIDEXAMPLE", "secret"));
+
+    private MutableClock clock;
+    private List<Runnable> pendingRefreshes;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        pendingRefreshes = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Should reuse a signed token until the refresh point")
+    void shouldReuseSignedToken() {
+        NeptuneAuthToken token = newToken(CREDENTIALS, Duration.ofMinutes(4));
+
+        AuthToken first = token.toAuthToken();
+        clock.advance(Duration.ofMinutes(1));
+        AuthToken second = token.toAuthToken();
+
+        assertSame(first, second);
+        assertEquals(new NeptuneAuthToken.CacheStats(1, 1, 0), token.getCacheStats());
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refresh in the background once past the refresh point")
+    void shouldRefreshInBackground() {
+        NeptuneAuthToken token = newToken(CREDENTIALS, Duration.ofMinutes(4));
+
+        AuthToken first = token.toAuthToken();
+        clock.advance(Duration.ofMinutes(3));
+        assertSame(first, token.toAuthToken());
+        assertSame(first, token.toAuthToken());
+        assertEquals(1, pendingRefreshes.size(), "Only one refresh should be scheduled");
+
+        pendingRefreshes.remove(0).run();
+        AuthToken refreshed = token.toAuthToken();
+
+        assertNotSame(first, refreshed);
+        assertEquals(new NeptuneAuthToken.CacheStats(3, 1, 1), token.getCacheStats());
+    }
+
+    @Test
+    @DisplayName("Should re-sign synchronously after the token expires")
+    void shouldResignAfterExpiry() {
+        NeptuneAuthToken token = newToken(CREDENTIALS, Duration.ofMinutes(4));
+
+        AuthToken first = token.toAuthToken();
+        clock.advance(Duration.ofMinutes(5));
+        AuthToken second = token.toAuthToken();
+
+        assertNotSame(first, second);
+        assertEquals(new NeptuneAuthToken.CacheStats(0, 2, 0), token.getCacheStats());
+    }
+
+    @Test
+    @DisplayName("Should not outlive the temporary credentials it was signed with")
+    void shouldExpireWithTemporaryCredentials() {
+        AwsCredentialsProvider temporary = StaticCredentialsProvider.create(AwsSessionCredentials.builder()
+                .accessKeyId("AKIDEXAMPLE")
+                .secretAccessKey("secret")
+                .sessionToken("token")
+                .expirationTime(clock.instant().plus(Duration.ofMinutes(1)))
+                .build());
+        NeptuneAuthToken token = newToken(temporary, Duration.ofMinutes(4));
+
+        AuthToken first = token.toAuthToken();
+        clock.advance(Duration.ofSeconds(61));
+
+        assertNotSame(first, token.toAuthToken());
+        assertEquals(2, token.getCacheStats().misses());
+    }
+
+    @Test
+    @DisplayName("Should sign on every call when the TTL is zero")
+    void shouldSignEveryCallWithZeroTtl() {
+        NeptuneAuthToken token = newToken(CREDENTIALS, Duration.ZERO);
+
+        assertNotSame(token.toAuthToken(), token.toAuthToken());
+        assertEquals(new NeptuneAuthToken.CacheStats(0, 2, 0), token.getCacheStats());
+    }
+
+    @Test
+    @DisplayName("Should reject a negative TTL")
+    void shouldRejectNegativeTtl() {
+        assertThrows(IllegalArgumentException.class,
+                () -> newToken(CREDENTIALS, Duration.ofSeconds(-1)));
+    }
+
+    private NeptuneAuthToken newToken(AwsCredentialsProvider credentials, Duration ttl) {
+        return new NeptuneAuthToken("us-east-1", URL, credentials, ttl, clock, pendingRefreshes::add);
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.neptune;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.neptunedata.NeptunedataClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for writing openCypher bulk load CSVs and loading them through a local stand-in
+ * for S3 and the Neptune loader endpoint
+ */
+@DisplayName("Neptune Bulk Loader Tests")
+class NeptuneBulkLoaderTest {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final List<JsonObject> jobRequests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger statusPolls = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/staging", exchange -> {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            if (contentSha != null && contentSha.startsWith("STREAMING-")) {
+                body = decodeChunked(body);
+            }
+            objects.put(exchange.getRequestURI().getPath(), body);
+            exchange.getResponseHeaders().add("ETag", "\"" + md5(body) + "\"");
+            respond(exchange, 200, "");
+        });
+        server.createContext("/loader", exchange -> {
+            if (exchange.getRequestMethod().equals("POST")) {
+                try (InputStream in = exchange.getRequestBody()) {
+                    jobRequests.add(JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                            .getAsJsonObject());
+                }
+                respond(exchange, 200, "{\"status\":\"200 OK\",\"payload\":{\"loadId\":\"job-" + jobRequests.size() + "\"}}");
+            } else {
+                String status = statusPolls.incrementAndGet() < 3 ? "LOAD_IN_PROGRESS" : "LOAD_COMPLETED";
+                respond(exchange, 200, "{\"status\":\"200 OK\",\"payload\":{\"feedCount\":[],\"overallStatus\":{" +
+                        "\"fullUri\":\"s3://staging/load\",\"runNumber\":1,\"retryNumber\":0,\"status\":\"" + status +
+                        "\",\"totalTimeSpent\":2,\"startTime\":1700000000,\"totalRecords\":5,\"totalDuplicates\":0," +
+                        "\"parsingErrors\":0,\"datatypeMismatchErrors\":0,\"insertErrors\":0}}}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should write typed, sharded openCypher CSVs")
+    void shouldWriteTypedShards(@TempDir Path dir) throws Exception {
+        List<BulkRecord> records = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("name", "Person, " + i);
+            properties.put("score", i % 2 == 0 ? (Object) (long) i : (Object) (i + 0.5));
+            properties.put("tags", List.of("a", "b;c"));
+            if (i == 0) {
+                properties.put("born", LocalDate.of(1990, 1, 2));
+                properties.put("active", true);
+            }
+            records.add(BulkRecord.node("p" + i, "Person", properties));
+        }
+        records.add(BulkRecord.edge(null, "KNOWS", "p0", "p1", Map.of("since", 2020L)));
+
+        List<BulkLoadCsvWriter.Shard> shards = new BulkLoadCsvWriter(400, 2, true).write(records.iterator(), dir);
+
+        List<BulkLoadCsvWriter.Shard> nodeShards = shards.stream()
+                .filter(shard -> shard.kind() == BulkRecord.Kind.NODE).toList();
+        assertTrue(nodeShards.size() > 1, "Nodes should be split into several shards");
+        assertEquals(40, nodeShards.stream().mapToLong(BulkLoadCsvWriter.Shard::records).sum());
+
+        List<String> first = readLines(nodeShards.get(0).file());
+        assertEquals(List.of(":ID", ":LABEL", "name:String", "score:Double", "tags:String[]", "born:DateTime",
+                "active:Bool"), List.of(first.get(0).split(",")).subList(0, 7));
+        assertEquals("p0,Person,\"Person, 0\",0,a;b\\;c,1990-01-02,true", first.get(1));
+        assertEquals("p1,Person,\"Person, 1\",1.5,a;b\\;c,,", first.get(2));
+
+        BulkLoadCsvWriter.Shard edgeShard = shards.stream()
+                .filter(shard -> shard.kind() == BulkRecord.Kind.EDGE).findFirst().orElseThrow();
+        assertEquals(dir.resolve("edges").resolve("edges-KNOWS-00000.csv.gz"), edgeShard.file());
+        assertEquals(List.of(":ID,:START_ID,:END_ID,:TYPE,since:Long", "p0-KNOWS-p1,p0,p1,KNOWS,2020"),
+                readLines(edgeShard.file()));
+    }
+
+    @Test
+    @DisplayName("Should stage files and load nodes before edges")
+    void shouldStageAndLoad(@TempDir Path dir) throws Exception {
+        List<BulkRecord> records = List.of(
+                BulkRecord.node("a", "Person", Map.of("name", "Alice")),
+                BulkRecord.node("b", "Person", Map.of("name", "Bob")),
+                BulkRecord.edge("e1", "KNOWS", "a", "b", Map.of()));
+        List<BulkLoadCsvWriter.Shard> shards = new BulkLoadCsvWriter(1 << 20, 2, true).write(records.iterator(), dir);
+
+        List<NeptuneBulkLoader.JobStatus> statuses;
+        try (NeptuneBulkLoader loader = loader()) {
+            statuses = loader.load(shards);
+        }
+
+        assertEquals(2, jobRequests.size());
+        JsonObject nodesJob = jobRequests.get(0);
+        String nodesSource = nodesJob.get("source").getAsString();
+        assertTrue(nodesSource.matches("s3://staging/load/\\d{8}T\\d{6}Z-[0-9a-f]{8}/nodes/"), nodesSource);
+        assertEquals("opencypher", nodesJob.get("format").getAsString());
+        assertFalse(nodesJob.has("dependencies"));
+        JsonObject edgesJob = jobRequests.get(1);
+        assertEquals(nodesSource.replace("/nodes/", "/edges/"), edgesJob.get("source").getAsString());
+
+        assertEquals(2, objects.size());
+        assertArrayEquals(Files.readAllBytes(shards.get(0).file()),
+                objects.get(path(nodesSource) + "nodes-Person-00000.csv.gz"));
+        assertArrayEquals(Files.readAllBytes(shards.get(1).file()),
+                objects.get(path(edgesJob.get("source").getAsString()) + "edges-KNOWS-00000.csv.gz"));
+        assertEquals("job-1", edgesJob.getAsJsonArray("dependencies").get(0).getAsString());
+
+        assertEquals(List.of("job-1", "job-2"), statuses.stream().map(NeptuneBulkLoader.JobStatus::loadId).toList());
+        assertTrue(statuses.stream().allMatch(NeptuneBulkLoader.JobStatus::isCompleted));
+        assertEquals(5, statuses.get(0).totalRecords());
+        assertTrue(statusPolls.get() >= 3, "The first job should be polled until it completes");
+    }
+
+    @Test
+    @DisplayName("Should not load files left over from an earlier run with more shards")
+    void shouldStageEachRunSeparately(@TempDir Path dir) throws Exception {
+        List<BulkLoadCsvWriter.Shard> first = new BulkLoadCsvWriter(1 << 20, 2, true).write(List.of(
+                BulkRecord.node("a", "Person", Map.of("name", "Alice")),
+                BulkRecord.node("c", "Company", Map.of("name", "Acme"))).iterator(), dir.resolve("first"));
+        List<BulkLoadCsvWriter.Shard> second = new BulkLoadCsvWriter(1 << 20, 2, true).write(List.of(
+                BulkRecord.node("a", "Person", Map.of("name", "Alice"))).iterator(), dir.resolve("second"));
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+
+        try (NeptuneBulkLoader loader = loader()) {
+            loader.load(first);
+            loader.load(second);
+        }
+
+        assertEquals(2, jobRequests.size());
+        String firstSource = jobRequests.get(0).get("source").getAsString();
+        String secondSource = jobRequests.get(1).get("source").getAsString();
+        assertNotEquals(firstSource, secondSource);
+        assertFalse(secondSource.startsWith(firstSource) || firstSource.startsWith(secondSource));
+        assertEquals(List.of(path(secondSource) + "nodes-Person-00000.csv.gz"),
+                objects.keySet().stream().filter(key -> key.startsWith(path(secondSource))).toList(),
+                "The second job's source holds only the second run's files");
+    }
+
+    private NeptuneBulkLoader loader() {
+        URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        NeptuneBulkLoader.Settings settings = new NeptuneBulkLoader.Settings("staging", "/load/", "us-east-1",
+                "arn:aws:iam::123456789012:role/NeptuneLoadFromS3", endpoint.toString(), "HIGH", false, 2,
+                Duration.ofMillis(10), Duration.ofMinutes(1));
+        NeptunedataClient neptune = NeptunedataClient.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(endpoint)
+                .credentialsProvider(AnonymousCredentialsProvider.create())
+                .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(DataApiHttpTransport.Settings.defaults()))
+                .build();
+        S3Client s3 = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(endpoint)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .httpClientBuilder(DataApiHttpTransport.httpClientBuilder(DataApiHttpTransport.Settings.defaults()))
+                .build();
+        return new NeptuneBulkLoader(neptune, s3, settings);
+    }
+
+    /**
+     * The path a loader source directory is stored under by the stand-in S3
+     */
+    private static String path(String source) {
+        return "/" + source.substring("s3://".length());
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    /**
+     * Strip the signed chunk framing the SDK uses for uploads over plain HTTP
+     */
+    private static byte[] decodeChunked(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+        int position = 0;
+        while (true) {
+            int lineEnd = position;
+            while (body[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                return out.toByteArray();
+            }
+            out.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+    }
+
+    private static String md5(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for NeptuneConfig property and environment loading
+ */
+@DisplayName("Neptune Config Tests")
+class NeptuneConfigTest {
+
+    @Test
+    @DisplayName("Should keep driver defaults when no pool settings are given")
+    void shouldKeepDriverDefaults() {
+        BoltPoolConfig pool = NeptuneConfig.fromProperties(new Properties(), Map.of()).getBoltPoolConfig();
+
+        assertNull(pool.getMaxPoolSize());
+        assertNull(pool.getAcquisitionTimeoutMs());
+        assertNull(pool.getFetchSize());
+        assertTrue(pool.isMetricsEnabled());
+    }
+
+    @Test
+    @DisplayName("Should read pool settings from properties, with environment taking precedence")
+    void shouldReadPoolSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("neptune.bolt.max.pool.size", "20");
+        properties.setProperty("neptune.bolt.acquisition.timeout.ms", "5000");
+        properties.setProperty("neptune.bolt.fetch.size", "500");
+
+        BoltPoolConfig pool = NeptuneConfig.fromProperties(properties,
+                Map.of("NEPTUNE_BOLT_MAX_POOL_SIZE", "64", "NEPTUNE_BOLT_POOL_METRICS", "false"))
+                .getBoltPoolConfig();
+
+        assertEquals(64, pool.getMaxPoolSize());
+        assertEquals(5000L, pool.getAcquisitionTimeoutMs());
+        assertEquals(500L, pool.getFetchSize());
+        assertFalse(pool.isMetricsEnabled());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid pool settings")
+    void shouldRejectInvalidPoolSettings() {
+        assertThrows(IllegalArgumentException.class, () -> NeptuneConfig.fromProperties(new Properties(),
+                Map.of("NEPTUNE_BOLT_MAX_POOL_SIZE", "0")));
+        assertThrows(IllegalArgumentException.class, () -> NeptuneConfig.fromProperties(new Properties(),
+                Map.of("NEPTUNE_BOLT_ACQUISITION_TIMEOUT_MS", "soon")));
+        assertThrows(IllegalArgumentException.class, () -> NeptuneConfig.fromProperties(new Properties(),
+                Map.of("NEPTUNE_BOLT_FETCH_SIZE", "0")));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.neptunedata.NeptunedataAsyncClient;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryResponse;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-flight limit and request queue of the async Data API client
+ */
+@DisplayName("Neptune Data API Async Client Tests")
+class NeptuneDataApiAsyncClientTest {
+
+    /**
+     * A client whose {@code executeOpenCypherQuery} calls {@code execute}; its other methods do nothing
+     */
+    private static NeptunedataAsyncClient stub(Supplier<CompletableFuture<ExecuteOpenCypherQueryResponse>> execute) {
+        return (NeptunedataAsyncClient) Proxy.newProxyInstance(NeptunedataAsyncClient.class.getClassLoader(),
+                new Class<?>[]{NeptunedataAsyncClient.class}, (proxy, method, args) ->
+                        method.getName().equals("executeOpenCypherQuery") ? execute.get() : null);
+    }
+
+    @Test
+    @DisplayName("Should keep at most maxInFlight requests in flight and queue the rest")
+    void shouldLimitRequestsInFlight() {
+        Queue<CompletableFuture<ExecuteOpenCypherQueryResponse>> sent = new ConcurrentLinkedQueue<>();
+        try (NeptuneDataApiAsyncClient client = new NeptuneDataApiAsyncClient(stub(() -> {
+            CompletableFuture<ExecuteOpenCypherQueryResponse> response = new CompletableFuture<>();
+            sent.add(response);
+            return response;
+        }), null, 2, new QueryTemplateCache())) {
+            List<CompletableFuture<ExecuteOpenCypherQueryResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(client.executeQuery("RETURN " + i));
+            }
+            assertEquals(2, sent.size());
+            assertEquals(2, client.getInFlight());
+            assertEquals(3, client.getQueued());
+
+            ExecuteOpenCypherQueryResponse response = ExecuteOpenCypherQueryResponse.builder().build();
+            sent.poll().complete(response);
+            assertSame(response, results.get(0).join());
+            assertEquals(2, client.getInFlight(), "A completed request frees its slot for a queued one");
+            assertEquals(2, client.getQueued());
+
+            while (!sent.isEmpty()) {
+                sent.poll().complete(response);
+            }
+            assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+            assertEquals(0, client.getInFlight());
+            assertEquals(0, client.getQueued());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drain a long queue of requests that fail synchronously")
+    void shouldDrainSynchronousFailures() {
+        CompletableFuture<ExecuteOpenCypherQueryResponse> first = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        int queued = 50_000;
+        try (NeptuneDataApiAsyncClient client = new NeptuneDataApiAsyncClient(stub(() -> {
+            if (calls.getAndIncrement() == 0) {
+                return first;
+            }
+            throw new IllegalStateException("no connection");
+        }), null, 1, new QueryTemplateCache())) {
+            CompletableFuture<ExecuteOpenCypherQueryResponse> holding = client.executeQuery("RETURN 0");
+            List<CompletableFuture<ExecuteOpenCypherQueryResponse>> results = new ArrayList<>();
+            for (int i = 0; i < queued; i++) {
+                results.add(client.executeQuery("RETURN $i"));
+            }
+            assertEquals(queued, client.getQueued());
+
+            // Each queued request fails as soon as it is started, which frees the slot for the next
+            first.complete(ExecuteOpenCypherQueryResponse.builder().build());
+
+            assertTrue(holding.isDone());
+            assertEquals(queued + 1, calls.get());
+            for (CompletableFuture<ExecuteOpenCypherQueryResponse> result : results) {
+                CompletionException error = assertThrows(CompletionException.class, result::join);
+                assertEquals("no connection", error.getCause().getMessage());
+            }
+            assertEquals(0, client.getInFlight());
+            assertEquals(0, client.getQueued());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.neptune;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading, partitioning and checkpointing Neptune Streams changes
+ */
+@DisplayName("Neptune Stream Consumer Tests")
+class NeptuneStreamConsumerTest {
+    private static final int RECORDS = 30;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:10Z"));
+
+    /**
+     * A change log of property updates spread over five vertices, one commit per change
+     */
+    private static List<NeptuneStreamConsumer.ChangeRecord> changeLog() {
+        List<NeptuneStreamConsumer.ChangeRecord> log = new ArrayList<>();
+        for (int i = 1; i <= RECORDS; i++) {
+            log.add(new NeptuneStreamConsumer.ChangeRecord(i, 1, Instant.parse("2024-01-01T00:00:00Z").toEpochMilli() + i,
+                    "ADD", "vp", "v" + (i % 5), "version", (long) i, "Int", null, null, true));
+        }
+        return log;
+    }
+
+    private static NeptuneStreamConsumer.ChangeSource source(List<NeptuneStreamConsumer.ChangeRecord> log) {
+        return (after, latest, limit) -> {
+            List<NeptuneStreamConsumer.ChangeRecord> page = log.stream()
+                    .filter(change -> after == null || change.position().compareTo(after) > 0)
+                    .limit(limit)
+                    .toList();
+            return new NeptuneStreamConsumer.Page(page,
+                    page.isEmpty() ? after : page.get(page.size() - 1).position(), 0);
+        };
+    }
+
+    private NeptuneStreamConsumer consumer(Path checkpoint, NeptuneStreamConsumer.Handler handler) throws Exception {
+        NeptuneStreamConsumer.Settings settings = new NeptuneStreamConsumer.Settings(4, 3, 2, Duration.ofMillis(20),
+                checkpoint, false, "http");
+        return new NeptuneStreamConsumer(source(changeLog()), handler, settings, clock, List.of());
+    }
+
+    /**
+     * Run the consumer until the handler has seen {@code expected} records, then stop it
+     */
+    private static void runUntil(NeptuneStreamConsumer consumer, List<?> handled, int expected) throws Exception {
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() -> {
+            try {
+                consumer.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handled.size() < expected && !run.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        consumer.close();
+        run.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should decode a gzipped stream page read over HTTP")
+    void shouldDecodeHttpPages() throws Exception {
+        AtomicReference<String> request = new AtomicReference<>();
+        AtomicReference<String> encoding = new AtomicReference<>();
+        String page = "{\"lastEventId\":{\"commitNum\":12,\"opNum\":3},\"lastTrxTimestamp\":1704067200123,"
+                + "\"format\":\"PG_JSON\",\"records\":["
+                + "{\"eventId\":{\"commitNum\":12,\"opNum\":1},\"commitTimestamp\":1704067200123,"
+                + "\"data\":{\"id\":\"alice\",\"type\":\"vl\",\"key\":\"label\","
+                + "\"value\":{\"value\":\"Person\",\"dataType\":\"String\"}},\"op\":\"ADD\"},"
+                + "{\"eventId\":{\"commitNum\":12,\"opNum\":2},\"commitTimestamp\":1704067200123,"
+                + "\"data\":{\"id\":\"alice\",\"type\":\"vp\",\"key\":\"score\","
+                + "\"value\":{\"value\":2.5,\"dataType\":\"Double\"}},\"op\":\"ADD\"},"
+                + "{\"eventId\":{\"commitNum\":12,\"opNum\":3},\"commitTimestamp\":1704067200123,"
+                + "\"data\":{\"id\":\"e1\",\"type\":\"e\",\"key\":\"KNOWS\",\"from\":\"alice\",\"to\":\"bob\","
+                + "\"value\":{\"value\":\"\",\"dataType\":\"String\"}},\"op\":\"REMOVE\",\"isLastOp\":true}"
+                + "],\"totalRecords\":3}";
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            request.set(exchange.getRequestURI().toString());
+            encoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write(page.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+        try (NeptuneHttpEndpoint endpoint = new NeptuneHttpEndpoint(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort()), "us-east-1", null)) {
+            NeptuneStreamConsumer.Page read = NeptuneStreamConsumer.http(endpoint)
+                    .read(new NeptuneStreamConsumer.Position(11, 7), false, 500);
+
+            assertEquals("/propertygraph/stream?limit=500&iteratorType=AFTER_SEQUENCE_NUMBER&commitNum=11&opNum=7",
+                    request.get());
+            assertEquals("gzip", encoding.get());
+            assertEquals(new NeptuneStreamConsumer.Position(12, 3), read.lastEventId());
+            assertEquals(1704067200123L, read.lastTrxTimestamp());
+            assertEquals(3, read.records().size());
+            assertEquals(new NeptuneStreamConsumer.ChangeRecord(12, 1, 1704067200123L, "ADD", "vl", "alice", "label",
+                    "Person", "String", null, null, false), read.records().get(0));
+            assertEquals(2.5, read.records().get(1).value());
+            NeptuneStreamConsumer.ChangeRecord edge = read.records().get(2);
+            assertEquals("REMOVE", edge.op());
+            assertEquals("alice", edge.from());
+            assertEquals("bob", edge.to());
+            assertTrue(edge.lastOp());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand over each entity's changes in commit order and checkpoint the position")
+    void shouldKeepPerEntityOrder(@TempDir Path dir) throws Exception {
+        Map<String, List<Long>> versions = new ConcurrentHashMap<>();
+        List<NeptuneStreamConsumer.ChangeRecord> handled = new CopyOnWriteArrayList<>();
+        NeptuneStreamConsumer consumer = consumer(dir.resolve("stream.checkpoint"), batch -> {
+            for (NeptuneStreamConsumer.ChangeRecord change : batch) {
+                versions.computeIfAbsent(change.id(), id -> new CopyOnWriteArrayList<>()).add((Long) change.value());
+            }
+            handled.addAll(batch);
+        });
+        runUntil(consumer, handled, RECORDS);
+
+        assertEquals(RECORDS, handled.size());
+        assertEquals(5, versions.size());
+        for (List<Long> entity : versions.values()) {
+            assertEquals(entity.stream().sorted().toList(), entity);
+        }
+        assertEquals(new NeptuneStreamConsumer.Position(RECORDS, 1), consumer.getCheckpoint());
+        NeptuneStreamConsumer.Stats stats = consumer.getStats();
+        assertEquals(8, stats.pages());
+        assertEquals(RECORDS, stats.records());
+        assertEquals(0, stats.skipped());
+        assertEquals(10_000 - RECORDS, stats.lagMillis());
+        assertTrue(Files.readString(dir.resolve("stream.checkpoint")).contains("\"commitNum\":30"));
+    }
+
+    @Test
+    @DisplayName("Should stop on a handler failure and resume without handing over a record twice")
+    void shouldResumeExactlyOnce(@TempDir Path dir) throws Exception {
+        Path checkpoint = dir.resolve("stream.checkpoint");
+        List<NeptuneStreamConsumer.ChangeRecord> handled = new CopyOnWriteArrayList<>();
+        NeptuneStreamConsumer failing = consumer(checkpoint, batch -> {
+            if (batch.stream().anyMatch(change -> change.commitNum() == 14)) {
+                throw new IllegalStateException("index unavailable");
+            }
+            handled.addAll(batch);
+        });
+        IllegalStateException failure = assertThrows(IllegalStateException.class, failing::run);
+        assertEquals("index unavailable", failure.getCause().getMessage());
+        failing.close();
+        assertTrue(handled.size() < RECORDS);
+        assertTrue(failing.getCheckpoint().compareTo(new NeptuneStreamConsumer.Position(14, 1)) < 0);
+
+        NeptuneStreamConsumer resumed = consumer(checkpoint, handled::addAll);
+        runUntil(resumed, handled, RECORDS);
+
+        Map<NeptuneStreamConsumer.Position, Integer> deliveries = new HashMap<>();
+        for (NeptuneStreamConsumer.ChangeRecord change : handled) {
+            deliveries.merge(change.position(), 1, Integer::sum);
+        }
+        assertEquals(RECORDS, deliveries.size());
+        assertTrue(deliveries.values().stream().allMatch(count -> count == 1), deliveries.toString());
+        assertEquals(new NeptuneStreamConsumer.Position(RECORDS, 1), resumed.getCheckpoint());
+    }
+
+    @Test
+    @DisplayName("Should read settings and reject invalid ones")
+    void shouldReadSettings() {
+        NeptuneConfig config = new NeptuneConfig("localhost", "8182", "us-east-1", false, null, null, null);
+        NeptuneStreamConsumer.Settings settings = NeptuneStreamConsumer.Settings.fromConfig(config);
+
+        assertEquals(10_000, settings.pageSize());
+        assertEquals(4, settings.workers());
+        assertEquals(Path.of("neptune-stream.checkpoint"), settings.checkpointFile());
+        assertFalse(settings.startAtLatest());
+        assertEquals("http", settings.source());
+        assertThrows(IllegalArgumentException.class, () -> new NeptuneStreamConsumer.Settings(100_001, 4, 2,
+                Duration.ofSeconds(1), Path.of("c"), false, "http"));
+        assertThrows(IllegalArgumentException.class, () -> new NeptuneStreamConsumer.Settings(100, 0, 2,
+                Duration.ofSeconds(1), Path.of("c"), false, "http"));
+        assertThrows(IllegalArgumentException.class, () -> new NeptuneStreamConsumer.Settings(100, 4, 2,
+                Duration.ofSeconds(1), Path.of("c"), false, "kinesis"));
+    }
+}
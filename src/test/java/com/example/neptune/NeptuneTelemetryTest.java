@@ -0,0 +1,128 @@
+package com.example.neptune;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for query metrics and spans
+ */
+@DisplayName("Neptune Telemetry Tests")
+class NeptuneTelemetryTest {
+    private static final String FIND_PERSON = "MATCH (p:Person {name: $name})\n  RETURN p.name";
+
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+    private MeterRegistry registry;
+    private OpenTelemetrySdk openTelemetry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(new CapturingExporter()))
+                        .build())
+                .build();
+        NeptuneTelemetry.install(registry, openTelemetry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        NeptuneTelemetry.stop();
+        openTelemetry.close();
+    }
+
+    @Test
+    @DisplayName("Should record latency, rows and errors per query template")
+    void shouldRecordQueryMetrics() {
+        String tag = NeptuneTelemetry.templateTag(FIND_PERSON);
+        assertEquals("MATCH (p:Person {name: $name}) RETURN p.name", tag);
+
+        for (int i = 0; i < 3; i++) {
+            NeptuneTelemetry.observeQuery("test", FIND_PERSON, () -> List.of("a", "b"), List::size, rows -> 64);
+        }
+        IllegalStateException failure = new IllegalStateException("boom");
+        assertThrows(IllegalStateException.class, () -> NeptuneTelemetry.observeQuery("test", FIND_PERSON,
+                () -> {
+                    throw failure;
+                }, null, null));
+
+        Timer success = registry.get(NeptuneTelemetry.QUERY_DURATION)
+                .tags("transport", "test", "template", tag, "outcome", "success").timer();
+        assertEquals(3, success.count());
+        assertTrue(success.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(6, registry.get(NeptuneTelemetry.QUERY_ROWS).tags("template", tag).summary().totalAmount());
+        assertEquals(192, registry.get(NeptuneTelemetry.QUERY_RESULT_BYTES).tags("template", tag).summary().totalAmount());
+        assertEquals(1, registry.get(NeptuneTelemetry.QUERY_ERRORS)
+                .tags("template", tag, "exception", "IllegalStateException", "retryable", "false").counter().count());
+
+        assertEquals(4, spans.size());
+        SpanData span = spans.get(0);
+        assertEquals(FIND_PERSON, span.getAttributes().get(AttributeKey.stringKey("db.statement")));
+        assertEquals(2L, span.getAttributes().get(AttributeKey.longKey("neptune.rows")));
+        assertEquals(StatusCode.ERROR, spans.get(3).getStatus().getStatusCode());
+        assertEquals(1, spans.get(3).getEvents().size(), "The exception should be recorded on the span");
+    }
+
+    @Test
+    @DisplayName("Should stop adding template meters beyond the configured limit")
+    void shouldCapTemplateCardinality() {
+        for (int i = 0; i < 5; i++) {
+            NeptuneTelemetry.observeQuery("test", "RETURN " + i, () -> 1, null, null);
+        }
+
+        assertEquals(2, registry.find(NeptuneTelemetry.QUERY_DURATION).timers().size());
+        assertEquals(5, spans.size(), "Spans are not subject to the meter limit");
+    }
+
+    @Test
+    @DisplayName("Should publish requests in flight per endpoint")
+    void shouldBindRouter() {
+        EndpointRouter<String> router = new EndpointRouter<>("telemetry-writer", "w", List.of(), List.of(), null);
+        NeptuneTelemetry.bindRouter("test", router);
+
+        try (EndpointRouter.Lease<String> ignored = router.acquireWriter()) {
+            assertEquals(1, registry.get("neptune.endpoint.in.flight").tags("endpoint", "telemetry-writer").gauge().value());
+        }
+        assertEquals(0, registry.get("neptune.endpoint.in.flight").tags("endpoint", "telemetry-writer").gauge().value());
+        assertEquals(1, registry.get("neptune.endpoint.requests").tags("endpoint", "telemetry-writer")
+                .functionCounter().count());
+    }
+
+    private final class CapturingExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.neptune;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming openCypher result decoding
+ */
+@DisplayName("OpenCypher Result Reader Tests")
+class OpenCypherResultReaderTest {
+
+    private static final String RESPONSE = """
+            {"results": [
+              {"name": "Alice", "age": 30, "score": 4.5, "active": true, "node": {"~id": "p1", "~labels": ["Person"]}},
+              {"name": "Bob", "age": null, "score": 3, "active": false},
+              {"age": 99999999999, "name": "Carol"}
+            ], "meta": {"ignored": true}}
+            """;
+
+    record Person(String name, int age) {
+    }
+
+    @Test
+    @DisplayName("Should map rows incrementally into records")
+    void shouldMapRows() throws IOException {
+        List<Person> people = new ArrayList<>();
+        try (OpenCypherResultReader reader = new OpenCypherResultReader(new StringReader(RESPONSE))) {
+            long count = reader.forEach(row -> new Person(row.getString("name", "Unknown"),
+                    (int) Math.min(row.getLong("age", 0), Integer.MAX_VALUE)), people::add);
+            assertEquals(3, count);
+        }
+
+        assertEquals(List.of(new Person("Alice", 30), new Person("Bob", 0), new Person("Carol", Integer.MAX_VALUE)),
+                people);
+    }
+
+    @Test
+    @DisplayName("Should expose typed scalar and nested values")
+    void shouldExposeTypedValues() throws IOException {
+        try (OpenCypherResultReader reader = new OpenCypherResultReader(new StringReader(RESPONSE))) {
+            OpenCypherResultReader.Row row = reader.next();
+            assertEquals(4.5, row.getDouble("score", 0));
+            assertTrue(row.getBoolean("active", false));
+            assertEquals("p1", row.getJson("node").getAsJsonObject().get("~id").getAsString());
+            assertThrows(IllegalStateException.class, () -> row.getLong("name", 0));
+
+            OpenCypherResultReader.Row second = reader.next();
+            assertTrue(second.isNull("age"));
+            assertEquals(3.0, second.getDouble("score", 0));
+
+            assertNotNull(reader.next());
+            assertNull(reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Should collect declared columns into primitive arrays")
+    void shouldReadColumns() throws IOException {
+        ColumnarResult result;
+        try (OpenCypherResultReader reader = new OpenCypherResultReader(new StringReader(RESPONSE))) {
+            result = reader.readColumns(ColumnarResult.builder().stringColumn("name").longColumn("age"));
+        }
+
+        assertEquals(3, result.getRowCount());
+        assertArrayEquals(new String[]{"Alice", "Bob", "Carol"}, result.getStrings("name"));
+        assertArrayEquals(new long[]{30, 0, 99999999999L}, result.getLongs("age"));
+        assertTrue(result.isNull("age", 1));
+        assertThrows(IllegalArgumentException.class, () -> result.getDoubles("name"));
+    }
+
+    @Test
+    @DisplayName("Should send parameterized queries and surface Neptune errors")
+    void shouldQueryOverHttp() throws IOException {
+        AtomicReference<String> requestBody = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/openCypher", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody.set(URLDecoder.decode(new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                        StandardCharsets.UTF_8));
+            }
+            boolean fail = requestBody.get().contains("FAIL");
+            byte[] response = (fail
+                    ? "{\"code\":\"ConcurrentModificationException\",\"detailedMessage\":\"conflict\"}"
+                    : RESPONSE).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(fail ? 500 : 200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        try (NeptuneOpenCypherHttpClient client = new NeptuneOpenCypherHttpClient(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort()), "us-east-1", null,
+                new QueryTemplateCache())) {
+            List<String> names = client.queryList("MATCH (p:Person) WHERE p.age > $age RETURN p.name as name",
+                    Map.of("age", 20), row -> row.getString("name", null));
+
+            assertEquals(List.of("Alice", "Bob", "Carol"), names);
+            assertTrue(requestBody.get().contains("parameters={\"age\":20}"), requestBody.get());
+
+            NeptuneHttpException error = assertThrows(NeptuneHttpException.class,
+                    () -> client.queryList("RETURN 'FAIL'", Map.of(), row -> row));
+            assertEquals(500, error.getStatusCode());
+            assertEquals("ConcurrentModificationException", error.getErrorCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the client-side query result cache
+ */
+@DisplayName("Query Result Cache Tests")
+class QueryResultCacheTest {
+    private static final String FIND_PERSON = "MATCH (p:Person {name: $name}) RETURN p.name, p.age";
+    private static final String COUNT_ALL = "MATCH (n) RETURN count(n) as count";
+
+    private MutableClock clock;
+    private QueryTemplateCache templates;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        templates = new QueryTemplateCache();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from the cache until the TTL passes")
+    void shouldReadThroughWithTtl() {
+        QueryResultCache<String> cache = newCache(100, 1_000_000, Duration.ofSeconds(30));
+
+        assertEquals("result-1", get(cache, FIND_PERSON, Map.of("name", "Alice")));
+        assertEquals("result-1", get(cache, FIND_PERSON, Map.of("name", "Alice")));
+        assertEquals("result-2", get(cache, FIND_PERSON, Map.of("name", "Bob")));
+
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals("result-3", get(cache, FIND_PERSON, Map.of("name", "Alice")));
+
+        QueryResultCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.expirations());
+        assertEquals(2, stats.size());
+        assertEquals(0.25, stats.hitRate());
+    }
+
+    @Test
+    @DisplayName("Should invalidate entries for the labels a write names")
+    void shouldInvalidateByLabel() {
+        QueryResultCache<String> cache = newCache(100, 1_000_000, Duration.ofMinutes(5));
+        String findCompany = "MATCH (c:Company) RETURN c.name";
+        get(cache, FIND_PERSON, Map.of("name", "Alice"));
+        get(cache, findCompany, Map.of());
+        get(cache, COUNT_ALL, Map.of());
+
+        cache.invalidate(templates.intern("CREATE (c:Company {name: $name})"));
+
+        assertEquals(1, cache.getStats().size(), "Company and any-label entries should be gone");
+        assertEquals(2, cache.getStats().invalidations());
+        assertEquals("result-1", get(cache, FIND_PERSON, Map.of("name", "Alice")));
+
+        cache.invalidate(templates.intern("MATCH (n) DETACH DELETE n"));
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    @DisplayName("Should not cache a result loaded while a write invalidated the cache")
+    void shouldDropResultLoadedDuringWrite() {
+        QueryResultCache<String> cache = newCache(100, 1_000_000, Duration.ofMinutes(5));
+        QueryTemplate write = templates.intern("MATCH (p:Person {name: $name}) SET p.age = $age");
+
+        String loaded = cache.get(templates.intern(FIND_PERSON), Map.of("name", "Alice"), () -> {
+            cache.invalidate(write);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    @DisplayName("Should stay within the entry and byte bounds")
+    void shouldRespectBounds() {
+        QueryResultCache<String> byEntries = newCache(50, 1_000_000, Duration.ofMinutes(5));
+        QueryResultCache<String> byBytes = newCache(1_000, 10_000, Duration.ofMinutes(5));
+        for (int i = 0; i < 500; i++) {
+            get(byEntries, FIND_PERSON, Map.of("name", "person-" + i));
+            get(byBytes, FIND_PERSON, Map.of("name", "person-" + i));
+        }
+
+        assertEquals(50, byEntries.getStats().size());
+        assertEquals(450, byEntries.getStats().evictions());
+        assertTrue(byBytes.getStats().bytes() <= 10_000);
+        assertTrue(byBytes.getStats().size() < 500);
+    }
+
+    @Test
+    @DisplayName("Should keep frequently used entries through a scan of one-off queries")
+    void shouldResistScans() {
+        QueryResultCache<String> cache = newCache(100, 10_000_000, Duration.ofMinutes(5));
+        for (int round = 0; round < 20; round++) {
+            for (int hot = 0; hot < 10; hot++) {
+                get(cache, FIND_PERSON, Map.of("name", "hot-" + hot));
+            }
+        }
+        for (int i = 0; i < 1_000; i++) {
+            get(cache, FIND_PERSON, Map.of("name", "scan-" + i));
+        }
+
+        long hitsBefore = cache.getStats().hits();
+        for (int hot = 0; hot < 10; hot++) {
+            get(cache, FIND_PERSON, Map.of("name", "hot-" + hot));
+        }
+        assertEquals(10, cache.getStats().hits() - hitsBefore, "Hot entries should survive the scan");
+    }
+
+    @Test
+    @DisplayName("Should extract the labels a query template names")
+    void shouldExtractLabels() {
+        QueryTemplate create = templates.intern(
+                "MATCH (a:Person {name: $from}), (c:`Company`) CREATE (a)-[:WORKS_FOR]->(c)");
+        assertEquals(Set.of("Person", "Company", "WORKS_FOR"), create.getLabels());
+        assertFalse(create.touchesAnyLabel());
+
+        assertTrue(templates.intern(COUNT_ALL).touchesAnyLabel());
+        assertTrue(templates.intern("MATCH (c:Company)<-[:WORKS_FOR]-(p) SET p.updated = true").touchesAnyLabel());
+    }
+
+    private QueryResultCache<String> newCache(int maxEntries, long maxBytes, Duration ttl) {
+        return new QueryResultCache<>(maxEntries, maxBytes, ttl, value -> 2L * value.length(), clock);
+    }
+
+    private String get(QueryResultCache<String> cache, String template, Map<String, Object> parameters) {
+        return cache.get(templates.intern(template), parameters, () -> "result-" + loads.incrementAndGet());
+    }
+}
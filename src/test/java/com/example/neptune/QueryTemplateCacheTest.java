@@ -0,0 +1,70 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Query;
+import software.amazon.awssdk.services.neptunedata.model.ExecuteOpenCypherQueryRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for query template interning and binding
+ */
+@DisplayName("Query Template Cache Tests")
+class QueryTemplateCacheTest {
+
+    private static final String FIND_PERSON = "MATCH (p:Person {name: $name}) RETURN p.age as age";
+
+    @Test
+    @DisplayName("Should return the same template for the same text")
+    void shouldInternTemplates() {
+        QueryTemplateCache cache = new QueryTemplateCache(4);
+
+        QueryTemplate first = cache.intern(FIND_PERSON);
+        QueryTemplate second = cache.intern(new String(FIND_PERSON));
+
+        assertSame(first, second);
+        assertEquals(new QueryTemplateCache.Stats(1, 1, 0, 1), cache.getStats());
+        assertEquals(0.5, cache.getStats().hitRate());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used template")
+    void shouldEvictLeastRecentlyUsed() {
+        QueryTemplateCache cache = new QueryTemplateCache(2);
+
+        QueryTemplate a = cache.intern("RETURN 1");
+        cache.intern("RETURN 2");
+        cache.intern("RETURN 1");
+        cache.intern("RETURN 3");
+
+        assertSame(a, cache.intern("RETURN 1"));
+        assertEquals(1, cache.getStats().evictions());
+        assertEquals(2, cache.getStats().size());
+    }
+
+    @Test
+    @DisplayName("Should bind parameters for Bolt and the Data API")
+    void shouldBindParameters() {
+        QueryTemplate template = new QueryTemplateCache().intern(FIND_PERSON);
+
+        Query query = template.bind(Map.of("name", "Alice"));
+        ExecuteOpenCypherQueryRequest request = template.toRequest(Map.of("name", "Alice"));
+        ExecuteOpenCypherQueryRequest noParameters = template.toRequest(Map.of());
+
+        assertEquals(FIND_PERSON, query.text());
+        assertEquals("Alice", query.parameters().get("name").asString());
+        assertEquals(FIND_PERSON, request.openCypherQuery());
+        assertEquals("{\"name\":\"Alice\"}", request.parameters());
+        assertNull(noParameters.parameters());
+        assertEquals(3, template.getUses());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive capacity")
+    void shouldRejectInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryTemplateCache(0));
+    }
+}
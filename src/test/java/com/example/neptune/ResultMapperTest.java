@@ -0,0 +1,92 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import software.amazon.awssdk.core.document.Document;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for binding Bolt records, Data API documents and streamed rows to Java types
+ */
+@DisplayName("Result Mapper Tests")
+class ResultMapperTest {
+
+    record Person(String name, int age, Double score, @ResultMapper.Column("active") boolean enabled) {
+    }
+
+    static class PersonBean {
+        private String name;
+        private long age;
+        private Boolean active;
+        private transient String ignored = "kept";
+    }
+
+    @Test
+    @DisplayName("Should map Bolt records, defaulting null and missing columns")
+    void shouldMapBoltRecords() {
+        ResultMapper<Person> mapper = ResultMapper.of(Person.class);
+
+        Person alice = mapper.fromRecord(new InternalRecord(List.of("name", "age", "score", "active"),
+                new Value[]{Values.value("Alice"), Values.value(30L), Values.value(4.5), Values.value(true)}));
+        assertEquals(new Person("Alice", 30, 4.5, true), alice);
+
+        Person bob = mapper.fromRecord(new InternalRecord(List.of("name", "age"),
+                new Value[]{Values.value("Bob"), Values.NULL}));
+        assertEquals(new Person("Bob", 0, null, false), bob);
+    }
+
+    @Test
+    @DisplayName("Should map Data API results, wrapped or not")
+    void shouldMapDocuments() {
+        Document rows = Document.fromList(List.of(
+                Document.fromMap(Map.of("name", Document.fromString("Alice"), "age", Document.fromNumber(30),
+                        "score", Document.fromNumber(4.5), "active", Document.fromBoolean(true))),
+                Document.fromMap(Map.of("name", Document.fromString("Bob"), "age", Document.fromNull()))));
+
+        List<Person> expected = List.of(new Person("Alice", 30, 4.5, true), new Person("Bob", 0, null, false));
+        assertEquals(expected, ResultMapper.of(Person.class).fromResults(rows));
+        assertEquals(expected, ResultMapper.of(Person.class).fromResults(Document.fromMap(Map.of("results", rows))));
+        assertEquals(List.of(), ResultMapper.of(Person.class).fromResults(null));
+    }
+
+    @Test
+    @DisplayName("Should map streamed rows into POJO fields")
+    void shouldMapStreamedRowsIntoPojos() throws IOException {
+        String response = """
+                {"results": [{"name": "Alice", "age": 30, "active": true}, {"name": "Bob", "age": null}]}
+                """;
+        List<PersonBean> people = new ArrayList<>();
+        try (OpenCypherResultReader reader = new OpenCypherResultReader(new StringReader(response))) {
+            reader.forEach(ResultMapper.of(PersonBean.class), people::add);
+        }
+
+        assertEquals(2, people.size());
+        assertEquals("Alice", people.get(0).name);
+        assertEquals(30L, people.get(0).age);
+        assertEquals(Boolean.TRUE, people.get(0).active);
+        assertEquals("kept", people.get(0).ignored);
+        assertEquals(0L, people.get(1).age);
+        assertNull(people.get(1).active);
+    }
+
+    @Test
+    @DisplayName("Should compile one mapper per type and reject unsupported types")
+    void shouldCacheAndValidate() {
+        assertSame(ResultMapper.of(Person.class), ResultMapper.of(Person.class));
+
+        record Unsupported(List<String> names) {
+        }
+        assertThrows(IllegalArgumentException.class, () -> ResultMapper.of(Unsupported.class));
+        assertThrows(IllegalArgumentException.class, () -> ResultMapper.of(Runnable.class));
+    }
+}
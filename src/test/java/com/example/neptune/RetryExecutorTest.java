@@ -0,0 +1,143 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.exceptions.AuthenticationException;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.SecurityRetryableException;
+import org.neo4j.driver.exceptions.TokenExpiredException;
+import org.neo4j.driver.exceptions.TransientException;
+import software.amazon.awssdk.services.neptunedata.model.ConcurrentModificationException;
+import software.amazon.awssdk.services.neptunedata.model.TimeLimitExceededException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for retrying transient errors with backoff under a retry budget
+ */
+@DisplayName("Retry Executor Tests")
+class RetryExecutorTest {
+    private MutableClock clock;
+    private List<Long> sleeps;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        sleeps = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Should retry transient errors with jittered exponential backoff")
+    void shouldRetryWithBackoff() {
+        RetryExecutor executor = newExecutor(5, new RetryBudget(0.1, 10, clock));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute("test", () -> {
+            if (attempts.incrementAndGet() < 4) {
+                throw ConcurrentModificationException.builder().message("ConcurrentModificationException").build();
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(4, attempts.get());
+        assertEquals(3, sleeps.size());
+        long[][] bounds = {{25, 50}, {50, 100}, {100, 200}};
+        for (int i = 0; i < sleeps.size(); i++) {
+            assertTrue(sleeps.get(i) >= bounds[i][0] && sleeps.get(i) <= bounds[i][1],
+                    "Retry " + i + " slept " + sleeps.get(i) + " ms");
+        }
+        assertEquals(new RetryExecutor.Stats(1, 3, 0, 0), executor.getStats());
+    }
+
+    @Test
+    @DisplayName("Should fail at once on errors that are not retryable")
+    void shouldNotRetryPermanentErrors() {
+        RetryExecutor executor = newExecutor(5, new RetryBudget(0.1, 10, clock));
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TimeLimitExceededException.class, () -> executor.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw TimeLimitExceededException.builder().message("TimeLimitExceededException").build();
+        }));
+
+        assertEquals(1, attempts.get());
+        assertTrue(sleeps.isEmpty());
+        assertEquals(new RetryExecutor.Stats(1, 0, 0, 1), executor.getStats());
+    }
+
+    @Test
+    @DisplayName("Should stop retrying when the retry budget is spent and refill it over time")
+    void shouldEnforceRetryBudget() {
+        RetryBudget budget = new RetryBudget(0.1, 1, clock);
+        RetryExecutor executor = newExecutor(3, budget);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(TransientException.class, () -> executor.execute("test", () -> {
+                attempts.incrementAndGet();
+                throw new TransientException("Neo.TransientError.General", "ConcurrentModificationException");
+            }));
+        }
+
+        RetryExecutor.Stats stats = executor.getStats();
+        assertEquals(20, stats.failures());
+        assertTrue(stats.retries() <= 12, "Budget of 10 plus 0.1 per call, got " + stats.retries());
+        assertTrue(stats.budgetExhausted() > 0);
+        assertEquals(20 + stats.retries(), attempts.get());
+
+        assertFalse(budget.tryAcquireRetry());
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(budget.tryAcquireRetry());
+    }
+
+    @Test
+    @DisplayName("Should retry once with a re-signed token when the driver reports an expired one")
+    void shouldRetryExpiredToken() {
+        RetryExecutor executor = newExecutor(5, new RetryBudget(0.1, 10, clock));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute("test", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                // What the driver throws when NeptuneAuthTokenManager accepts the rejection
+                throw new SecurityRetryableException(
+                        new TokenExpiredException("Neo.ClientError.Security.TokenExpired", "expired"));
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, sleeps.size());
+        assertFalse(NeptuneErrors.isOverload(new SecurityRetryableException(
+                new TokenExpiredException("Neo.ClientError.Security.TokenExpired", "expired"))));
+        assertFalse(NeptuneErrors.isRetryable(
+                new AuthenticationException("Neo.ClientError.Security.Unauthorized", "bad credentials")));
+    }
+
+    @Test
+    @DisplayName("Should classify Neptune errors reported over Bolt and the Data API")
+    void shouldClassifyErrors() {
+        assertTrue(NeptuneErrors.isRetryable(new TransientException("Neo.TransientError.General", "busy")));
+        assertTrue(NeptuneErrors.isRetryable(new ClientException("Neo.ClientError.General",
+                "Operation failed due to conflicting concurrent operations (ConcurrentModificationException)")));
+        assertTrue(NeptuneErrors.isRetryable(new NeptuneHttpException(500, "ReadOnlyViolationException", "failover")));
+        assertTrue(NeptuneErrors.isRetryable(ConcurrentModificationException.builder().build()));
+
+        assertFalse(NeptuneErrors.isRetryable(new ClientException("Neo.ClientError.Statement.SyntaxError", "bad query")));
+        assertFalse(NeptuneErrors.isRetryable(TimeLimitExceededException.builder().build()));
+        assertFalse(NeptuneErrors.isRetryable(new IllegalStateException("bug")));
+    }
+
+    private RetryExecutor newExecutor(int maxRetries, RetryBudget budget) {
+        return new RetryExecutor(maxRetries, Duration.ofMillis(50), Duration.ofSeconds(2), budget,
+                NeptuneErrors::isRetryable, sleeps::add);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.neptune;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for slow query detection, explain rate limiting and the rolling log files
+ */
+@DisplayName("Slow Query Log Tests")
+class SlowQueryLogTest {
+    private static final Gson GSON = new Gson();
+    private static final long SLOW = Duration.ofMillis(250).toNanos();
+
+    private final List<String> explainModes = new CopyOnWriteArrayList<>();
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+
+    private SlowQueryLog log(Path dir, double explainsPerMinute, long maxFileBytes, int maxFiles) {
+        SlowQueryLog.Settings settings = new SlowQueryLog.Settings(Duration.ofMillis(100), explainsPerMinute,
+                "details", dir, maxFileBytes, maxFiles);
+        return new SlowQueryLog("bolt", (template, parameters, mode) -> {
+            explainModes.add(mode);
+            if (template.contains("BROKEN")) {
+                throw new IllegalStateException("explain failed");
+            }
+            return "plan for " + template + " with " + parameters;
+        }, settings, clock, List.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> entries(Path file) throws IOException {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            entries.add(GSON.fromJson(line, Map.class));
+        }
+        return entries;
+    }
+
+    @Test
+    @DisplayName("Should log only slow queries, with their plan, parameters and timings")
+    void shouldLogSlowQueriesWithPlans(@TempDir Path dir) throws Exception {
+        SlowQueryLog log = log(dir, 10, 1 << 20, 3);
+        log.record("MATCH (p:Person {name: $name}) RETURN p", Map.of("name", "Alice"), SLOW, 1, null);
+        log.record("MATCH (p:Person) RETURN p", Map.of(), Duration.ofMillis(10).toNanos(), 5, null);
+        assertEquals("fast", log.time("RETURN 1", Map.of(), () -> "fast", null));
+        log.record("MERGE (p:Person {name: $name})", Map.of("name", "Bob"), SLOW, -1,
+                new IllegalStateException("timed out"));
+        log.close();
+
+        List<Map<String, Object>> entries = entries(dir.resolve(SlowQueryLog.FILE_NAME));
+        assertEquals(2, entries.size());
+        Map<String, Object> read = entries.get(0);
+        assertEquals("2024-01-01T00:00:00Z", read.get("timestamp"));
+        assertEquals("bolt", read.get("transport"));
+        assertEquals(Map.of("name", "Alice"), read.get("parameters"));
+        assertEquals(250.0, read.get("elapsedMs"));
+        assertEquals(1.0, read.get("rows"));
+        assertEquals("details", read.get("explainMode"));
+        assertEquals("plan for MATCH (p:Person {name: $name}) RETURN p with {name=Alice}", read.get("explain"));
+        assertTrue(read.containsKey("explainMs"));
+
+        Map<String, Object> write = entries.get(1);
+        assertEquals("IllegalStateException: timed out", write.get("error"));
+        assertFalse(write.containsKey("rows"));
+        // Explaining a write in details mode would run it again
+        assertEquals("static", write.get("explainMode"));
+        assertEquals(List.of("details", "static"), explainModes);
+        assertEquals(new SlowQueryLog.Stats(2, 2, 0, 0, 0), log.getStats());
+    }
+
+    @Test
+    @DisplayName("Should rate-limit explains and record failed ones")
+    void shouldRateLimitExplains(@TempDir Path dir) throws Exception {
+        SlowQueryLog log = log(dir, 1, 1 << 20, 3);
+        log.record("MATCH (n) RETURN n", Map.of(), SLOW, 0, null);
+        log.record("MATCH (n) RETURN n", Map.of(), SLOW, 0, null);
+        clock.advance(Duration.ofMinutes(1));
+        log.record("MATCH (n) RETURN n.BROKEN", Map.of(), SLOW, 0, null);
+        log.close();
+
+        List<Map<String, Object>> entries = entries(dir.resolve(SlowQueryLog.FILE_NAME));
+        assertEquals(3, entries.size());
+        assertTrue(entries.get(0).containsKey("explain"));
+        assertEquals("rate limited", entries.get(1).get("explainSkipped"));
+        assertEquals("IllegalStateException: explain failed", entries.get(2).get("explainError"));
+        assertEquals(new SlowQueryLog.Stats(3, 1, 1, 1, 0), log.getStats());
+    }
+
+    @Test
+    @DisplayName("Should roll the log file and keep only the configured number of files")
+    void shouldRollFiles(@TempDir Path dir) throws Exception {
+        SlowQueryLog log = log(dir, 0, 300, 3);
+        for (int i = 0; i < 10; i++) {
+            log.record("MATCH (p:Person {id: $id}) RETURN p", Map.of("id", i), SLOW, 1, null);
+        }
+        log.close();
+
+        assertTrue(Files.exists(dir.resolve(SlowQueryLog.FILE_NAME)));
+        assertTrue(Files.exists(log.rolledFile(1)));
+        assertTrue(Files.exists(log.rolledFile(2)));
+        assertFalse(Files.exists(log.rolledFile(3)));
+        for (Path file : List.of(dir.resolve(SlowQueryLog.FILE_NAME), log.rolledFile(1), log.rolledFile(2))) {
+            assertTrue(Files.size(file) <= 300, file + " is " + Files.size(file) + " bytes");
+        }
+        // The newest entry is in the current file, the oldest kept ones in the highest-numbered file
+        List<Map<String, Object>> current = entries(dir.resolve(SlowQueryLog.FILE_NAME));
+        assertEquals(Map.of("id", 9.0), current.get(current.size() - 1).get("parameters"));
+        assertTrue(explainModes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should be disabled by default and validate settings")
+    void shouldReadSettings() {
+        NeptuneConfig config = new NeptuneConfig("localhost", "8182", "us-east-1", false, null, null, null);
+        assertNull(SlowQueryLog.Settings.fromConfig(config));
+        assertNull(SlowQueryLog.fromConfig(config, "bolt", null));
+
+        assertThrows(IllegalArgumentException.class, () -> new SlowQueryLog.Settings(Duration.ofMillis(100), 1,
+                "verbose", Path.of("slow-queries"), 1024, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SlowQueryLog.Settings(Duration.ZERO, 1,
+                "static", Path.of("slow-queries"), 1024, 1));
+        assertEquals("details", new SlowQueryLog.Settings(Duration.ofMillis(100), 1, "DETAILS",
+                Path.of("slow-queries"), 1024, 1).explainMode());
+        assertTrue(SlowQueryLog.isWrite("MATCH (n) DETACH DELETE n"));
+        assertFalse(SlowQueryLog.isWrite("MATCH (n) RETURN n.offset SKIP 1"));
+    }
+}
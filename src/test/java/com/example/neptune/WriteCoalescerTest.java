@@ -0,0 +1,155 @@
+package com.example.neptune;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for coalescing single-entity writes into UNWIND statements
+ */
+@DisplayName("Write Coalescer Tests")
+class WriteCoalescerTest {
+
+    record Statement(String template, List<?> rows) {
+    }
+
+    private final List<Statement> statements = new CopyOnWriteArrayList<>();
+
+    private void record(String template, Map<String, Object> parameters) {
+        statements.add(new Statement(template, (List<?>) parameters.get("rows")));
+    }
+
+    @Test
+    @DisplayName("Should group writes by shape into one UNWIND per shape on flush")
+    void shouldGroupByShape() {
+        WriteCoalescer.Settings settings = new WriteCoalescer.Settings(100, Duration.ofMinutes(1), 1000,
+                WriteCoalescer.Ack.ACCEPTED);
+        try (WriteCoalescer coalescer = new WriteCoalescer(this::record, settings)) {
+            coalescer.submit("CREATE (p:Person {name: $name, age: $age})", Map.of("name", "Alice", "age", 30));
+            coalescer.upsertNode("Company", "c1", Map.of("name", "TechCorp"));
+            coalescer.submit("CREATE (p:Person {name: $name, age: $age})", Map.of("name", "Bob", "age", 25));
+            coalescer.upsertEdge("WORKS_FOR", "p1", "c1", Map.of());
+            assertTrue(statements.isEmpty(), "Nothing is written before a threshold or flush");
+
+            coalescer.flush().join();
+
+            assertEquals(3, statements.size());
+            assertEquals("UNWIND $rows AS row CREATE (p:Person {name: row.name, age: row.age})",
+                    statements.get(0).template());
+            assertEquals(List.of(Map.of("name", "Alice", "age", 30), Map.of("name", "Bob", "age", 25)),
+                    statements.get(0).rows());
+            assertEquals("UNWIND $rows AS row MERGE (n:`Company` {`~id`: row.id}) SET n += row.props",
+                    statements.get(1).template());
+            assertTrue(statements.get(2).template().contains("MERGE (a)-[r:`WORKS_FOR`]->(b)"));
+            assertEquals(new WriteCoalescer.Stats(4, 3, 4, 0), coalescer.getStats());
+        }
+    }
+
+    @Test
+    @DisplayName("Should flush a shape once it reaches the batch size, and the rest on a timer")
+    void shouldFlushOnSizeAndTime() throws Exception {
+        WriteCoalescer.Settings settings = new WriteCoalescer.Settings(3, Duration.ofMillis(50), 100,
+                WriteCoalescer.Ack.DURABLE);
+        try (WriteCoalescer coalescer = new WriteCoalescer(this::record, settings)) {
+            List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(coalescer.upsertNode("Person", "p" + i, Map.of("rank", i)));
+            }
+
+            futures.get(2).get(5, TimeUnit.SECONDS);
+            assertEquals(3, statements.get(0).rows().size());
+
+            futures.get(3).get(5, TimeUnit.SECONDS);
+            assertEquals(2, statements.size());
+            assertEquals(1, statements.get(1).rows().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write batches of one shape in submit order while the flusher is busy")
+    void shouldKeepOrderBehindBusyFlusher() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WriteCoalescer.Writer blocking = (template, parameters) -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            record(template, parameters);
+        };
+        WriteCoalescer.Settings settings = new WriteCoalescer.Settings(2, Duration.ofMillis(20), 100,
+                WriteCoalescer.Ack.ACCEPTED);
+        try (WriteCoalescer coalescer = new WriteCoalescer(blocking, settings)) {
+            // A full batch of another shape keeps the flusher busy past the first timed flush
+            coalescer.upsertNode("Company", "c1", Map.of());
+            coalescer.upsertNode("Company", "c2", Map.of());
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+
+            for (int version = 1; version <= 3; version++) {
+                coalescer.upsertNode("Person", "p1", Map.of("version", version));
+            }
+            release.countDown();
+            coalescer.flush().get(5, TimeUnit.SECONDS);
+        }
+
+        List<?> versions = statements.stream()
+                .filter(statement -> statement.template().contains("Person"))
+                .flatMap(statement -> statement.rows().stream())
+                .map(row -> ((Map<?, ?>) ((Map<?, ?>) row).get("props")).get("version"))
+                .toList();
+        assertEquals(List.of(1, 2, 3), versions);
+    }
+
+    @Test
+    @DisplayName("Should fail durable futures with the error of their statement")
+    void shouldPropagateFailures() {
+        WriteCoalescer.Settings durable = new WriteCoalescer.Settings(10, Duration.ofMinutes(1), 100,
+                WriteCoalescer.Ack.DURABLE);
+        WriteCoalescer.Writer failing = (template, parameters) -> {
+            throw new IllegalStateException("ConcurrentModificationException");
+        };
+        try (WriteCoalescer coalescer = new WriteCoalescer(failing, durable)) {
+            CompletableFuture<Void> future = coalescer.upsertNode("Person", "p1", Map.of());
+            assertThrows(CompletionException.class, () -> coalescer.flush().join());
+            CompletionException error = assertThrows(CompletionException.class, future::join);
+            assertEquals("ConcurrentModificationException", error.getCause().getMessage());
+            assertEquals(1, coalescer.getStats().failed());
+        }
+
+        WriteCoalescer.Settings accepted = new WriteCoalescer.Settings(10, Duration.ofMinutes(1), 100,
+                WriteCoalescer.Ack.ACCEPTED);
+        try (WriteCoalescer coalescer = new WriteCoalescer(failing, accepted)) {
+            assertTrue(coalescer.upsertNode("Person", "p1", Map.of()).isDone());
+            assertThrows(CompletionException.class, () -> coalescer.flush().join());
+            coalescer.flush().join();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject writes that return results or arrive after close")
+    void shouldRejectInvalidWrites() {
+        WriteCoalescer coalescer = new WriteCoalescer(this::record, new WriteCoalescer.Settings(10,
+                Duration.ofMinutes(1), 100, WriteCoalescer.Ack.ACCEPTED));
+        assertThrows(IllegalArgumentException.class,
+                () -> coalescer.submit("CREATE (p:Person {name: $name}) RETURN p", Map.of("name", "Alice")));
+        assertThrows(IllegalArgumentException.class, () -> coalescer.upsertNode("Bad`Label", "x", Map.of()));
+        coalescer.upsertNode("Person", "p1", Map.of());
+
+        coalescer.close();
+        assertEquals(1, statements.size(), "Close writes what is still buffered");
+        assertThrows(IllegalStateException.class, () -> coalescer.upsertNode("Person", "p2", Map.of()));
+    }
+}